@@ -25,7 +25,9 @@ import opennlp.model.AbstractModel;
 import opennlp.model.MaxentModel;
 import opennlp.model.TwoPassDataIndexer;
 import opennlp.tools.util.BeamSearch;
+import opennlp.tools.util.DecoderType;
 import opennlp.tools.util.Sequence;
+import opennlp.tools.util.ViterbiSearch;
 
 /**
  * The class represents a maximum-entropy-based chunker.  Such a chunker can be used to
@@ -65,8 +67,26 @@ public class ChunkerME implements Chunker {
    * @param beamSize
    */
   public ChunkerME(ChunkerModel model, int beamSize) {
+    this(model, beamSize, DecoderType.BEAM_SEARCH);
+  }
+
+  /**
+   * Initializes the current instance with the specified model,
+   * beam size and decoder.
+   *
+   * @param model
+   * @param beamSize
+   * @param decoder the decoder which is used to find the best sequence of chunk tags
+   */
+  public ChunkerME(ChunkerModel model, int beamSize, DecoderType decoder) {
     this.model = model.getChunkerModel();
-    beam = new ChunkBeamSearch(beamSize, new DefaultChunkerContextGenerator(), this.model);
+
+    if (decoder == DecoderType.VITERBI) {
+      beam = new ViterbiSearch<String>(beamSize, new DefaultChunkerContextGenerator(), this.model);
+    }
+    else {
+      beam = new ChunkBeamSearch(beamSize, new DefaultChunkerContextGenerator(), this.model);
+    }
   }
 
   /**
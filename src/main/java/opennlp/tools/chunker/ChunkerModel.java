@@ -18,6 +18,7 @@
 
 package opennlp.tools.chunker;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -54,6 +55,21 @@ public class ChunkerModel extends BaseModel {
     super(in);
   }
 
+  /**
+   * Initializes the current instance from a model file, which can be
+   * a zip package or a mapped package.
+   *
+   * @param modelFile
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   *
+   * @see #serializeMapped(java.io.OutputStream)
+   */
+  public ChunkerModel(File modelFile) throws IOException, InvalidFormatException {
+    super(modelFile);
+  }
+
   @Override
   protected void validateArtifactMap() throws InvalidFormatException {
     super.validateArtifactMap();
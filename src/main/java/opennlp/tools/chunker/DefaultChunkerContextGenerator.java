@@ -18,12 +18,20 @@
 
 package opennlp.tools.chunker;
 
+import opennlp.tools.util.CompiledContextGenerator;
+import opennlp.tools.util.PredicateBuffer;
+import opennlp.tools.util.SplitContextGenerator;
+
 /** Features based on chunking model described in Fei Sha and Fernando Pereira. Shallow
  *  parsing with conditional random fields. In Proceedings of HLT-NAACL 2003. Association
  *  for Computational Linguistics, 2003.
  * @author Tom Morton
   */
-public class DefaultChunkerContextGenerator implements ChunkerContextGenerator {
+public class DefaultChunkerContextGenerator implements ChunkerContextGenerator,
+    SplitContextGenerator<String>, CompiledContextGenerator<String> {
+
+  private static final String[] WORD_PREFIXES = {"w_2=", "w_1=", "w0=", "w1=", "w2="};
+  private static final String[] TAG_PREFIXES = {"t_2=", "t_1=", "t0=", "t1=", "t2="};
 
   /**
    * Creates the default context generator a chunker.
@@ -31,64 +39,53 @@ public class DefaultChunkerContextGenerator implements ChunkerContextGenerator {
   public DefaultChunkerContextGenerator() {
   }
 
+  /**
+   * The contexts contain the two previous predictions.
+   */
+  public int getHistoryOrder() {
+    return 2;
+  }
+
   public String[] getContext(int index, String[] sequence, String[] priorDecisions, Object[] additionalContext) {
     return getContext(index,sequence,(String[]) additionalContext[0],priorDecisions);
   }
 
   public String[] getContext(int i, String[] toks, String[] tags, String[] preds) {
-	// Words in a 5-word window
-    String w_2, w_1, w0, w1, w2;
+    String[] staticFeatures = getStaticContext(i, toks, tags);
+    String[] historyFeatures = getHistoryContext(i, toks, tags, preds);
 
-    // Tags in a 5-word window
-    String t_2, t_1, t0, t1, t2;
-
-    // Previous predictions
-    String p_2, p_1;
-
-    if (i < 2) {
-      w_2 = "w_2=bos";
-      t_2 = "t_2=bos";
-      p_2 = "p_2=bos";
-    }
-    else {
-      w_2 = "w_2=" + toks[i - 2];
-      t_2 = "t_2=" + tags[i - 2];
-      p_2 = "p_2" + preds[i - 2];
-    }
+    String[] features = new String[staticFeatures.length + historyFeatures.length];
+    System.arraycopy(staticFeatures, 0, features, 0, staticFeatures.length);
+    System.arraycopy(historyFeatures, 0, features, staticFeatures.length,
+        historyFeatures.length);
 
-    if (i < 1) {
-      w_1 = "w_1=bos";
-      t_1 = "t_1=bos";
-      p_1 = "p_1=bos";
-    }
-    else {
-      w_1 = "w_1=" + toks[i - 1];
-      t_1 = "t_1=" + tags[i - 1];
-      p_1 = "p_1=" + preds[i - 1];
-    }
+    return features;
+  }
 
-    w0 = "w0=" + toks[i];
-    t0 = "t0=" + tags[i];
+  public String[] getStaticContext(int index, String[] sequence, Object[] additionalContext) {
+    return getStaticContext(index, sequence, (String[]) additionalContext[0]);
+  }
 
-    if (i + 1 >= toks.length) {
-      w1 = "w1=eos";
-      t1 = "t1=eos";
-    }
-    else {
-      w1 = "w1=" + toks[i + 1];
-      t1 = "t1=" + tags[i + 1];
-    }
+  /**
+   * Returns the word and tag features of
+   * {@link #getContext(int, String[], String[], String[])}.
+   */
+  public String[] getStaticContext(int i, String[] toks, String[] tags) {
+    // Words in a 5-word window
+    String w_2 = feature(WORD_PREFIXES, toks, i, -2);
+    String w_1 = feature(WORD_PREFIXES, toks, i, -1);
+    String w0 = feature(WORD_PREFIXES, toks, i, 0);
+    String w1 = feature(WORD_PREFIXES, toks, i, 1);
+    String w2 = feature(WORD_PREFIXES, toks, i, 2);
 
-    if (i + 2 >= toks.length) {
-      w2 = "w2=eos";
-      t2 = "t2=eos";
-    }
-    else {
-      w2 = "w2=" + toks[i + 2];
-      t2 = "t2=" + tags[i + 2];
-    }
+    // Tags in a 5-word window
+    String t_2 = feature(TAG_PREFIXES, tags, i, -2);
+    String t_1 = feature(TAG_PREFIXES, tags, i, -1);
+    String t0 = feature(TAG_PREFIXES, tags, i, 0);
+    String t1 = feature(TAG_PREFIXES, tags, i, 1);
+    String t2 = feature(TAG_PREFIXES, tags, i, 2);
 
-    String[] features = new String[] {
+    return new String[] {
         //add word features
         w_2,
         w_1,
@@ -110,8 +107,50 @@ public class DefaultChunkerContextGenerator implements ChunkerContextGenerator {
         t1 + t2,
         t_2 + t_1 + t0,
         t_1 + t0 + t1,
-        t0 + t1 + t2,
+        t0 + t1 + t2
+    };
+  }
+
+  public String[] getHistoryContext(int index, String[] sequence, String[] priorDecisions,
+      Object[] additionalContext) {
+    return getHistoryContext(index, sequence, (String[]) additionalContext[0], priorDecisions);
+  }
+
+  /**
+   * Returns the previous prediction features of
+   * {@link #getContext(int, String[], String[], String[])}.
+   */
+  public String[] getHistoryContext(int i, String[] toks, String[] tags, String[] preds) {
+    // Previous predictions
+    String p_2, p_1;
+
+    if (i < 2) {
+      p_2 = "p_2=bos";
+    }
+    else {
+      p_2 = "p_2" + preds[i - 2];
+    }
+
+    if (i < 1) {
+      p_1 = "p_1=bos";
+    }
+    else {
+      p_1 = "p_1=" + preds[i - 1];
+    }
+
+    String w_2 = feature(WORD_PREFIXES, toks, i, -2);
+    String w_1 = feature(WORD_PREFIXES, toks, i, -1);
+    String w0 = feature(WORD_PREFIXES, toks, i, 0);
+    String w1 = feature(WORD_PREFIXES, toks, i, 1);
+    String w2 = feature(WORD_PREFIXES, toks, i, 2);
 
+    String t_2 = feature(TAG_PREFIXES, tags, i, -2);
+    String t_1 = feature(TAG_PREFIXES, tags, i, -1);
+    String t0 = feature(TAG_PREFIXES, tags, i, 0);
+    String t1 = feature(TAG_PREFIXES, tags, i, 1);
+    String t2 = feature(TAG_PREFIXES, tags, i, 2);
+
+    return new String[] {
         //add pred tags
         p_2,
         p_1,
@@ -140,7 +179,114 @@ public class DefaultChunkerContextGenerator implements ChunkerContextGenerator {
         p_1 + w_1 + w0,
         p_1 + w0 + w1
     };
+  }
 
-    return features;
+  /**
+   * Returns the word or tag feature at the specified offset.
+   */
+  private static String feature(String[] prefixes, String[] values, int i, int o) {
+    if (i + o < 0) {
+      return prefixes[o + 2] + "bos";
+    }
+    else if (i + o >= values.length) {
+      return prefixes[o + 2] + "eos";
+    }
+    else {
+      return prefixes[o + 2] + values[i + o];
+    }
+  }
+
+  public void getContext(int index, String[] sequence, String[] priorDecisions,
+      Object[] additionalContext, PredicateBuffer predicates) {
+    getContext(index, sequence, (String[]) additionalContext[0], priorDecisions, predicates);
+  }
+
+  /**
+   * Adds the same context as {@link #getContext(int, String[], String[], String[])}
+   * to the predicate buffer without creating the predicate strings.
+   */
+  public void getContext(int i, String[] toks, String[] tags, String[] preds,
+      PredicateBuffer predicates) {
+
+    //add word features
+    for (int o = -2; o <= 2; o++) {
+      window(predicates.start(), WORD_PREFIXES, toks, i, o, o).add();
+    }
+    window(predicates.start(), WORD_PREFIXES, toks, i, -1, 0).add();
+    window(predicates.start(), WORD_PREFIXES, toks, i, 0, 1).add();
+
+    //add tag features
+    for (int o = -2; o <= 2; o++) {
+      window(predicates.start(), TAG_PREFIXES, tags, i, o, o).add();
+    }
+    for (int o = -2; o <= 1; o++) {
+      window(predicates.start(), TAG_PREFIXES, tags, i, o, o + 1).add();
+    }
+    for (int o = -2; o <= 0; o++) {
+      window(predicates.start(), TAG_PREFIXES, tags, i, o, o + 2).add();
+    }
+
+    //add pred tags
+    pred(predicates.start(), preds, i, -2).add();
+    pred(predicates.start(), preds, i, -1).add();
+    pred(pred(predicates.start(), preds, i, -2), preds, i, -1).add();
+
+    //add pred and tag
+    pred(predicates.start(), preds, i, -1);
+    int p1Length = predicates.length();
+
+    for (int o = -2; o <= 2; o++) {
+      window(predicates.setLength(p1Length), TAG_PREFIXES, tags, i, o, o).add();
+    }
+    for (int o = -2; o <= 1; o++) {
+      window(predicates.setLength(p1Length), TAG_PREFIXES, tags, i, o, o + 1).add();
+    }
+    for (int o = -2; o <= 0; o++) {
+      window(predicates.setLength(p1Length), TAG_PREFIXES, tags, i, o, o + 2).add();
+    }
+
+    //add pred and word
+    for (int o = -2; o <= 2; o++) {
+      window(predicates.setLength(p1Length), WORD_PREFIXES, toks, i, o, o).add();
+    }
+    window(predicates.setLength(p1Length), WORD_PREFIXES, toks, i, -1, 0).add();
+    window(predicates.setLength(p1Length), WORD_PREFIXES, toks, i, 0, 1).add();
+  }
+
+  /**
+   * Appends the word or tag features of the specified window positions.
+   */
+  private static PredicateBuffer window(PredicateBuffer predicates, String[] prefixes,
+      String[] values, int i, int from, int to) {
+
+    for (int o = from; o <= to; o++) {
+      predicates.append(prefixes[o + 2]);
+
+      if (i + o < 0) {
+        predicates.append("bos");
+      }
+      else if (i + o >= values.length) {
+        predicates.append("eos");
+      }
+      else {
+        predicates.append(values[i + o]);
+      }
+    }
+
+    return predicates;
+  }
+
+  /**
+   * Appends the previous prediction feature at the specified offset.
+   */
+  private static PredicateBuffer pred(PredicateBuffer predicates, String[] preds,
+      int i, int o) {
+
+    if (i + o < 0) {
+      return predicates.append(o == -2 ? "p_2=bos" : "p_1=bos");
+    }
+    else {
+      return predicates.append(o == -2 ? "p_2" : "p_1=").append(preds[i + o]);
+    }
   }
 }
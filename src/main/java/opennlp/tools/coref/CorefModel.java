@@ -25,11 +25,14 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.GZIPInputStream;
 
 import opennlp.maxent.io.BinaryGISModelReader;
 import opennlp.model.AbstractModel;
 import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.util.InvalidFormatException;
 import opennlp.tools.util.StringList;
 import opennlp.tools.util.model.BaseModel;
 
@@ -110,6 +113,58 @@ public class CorefModel extends BaseModel {
         createModel(project + File.separator + "tmodel.bin.gz"));
   }
 
+  public CorefModel(InputStream in) throws IOException, InvalidFormatException {
+    super(in);
+  }
+
+  /**
+   * Initializes the current instance. If the artifacts are loaded lazily,
+   * a resolver model or name dictionary is only created when it is
+   * used first or loaded with {@link #loadArtifacts(String...)}.
+   *
+   * @param in
+   * @param loadLazily
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public CorefModel(InputStream in, boolean loadLazily)
+      throws IOException, InvalidFormatException {
+    super(in, loadLazily);
+  }
+
+  /**
+   * Initializes the current instance, the resolver models and the name
+   * dictionaries are created concurrently on the executor.
+   *
+   * @param in
+   * @param executor
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public CorefModel(InputStream in, ExecutorService executor)
+      throws IOException, InvalidFormatException {
+    super(in, executor);
+  }
+
+  /**
+   * Initializes the current instance from a model file, which can be
+   * a zip package or a mapped package.
+   *
+   * @param modelFile
+   * @param loadLazily
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   *
+   * @see #CorefModel(InputStream, boolean)
+   */
+  public CorefModel(File modelFile, boolean loadLazily)
+      throws IOException, InvalidFormatException {
+    super(modelFile, loadLazily);
+  }
+
   private AbstractModel createModel(String fileName) throws IOException {
     return new BinaryGISModelReader(new DataInputStream(new GZIPInputStream(
         new FileInputStream(fileName)))).getModel();
@@ -23,12 +23,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.NoSuchElementException;
 import java.util.StringTokenizer;
 
 import opennlp.tools.dictionary.serializer.Attributes;
+import opennlp.tools.dictionary.serializer.BinaryDictionarySerializer;
 import opennlp.tools.dictionary.serializer.DictionarySerializer;
 import opennlp.tools.dictionary.serializer.Entry;
 import opennlp.tools.dictionary.serializer.EntryInserter;
@@ -37,58 +37,60 @@ import opennlp.tools.util.StringList;
 
 /**
  * This class is a dictionary.
+ * <p>
+ * The entries are stored in a token trie, entries which start with the same
+ * tokens share the nodes of these tokens. The children of all nodes are kept
+ * in one open addressing hash table which is keyed by the parent node and
+ * the token, a lookup walks the trie token by token and does not create any
+ * objects. Case insensitive dictionaries hash and compare the tokens ignoring
+ * case, the tokens keep the case of the entry which added them first.
+ * <p>
+ * The tokens of a removed entry stay in the trie, every node counts the
+ * entries which end in it or below it to tell if an entry still continues.
+ * <p>
+ * The dictionary can be used by multiple threads as long as it is not modified.
  */
 public class Dictionary implements Iterable<StringList> {
 
-  private static class StringListWrapper {
+  static final int ROOT = 0;
 
-    private final StringList stringList;
-    private final boolean isCaseSensitive;
+  private static final int INITIAL_CAPACITY = 16;
 
-    private StringListWrapper(StringList stringList, boolean isCaseSensitive) {
-      this.stringList = stringList;
-      this.isCaseSensitive = isCaseSensitive;
-    }
-
-    private StringList getStringList() {
-      return stringList;
-    }
+  /**
+   * The parent node of each node, the root has no parent.
+   */
+  private int parents[] = new int[INITIAL_CAPACITY];
 
-    public boolean equals(Object obj) {
+  /**
+   * The token which leads from the parent to each node.
+   */
+  private String tokens[] = new String[INITIAL_CAPACITY];
 
-      boolean result;
+  /**
+   * The hash of the token of each node.
+   */
+  private int tokenHashes[] = new int[INITIAL_CAPACITY];
 
-      if (obj == this) {
-        result = true;
-      }
-      else if (obj instanceof StringListWrapper) {
-        StringListWrapper other = (StringListWrapper) obj;
+  /**
+   * Indicates if the tokens from the root to each node are an entry.
+   */
+  private boolean isEntry[] = new boolean[INITIAL_CAPACITY];
 
-        if (isCaseSensitive) {
-          result = this.stringList.equals(other.getStringList());
-        }
-        else {
-          result = this.stringList.compareToIgnoreCase(other.getStringList());
-        }
-       }
-      else {
-        result = false;
-      }
+  /**
+   * The number of entries which end in each node or in one of its descendants.
+   */
+  private int entriesBelow[] = new int[INITIAL_CAPACITY];
 
-      return result;
-    }
+  private int nodeCount = 1;
 
-    public int hashCode() {
-      // if lookup is too slow optimize this
-      return this.stringList.toString().toLowerCase().hashCode();
-    }
+  /**
+   * The child nodes, the slot of a child is derived from its parent and
+   * its token hash. Zero marks an empty slot, the root is never a child.
+   */
+  private int children[] = new int[INITIAL_CAPACITY * 2];
 
-    public String toString() {
-      return this.stringList.toString();
-    }
-  }
+  private int entryCount;
 
-  private Set<StringListWrapper> entrySet = new HashSet<StringListWrapper>();
   private boolean caseSensitive;
 
   /**
@@ -123,13 +125,232 @@ public class Dictionary implements Iterable<StringList> {
     });
   }
 
+  private static int hashIgnoreCase(String token) {
+    int hash = 0;
+
+    for (int i = 0; i < token.length(); ) {
+      int c = token.codePointAt(i);
+
+      // String.compareToIgnoreCase folds the case the same way
+      hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(c));
+
+      i += Character.charCount(c);
+    }
+
+    return hash;
+  }
+
+  /**
+   * Computes the hash of the token, case insensitive dictionaries ignore the case.
+   */
+  int hash(String token) {
+    return caseSensitive ? token.hashCode() : hashIgnoreCase(token);
+  }
+
+  private static int slot(int parent, int tokenHash) {
+    int hash = parent * 0x9e3779b9 + tokenHash;
+    return hash ^ (hash >>> 16);
+  }
+
+  private boolean matches(int node, int parent, String token, int tokenHash) {
+    return parents[node] == parent && tokenHashes[node] == tokenHash &&
+        (caseSensitive ? tokens[node].equals(token) :
+        tokens[node].compareToIgnoreCase(token) == 0);
+  }
+
+  /**
+   * Retrieves the child of the node which is reached with the token.
+   *
+   * @return the child or -1 if there is no such child
+   */
+  private int child(int parent, String token) {
+    return child(parent, token, hash(token));
+  }
+
+  /**
+   * Retrieves the child of the node which is reached with the token.
+   *
+   * @param parent
+   * @param token
+   * @param tokenHash the hash of the token, see {@link #hash(String)}
+   *
+   * @return the child or -1 if there is no such child
+   */
+  int child(int parent, String token, int tokenHash) {
+    int mask = children.length - 1;
+
+    for (int slot = slot(parent, tokenHash) & mask; ; slot = (slot + 1) & mask) {
+      int node = children[slot];
+
+      if (node == 0) {
+        return -1;
+      }
+
+      if (matches(node, parent, token, tokenHash)) {
+        return node;
+      }
+    }
+  }
+
+  private void insertChild(int[] table, int node) {
+    int mask = table.length - 1;
+
+    int slot = slot(parents[node], tokenHashes[node]) & mask;
+
+    while (table[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+
+    table[slot] = node;
+  }
+
+  private static int[] grow(int[] array) {
+    int[] newArray = new int[array.length * 2];
+    System.arraycopy(array, 0, newArray, 0, array.length);
+    return newArray;
+  }
+
+  /**
+   * Retrieves the child of the node which is reached with the token,
+   * the child is added if it does not exist.
+   */
+  private int addChild(int parent, String token) {
+    int node = child(parent, token);
+
+    if (node != -1) {
+      return node;
+    }
+
+    if (nodeCount == parents.length) {
+      parents = grow(parents);
+      tokenHashes = grow(tokenHashes);
+      entriesBelow = grow(entriesBelow);
+
+      String[] newTokens = new String[tokens.length * 2];
+      System.arraycopy(tokens, 0, newTokens, 0, tokens.length);
+      tokens = newTokens;
+
+      boolean[] newIsEntry = new boolean[isEntry.length * 2];
+      System.arraycopy(isEntry, 0, newIsEntry, 0, isEntry.length);
+      isEntry = newIsEntry;
+    }
+
+    node = nodeCount++;
+
+    parents[node] = parent;
+    tokens[node] = token;
+    tokenHashes[node] = hash(token);
+
+    // keep the table at most half full, linear probing degrades quickly above
+    if (nodeCount * 2 > children.length) {
+      int[] newChildren = new int[children.length * 2];
+
+      for (int i = 1; i < node; i++) {
+        insertChild(newChildren, i);
+      }
+
+      children = newChildren;
+    }
+
+    insertChild(children, node);
+
+    return node;
+  }
+
+  /**
+   * Retrieves the node of the entry.
+   *
+   * @return the node or -1 if no entry starts with the tokens
+   */
+  private int node(StringList tokens) {
+    int node = ROOT;
+
+    for (int i = 0; i < tokens.size() && node != -1; i++) {
+      node = child(node, tokens.getToken(i));
+    }
+
+    return node;
+  }
+
+  private int node(String[] tokens, int start, int end) {
+    int node = ROOT;
+
+    for (int i = start; i < end && node != -1; i++) {
+      node = child(node, tokens[i]);
+    }
+
+    return node;
+  }
+
+  /**
+   * Retrieves the number of nodes of the trie, the nodes are numbered from
+   * zero, the root, to the number of nodes minus one. A parent has a lower
+   * number than its children.
+   */
+  int nodeCount() {
+    return nodeCount;
+  }
+
+  int parent(int node) {
+    return parents[node];
+  }
+
+  String token(int node) {
+    return tokens[node];
+  }
+
+  boolean isEntry(int node) {
+    return isEntry[node];
+  }
+
+  private StringList entry(int node) {
+    int length = 0;
+
+    for (int i = node; i != ROOT; i = parents[i]) {
+      length++;
+    }
+
+    String entryTokens[] = new String[length];
+
+    for (int i = node; i != ROOT; i = parents[i]) {
+      entryTokens[--length] = tokens[i];
+    }
+
+    return new StringList(entryTokens);
+  }
+
+  /**
+   * Marks the node as entry or not and updates the entry counts of
+   * the node and its ancestors.
+   */
+  private void setEntry(int node, boolean entry) {
+    isEntry[node] = entry;
+
+    int delta = entry ? 1 : -1;
+
+    for (int i = node; i != ROOT; i = parents[i]) {
+      entriesBelow[i] += delta;
+    }
+
+    entriesBelow[ROOT] += delta;
+    entryCount += delta;
+  }
+
   /**
    * Adds the tokens to the dictionary as one new entry.
    *
    * @param tokens the new entry
    */
   public void put(StringList tokens) {
-      entrySet.add(new StringListWrapper(tokens, caseSensitive));
+    int node = ROOT;
+
+    for (int i = 0; i < tokens.size(); i++) {
+      node = addChild(node, tokens.getToken(i));
+    }
+
+    if (!isEntry[node]) {
+      setEntry(node, true);
+    }
   }
 
   /**
@@ -140,7 +361,85 @@ public class Dictionary implements Iterable<StringList> {
    * @return true if it contains the entry otherwise false
    */
   public boolean contains(StringList tokens) {
-      return entrySet.contains(new StringListWrapper(tokens, caseSensitive));
+    int node = node(tokens);
+
+    return node != -1 && isEntry[node];
+  }
+
+  /**
+   * Checks if this dictionary has an entry which consists of the given token.
+   *
+   * @param token
+   *
+   * @return true if it contains the entry otherwise false
+   */
+  public boolean contains(String token) {
+    int node = child(ROOT, token);
+
+    return node != -1 && isEntry[node];
+  }
+
+  /**
+   * Checks if this dictionary has an entry which consists of the tokens
+   * from start to end.
+   *
+   * @param tokens
+   * @param start the index of the first token
+   * @param end the index after the last token
+   *
+   * @return true if it contains the entry otherwise false
+   */
+  public boolean contains(String[] tokens, int start, int end) {
+    int node = node(tokens, start, end);
+
+    return node != -1 && isEntry[node];
+  }
+
+  /**
+   * Checks if an entry of this dictionary starts with the tokens from start to
+   * end, a walk over the tokens can stop if this is not the case because
+   * no entry continues.
+   *
+   * @param tokens
+   * @param start the index of the first token
+   * @param end the index after the last token
+   *
+   * @return true if an entry starts with the tokens otherwise false
+   */
+  public boolean isPrefix(String[] tokens, int start, int end) {
+    int node = node(tokens, start, end);
+
+    return node != -1 && entriesBelow[node] > 0;
+  }
+
+  /**
+   * Retrieves the longest entry which starts at the given token. The tokens
+   * are walked until no entry continues or the end is reached.
+   *
+   * @param tokens
+   * @param start the index of the first token of the entry
+   * @param end the index after the last token which may be part of the entry
+   *
+   * @return the number of tokens of the longest entry or 0 if no entry starts there
+   */
+  public int longestMatch(String[] tokens, int start, int end) {
+    int length = 0;
+
+    int node = ROOT;
+
+    for (int i = start; i < end; i++) {
+      node = child(node, tokens[i]);
+
+      if (node == -1 || entriesBelow[node] == 0) {
+        break;
+      }
+
+      if (isEntry[node]) {
+        length = i - start + 1;
+      }
+    }
+
+    return length;
   }
 
   /**
@@ -149,7 +448,20 @@ public class Dictionary implements Iterable<StringList> {
    * @param tokens
    */
   public void remove(StringList tokens) {
-      entrySet.remove(new StringListWrapper(tokens, caseSensitive));
+    int node = node(tokens);
+
+    if (node != -1 && isEntry[node]) {
+      setEntry(node, false);
+    }
+  }
+
+  /**
+   * Checks if the dictionary is case sensitive.
+   *
+   * @return true if it is case sensitive otherwise false
+   */
+  public boolean isCaseSensitive() {
+    return caseSensitive;
   }
 
   /**
@@ -158,20 +470,42 @@ public class Dictionary implements Iterable<StringList> {
    * @return token-{@link Iterator}
    */
   public Iterator<StringList> iterator() {
-    final Iterator<StringListWrapper> entries = entrySet.iterator();
 
     return new Iterator<StringList>() {
 
+      private int nextNode = findEntry(ROOT + 1);
+
+      private int lastNode = -1;
+
+      private int findEntry(int node) {
+        while (node < nodeCount && !isEntry[node]) {
+          node++;
+        }
+
+        return node;
+      }
+
       public boolean hasNext() {
-        return entries.hasNext();
+        return nextNode < nodeCount;
       }
 
       public StringList next() {
-        return entries.next().getStringList();
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        lastNode = nextNode;
+        nextNode = findEntry(nextNode + 1);
+
+        return entry(lastNode);
       }
 
       public void remove() {
-        entries.remove();
+        if (lastNode == -1 || !isEntry[lastNode]) {
+          throw new IllegalStateException();
+        }
+
+        setEntry(lastNode, false);
       }};
   }
 
@@ -181,18 +515,12 @@ public class Dictionary implements Iterable<StringList> {
    * @return number of tokens
    */
   public int size() {
-    return entrySet.size();
+    return entryCount;
   }
 
-  /**
-   * Writes the current instance to the given {@link OutputStream}.
-   *
-   * @param out
-   * @throws IOException
-   */
-  public void serialize(OutputStream out) throws IOException {
+  private Iterator<Entry> entryIterator() {
 
-    Iterator<Entry> entryIterator = new Iterator<Entry>()
+    return new Iterator<Entry>()
       {
         private Iterator<StringList> dictionaryIterator = Dictionary.this.iterator();
 
@@ -213,8 +541,29 @@ public class Dictionary implements Iterable<StringList> {
         }
 
       };
+  }
 
-    DictionarySerializer.serialize(out, entryIterator);
+  /**
+   * Writes the current instance to the given {@link OutputStream}.
+   *
+   * @param out
+   * @throws IOException
+   */
+  public void serialize(OutputStream out) throws IOException {
+    DictionarySerializer.serialize(out, entryIterator());
+  }
+
+  /**
+   * Writes the current instance in the compact binary format of the
+   * {@link BinaryDictionarySerializer} to the given {@link OutputStream}.
+   * <p>
+   * The binary format can be read by the same constructor as the xml format.
+   *
+   * @param out
+   * @throws IOException
+   */
+  public void serializeBinary(OutputStream out) throws IOException {
+    BinaryDictionarySerializer.serialize(out, entryIterator());
   }
 
   public boolean equals(Object obj) {
@@ -227,7 +576,11 @@ public class Dictionary implements Iterable<StringList> {
     else if (obj != null && obj instanceof Dictionary) {
       Dictionary dictionary  = (Dictionary) obj;
 
-      result = entrySet.equals(dictionary.entrySet);
+      result = size() == dictionary.size();
+
+      for (Iterator<StringList> it = dictionary.iterator(); result && it.hasNext();) {
+        result = contains(it.next());
+      }
     }
     else {
       result = false;
@@ -237,11 +590,40 @@ public class Dictionary implements Iterable<StringList> {
   }
 
   public int hashCode() {
-    return entrySet.hashCode();
+    int hashCode = 0;
+
+    for (int node = ROOT; node < nodeCount; node++) {
+      if (isEntry[node]) {
+        int entryHash = 0;
+
+        // case insensitive, equal dictionaries can differ in case
+        for (int i = node; i != ROOT; i = parents[i]) {
+          entryHash = 31 * entryHash + hashIgnoreCase(tokens[i]);
+        }
+
+        hashCode += entryHash;
+      }
+    }
+
+    return hashCode;
   }
 
   public String toString() {
-    return entrySet.toString();
+    StringBuffer string = new StringBuffer();
+
+    string.append('[');
+
+    for (Iterator<StringList> it = iterator(); it.hasNext();) {
+      string.append(it.next());
+
+      if (it.hasNext()) {
+        string.append(", ");
+      }
+    }
+
+    string.append(']');
+
+    return string.toString();
   }
 
   /**
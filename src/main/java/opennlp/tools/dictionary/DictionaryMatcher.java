@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.dictionary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import opennlp.tools.util.Span;
+
+/**
+ * Finds the entries of a {@link Dictionary} in a token sequence with an
+ * Aho-Corasick automaton over tokens.
+ * <p>
+ * The automaton uses the token trie of the dictionary for its transitions and
+ * adds a failure link and an output link to every node. The tokens are scanned
+ * once from left to right, a match is reported at its last token, so the
+ * matching time is linear in the number of tokens plus the number of matches
+ * and does not depend on the length of the entries.
+ * <p>
+ * The tokens are compared like the dictionary compares them, the entries of a
+ * case insensitive dictionary are matched ignoring case.
+ * <p>
+ * The matcher is a snapshot of the dictionary, it must be created again after
+ * the dictionary was changed. It can be used by multiple threads as long as
+ * the dictionary is not modified.
+ */
+public class DictionaryMatcher {
+
+  private static final int ROOT = Dictionary.ROOT;
+
+  private final Dictionary dictionary;
+
+  /**
+   * The node which is reached with the longest proper suffix of the tokens
+   * of each node.
+   */
+  private final int failures[];
+
+  /**
+   * The deepest entry node on the failure chain of each node, the node itself
+   * included, or -1 if there is none.
+   */
+  private final int outputs[];
+
+  /**
+   * The number of tokens from the root to each node.
+   */
+  private final int depths[];
+
+  /**
+   * The token hash of each node, see {@link Dictionary#hash(String)}.
+   */
+  private final int tokenHashes[];
+
+  /**
+   * Initializes the matcher with the current entries of the dictionary.
+   *
+   * @param dictionary
+   */
+  public DictionaryMatcher(Dictionary dictionary) {
+    this.dictionary = dictionary;
+
+    int nodeCount = dictionary.nodeCount();
+
+    failures = new int[nodeCount];
+    outputs = new int[nodeCount];
+    depths = new int[nodeCount];
+    tokenHashes = new int[nodeCount];
+
+    // a parent has a lower number than its children
+    int maxDepth = 0;
+    for (int node = ROOT + 1; node < nodeCount; node++) {
+      depths[node] = depths[dictionary.parent(node)] + 1;
+      tokenHashes[node] = dictionary.hash(dictionary.token(node));
+      maxDepth = Math.max(maxDepth, depths[node]);
+    }
+
+    // the failure link points to a node with a lower depth,
+    // the nodes are therefore linked in breadth first order
+    int depthStarts[] = new int[maxDepth + 2];
+    for (int node = ROOT; node < nodeCount; node++) {
+      depthStarts[depths[node] + 1]++;
+    }
+    for (int depth = 1; depth < depthStarts.length; depth++) {
+      depthStarts[depth] += depthStarts[depth - 1];
+    }
+
+    int order[] = new int[nodeCount];
+    for (int node = ROOT; node < nodeCount; node++) {
+      order[depthStarts[depths[node]]++] = node;
+    }
+
+    failures[ROOT] = ROOT;
+    outputs[ROOT] = -1;
+
+    for (int i = 1; i < nodeCount; i++) {
+      int node = order[i];
+      int parent = dictionary.parent(node);
+
+      int failure = ROOT;
+
+      if (parent != ROOT) {
+        failure = next(failures[parent], dictionary.token(node), tokenHashes[node]);
+      }
+
+      failures[node] = failure;
+      outputs[node] = dictionary.isEntry(node) ? node : outputs[failure];
+    }
+  }
+
+  /**
+   * Retrieves the node which is reached from the node with the token.
+   */
+  private int next(int node, String token, int tokenHash) {
+    while (true) {
+      int child = dictionary.child(node, token, tokenHash);
+
+      if (child != -1) {
+        return child;
+      }
+
+      if (node == ROOT) {
+        return ROOT;
+      }
+
+      node = failures[node];
+    }
+  }
+
+  /**
+   * Retrieves the length of the longest entry which starts at each token,
+   * the entries can overlap.
+   *
+   * @param tokens
+   *
+   * @return the number of tokens of the longest entry at each start token
+   * or 0 if no entry starts there
+   */
+  public int[] longestMatchLengths(String tokens[]) {
+    int lengths[] = new int[tokens.length];
+
+    longestMatchLengths(tokens, 0, tokens.length, lengths);
+
+    return lengths;
+  }
+
+  /**
+   * Sets the length of the longest entry which starts at each token from
+   * start to end, the entries must end before end. The lengths of the other
+   * start tokens are not changed.
+   *
+   * @param tokens
+   * @param start the index of the first token which is scanned
+   * @param end the index after the last token which is scanned
+   * @param lengths the number of tokens of the longest entry at each start token,
+   * must be 0 for the tokens from start to end
+   */
+  public void longestMatchLengths(String tokens[], int start, int end, int lengths[]) {
+    int node = ROOT;
+
+    for (int i = start; i < end; i++) {
+      node = next(node, tokens[i], dictionary.hash(tokens[i]));
+
+      for (int entry = outputs[node]; entry != -1; entry = outputs[failures[entry]]) {
+        int length = depths[entry];
+        int entryStart = i - length + 1;
+
+        if (length > lengths[entryStart]) {
+          lengths[entryStart] = length;
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds all entries in the tokens, the entries can overlap.
+   *
+   * @param tokens
+   *
+   * @return the spans of the entries ordered by their start, longer entries first
+   */
+  public Span[] findAll(String tokens[]) {
+    List<Span> matches = new ArrayList<Span>();
+
+    int node = ROOT;
+
+    for (int i = 0; i < tokens.length; i++) {
+      node = next(node, tokens[i], dictionary.hash(tokens[i]));
+
+      for (int entry = outputs[node]; entry != -1; entry = outputs[failures[entry]]) {
+        matches.add(new Span(i - depths[entry] + 1, i + 1));
+      }
+    }
+
+    Collections.sort(matches);
+
+    return matches.toArray(new Span[matches.size()]);
+  }
+
+  /**
+   * Finds the entries which do not overlap, from left to right the longest
+   * entry which starts at a token is chosen.
+   *
+   * @param tokens
+   *
+   * @return the spans of the entries ordered by their start
+   */
+  public Span[] findLongest(String tokens[]) {
+    int lengths[] = longestMatchLengths(tokens);
+
+    List<Span> matches = new ArrayList<Span>();
+
+    for (int start = 0; start < lengths.length; ) {
+      if (lengths[start] > 0) {
+        matches.add(new Span(start, start + lengths[start]));
+        start += lengths[start];
+      }
+      else {
+        start++;
+      }
+    }
+
+    return matches.toArray(new Span[matches.size()]);
+  }
+}
@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.dictionary.serializer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import opennlp.tools.util.InvalidFormatException;
+import opennlp.tools.util.StringList;
+
+/**
+ * Reads and writes dictionaries in a compact binary format, the binary
+ * counterpart of the xml format of the {@link DictionarySerializer}.
+ * <p>
+ * All distinct tokens and attribute keys and values are stored once in a
+ * sorted, length prefixed string table, the entries are stored as lists of
+ * indexes into the string table. Reading a binary dictionary creates every
+ * distinct string only once and does not need an xml parser.
+ * <p>
+ * The format is:
+ * <pre>
+ * magic              "ONLPDIC1"
+ * string count       int
+ * strings            the sorted strings, each is the byte length and the UTF-8 bytes
+ * entry count        int
+ * entries            each is the token count, the token indexes, the attribute
+ *                    count and the key and value indexes of the attributes
+ * </pre>
+ * The lengths, counts and indexes after the string count are written as
+ * variable length integers with 7 bits per byte.
+ */
+public class BinaryDictionarySerializer {
+
+  private static final byte[] MAGIC = {'O', 'N', 'L', 'P', 'D', 'I', 'C', '1'};
+
+  private static final String CHARSET = "UTF-8";
+
+  /**
+   * Checks if the stream starts with a binary dictionary, the stream
+   * must support mark and is reset to its current position.
+   *
+   * @param in
+   *
+   * @return true if the stream contains a binary dictionary
+   *
+   * @throws IOException
+   */
+  public static boolean isBinaryDictionary(InputStream in) throws IOException {
+
+    if (!in.markSupported()) {
+      throw new IllegalArgumentException("The stream must support mark!");
+    }
+
+    in.mark(MAGIC.length);
+
+    try {
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (in.read() != MAGIC[i]) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+    finally {
+      in.reset();
+    }
+  }
+
+  /**
+   * The arrays of the strings and tokens grow while they are read, so
+   * counts of a corrupt stream cannot allocate much more than it contains.
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Reads a variable length integer, it is never negative.
+   */
+  private static int readVarInt(DataInputStream in) throws IOException,
+      InvalidFormatException {
+    int value = 0;
+
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+
+      // the fifth byte holds the last 3 bits, more would overflow the int
+      if (shift == 28 && (b & ~0x07) != 0) {
+        break;
+      }
+
+      value |= (b & 0x7f) << shift;
+
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+
+    throw new InvalidFormatException("Invalid variable length integer!");
+  }
+
+  private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      out.writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+
+    out.writeByte(value);
+  }
+
+  private static int readCount(DataInputStream in) throws IOException,
+      InvalidFormatException {
+    int count = in.readInt();
+
+    if (count < 0) {
+      throw new InvalidFormatException("Invalid count: " + count);
+    }
+
+    return count;
+  }
+
+  private static String[] grow(String[] array, int maxLength) {
+    String[] newArray = new String[(int) Math.min((long) array.length * 2, maxLength)];
+    System.arraycopy(array, 0, newArray, 0, array.length);
+    return newArray;
+  }
+
+  private static String readString(String[] strings, int stringCount, DataInputStream in)
+      throws IOException, InvalidFormatException {
+    int index = readVarInt(in);
+
+    if (index < 0 || index >= stringCount) {
+      throw new InvalidFormatException("Invalid string index: " + index);
+    }
+
+    return strings[index];
+  }
+
+  /**
+   * Creates {@link Entry}s from the given binary dictionary and
+   * forwards these {@link Entry}s to the {@link EntryInserter}.
+   *
+   * The provided {@link InputStream} remains open.
+   *
+   * @param in
+   * @param inserter
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public static void create(InputStream in, EntryInserter inserter)
+      throws IOException, InvalidFormatException {
+
+    DataInputStream dataIn = new DataInputStream(new BufferedInputStream(in));
+
+    try {
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (dataIn.readByte() != MAGIC[i]) {
+          throw new InvalidFormatException("Not a binary dictionary!");
+        }
+      }
+
+      int stringCount = readCount(dataIn);
+
+      String[] strings = new String[Math.min(stringCount, INITIAL_CAPACITY)];
+
+      byte[] bytes = new byte[INITIAL_CAPACITY];
+
+      for (int i = 0; i < stringCount; i++) {
+        int length = readVarInt(dataIn);
+
+        // the buffer grows only with the bytes which could be read
+        int read = 0;
+        while (read < length) {
+          if (read == bytes.length) {
+            byte[] newBytes = new byte[(int) Math.min((long) bytes.length * 2, length)];
+            System.arraycopy(bytes, 0, newBytes, 0, read);
+            bytes = newBytes;
+          }
+
+          int chunk = Math.min(bytes.length, length) - read;
+          dataIn.readFully(bytes, read, chunk);
+          read += chunk;
+        }
+
+        if (i == strings.length) {
+          strings = grow(strings, stringCount);
+        }
+
+        // the entries share the strings of the table
+        strings[i] = new String(bytes, 0, length, CHARSET);
+      }
+
+      int entryCount = readCount(dataIn);
+
+      String[] tokenBuffer = new String[INITIAL_CAPACITY];
+
+      for (int i = 0; i < entryCount; i++) {
+        int tokenCount = readVarInt(dataIn);
+
+        // an entry has at least one token
+        if (tokenCount < 1) {
+          throw new InvalidFormatException("Invalid token count: " + tokenCount);
+        }
+
+        for (int ti = 0; ti < tokenCount; ti++) {
+          if (ti == tokenBuffer.length) {
+            tokenBuffer = grow(tokenBuffer, tokenCount);
+          }
+
+          tokenBuffer[ti] = readString(strings, stringCount, dataIn);
+        }
+
+        String[] tokens = new String[tokenCount];
+        System.arraycopy(tokenBuffer, 0, tokens, 0, tokenCount);
+
+        Attributes attributes = new Attributes();
+
+        int attributeCount = readVarInt(dataIn);
+
+        for (int ai = 0; ai < attributeCount; ai++) {
+          attributes.setValue(readString(strings, stringCount, dataIn),
+              readString(strings, stringCount, dataIn));
+        }
+
+        inserter.insert(new Entry(new StringList(tokens), attributes));
+      }
+    }
+    catch (EOFException e) {
+      throw new InvalidFormatException("Binary dictionary is truncated!");
+    }
+  }
+
+  private static void addString(Map<String, Integer> strings, String string) {
+    if (!strings.containsKey(string)) {
+      strings.put(string, null);
+    }
+  }
+
+  /**
+   * Serializes the given entries in the binary format to the given {@link OutputStream}.
+   *
+   * After the serialization is finished the provided
+   * {@link OutputStream} remains open.
+   *
+   * @param out
+   * @param entries
+   *
+   * @throws IOException If an I/O error occurs
+   */
+  public static void serialize(OutputStream out, Iterator<Entry> entries)
+      throws IOException {
+
+    // the string table must be written before the entries
+    List<Entry> entryList = new ArrayList<Entry>();
+    Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+
+    while (entries.hasNext()) {
+      Entry entry = entries.next();
+
+      entryList.add(entry);
+
+      for (Iterator<String> it = entry.getTokens().iterator(); it.hasNext();) {
+        addString(stringIndexes, it.next());
+      }
+
+      Attributes attributes = entry.getAttributes();
+
+      for (Iterator<String> it = attributes.iterator(); it.hasNext();) {
+        String key = it.next();
+        addString(stringIndexes, key);
+        addString(stringIndexes, attributes.getValue(key));
+      }
+    }
+
+    String[] strings = stringIndexes.keySet().toArray(new String[stringIndexes.size()]);
+    Arrays.sort(strings);
+
+    DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+
+    dataOut.write(MAGIC);
+    dataOut.writeInt(strings.length);
+
+    for (int i = 0; i < strings.length; i++) {
+      stringIndexes.put(strings[i], i);
+
+      byte[] bytes = strings[i].getBytes(CHARSET);
+      writeVarInt(dataOut, bytes.length);
+      dataOut.write(bytes);
+    }
+
+    dataOut.writeInt(entryList.size());
+
+    for (Entry entry : entryList) {
+      StringList tokens = entry.getTokens();
+
+      writeVarInt(dataOut, tokens.size());
+
+      for (int i = 0; i < tokens.size(); i++) {
+        writeVarInt(dataOut, stringIndexes.get(tokens.getToken(i)));
+      }
+
+      Attributes attributes = entry.getAttributes();
+
+      List<String> keys = new ArrayList<String>();
+      for (Iterator<String> it = attributes.iterator(); it.hasNext();) {
+        keys.add(it.next());
+      }
+
+      writeVarInt(dataOut, keys.size());
+
+      for (String key : keys) {
+        writeVarInt(dataOut, stringIndexes.get(key));
+        writeVarInt(dataOut, stringIndexes.get(attributes.getValue(key)));
+      }
+    }
+
+    dataOut.flush();
+  }
+
+  /**
+   * Converts a dictionary from the xml format to the binary format.
+   *
+   * The provided {@link InputStream} is closed, the provided
+   * {@link OutputStream} remains open.
+   *
+   * @param xmlIn the dictionary in the xml format
+   * @param binaryOut
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public static void convert(InputStream xmlIn, OutputStream binaryOut)
+      throws IOException, InvalidFormatException {
+
+    final List<Entry> entries = new ArrayList<Entry>();
+
+    DictionarySerializer.create(xmlIn, new EntryInserter() {
+      public void insert(Entry entry) {
+        entries.add(entry);
+      }
+    });
+
+    serialize(binaryOut, entries.iterator());
+  }
+
+  public static void main(String[] args) throws IOException, InvalidFormatException {
+
+    if (args.length != 2) {
+      System.err.println("Usage: BinaryDictionarySerializer xmlDictionary binaryDictionary");
+      System.exit(-1);
+    }
+
+    OutputStream out = new FileOutputStream(args[1]);
+
+    try {
+      convert(new FileInputStream(args[0]), out);
+    }
+    finally {
+      out.close();
+    }
+  }
+}
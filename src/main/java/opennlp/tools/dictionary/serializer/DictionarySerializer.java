@@ -18,6 +18,7 @@
 
 package opennlp.tools.dictionary.serializer;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -181,6 +182,9 @@ public class DictionarySerializer {
   /**
    * Creates {@link Entry}s form the given {@link InputStream} and
    * forwards these {@link Entry}s to the {@link EntryInserter}.
+   * <p>
+   * The stream can contain a dictionary in the xml format or in the
+   * binary format of the {@link BinaryDictionarySerializer}.
    *
    * After creation is finished the provided {@link InputStream} is closed.
    *
@@ -193,6 +197,21 @@ public class DictionarySerializer {
   public static void create(InputStream in, EntryInserter inserter)
       throws IOException, InvalidFormatException {
 
+    if (!in.markSupported()) {
+      in = new BufferedInputStream(in);
+    }
+
+    if (BinaryDictionarySerializer.isBinaryDictionary(in)) {
+      try {
+        BinaryDictionarySerializer.create(in, inserter);
+      }
+      finally {
+        in.close();
+      }
+
+      return;
+    }
+
     DictionaryContenthandler profileContentHandler =
         new DictionaryContenthandler(inserter);
 
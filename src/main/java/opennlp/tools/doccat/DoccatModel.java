@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.doccat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import opennlp.model.AbstractModel;
+import opennlp.tools.util.FeatureHasher;
+import opennlp.tools.util.InvalidFormatException;
+import opennlp.tools.util.model.BaseModel;
+
+/**
+ * The {@link DoccatModel} is the model used by the {@link DocumentCategorizerME}.
+ * <p>
+ * Besides the maxent model it records if the features were mapped into hash
+ * buckets during training, the {@link DocumentCategorizerME} then hashes the
+ * features in the same way.
+ */
+public class DoccatModel extends BaseModel {
+
+  private static final String DOCCAT_MODEL_ENTRY_NAME = "doccat.model";
+
+  private static final String FEATURE_HASH_BITS_PROPERTY = "featureHashBits";
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param languageCode
+   * @param doccatModel
+   * @param featureHashBits the number of bits of the feature hash buckets
+   * the model was trained with, or 0 if the features are not hashed
+   */
+  public DoccatModel(String languageCode, AbstractModel doccatModel, int featureHashBits) {
+    super(languageCode);
+
+    if (doccatModel == null) {
+      throw new IllegalArgumentException("doccatModel must not be null!");
+    }
+
+    if (featureHashBits < 0) {
+      throw new IllegalArgumentException("featureHashBits must not be negative!");
+    }
+
+    artifactMap.put(DOCCAT_MODEL_ENTRY_NAME, doccatModel);
+
+    if (featureHashBits > 0) {
+      setManifestProperty(FEATURE_HASH_BITS_PROPERTY, Integer.toString(featureHashBits));
+    }
+  }
+
+  public DoccatModel(String languageCode, AbstractModel doccatModel) {
+    this(languageCode, doccatModel, 0);
+  }
+
+  public DoccatModel(InputStream in) throws IOException, InvalidFormatException {
+    super(in);
+  }
+
+  /**
+   * Initializes the current instance from a model file, which can be
+   * a zip package or a mapped package.
+   *
+   * @param modelFile
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   *
+   * @see #serializeMapped(java.io.OutputStream)
+   */
+  public DoccatModel(File modelFile) throws IOException, InvalidFormatException {
+    super(modelFile);
+  }
+
+  public AbstractModel getMaxentModel() {
+    return (AbstractModel) artifactMap.get(DOCCAT_MODEL_ENTRY_NAME);
+  }
+
+  /**
+   * Retrieves the number of bits of the feature hash buckets.
+   *
+   * @return the number of bits, or 0 if the features are not hashed
+   */
+  public int getFeatureHashBits() {
+    String featureHashBits = getManifestProperty(FEATURE_HASH_BITS_PROPERTY);
+
+    if (featureHashBits == null) {
+      return 0;
+    }
+
+    return Integer.parseInt(featureHashBits);
+  }
+
+  @Override
+  protected void validateArtifactMap() throws InvalidFormatException {
+    super.validateArtifactMap();
+
+    if (!(artifactMap.get(DOCCAT_MODEL_ENTRY_NAME) instanceof AbstractModel)) {
+      throw new InvalidFormatException("Doccat model is incomplete!");
+    }
+
+    String featureHashBits = getManifestProperty(FEATURE_HASH_BITS_PROPERTY);
+
+    if (featureHashBits != null) {
+      try {
+        new FeatureHasher(Integer.parseInt(featureHashBits));
+      }
+      catch (IllegalArgumentException e) {
+        throw new InvalidFormatException("Invalid " + FEATURE_HASH_BITS_PROPERTY +
+            " property: " + featureHashBits);
+      }
+    }
+  }
+}
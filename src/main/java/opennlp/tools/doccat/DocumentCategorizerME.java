@@ -26,6 +26,8 @@ import opennlp.model.MaxentModel;
 import opennlp.model.TwoPassDataIndexer;
 import opennlp.tools.tokenize.SimpleTokenizer;
 import opennlp.tools.tokenize.Tokenizer;
+import opennlp.tools.util.FeatureHasher;
+import opennlp.tools.util.ObjectStream;
 
 /**
  * Maxent implementation of {@link DocumentCategorizer}.
@@ -59,6 +61,35 @@ public class DocumentCategorizerME implements DocumentCategorizer {
         new DocumentCategorizerContextGenerator(featureGenerators);
   }
 
+  /**
+   * Initializes the current instance with the given {@link DoccatModel}
+   * and {@link FeatureGenerator}s, the features are hashed if the model
+   * was trained with hashed features.
+   *
+   * @param model
+   * @param featureGenerators the feature generators which were used
+   * for training, if none are given the bag of words generator is used
+   */
+  public DocumentCategorizerME(DoccatModel model, FeatureGenerator... featureGenerators) {
+    this(model.getMaxentModel(), createFeatureGenerators(model.getFeatureHashBits(),
+        featureGenerators));
+  }
+
+  private static FeatureGenerator[] createFeatureGenerators(int featureHashBits,
+      FeatureGenerator... featureGenerators) {
+
+    if (featureGenerators.length == 0) {
+      featureGenerators = new FeatureGenerator[]{new BagOfWordsFeatureGenerator()};
+    }
+
+    if (featureHashBits > 0) {
+      featureGenerators = new FeatureGenerator[]{new HashedDocumentFeatureGenerator(
+          new FeatureHasher(featureHashBits), featureGenerators)};
+    }
+
+    return featureGenerators;
+  }
+
   /**
    * Categorizes the given text.
    *
@@ -103,4 +134,26 @@ public class DocumentCategorizerME implements DocumentCategorizer {
   public static AbstractModel train(DocumentCategorizerEventStream eventStream) throws IOException {
     return GIS.trainModel(100, new TwoPassDataIndexer(eventStream, 5));
   }
+
+  /**
+   * Trains a new model for the {@link DocumentCategorizerME} whose features are
+   * mapped into 2^featureHashBits hash buckets, the number of predicates of the
+   * model is bounded by the number of buckets. The number of bits is stored in the model.
+   *
+   * @param languageCode
+   * @param samples
+   * @param featureHashBits the number of bits of the hash buckets, or 0 to not hash the features
+   * @param featureGenerators the feature generators, if none are given the bag
+   * of words generator is used
+   *
+   * @return the new model
+   */
+  public static DoccatModel train(String languageCode, ObjectStream<DocumentSample> samples,
+      int featureHashBits, FeatureGenerator... featureGenerators) throws IOException {
+
+    DocumentCategorizerEventStream eventStream = new DocumentCategorizerEventStream(samples,
+        createFeatureGenerators(featureHashBits, featureGenerators));
+
+    return new DoccatModel(languageCode, train(eventStream), featureHashBits);
+  }
 }
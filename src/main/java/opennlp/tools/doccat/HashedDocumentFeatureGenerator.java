@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.doccat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import opennlp.tools.util.FeatureHasher;
+
+/**
+ * Maps the features of other {@link FeatureGenerator}s into
+ * hash buckets with a {@link FeatureHasher}.
+ */
+public class HashedDocumentFeatureGenerator implements FeatureGenerator {
+
+  private final FeatureHasher hasher;
+
+  private final FeatureGenerator[] generators;
+
+  public HashedDocumentFeatureGenerator(FeatureHasher hasher, FeatureGenerator... generators) {
+
+    if (hasher == null)
+      throw new IllegalArgumentException("hasher must not be null!");
+
+    this.hasher = hasher;
+    this.generators = generators;
+  }
+
+  public Collection<String> extractFeatures(String[] text) {
+
+    Collection<String> features = new ArrayList<String>();
+
+    for (int i = 0; i < generators.length; i++) {
+      hasher.hash(generators[i].extractFeatures(text), features);
+    }
+
+    return features;
+  }
+}
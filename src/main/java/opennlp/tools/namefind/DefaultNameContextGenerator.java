@@ -20,6 +20,7 @@ package opennlp.tools.namefind;
 import java.util.ArrayList;
 import java.util.List;
 
+import opennlp.tools.util.SplitContextGenerator;
 import opennlp.tools.util.featuregen.AdaptiveFeatureGenerator;
 import opennlp.tools.util.featuregen.CachedFeatureGenerator;
 import opennlp.tools.util.featuregen.FeatureGeneratorUtil;
@@ -35,7 +36,8 @@ import opennlp.tools.util.featuregen.WindowFeatureGenerator;
  *
  * @version $Revision: 1.3 $, $Date: 2009/03/09 03:10:51 $
  */
-public class DefaultNameContextGenerator implements NameContextGenerator {
+public class DefaultNameContextGenerator implements NameContextGenerator,
+    SplitContextGenerator<String> {
 
   private AdaptiveFeatureGenerator featureGenerators[];
 
@@ -80,6 +82,14 @@ public class DefaultNameContextGenerator implements NameContextGenerator {
       featureGenerators[featureGenerators.length - 1] = generator;
   }
 
+  /**
+   * The contexts contain the two previous outcomes, the feature
+   * generators must not look at the previous outcomes.
+   */
+  public int getHistoryOrder() {
+    return 2;
+  }
+
   public void updateAdaptiveData(String[] tokens, String[] outcomes) {
 
     if (tokens != null && outcomes != null && tokens.length != outcomes.length) {
@@ -109,6 +119,39 @@ public class DefaultNameContextGenerator implements NameContextGenerator {
   public String[] getContext(int index, String[] tokens, String[] preds, Object[] additionalContext) {
     List<String> features = new ArrayList<String>();
 
+    createStaticFeatures(features, index, tokens, preds);
+    createHistoryFeatures(features, index, tokens, preds);
+
+    return features.toArray(new String[features.size()]);
+  }
+
+  /**
+   * Returns the features of the feature generators, they must not look
+   * at the previous outcomes.
+   */
+  public String[] getStaticContext(int index, String[] tokens, Object[] additionalContext) {
+    List<String> features = new ArrayList<String>();
+
+    createStaticFeatures(features, index, tokens, null);
+
+    return features.toArray(new String[features.size()]);
+  }
+
+  /**
+   * Returns the previous outcome features.
+   */
+  public String[] getHistoryContext(int index, String[] tokens, String[] preds,
+      Object[] additionalContext) {
+    List<String> features = new ArrayList<String>(4);
+
+    createHistoryFeatures(features, index, tokens, preds);
+
+    return features.toArray(new String[features.size()]);
+  }
+
+  private void createStaticFeatures(List<String> features, int index, String[] tokens,
+      String[] preds) {
+
     for (int i = 0; i < featureGenerators.length; i++) {
       featureGenerators[i].createFeatures(features, tokens, index, preds);
     }
@@ -116,6 +159,10 @@ public class DefaultNameContextGenerator implements NameContextGenerator {
     if (index == 0) {
       features.add("fwis"); //first word in sentence
     }
+  }
+
+  private void createHistoryFeatures(List<String> features, int index, String[] tokens,
+      String[] preds) {
 
     //previous outcome features
     String po = NameFinderME.OTHER;
@@ -132,7 +179,5 @@ public class DefaultNameContextGenerator implements NameContextGenerator {
     features.add("pow=" + po + "," + tokens[index]);
     features.add("powf=" + po + "," + FeatureGeneratorUtil.tokenFeature(tokens[index]));
     features.add("ppo=" + ppo);
-
-    return features.toArray(new String[features.size()]);
   }
 }
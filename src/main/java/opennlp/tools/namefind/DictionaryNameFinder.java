@@ -22,67 +22,61 @@ import java.util.LinkedList;
 import java.util.List;
 
 import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.dictionary.DictionaryMatcher;
 import opennlp.tools.dictionary.Index;
 import opennlp.tools.util.Span;
-import opennlp.tools.util.StringList;
 
 /**
  * This is a dictionary based name finder, it scans text
  * for names inside a dictionary.
+ * <p>
+ * Every token of a name must be equal to a token of the dictionary entries,
+ * the case is not ignored even if the dictionary is case insensitive.
  *
  * @author <a href="mailto:kottmann@gmail.com">Joern Kottmann</a>
  * @version $Revision: 1.2 $, $Date: 2009/01/24 01:32:19 $
  */
 public class DictionaryNameFinder implements TokenNameFinder {
 
-  private Dictionary mDictionary;
+  private DictionaryMatcher mMatcher;
 
   private Index mMetaDictionary;
 
   /**
-   * Initializes the current instance.
+   * Initializes the current instance, the dictionary must not be changed
+   * afterwards.
    *
    * @param dictionary
    */
   public DictionaryNameFinder(Dictionary dictionary) {
-    mDictionary = dictionary;
+    mMatcher = new DictionaryMatcher(dictionary);
     mMetaDictionary = new Index(dictionary.iterator());
   }
 
+  /**
+   * Finds the longest name which starts at each token, the names can overlap.
+   */
   public Span[] find(String[] tokenStrings) {
     List<Span> foundNames = new LinkedList<Span>();
 
-    for (int startToken = 0; startToken < tokenStrings.length; startToken++) {
-
-      Span foundName = null;
-
-      String  tokens[] = new String[]{};
-
-      for (int endToken = startToken; endToken < tokenStrings.length; endToken++) {
+    int lengths[] = new int[tokenStrings.length];
 
-        String token = tokenStrings[endToken];
+    // names can only be found in runs of tokens which the entries contain
+    for (int start = 0; start < tokenStrings.length; start++) {
+      int end = start;
 
-        // TODO: improve performance here
-        String newTokens[] = new String[tokens.length + 1];
-        System.arraycopy(tokens, 0, newTokens, 0, tokens.length);
-        newTokens[newTokens.length - 1] = token;
-        tokens = newTokens;
-
-        if (mMetaDictionary.contains(token)) {
+      while (end < tokenStrings.length && mMetaDictionary.contains(tokenStrings[end])) {
+        end++;
+      }
 
-          StringList tokenList = new StringList(tokens);
+      mMatcher.longestMatchLengths(tokenStrings, start, end, lengths);
 
-          if (mDictionary.contains(tokenList)) {
-            foundName = new Span(startToken, endToken + 1);
-          }
-        }
-        else {
-          break;
-        }
-      }
+      start = end;
+    }
 
-      if (foundName != null) {
-        foundNames.add(foundName);
+    for (int startToken = 0; startToken < lengths.length; startToken++) {
+      if (lengths[startToken] > 0) {
+        foundNames.add(new Span(startToken, startToken + lengths[startToken]));
       }
     }
 
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.namefind;
+
+import opennlp.tools.util.FeatureHasher;
+import opennlp.tools.util.SplitContextGenerator;
+import opennlp.tools.util.featuregen.AdaptiveFeatureGenerator;
+
+/**
+ * A {@link NameContextGenerator} which maps all features of the
+ * {@link DefaultNameContextGenerator} into hash buckets, including the
+ * previous outcome features.
+ */
+class HashedNameContextGenerator implements NameContextGenerator,
+    SplitContextGenerator<String> {
+
+  private final DefaultNameContextGenerator contextGenerator;
+
+  private final FeatureHasher hasher;
+
+  HashedNameContextGenerator(DefaultNameContextGenerator contextGenerator,
+      FeatureHasher hasher) {
+    this.contextGenerator = contextGenerator;
+    this.hasher = hasher;
+  }
+
+  public String[] getContext(int index, String[] sequence, String[] priorDecisions,
+      Object[] additionalContext) {
+    return hasher.hash(contextGenerator.getContext(index, sequence, priorDecisions,
+        additionalContext));
+  }
+
+  public String[] getStaticContext(int index, String[] sequence, Object[] additionalContext) {
+    return hasher.hash(contextGenerator.getStaticContext(index, sequence, additionalContext));
+  }
+
+  public String[] getHistoryContext(int index, String[] sequence, String[] priorDecisions,
+      Object[] additionalContext) {
+    return hasher.hash(contextGenerator.getHistoryContext(index, sequence, priorDecisions,
+        additionalContext));
+  }
+
+  public int getHistoryOrder() {
+    return contextGenerator.getHistoryOrder();
+  }
+
+  public void addFeatureGenerator(AdaptiveFeatureGenerator generator) {
+    contextGenerator.addFeatureGenerator(generator);
+  }
+
+  public void updateAdaptiveData(String[] tokens, String[] outcomes) {
+    contextGenerator.updateAdaptiveData(tokens, outcomes);
+  }
+
+  public void clearAdaptiveData() {
+    contextGenerator.clearAdaptiveData();
+  }
+}
@@ -55,7 +55,7 @@ public class NameFinderEventStream extends opennlp.model.AbstractEventStream {
   public NameFinderEventStream(ObjectStream<NameSample> dataStream, NameContextGenerator contextGenerator) {
     this.nameSampleStream = dataStream;
     this.contextGenerator = contextGenerator;
-    this.contextGenerator.addFeatureGenerator(new WindowFeatureGenerator(additionalContextFeatureGenerator, 8, 8));
+    this.contextGenerator.addFeatureGenerator(new WindowFeatureGenerator(additionalContextFeatureGenerator, 8, 8, true));
   }
 
   public NameFinderEventStream(ObjectStream<NameSample> dataStream) {
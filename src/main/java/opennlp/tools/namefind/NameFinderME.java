@@ -34,12 +34,15 @@ import opennlp.model.EventStream;
 import opennlp.model.MaxentModel;
 import opennlp.model.TwoPassDataIndexer;
 import opennlp.tools.util.BeamSearch;
+import opennlp.tools.util.DecoderType;
+import opennlp.tools.util.FeatureHasher;
 import opennlp.tools.util.InvalidFormatException;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.PlainTextByLineStream;
 import opennlp.tools.util.Sequence;
 import opennlp.tools.util.SequenceValidator;
 import opennlp.tools.util.Span;
+import opennlp.tools.util.ViterbiSearch;
 import opennlp.tools.util.featuregen.AdaptiveFeatureGenerator;
 import opennlp.tools.util.featuregen.AdditionalContextFeatureGenerator;
 import opennlp.tools.util.featuregen.CachedFeatureGenerator;
@@ -99,15 +102,32 @@ public class NameFinderME implements TokenNameFinder {
    * @param beamSize
    */
   public NameFinderME(TokenNameFinderModel model, int beamSize) {
+    this(model, beamSize, DecoderType.BEAM_SEARCH);
+  }
+
+  /**
+   * Initializes the name finder with the specified model and decoder.
+   *
+   * @param model
+   * @param beamSize
+   * @param decoder the decoder which is used to find the best sequence of outcomes
+   */
+  public NameFinderME(TokenNameFinderModel model, int beamSize, DecoderType decoder) {
     this.model = model.getNameFinderModel();
 
-    contextGenerator = new DefaultNameContextGenerator(createFeatureGenerator());
+    contextGenerator = createContextGenerator(model.getFeatureHashBits());
 
     contextGenerator.addFeatureGenerator(
           new WindowFeatureGenerator(additionalContextFeatureGenerator, 8, 8));
-    
-    beam = new BeamSearch<String>(beamSize, contextGenerator, this.model,
-        new NameFinderSequenceValidator(), beamSize);
+
+    if (decoder == DecoderType.VITERBI) {
+      beam = new ViterbiSearch<String>(beamSize, contextGenerator, this.model,
+          new NameFinderSequenceValidator(), beamSize);
+    }
+    else {
+      beam = new BeamSearch<String>(beamSize, contextGenerator, this.model,
+          new NameFinderSequenceValidator(), beamSize);
+    }
   }
 
   /**
@@ -148,11 +168,27 @@ public class NameFinderME implements TokenNameFinder {
         new NameFinderSequenceValidator(), beamSize);
   }
 
+  /**
+   * Creates the context generator, the features are hashed if
+   * featureHashBits is positive.
+   */
+  private static NameContextGenerator createContextGenerator(int featureHashBits) {
+    DefaultNameContextGenerator contextGenerator =
+        new DefaultNameContextGenerator(createFeatureGenerator());
+
+    if (featureHashBits > 0) {
+      return new HashedNameContextGenerator(contextGenerator,
+          new FeatureHasher(featureHashBits));
+    }
+
+    return contextGenerator;
+  }
+
   private static AdaptiveFeatureGenerator createFeatureGenerator() {
    return new CachedFeatureGenerator(
          new AdaptiveFeatureGenerator[]{
-           new WindowFeatureGenerator(new TokenFeatureGenerator(), 2, 2),
-           new WindowFeatureGenerator(new TokenClassFeatureGenerator(true), 2, 2),
+           new WindowFeatureGenerator(new TokenFeatureGenerator(), 2, 2, true),
+           new WindowFeatureGenerator(new TokenClassFeatureGenerator(true), 2, 2, true),
            new OutcomePriorFeatureGenerator()
            });
   }
@@ -279,13 +315,36 @@ public class NameFinderME implements TokenNameFinder {
    public static TokenNameFinderModel train(String languageCode, ObjectStream<NameSample> samples, 
        int iterations, int cutoff,
        final Map<String, Object> resources) throws IOException, InvalidFormatException {
-     
+     return train(languageCode, samples, iterations, cutoff, 0, resources);
+   }
+
+   /**
+    * Trains a name finder model whose features are mapped into 2^featureHashBits
+    * hash buckets, the number of predicates of the model is bounded by the number
+    * of buckets. The number of bits is stored in the model.
+    *
+    * @param languageCode
+    * @param samples
+    * @param iterations
+    * @param cutoff
+    * @param featureHashBits the number of bits of the hash buckets, or 0 to not hash the features
+    * @param resources
+    *
+    * @return the new model
+    *
+    * @throws IOException
+    * @throws InvalidFormatException
+    */
+   public static TokenNameFinderModel train(String languageCode, ObjectStream<NameSample> samples,
+       int iterations, int cutoff, int featureHashBits,
+       final Map<String, Object> resources) throws IOException, InvalidFormatException {
+
      EventStream eventStream = new NameFinderEventStream(samples,
-         new DefaultNameContextGenerator(createFeatureGenerator()));
-     
+         createContextGenerator(featureHashBits));
+
      AbstractModel nameFinderModel = GIS.trainModel(iterations, new TwoPassDataIndexer(eventStream, cutoff));
-     
-     return new TokenNameFinderModel(languageCode, nameFinderModel, resources);
+
+     return new TokenNameFinderModel(languageCode, nameFinderModel, featureHashBits, resources);
    }
 
   @Deprecated
@@ -18,6 +18,7 @@
 
 package opennlp.tools.namefind;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
@@ -25,6 +26,7 @@ import java.util.logging.Logger;
 
 import opennlp.model.AbstractModel;
 import opennlp.model.MaxentModel;
+import opennlp.tools.util.FeatureHasher;
 import opennlp.tools.util.InvalidFormatException;
 import opennlp.tools.util.ModelUtil;
 import opennlp.tools.util.model.ArtifactSerializer;
@@ -40,13 +42,41 @@ public class TokenNameFinderModel extends BaseModel {
 
   private static final String MAXENT_MODEL_ENTRY_NAME = "nameFinder.model";
 
+  private static final String FEATURE_HASH_BITS_PROPERTY = "featureHashBits";
+
   private static Logger logger =
         Logger.getLogger(TokenNameFinderModel.class.getName());
   
   public TokenNameFinderModel(String languageCode, AbstractModel nameFinderModel,
       Map<String, Object> resources) throws IOException, InvalidFormatException {
-    
+    this(languageCode, nameFinderModel, 0, resources);
+  }
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param languageCode
+   * @param nameFinderModel
+   * @param featureHashBits the number of bits of the feature hash buckets
+   * the model was trained with, or 0 if the features are not hashed
+   * @param resources
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public TokenNameFinderModel(String languageCode, AbstractModel nameFinderModel,
+      int featureHashBits, Map<String, Object> resources)
+      throws IOException, InvalidFormatException {
+
     super(languageCode);
+
+    if (featureHashBits < 0) {
+      throw new IllegalArgumentException("featureHashBits must not be negative!");
+    }
+
+    if (featureHashBits > 0) {
+      setManifestProperty(FEATURE_HASH_BITS_PROPERTY, Integer.toString(featureHashBits));
+    }
     
     if (!isModelValid(nameFinderModel)) {
       throw new IllegalArgumentException("Model not compatible with name finder!");
@@ -68,6 +98,21 @@ public class TokenNameFinderModel extends BaseModel {
   public TokenNameFinderModel(InputStream in) throws IOException, InvalidFormatException {
     super(in);
   }
+
+  /**
+   * Initializes the current instance from a model file, which can be
+   * a zip package or a mapped package.
+   *
+   * @param modelFile
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   *
+   * @see #serializeMapped(java.io.OutputStream)
+   */
+  public TokenNameFinderModel(File modelFile) throws IOException, InvalidFormatException {
+    super(modelFile);
+  }
   
   /**
    * Retrieves the {@link TokenNameFinder} model.
@@ -78,6 +123,21 @@ public class TokenNameFinderModel extends BaseModel {
     return (AbstractModel) artifactMap.get(MAXENT_MODEL_ENTRY_NAME);
   }
 
+  /**
+   * Retrieves the number of bits of the feature hash buckets.
+   *
+   * @return the number of bits, or 0 if the features are not hashed
+   */
+  public int getFeatureHashBits() {
+    String featureHashBits = getManifestProperty(FEATURE_HASH_BITS_PROPERTY);
+
+    if (featureHashBits == null) {
+      return 0;
+    }
+
+    return Integer.parseInt(featureHashBits);
+  }
+
   private static boolean isModelValid(MaxentModel model) {
 
     return ModelUtil.validateOutcomes(model, NameFinderME.START) ||
@@ -100,5 +160,17 @@ public class TokenNameFinderModel extends BaseModel {
     if (!(artifactMap.get(MAXENT_MODEL_ENTRY_NAME) instanceof AbstractModel)) {
       throw new InvalidFormatException("Token Name Finder model is incomplete!");
     }
+
+    String featureHashBits = getManifestProperty(FEATURE_HASH_BITS_PROPERTY);
+
+    if (featureHashBits != null) {
+      try {
+        new FeatureHasher(Integer.parseInt(featureHashBits));
+      }
+      catch (IllegalArgumentException e) {
+        throw new InvalidFormatException("Invalid " + FEATURE_HASH_BITS_PROPERTY +
+            " property: " + featureHashBits);
+      }
+    }
   }
 }
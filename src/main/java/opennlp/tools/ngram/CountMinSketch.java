@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ngram;
+
+import opennlp.tools.util.StringList;
+
+/**
+ * A count-min sketch with conservative update which estimates the counts of
+ * ngrams in a fixed amount of memory.
+ * <p>
+ * The sketch has depth rows of width int counters, an ngram is mapped to one
+ * counter per row by its hash. Adding a count raises only the counters which
+ * are lower than the new estimate (conservative update), the estimate is the
+ * minimum of the counters of the ngram.
+ * <p>
+ * Error bounds: let N be the total of all added counts. The estimate of an
+ * ngram is never lower than its true count. With a width of at least e / epsilon
+ * and a depth of at least ln(1 / delta) the estimate exceeds the true count by
+ * more than epsilon * N with a probability of at most delta, see
+ * {@link #create(double, double)}. Conservative update only lowers the
+ * overestimation. The sketch uses 4 * width * depth bytes.
+ * <p>
+ * This class is not thread safe.
+ */
+public class CountMinSketch {
+
+  private final int width;
+
+  private final int depth;
+
+  private final int counters[];
+
+  private long totalCount;
+
+  /**
+   * Initializes the sketch.
+   *
+   * @param width the number of counters per row, it is rounded up to a power of two
+   * @param depth the number of rows
+   */
+  public CountMinSketch(int width, int depth) {
+
+    if (width < 1 || width > 1 << 30) {
+      throw new IllegalArgumentException("width must be between 1 and 2^30: " + width);
+    }
+
+    if (depth < 1) {
+      throw new IllegalArgumentException("depth must be at least 1: " + depth);
+    }
+
+    int w = 1;
+    while (w < width) {
+      w <<= 1;
+    }
+
+    // the counters must fit into one array
+    if ((long) w * depth > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("width * depth is too large: " + w + " * " + depth);
+    }
+
+    this.width = w;
+    this.depth = depth;
+
+    counters = new int[w * depth];
+  }
+
+  /**
+   * Creates a sketch which overestimates a count by more than epsilon times
+   * the total count with a probability of at most delta.
+   *
+   * @param epsilon the relative error, e.g. 0.0001
+   * @param delta the probability that the error is exceeded, e.g. 0.01
+   *
+   * @return the sketch
+   */
+  public static CountMinSketch create(double epsilon, double delta) {
+
+    if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+      throw new IllegalArgumentException("epsilon and delta must be between 0 and 1!");
+    }
+
+    return new CountMinSketch((int) Math.ceil(Math.E / epsilon),
+        (int) Math.ceil(Math.log(1 / delta)));
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Retrieves the total of all added counts, the N of the error bound.
+   *
+   * @return the total count
+   */
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  /**
+   * Mixes the bits of the hash, the finalization step of MurmurHash3.
+   */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Computes the hash of the ngram which consists of the tokens from start to end.
+   *
+   * @param tokens
+   * @param start
+   * @param end
+   *
+   * @return the hash
+   */
+  public static long hash(String tokens[], int start, int end) {
+    long hash = end - start;
+
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + tokens[i].hashCode();
+    }
+
+    return mix(hash);
+  }
+
+  /**
+   * Computes the hash of the ngram.
+   *
+   * @param ngram
+   *
+   * @return the hash, the same as for a token array with the tokens of the ngram
+   */
+  public static long hash(StringList ngram) {
+    long hash = ngram.size();
+
+    for (int i = 0; i < ngram.size(); i++) {
+      hash = 31 * hash + ngram.getToken(i).hashCode();
+    }
+
+    return mix(hash);
+  }
+
+  /**
+   * Computes the hash of an ngram which consists of one token.
+   *
+   * @param token
+   *
+   * @return the hash, the same as for a token array with the token
+   */
+  public static long hash(String token) {
+    return mix(31 + token.hashCode());
+  }
+
+  /**
+   * Retrieves the counter of the hash in the row, the rows use
+   * the two halves of the hash to derive independent indexes.
+   */
+  private int index(long hash, int row) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+
+    return row * width + ((h1 + row * h2) & (width - 1));
+  }
+
+  /**
+   * Estimates the count of the ngram with the hash.
+   *
+   * @param hash the hash of the ngram
+   *
+   * @return the estimated count, it is not lower than the true count
+   */
+  public int estimate(long hash) {
+    int estimate = Integer.MAX_VALUE;
+
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, counters[index(hash, row)]);
+    }
+
+    return estimate;
+  }
+
+  /**
+   * Adds the count to the ngram with the hash.
+   *
+   * @param hash the hash of the ngram
+   * @param count the count to add, it must not be negative
+   */
+  public void add(long hash, int count) {
+
+    if (count < 0) {
+      throw new IllegalArgumentException("count must not be negative: " + count);
+    }
+
+    totalCount += count;
+
+    // saturate instead of overflow, the estimate must not decrease
+    int newEstimate = (int) Math.min((long) estimate(hash) + count, Integer.MAX_VALUE);
+
+    for (int row = 0; row < depth; row++) {
+      int index = index(hash, row);
+
+      if (counters[index] < newEstimate) {
+        counters[index] = newEstimate;
+      }
+    }
+  }
+}
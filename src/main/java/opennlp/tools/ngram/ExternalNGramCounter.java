@@ -0,0 +1,558 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ngram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.dictionary.serializer.Attributes;
+import opennlp.tools.dictionary.serializer.DictionarySerializer;
+import opennlp.tools.dictionary.serializer.Entry;
+import opennlp.tools.util.StringList;
+
+/**
+ * Counts the ngrams of training data which is too large to count them in memory.
+ * <p>
+ * The ngrams are counted with a {@link NGramCounter} until it holds the
+ * configured number of distinct ngrams, then they are written sorted to a
+ * temporary run file and counting starts again with an empty counter. The
+ * counts of equal ngrams are summed while the runs are merged. At most the
+ * configured number of runs is open at the same time, if there are more runs
+ * they are merged in groups into intermediate runs until one final merge
+ * remains. The cutoff is applied during the final merge, so only the
+ * surviving ngrams reach the dictionary or the serialized ngram model.
+ * <p>
+ * The memory use depends on the configured number of ngrams and the configured
+ * number of open runs but not on the size of the training data. A run holds at
+ * most the configured number of ngrams, a merge keeps one ngram and a read
+ * buffer per open run in memory.
+ * <p>
+ * The temporary files are deleted by {@link #close()}. This class is not
+ * thread safe.
+ */
+public class ExternalNGramCounter {
+
+  /**
+   * The default number of runs which are merged at the same time.
+   */
+  public static final int DEFAULT_MAX_OPEN_RUNS = 64;
+
+  // marks the end of a run file instead of an ngram length
+  private static final int END_OF_RUN = -1;
+
+  /**
+   * Reads the sorted ngrams and counts of a run file.
+   */
+  private static class RunReader implements Comparable<RunReader> {
+
+    private final DataInputStream in;
+
+    private String ngram[];
+
+    private long count;
+
+    RunReader(File run) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(run)));
+    }
+
+    /**
+     * Reads the next ngram.
+     *
+     * @return false if the run has no more ngrams
+     */
+    boolean next() throws IOException {
+      int length = in.readInt();
+
+      if (length == END_OF_RUN) {
+        return false;
+      }
+
+      ngram = new String[length];
+
+      for (int i = 0; i < ngram.length; i++) {
+        ngram[i] = in.readUTF();
+      }
+
+      count = in.readLong();
+
+      return true;
+    }
+
+    void close() throws IOException {
+      in.close();
+    }
+
+    public int compareTo(RunReader reader) {
+      return NGramCounter.compare(ngram, reader.ngram);
+    }
+  }
+
+  /**
+   * Merges runs, the counts of equal ngrams are summed.
+   */
+  private static class RunMerger {
+
+    private final PriorityQueue<RunReader> readers = new PriorityQueue<RunReader>();
+
+    private String ngram[];
+
+    private long count;
+
+    RunMerger(List<File> runs) throws IOException {
+      try {
+        for (File run : runs) {
+          RunReader reader = new RunReader(run);
+
+          if (reader.next()) {
+            readers.add(reader);
+          }
+          else {
+            reader.close();
+          }
+        }
+      }
+      catch (IOException e) {
+        close();
+        throw e;
+      }
+    }
+
+    /**
+     * Reads the next ngram of the merged runs.
+     *
+     * @return false if all runs are merged
+     */
+    boolean next() throws IOException {
+      if (readers.isEmpty()) {
+        return false;
+      }
+
+      RunReader reader = readers.poll();
+
+      ngram = reader.ngram;
+      count = 0;
+
+      while (true) {
+        count += reader.count;
+
+        if (reader.next()) {
+          readers.add(reader);
+        }
+        else {
+          reader.close();
+        }
+
+        if (readers.isEmpty() ||
+            NGramCounter.compare(readers.peek().ngram, ngram) != 0) {
+          break;
+        }
+
+        reader = readers.poll();
+      }
+
+      return true;
+    }
+
+    void close() {
+      for (RunReader reader : readers) {
+        try {
+          reader.close();
+        }
+        catch (IOException e) {
+          // the merge failed already or is done
+        }
+      }
+
+      readers.clear();
+    }
+  }
+
+  /**
+   * Merges the runs and iterates over the ngrams which pass the cutoff,
+   * the count is set as attribute of the entries.
+   */
+  private static class Merger implements Iterator<Entry> {
+
+    private final int cutoffUnder;
+    private final int cutoffOver;
+
+    private final RunMerger runMerger;
+
+    private Entry next;
+
+    Merger(List<File> runs, int cutoffUnder, int cutoffOver) throws IOException {
+      this.cutoffUnder = cutoffUnder;
+      this.cutoffOver = cutoffOver;
+
+      runMerger = new RunMerger(runs);
+
+      try {
+        next = merge();
+      }
+      catch (IOException e) {
+        close();
+        throw e;
+      }
+    }
+
+    private Entry merge() throws IOException {
+      while (runMerger.next()) {
+        long count = runMerger.count;
+
+        if (count >= cutoffUnder && count <= cutoffOver) {
+          Attributes attributes = new Attributes();
+          attributes.setValue(NGramModel.COUNT,
+              Long.toString(Math.min(count, Integer.MAX_VALUE)));
+
+          return new Entry(new StringList(runMerger.ngram), attributes);
+        }
+      }
+
+      return null;
+    }
+
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    public Entry next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+
+      Entry entry = next;
+
+      try {
+        next = merge();
+      }
+      catch (IOException e) {
+        close();
+        throw new RuntimeException("Failed to read a run", e);
+      }
+
+      return entry;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    void close() {
+      runMerger.close();
+    }
+  }
+
+  private final int maxNGramsInMemory;
+
+  private final int maxOpenRuns;
+
+  private final File tempDirectory;
+
+  private final List<File> runs = new ArrayList<File>();
+
+  private NGramCounter counter = new NGramCounter();
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param maxNGramsInMemory the number of distinct ngrams which are counted
+   *     in memory before they are written to a run file
+   * @param maxOpenRuns the number of runs which are merged at the same time
+   * @param tempDirectory the directory of the run files or null for the
+   *     default temporary directory
+   */
+  public ExternalNGramCounter(int maxNGramsInMemory, int maxOpenRuns,
+      File tempDirectory) {
+
+    if (maxNGramsInMemory < 1) {
+      throw new IllegalArgumentException("maxNGramsInMemory must be at least 1!");
+    }
+
+    if (maxOpenRuns < 2) {
+      throw new IllegalArgumentException("maxOpenRuns must be at least 2!");
+    }
+
+    this.maxNGramsInMemory = maxNGramsInMemory;
+    this.maxOpenRuns = maxOpenRuns;
+    this.tempDirectory = tempDirectory;
+  }
+
+  /**
+   * Initializes the current instance, at most {@link #DEFAULT_MAX_OPEN_RUNS}
+   * runs are merged at the same time.
+   *
+   * @param maxNGramsInMemory the number of distinct ngrams which are counted
+   *     in memory before they are written to a run file
+   * @param tempDirectory the directory of the run files or null for the
+   *     default temporary directory
+   */
+  public ExternalNGramCounter(int maxNGramsInMemory, File tempDirectory) {
+    this(maxNGramsInMemory, DEFAULT_MAX_OPEN_RUNS, tempDirectory);
+  }
+
+  /**
+   * Initializes the current instance, the run files are created in
+   * the default temporary directory.
+   *
+   * @param maxNGramsInMemory the number of distinct ngrams which are counted
+   *     in memory before they are written to a run file
+   */
+  public ExternalNGramCounter(int maxNGramsInMemory) {
+    this(maxNGramsInMemory, null);
+  }
+
+  /**
+   * Writes the ngrams of the in memory counter sorted to a new run file.
+   */
+  private void spill() throws IOException {
+
+    File run = File.createTempFile("ngrams", ".run", tempDirectory);
+    runs.add(run);
+
+    DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(run)));
+
+    try {
+      int indexes[] = counter.sortedIndexes();
+
+      for (int i = 0; i < indexes.length; i++) {
+        write(out, counter.getTokens(indexes[i]), counter.getCount(indexes[i]));
+      }
+
+      out.writeInt(END_OF_RUN);
+    }
+    finally {
+      out.close();
+    }
+
+    counter = new NGramCounter();
+  }
+
+  private static void write(DataOutputStream out, String ngram[], long count)
+      throws IOException {
+
+    out.writeInt(ngram.length);
+
+    for (int ti = 0; ti < ngram.length; ti++) {
+      out.writeUTF(ngram[ti]);
+    }
+
+    out.writeLong(count);
+  }
+
+  /**
+   * Merges the specified runs into a new run file which replaces them.
+   */
+  private void mergeRuns(List<File> group) throws IOException {
+
+    File run = File.createTempFile("ngrams", ".run", tempDirectory);
+
+    try {
+      RunMerger runMerger = new RunMerger(group);
+
+      try {
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(run)));
+
+        try {
+          while (runMerger.next()) {
+            write(out, runMerger.ngram, runMerger.count);
+          }
+
+          out.writeInt(END_OF_RUN);
+        }
+        finally {
+          out.close();
+        }
+      }
+      finally {
+        runMerger.close();
+      }
+    }
+    catch (IOException e) {
+      run.delete();
+      throw e;
+    }
+
+    for (File mergedRun : group) {
+      mergedRun.delete();
+    }
+
+    runs.removeAll(group);
+    runs.add(run);
+  }
+
+  private void spillIfFull() throws IOException {
+    if (counter.size() >= maxNGramsInMemory) {
+      spill();
+    }
+  }
+
+  /**
+   * Adds one ngram, if it already exists the count increase by one.
+   *
+   * @param ngram
+   *
+   * @throws IOException if a run cannot be written
+   */
+  public void add(StringList ngram) throws IOException {
+    counter.add(ngram);
+    spillIfFull();
+  }
+
+  /**
+   * Adds ngrams up to the specified length, see
+   * {@link NGramModel#add(StringList, int, int)}.
+   *
+   * @param tokens the tokens to build the uni-grams, bi-grams, tri-grams, ..
+   *     from.
+   * @param minLength - minimal length
+   * @param maxLength - maximal length
+   *
+   * @throws IOException if a run cannot be written
+   */
+  public void add(String tokens[], int minLength, int maxLength) throws IOException {
+
+    if (minLength < 1 || maxLength < 1)
+        throw new IllegalArgumentException("minLength and maxLength param must be at least 1!");
+
+    if (minLength > maxLength)
+        throw new IllegalArgumentException("minLength param must not be larger than maxLength param!");
+
+    for (int length = minLength; length <= maxLength; length++) {
+      for (int start = 0; start + length <= tokens.length; start++) {
+        counter.add(tokens, start, start + length, 1);
+        spillIfFull();
+      }
+    }
+  }
+
+  /**
+   * Retrieves the number of run files which were written so far.
+   *
+   * @return the number of runs
+   */
+  public int getRunCount() {
+    return runs.size();
+  }
+
+  private Merger merge(int cutoffUnder, int cutoffOver) throws IOException {
+    if (counter.size() > 0) {
+      spill();
+    }
+
+    // the oldest runs are merged first, the intermediate runs are
+    // appended, so every run takes part in about the same number of merges
+    while (runs.size() > maxOpenRuns) {
+      mergeRuns(new ArrayList<File>(runs.subList(0, maxOpenRuns)));
+    }
+
+    return new Merger(runs, cutoffUnder, cutoffOver);
+  }
+
+  /**
+   * Creates a dictionary which contains all ngrams which appear at least
+   * cutoffUnder and at most cutoffOver times.
+   *
+   * @param caseSensitive Specifies whether case distinctions should be kept in the creation of the dictionary.
+   * @param cutoffUnder
+   * @param cutoffOver
+   *
+   * @return a dictionary of the ngrams
+   *
+   * @throws IOException if a run cannot be read or written
+   */
+  public Dictionary toDictionary(boolean caseSensitive, int cutoffUnder,
+      int cutoffOver) throws IOException {
+
+    Dictionary dict = new Dictionary(caseSensitive);
+
+    Merger merger = merge(cutoffUnder, cutoffOver);
+
+    try {
+      while (merger.hasNext()) {
+        dict.put(merger.next().getTokens());
+      }
+    }
+    catch (RuntimeException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+
+      throw e;
+    }
+
+    return dict;
+  }
+
+  /**
+   * Writes all ngrams which appear at least cutoffUnder and at most cutoffOver
+   * times in the format of the {@link NGramModel} to the given {@link OutputStream}.
+   * The ngrams are written while the runs are merged.
+   *
+   * @param out
+   * @param cutoffUnder
+   * @param cutoffOver
+   *
+   * @throws IOException if a run cannot be read or written or the output fails
+   */
+  public void serialize(OutputStream out, int cutoffUnder, int cutoffOver)
+      throws IOException {
+
+    Merger merger = merge(cutoffUnder, cutoffOver);
+
+    try {
+      DictionarySerializer.serialize(out, merger);
+    }
+    catch (RuntimeException e) {
+      merger.close();
+
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+
+      throw e;
+    }
+  }
+
+  /**
+   * Deletes the run files, the current instance is empty afterwards.
+   */
+  public void close() {
+    for (File run : runs) {
+      run.delete();
+    }
+
+    runs.clear();
+
+    counter = new NGramCounter();
+  }
+}
@@ -0,0 +1,624 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ngram;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.util.StringList;
+
+/**
+ * Counts token ngrams with primitive keys and counts, it is a faster and
+ * smaller alternative to the {@link NGramModel} to count the ngrams of large
+ * training data.
+ * <p>
+ * Every distinct token is mapped to an int id, an ngram is stored once as the
+ * sequence of its token ids in a shared int pool. The ngrams are found with an
+ * open addressing hash table over their token ids, counting an ngram which was
+ * already seen does not create any objects.
+ * <p>
+ * This class is not thread safe.
+ */
+public class NGramCounter implements NGramSink, Iterable<StringList> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * The token of each token id.
+   */
+  private String tokens[] = new String[INITIAL_CAPACITY];
+
+  private int tokenCount;
+
+  /**
+   * The token ids plus one, zero marks an empty slot.
+   */
+  private int tokenTable[] = new int[INITIAL_CAPACITY * 2];
+
+  /**
+   * The token ids of all ngrams, the ids of the ngram i are stored
+   * from gramStarts[i] to gramStarts[i + 1].
+   */
+  private int gramTokens[] = new int[INITIAL_CAPACITY * 2];
+
+  private int gramStarts[] = new int[INITIAL_CAPACITY + 1];
+
+  private int gramHashes[] = new int[INITIAL_CAPACITY];
+
+  private int counts[] = new int[INITIAL_CAPACITY];
+
+  private int gramCount;
+
+  /**
+   * The ngram indexes plus one, zero marks an empty slot.
+   */
+  private int gramTable[] = new int[INITIAL_CAPACITY * 2];
+
+  /**
+   * The token ids of the ngram which is currently looked up.
+   */
+  private int ids[] = new int[8];
+
+  /**
+   * Initializes an empty instance.
+   */
+  public NGramCounter() {
+  }
+
+  private static int mix(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+
+  private static int[] grow(int array[], int minLength) {
+    int newArray[] = new int[Math.max(minLength, array.length * 2)];
+    System.arraycopy(array, 0, newArray, 0, array.length);
+    return newArray;
+  }
+
+  /**
+   * Retrieves the id of the token.
+   *
+   * @param token
+   * @param add if true an unknown token is added
+   *
+   * @return the id or -1 if the token is unknown and not added
+   */
+  private int tokenId(String token, boolean add) {
+    int mask = tokenTable.length - 1;
+
+    int slot = mix(token.hashCode()) & mask;
+
+    while (tokenTable[slot] != 0) {
+      int id = tokenTable[slot] - 1;
+
+      if (tokens[id].equals(token)) {
+        return id;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    if (!add) {
+      return -1;
+    }
+
+    if (tokenCount == tokens.length) {
+      String newTokens[] = new String[tokens.length * 2];
+      System.arraycopy(tokens, 0, newTokens, 0, tokens.length);
+      tokens = newTokens;
+    }
+
+    int id = tokenCount++;
+    tokens[id] = token;
+    tokenTable[slot] = id + 1;
+
+    if (tokenCount * 2 > tokenTable.length) {
+      tokenTable = new int[tokenTable.length * 2];
+
+      for (int i = 0; i < tokenCount; i++) {
+        insert(tokenTable, mix(tokens[i].hashCode()), i);
+      }
+    }
+
+    return id;
+  }
+
+  private static void insert(int table[], int hash, int index) {
+    int mask = table.length - 1;
+
+    int slot = hash & mask;
+
+    while (table[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+
+    table[slot] = index + 1;
+  }
+
+  private static int hash(int ids[], int length) {
+    int hash = 1;
+
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + ids[i];
+    }
+
+    return mix(hash);
+  }
+
+  private boolean matches(int gram, int ids[], int length) {
+    int start = gramStarts[gram];
+
+    if (gramStarts[gram + 1] - start != length) {
+      return false;
+    }
+
+    for (int i = 0; i < length; i++) {
+      if (gramTokens[start + i] != ids[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Retrieves the index of the ngram with the token ids.
+   *
+   * @return the index or minus the table slot minus one if the ngram is unknown
+   */
+  private int gramIndex(int ids[], int length, int hash) {
+    int mask = gramTable.length - 1;
+
+    int slot = hash & mask;
+
+    while (gramTable[slot] != 0) {
+      int gram = gramTable[slot] - 1;
+
+      if (gramHashes[gram] == hash && matches(gram, ids, length)) {
+        return gram;
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    return -slot - 1;
+  }
+
+  private void rehashGrams(int capacity) {
+    gramTable = new int[capacity];
+
+    for (int i = 0; i < gramCount; i++) {
+      insert(gramTable, gramHashes[i], i);
+    }
+  }
+
+  /**
+   * Adds the count to the ngram with the token ids in the lookup buffer.
+   */
+  private void add(int length, int count) {
+    int hash = hash(ids, length);
+
+    int gram = gramIndex(ids, length, hash);
+
+    if (gram >= 0) {
+      counts[gram] += count;
+      return;
+    }
+
+    int slot = -gram - 1;
+
+    if (gramCount == counts.length) {
+      gramHashes = grow(gramHashes, 0);
+      counts = grow(counts, 0);
+      gramStarts = grow(gramStarts, counts.length + 1);
+    }
+
+    int start = gramStarts[gramCount];
+
+    if (start + length > gramTokens.length) {
+      gramTokens = grow(gramTokens, start + length);
+    }
+
+    System.arraycopy(ids, 0, gramTokens, start, length);
+
+    gram = gramCount++;
+    gramStarts[gramCount] = start + length;
+    gramHashes[gram] = hash;
+    counts[gram] = count;
+    gramTable[slot] = gram + 1;
+
+    if (gramCount * 2 > gramTable.length) {
+      rehashGrams(gramTable.length * 2);
+    }
+  }
+
+  private void ensureLookupCapacity(int length) {
+    if (ids.length < length) {
+      ids = new int[Math.max(length, ids.length * 2)];
+    }
+  }
+
+  /**
+   * Adds the count to the ngram which consists of the tokens from start to end.
+   *
+   * @param tokens
+   * @param start the index of the first token
+   * @param end the index after the last token
+   * @param count
+   */
+  public void add(String tokens[], int start, int end, int count) {
+
+    if (end <= start) {
+      throw new IllegalArgumentException("An ngram must have at least one token!");
+    }
+
+    ensureLookupCapacity(end - start);
+
+    for (int i = start; i < end; i++) {
+      ids[i - start] = tokenId(tokens[i], true);
+    }
+
+    add(end - start, count);
+  }
+
+  /**
+   * Adds one ngram, if it already exists the count increase by one.
+   *
+   * @param ngram
+   */
+  public void add(StringList ngram) {
+    ensureLookupCapacity(ngram.size());
+
+    for (int i = 0; i < ngram.size(); i++) {
+      ids[i] = tokenId(ngram.getToken(i), true);
+    }
+
+    add(ngram.size(), 1);
+  }
+
+  /**
+   * Adds ngrams up to the specified length, see
+   * {@link NGramModel#add(StringList, int, int)}.
+   *
+   * @param tokens the tokens to build the uni-grams, bi-grams, tri-grams, ..
+   *     from.
+   * @param minLength - minimal length
+   * @param maxLength - maximal length
+   */
+  public void add(String tokens[], int minLength, int maxLength) {
+
+    if (minLength < 1 || maxLength < 1)
+        throw new IllegalArgumentException("minLength and maxLength param must be at least 1!");
+
+    if (minLength > maxLength)
+        throw new IllegalArgumentException("minLength param must not be larger than maxLength param!");
+
+    for (int length = minLength; length <= maxLength; length++) {
+      for (int start = 0; start + length <= tokens.length; start++) {
+        add(tokens, start, start + length, 1);
+      }
+    }
+  }
+
+  /**
+   * Adds character ngrams, see {@link NGramModel#add(String, int, int)}.
+   *
+   * @param chars
+   * @param minLength
+   * @param maxLength
+   */
+  public void add(String chars, int minLength, int maxLength) {
+
+    ensureLookupCapacity(1);
+
+    for (int length = minLength; length <= maxLength; length++) {
+      for (int start = 0; start + length <= chars.length(); start++) {
+        ids[0] = tokenId(chars.substring(start, start + length).toLowerCase(), true);
+        add(1, 1);
+      }
+    }
+  }
+
+  /**
+   * Adds the ngrams and counts of the given counter to the current instance.
+   * <p>
+   * Merging is associative and commutative, ngrams can therefore be counted
+   * in disjoint parts of the training data and the partial counters be
+   * merged in any order.
+   *
+   * @param counter the counter to merge, it is not changed
+   */
+  public void merge(NGramCounter counter) {
+
+    // the token ids of the other counter mapped to the ids of this counter
+    int tokenIds[] = new int[counter.tokenCount];
+
+    for (int i = 0; i < tokenIds.length; i++) {
+      tokenIds[i] = tokenId(counter.tokens[i], true);
+    }
+
+    for (int gram = 0; gram < counter.gramCount; gram++) {
+      int start = counter.gramStarts[gram];
+      int length = counter.gramStarts[gram + 1] - start;
+
+      ensureLookupCapacity(length);
+
+      for (int i = 0; i < length; i++) {
+        ids[i] = tokenIds[counter.gramTokens[start + i]];
+      }
+
+      add(length, counter.counts[gram]);
+    }
+  }
+
+  /**
+   * Retrieves the count of the given ngram.
+   *
+   * @param ngram
+   *
+   * @return count of the ngram or 0 if it is not contained
+   */
+  public int getCount(StringList ngram) {
+    ensureLookupCapacity(ngram.size());
+
+    for (int i = 0; i < ngram.size(); i++) {
+      ids[i] = tokenId(ngram.getToken(i), false);
+
+      if (ids[i] == -1) {
+        return 0;
+      }
+    }
+
+    int gram = gramIndex(ids, ngram.size(), hash(ids, ngram.size()));
+
+    return gram >= 0 ? counts[gram] : 0;
+  }
+
+  /**
+   * Retrieves the number of distinct ngrams.
+   *
+   * @return number of different grams
+   */
+  public int size() {
+    return gramCount;
+  }
+
+  /**
+   * Retrieves the total count of all ngrams.
+   *
+   * @return total count of all ngrams
+   */
+  public int numberOfGrams() {
+    int counter = 0;
+
+    for (int i = 0; i < gramCount; i++) {
+      counter += counts[i];
+    }
+
+    return counter;
+  }
+
+  /**
+   * Deletes all ngram which do appear less than the cutoffUnder value
+   * and more often than the cutoffOver value.
+   *
+   * @param cutoffUnder
+   * @param cutoffOver
+   */
+  public void cutoff(int cutoffUnder, int cutoffOver) {
+
+    if (cutoffUnder > 0 || cutoffOver < Integer.MAX_VALUE) {
+
+      int kept = 0;
+      int keptTokens = 0;
+
+      for (int i = 0; i < gramCount; i++) {
+        int start = gramStarts[i];
+        int length = gramStarts[i + 1] - start;
+
+        if (counts[i] >= cutoffUnder && counts[i] <= cutoffOver) {
+          System.arraycopy(gramTokens, start, gramTokens, keptTokens, length);
+
+          gramStarts[kept] = keptTokens;
+          gramHashes[kept] = gramHashes[i];
+          counts[kept] = counts[i];
+
+          keptTokens += length;
+          kept++;
+        }
+      }
+
+      gramStarts[kept] = keptTokens;
+      gramCount = kept;
+
+      rehashGrams(gramTable.length);
+    }
+  }
+
+  /**
+   * Retrieves the tokens of the ngram with the index.
+   */
+  String[] getTokens(int gram) {
+    int start = gramStarts[gram];
+
+    String ngram[] = new String[gramStarts[gram + 1] - start];
+
+    for (int i = 0; i < ngram.length; i++) {
+      ngram[i] = tokens[gramTokens[start + i]];
+    }
+
+    return ngram;
+  }
+
+  /**
+   * Retrieves the count of the ngram with the index.
+   */
+  int getCount(int gram) {
+    return counts[gram];
+  }
+
+  /**
+   * Compares two ngrams token by token, an ngram is smaller than
+   * the longer ngrams it is a prefix of.
+   */
+  static int compare(String ngramA[], String ngramB[]) {
+    for (int i = 0; i < ngramA.length && i < ngramB.length; i++) {
+      int result = ngramA[i].compareTo(ngramB[i]);
+
+      if (result != 0) {
+        return result;
+      }
+    }
+
+    return ngramA.length - ngramB.length;
+  }
+
+  private int compare(int gramA, int gramB) {
+    int startA = gramStarts[gramA];
+    int lengthA = gramStarts[gramA + 1] - startA;
+    int startB = gramStarts[gramB];
+    int lengthB = gramStarts[gramB + 1] - startB;
+
+    for (int i = 0; i < lengthA && i < lengthB; i++) {
+      int idA = gramTokens[startA + i];
+      int idB = gramTokens[startB + i];
+
+      if (idA != idB) {
+        return tokens[idA].compareTo(tokens[idB]);
+      }
+    }
+
+    return lengthA - lengthB;
+  }
+
+  /**
+   * Retrieves the indexes of the ngrams in the order of
+   * {@link #compare(String[], String[])}.
+   */
+  int[] sortedIndexes() {
+    Integer order[] = new Integer[gramCount];
+
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+
+    Arrays.sort(order, new Comparator<Integer>() {
+      public int compare(Integer gramA, Integer gramB) {
+        return NGramCounter.this.compare(gramA.intValue(), gramB.intValue());
+      }
+    });
+
+    int indexes[] = new int[order.length];
+
+    for (int i = 0; i < indexes.length; i++) {
+      indexes[i] = order[i];
+    }
+
+    return indexes;
+  }
+
+  private StringList ngram(int gram) {
+    return new StringList(getTokens(gram));
+  }
+
+  /**
+   * Retrieves an {@link Iterator} over all ngrams.
+   *
+   * @return iterator over all grams
+   */
+  public Iterator<StringList> iterator() {
+    return new Iterator<StringList>() {
+
+      private int gram;
+
+      public boolean hasNext() {
+        return gram < gramCount;
+      }
+
+      public StringList next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        return ngram(gram++);
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * Creates a dictionary which contain all ngrams of the current instance.
+   *
+   * Entries which are only different in the case are merged into one.
+   *
+   * Calling this method is the same as calling {@link #toDictionary(boolean)}
+   * with false.
+   *
+   * @return a dictionary of the ngrams
+   */
+  public Dictionary toDictionary() {
+    return toDictionary(false);
+  }
+
+  /**
+   * Creates a dictionary which contains all ngrams of the current instance.
+   *
+   * @param caseSensitive Specifies whether case distinctions should be kept in the creation of the dictionary.
+   *
+   * @return a dictionary of the ngrams
+   */
+  public Dictionary toDictionary(boolean caseSensitive) {
+
+    Dictionary dict = new Dictionary(caseSensitive);
+
+    for (int i = 0; i < gramCount; i++) {
+      dict.put(ngram(i));
+    }
+
+    return dict;
+  }
+
+  /**
+   * Creates a {@link NGramModel} with the ngrams and counts of the current
+   * instance, e.g. to serialize them.
+   *
+   * @return the ngram model
+   */
+  public NGramModel toNGramModel() {
+    NGramModel model = new NGramModel();
+
+    for (int i = 0; i < gramCount; i++) {
+      StringList ngram = ngram(i);
+      model.add(ngram);
+      model.setCount(ngram, counts[i]);
+    }
+
+    return model;
+  }
+}
@@ -187,6 +187,25 @@ public class NGramModel implements Iterable<StringList>{
     }
   }
 
+  /**
+   * Adds the ngrams and counts of the given model to the current instance,
+   * the counts of ngrams which are contained in both are summed.
+   *
+   * @param model the model to merge, it is not changed
+   */
+  public void merge(NGramModel model) {
+    for (Map.Entry<StringList, Integer> ngram : model.mNGrams.entrySet()) {
+      Integer count = mNGrams.get(ngram.getKey());
+
+      if (count == null) {
+        mNGrams.put(ngram.getKey(), ngram.getValue());
+      }
+      else {
+        mNGrams.put(ngram.getKey(), count + ngram.getValue());
+      }
+    }
+  }
+
   /**
    * Removes the specified tokens form the NGram model, they are just dropped.
    *
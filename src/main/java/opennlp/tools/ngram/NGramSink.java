@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package opennlp.tools.ngram;
+
+import opennlp.tools.util.StringList;
+
+/**
+ * Receives the ngrams of a sample, e.g. to count them with a
+ * {@link NGramCounter}.
+ */
+public interface NGramSink {
+
+  /**
+   * Adds the count to the ngram which consists of the tokens from start to end.
+   *
+   * @param tokens
+   * @param start the index of the first token
+   * @param end the index after the last token
+   * @param count
+   */
+  void add(String tokens[], int start, int end, int count);
+
+  /**
+   * Adds one ngram.
+   *
+   * @param ngram
+   */
+  void add(StringList ngram);
+
+  /**
+   * Adds ngrams up to the specified length, see
+   * {@link NGramModel#add(StringList, int, int)}.
+   *
+   * @param tokens the tokens to build the uni-grams, bi-grams, tri-grams, ..
+   *     from.
+   * @param minLength - minimal length
+   * @param maxLength - maximal length
+   */
+  void add(String tokens[], int minLength, int maxLength);
+
+  /**
+   * Adds character ngrams, see {@link NGramModel#add(String, int, int)}.
+   *
+   * @param chars
+   * @param minLength
+   * @param maxLength
+   */
+  void add(String chars, int minLength, int maxLength);
+}
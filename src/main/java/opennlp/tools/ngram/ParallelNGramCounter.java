@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ngram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.ObjectStreamException;
+
+/**
+ * Counts the ngrams of the samples of an {@link ObjectStream} with multiple
+ * threads.
+ * <p>
+ * The calling thread reads the samples and hands them in shards to the
+ * workers. Every worker counts the samples of its shards into its own
+ * {@link NGramCounter}, at the end the counters of the workers are merged
+ * with {@link NGramCounter#merge(NGramCounter)}. The result is the same as
+ * if all samples were counted by one thread.
+ * <p>
+ * The counting cannot block on a busy executor. If the workers do not keep up,
+ * the calling thread counts the shard itself, and workers which did not start
+ * before the end of the samples are not run anymore. The executor can therefore
+ * have fewer threads than workers, or even none available.
+ */
+public class ParallelNGramCounter {
+
+  /**
+   * Adds the ngrams of a sample to a sink. The extractor is called
+   * concurrently by the workers, each with its own sink.
+   */
+  public interface NGramExtractor {
+
+    /**
+     * Adds the ngrams of the sample to the sink.
+     *
+     * @param sample
+     * @param sink
+     */
+    void addNGrams(String sample, NGramSink sink);
+  }
+
+  /**
+   * Tells a worker that no more shards follow.
+   */
+  private static final List<String> END_OF_SAMPLES = Collections.emptyList();
+
+  /**
+   * Counts the shards of the queue until the end of the samples.
+   */
+  private static class Worker implements Callable<NGramCounter> {
+
+    private final BlockingQueue<List<String>> shards;
+
+    private final NGramExtractor extractor;
+
+    /**
+     * Is set by the worker when it starts, or by the calling thread
+     * to prevent that a worker which did not start yet runs at all.
+     */
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    Worker(BlockingQueue<List<String>> shards, NGramExtractor extractor) {
+      this.shards = shards;
+      this.extractor = extractor;
+    }
+
+    public NGramCounter call() throws InterruptedException {
+      if (!claimed.compareAndSet(false, true)) {
+        return null;
+      }
+
+      NGramCounter counter = new NGramCounter();
+
+      List<String> shard;
+      while ((shard = shards.take()) != END_OF_SAMPLES) {
+        count(shard, extractor, counter);
+      }
+
+      return counter;
+    }
+  }
+
+  private final ExecutorService executor;
+
+  private final int workers;
+
+  private final int shardSize;
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param executor the executor which runs the workers or null to count in
+   *     the calling thread
+   * @param workers the number of workers
+   * @param shardSize the number of samples which are handed to a worker at once
+   */
+  public ParallelNGramCounter(ExecutorService executor, int workers, int shardSize) {
+
+    if (workers < 1) {
+      throw new IllegalArgumentException("workers must be at least 1!");
+    }
+
+    if (shardSize < 1) {
+      throw new IllegalArgumentException("shardSize must be at least 1!");
+    }
+
+    this.executor = executor;
+    this.workers = workers;
+    this.shardSize = shardSize;
+  }
+
+  private static NGramCounter getCounter(Future<NGramCounter> future)
+      throws ObjectStreamException {
+    try {
+      return future.get();
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+
+      throw new RuntimeException("A worker failed", cause);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+
+      throw new ObjectStreamException("Interrupted while counting", e);
+    }
+  }
+
+  private static void count(List<String> shard, NGramExtractor extractor,
+      NGramCounter counter) {
+    for (String sample : shard) {
+      extractor.addNGrams(sample, counter);
+    }
+  }
+
+  /**
+   * Throws the exception of a worker which failed.
+   */
+  private static void checkWorkers(List<Future<NGramCounter>> futures)
+      throws ObjectStreamException {
+    for (Future<NGramCounter> future : futures) {
+      if (future.isDone()) {
+        getCounter(future);
+
+        throw new IllegalStateException("A worker stopped before the end of the samples!");
+      }
+    }
+  }
+
+  /**
+   * Hands the shard to the workers, if a worker fails its exception is thrown.
+   */
+  private static void put(BlockingQueue<List<String>> shards, List<String> shard,
+      List<Future<NGramCounter>> futures) throws ObjectStreamException {
+    try {
+      while (!shards.offer(shard, 100, TimeUnit.MILLISECONDS)) {
+        checkWorkers(futures);
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+
+      throw new ObjectStreamException("Interrupted while counting", e);
+    }
+  }
+
+  /**
+   * Counts the ngrams of all samples of the stream.
+   *
+   * @param samples the stream, it is read until its end
+   * @param extractor
+   *
+   * @return the ngram counts of all samples
+   *
+   * @throws ObjectStreamException if the samples cannot be read
+   */
+  public NGramCounter count(ObjectStream<String> samples,
+      final NGramExtractor extractor) throws ObjectStreamException {
+
+    String sample;
+
+    if (executor == null) {
+      NGramCounter counter = new NGramCounter();
+
+      while ((sample = samples.read()) != null) {
+        extractor.addNGrams(sample, counter);
+      }
+
+      return counter;
+    }
+
+    final BlockingQueue<List<String>> shards =
+        new ArrayBlockingQueue<List<String>>(workers * 2);
+
+    List<Worker> workerTasks = new ArrayList<Worker>(workers);
+    List<Future<NGramCounter>> futures = new ArrayList<Future<NGramCounter>>();
+
+    try {
+      for (int i = 0; i < workers; i++) {
+        Worker worker = new Worker(shards, extractor);
+        workerTasks.add(worker);
+        futures.add(executor.submit(worker));
+      }
+
+      // counts the shards which the workers do not take in time
+      NGramCounter counter = new NGramCounter();
+
+      List<String> shard = new ArrayList<String>(shardSize);
+
+      while ((sample = samples.read()) != null) {
+        shard.add(sample);
+
+        if (shard.size() == shardSize) {
+          if (!shards.offer(shard)) {
+            checkWorkers(futures);
+            count(shard, extractor, counter);
+          }
+          shard = new ArrayList<String>(shardSize);
+        }
+      }
+
+      count(shard, extractor, counter);
+
+      // only the workers which already started get the end of the samples
+      List<Future<NGramCounter>> running = new ArrayList<Future<NGramCounter>>();
+
+      for (int i = 0; i < workers; i++) {
+        if (!workerTasks.get(i).claimed.compareAndSet(false, true)) {
+          running.add(futures.get(i));
+        }
+      }
+
+      if (running.isEmpty()) {
+        while ((shard = shards.poll()) != null) {
+          count(shard, extractor, counter);
+        }
+      }
+
+      // the shards in the queue are taken before the end of the samples
+      for (int i = 0; i < running.size(); i++) {
+        put(shards, END_OF_SAMPLES, running);
+      }
+
+      for (Future<NGramCounter> future : running) {
+        counter.merge(getCounter(future));
+      }
+
+      return counter;
+    }
+    finally {
+      for (Future<NGramCounter> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ngram;
+
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.ObjectStreamException;
+import opennlp.tools.util.StringList;
+
+/**
+ * Counts only the ngrams which can pass a cutoff, the other ngrams are
+ * filtered out with a {@link CountMinSketch} before they are counted.
+ * <p>
+ * The samples are read twice. The first pass adds all ngrams to the sketch.
+ * The second pass counts an ngram exactly only if the sketch estimates that
+ * it appears at least cutoffUnder times. The estimate is never lower than the
+ * true count, so no ngram which passes the cutoff is lost and the counts of
+ * the result are exact, it is the same as counting all ngrams and applying
+ * the cutoff afterwards.
+ * <p>
+ * The memory of the second pass is bounded by the ngrams which appear at
+ * least cutoffUnder times, at most N / cutoffUnder for N ngram occurrences,
+ * plus the ngrams which the sketch overestimates. An ngram which appears c
+ * times is kept wrongly only if its estimate exceeds its count by
+ * cutoffUnder - c or more, see {@link CountMinSketch} for the probability.
+ */
+public class TwoPassNGramCounter {
+
+  /**
+   * Adds the ngrams of the first pass to the sketch.
+   */
+  private static class SketchingSink implements NGramSink {
+
+    private final CountMinSketch sketch;
+
+    SketchingSink(CountMinSketch sketch) {
+      this.sketch = sketch;
+    }
+
+    public void add(String tokens[], int start, int end, int count) {
+      sketch.add(CountMinSketch.hash(tokens, start, end), count);
+    }
+
+    public void add(StringList ngram) {
+      sketch.add(CountMinSketch.hash(ngram), 1);
+    }
+
+    public void add(String tokens[], int minLength, int maxLength) {
+      for (int length = minLength; length <= maxLength; length++) {
+        for (int start = 0; start + length <= tokens.length; start++) {
+          add(tokens, start, start + length, 1);
+        }
+      }
+    }
+
+    public void add(String chars, int minLength, int maxLength) {
+      for (int length = minLength; length <= maxLength; length++) {
+        for (int start = 0; start + length <= chars.length(); start++) {
+          sketch.add(CountMinSketch.hash(
+              chars.substring(start, start + length).toLowerCase()), 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Counts the ngrams of the second pass which the sketch estimates
+   * at or above the cutoff.
+   */
+  private static class FilteringSink implements NGramSink {
+
+    private final CountMinSketch sketch;
+
+    private final int cutoffUnder;
+
+    private final NGramCounter counter;
+
+    FilteringSink(CountMinSketch sketch, int cutoffUnder, NGramCounter counter) {
+      this.sketch = sketch;
+      this.cutoffUnder = cutoffUnder;
+      this.counter = counter;
+    }
+
+    public void add(String tokens[], int start, int end, int count) {
+      if (sketch.estimate(CountMinSketch.hash(tokens, start, end)) >= cutoffUnder) {
+        counter.add(tokens, start, end, count);
+      }
+    }
+
+    public void add(StringList ngram) {
+      if (sketch.estimate(CountMinSketch.hash(ngram)) >= cutoffUnder) {
+        counter.add(ngram);
+      }
+    }
+
+    public void add(String tokens[], int minLength, int maxLength) {
+      for (int length = minLength; length <= maxLength; length++) {
+        for (int start = 0; start + length <= tokens.length; start++) {
+          add(tokens, start, start + length, 1);
+        }
+      }
+    }
+
+    public void add(String chars, int minLength, int maxLength) {
+      String gram[] = new String[1];
+
+      for (int length = minLength; length <= maxLength; length++) {
+        for (int start = 0; start + length <= chars.length(); start++) {
+          gram[0] = chars.substring(start, start + length).toLowerCase();
+
+          add(gram, 0, 1, 1);
+        }
+      }
+    }
+  }
+
+  private final CountMinSketch sketch;
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param sketch an empty sketch, its size determines the memory of the first pass
+   */
+  public TwoPassNGramCounter(CountMinSketch sketch) {
+    this.sketch = sketch;
+  }
+
+  /**
+   * Counts the ngrams of the samples which appear at least cutoffUnder and
+   * at most cutoffOver times.
+   *
+   * @param samples the samples, the stream must support reset
+   * @param extractor adds the ngrams of a sample to the sink
+   * @param cutoffUnder
+   * @param cutoffOver
+   *
+   * @return the ngrams which pass the cutoff with their exact counts
+   *
+   * @throws ObjectStreamException if the samples cannot be read
+   */
+  public NGramCounter count(ObjectStream<String> samples,
+      ParallelNGramCounter.NGramExtractor extractor, int cutoffUnder, int cutoffOver)
+      throws ObjectStreamException {
+
+    NGramSink sketchingSink = new SketchingSink(sketch);
+
+    String sample;
+    while ((sample = samples.read()) != null) {
+      extractor.addNGrams(sample, sketchingSink);
+    }
+
+    samples.reset();
+
+    NGramCounter counter = new NGramCounter();
+    NGramSink filteringSink = new FilteringSink(sketch, cutoffUnder, counter);
+
+    while ((sample = samples.read()) != null) {
+      extractor.addNGrams(sample, filteringSink);
+    }
+
+    counter.cutoff(cutoffUnder, cutoffOver);
+
+    return counter;
+  }
+}
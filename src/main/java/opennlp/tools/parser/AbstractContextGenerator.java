@@ -23,6 +23,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import opennlp.tools.util.PredicateBuffer;
+import opennlp.tools.util.Span;
+
 /**
  * Abstract class containing many of the methods used to generate contexts for parsing.
  */
@@ -384,6 +387,93 @@ public abstract class AbstractContextGenerator {
     features.add(feat.toString());
   }
 
+  /**
+   * Appends the text of the head of the specified parse without creating a string.
+   */
+  protected static PredicateBuffer appendHead(PredicateBuffer predicates, Parse p) {
+    Parse head = p.getHead();
+    Span span = head.getSpan();
+    return predicates.append(head.getText(), span.getStart(), span.getEnd());
+  }
+
+  /**
+   * Adds the same features as {@link #surround(Parse, int, String, Collection, List)}
+   * to the predicate buffer.
+   */
+  protected void surround(Parse node, int i, String type, Collection<Parse> punctuation, PredicateBuffer predicates) {
+    predicates.start().append('s').append(i).append('=');
+    if (punctuation !=null) {
+      for (Iterator<Parse> pi=punctuation.iterator();pi.hasNext();) {
+        Parse punct = pi.next();
+        if (node != null) {
+          appendHead(predicates, node).append('|').append(type).append('|').append(node.getType()).append('|').append(punct.getType());
+        }
+        else {
+          predicates.append(type).append('|').append(EOS).append('|').append(punct.getType());
+        }
+        predicates.add();
+
+        predicates.start().append('s').append(i).append("*=");
+        if (node != null) {
+          predicates.append(type).append('|').append(node.getType()).append('|').append(punct.getType());
+        }
+        else {
+          predicates.append(type).append('|').append(EOS).append('|').append(punct.getType());
+        }
+        predicates.add();
+
+        predicates.start().append('s').append(i).append("*=");
+        predicates.append(type).append('|').append(punct.getType());
+        predicates.add();
+      }
+    }
+    else {
+      if (node != null) {
+        appendHead(predicates, node).append('|').append(type).append('|').append(node.getType());
+      }
+      else {
+        predicates.append(type).append('|').append(EOS);
+      }
+      predicates.add();
+      predicates.start().append('s').append(i).append("*=");
+      if (node != null) {
+        predicates.append(type).append('|').append(node.getType());
+      }
+      else {
+        predicates.append(type).append('|').append(EOS);
+      }
+      predicates.add();
+    }
+  }
+
+  /**
+   * Adds the same features as {@link #checkcons(Parse, String, String, List)}
+   * to the predicate buffer.
+   */
+  protected void checkcons(Parse child, String i, String type, PredicateBuffer predicates) {
+    predicates.start().append('c').append(i).append('=').append(child.getType()).append('|');
+    appendHead(predicates, child).append('|').append(type).add();
+    predicates.start().append('c').append(i).append("*=").append(child.getType()).append('|').append(type).add();
+  }
+
+  /**
+   * Adds the same features as {@link #checkcons(Parse, Parse, String, List)}
+   * to the predicate buffer.
+   */
+  protected void checkcons(Parse p1, Parse p2, String type, PredicateBuffer predicates) {
+    predicates.start().append("cil=").append(type).append(',').append(p1.getType()).append('|');
+    appendHead(predicates, p1).append(',').append(p2.getType()).append('|');
+    appendHead(predicates, p2).add();
+
+    predicates.start().append("ci*l=").append(type).append(',').append(p1.getType()).append(',').append(p2.getType()).append('|');
+    appendHead(predicates, p2).add();
+
+    predicates.start().append("cil*=").append(type).append(',').append(p1.getType()).append('|');
+    appendHead(predicates, p1).append(',').append(p2.getType()).add();
+
+    predicates.start().append("ci*l*=").append(type).append(',').append(p1.getType()).append(',').append(p2.getType()).add();
+  }
+
   /**
    * Populates specified nodes array with left-most right frontier
    * node with a unique head. If the right frontier doesn't contain
@@ -21,7 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import opennlp.tools.chunker.ChunkerContextGenerator;
-import opennlp.tools.util.Cache;
+import opennlp.tools.util.ConcurrentCache;
 
 /**
  * Creates predivtive context for the pre-chunking phases of parsing.
@@ -29,7 +29,7 @@ import opennlp.tools.util.Cache;
 public class ChunkContextGenerator implements ChunkerContextGenerator {
 
   private static final String EOS = "eos";
-  private Cache contextsCache;
+  private ConcurrentCache<String, String[]> contextsCache;
   private Object wordsKey;
 
 
@@ -40,7 +40,7 @@ public class ChunkContextGenerator implements ChunkerContextGenerator {
   public ChunkContextGenerator(int cacheSize) {
     super();
     if (cacheSize > 0) {
-      contextsCache = new Cache(cacheSize);
+      contextsCache = new ConcurrentCache<String, String[]>(cacheSize);
     }
   }
 
@@ -116,7 +116,7 @@ public class ChunkContextGenerator implements ChunkerContextGenerator {
     String cacheKey = x0+t_2+t1+t0+t1+t2+p_2+p_1;
     if (contextsCache!= null) {
       if (wordsKey == words) {
-        String[] contexts = (String[]) contextsCache.get(cacheKey);
+        String[] contexts = contextsCache.get(cacheKey);
         if (contexts != null) {
           return contexts;
         }
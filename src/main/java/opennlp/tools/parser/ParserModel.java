@@ -19,6 +19,7 @@
 package opennlp.tools.parser;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -28,8 +29,11 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import opennlp.maxent.io.BinaryGISModelReader;
@@ -41,6 +45,7 @@ import opennlp.tools.chunker.ChunkerModel;
 import opennlp.tools.postag.POSModel;
 import opennlp.tools.util.InvalidFormatException;
 import opennlp.tools.util.ModelUtil;
+import opennlp.tools.util.model.ArtifactLoader;
 
 /**
  * This is an abstract base class for {@link ParserModel} implementations.
@@ -128,58 +133,84 @@ public class ParserModel {
   }
 
   public static ParserModel create(InputStream in) throws IOException, InvalidFormatException {
+    return create(in, null);
+  }
 
-    ZipInputStream zip = new ZipInputStream(in);
-
-    AbstractModel buildModel = null;
-    AbstractModel checkModel = null;
-
-    POSModel parserTagger = null;
-    ChunkerModel parserChunker = null;
-
-    opennlp.tools.parser.lang.en.HeadRules headRules = null;
-
-    ZipEntry entry;
-    while((entry = zip.getNextEntry()) != null) {
-      if (BUILD_MODEL_ENTRY_NAME.equals(entry.getName())) {
-
-        buildModel = new BinaryGISModelReader(
-            new DataInputStream(zip)).getModel();
-
-        zip.closeEntry();
-      }
-      else if (CHECK_MODEL_ENTRY_NAME.equals(entry.getName())) {
-
-        checkModel = new BinaryGISModelReader(
-            new DataInputStream(zip)).getModel();
-
-        zip.closeEntry();
-      }
-      else if (PARSER_TAGGER_MODEL_ENTRY_NAME.equals(entry.getName())) {
-
-        parserTagger = new POSModel(zip);
-        zip.closeEntry();
-      }
-      else if (CHUNKER_TAGGER_MODEL_ENTRY_NAME.equals(entry.getName())) {
-
-        parserChunker = new ChunkerModel(zip);
-        zip.closeEntry();
-      }
-      else if (HEAD_RULES_MODEL_ENTRY_NAME.equals(entry.getName())) {
-
-        headRules = new opennlp.tools.parser.lang.en.HeadRules(new BufferedReader
-            (new InputStreamReader(zip, "UTF-8")));
+  /**
+   * Creates the task which creates the artifact of the specified entry.
+   */
+  private static Callable<Object> createTask(String name, final InputStream in)
+      throws InvalidFormatException {
+
+    if (BUILD_MODEL_ENTRY_NAME.equals(name) || CHECK_MODEL_ENTRY_NAME.equals(name)) {
+      return new Callable<Object>() {
+        public Object call() throws IOException {
+          return new BinaryGISModelReader(new DataInputStream(in)).getModel();
+        }
+      };
+    }
+    else if (PARSER_TAGGER_MODEL_ENTRY_NAME.equals(name)) {
+      return new Callable<Object>() {
+        public Object call() throws IOException, InvalidFormatException {
+          return new POSModel(in);
+        }
+      };
+    }
+    else if (CHUNKER_TAGGER_MODEL_ENTRY_NAME.equals(name)) {
+      return new Callable<Object>() {
+        public Object call() throws IOException, InvalidFormatException {
+          return new ChunkerModel(in);
+        }
+      };
+    }
+    else if (HEAD_RULES_MODEL_ENTRY_NAME.equals(name)) {
+      return new Callable<Object>() {
+        public Object call() throws IOException {
+          return new opennlp.tools.parser.lang.en.HeadRules(new BufferedReader
+              (new InputStreamReader(in, "UTF-8")));
+        }
+      };
+    }
+    else {
+      throw new InvalidFormatException("Model contains unkown resource!");
+    }
+  }
 
-        zip.closeEntry();
-      }
-      else {
-        throw new InvalidFormatException("Model contains unkown resource!");
-      }
+  /**
+   * Creates the parser model, the build and check models, the tagger, the
+   * chunker and the head rules are created concurrently on the executor.
+   * <p>
+   * The bytes of all entries are read first, then each artifact is created
+   * by its own task. The number of threads of the executor bounds the number
+   * of artifacts which are created at the same time.
+   *
+   * @param in
+   * @param executor the executor or null to create the artifacts one after another
+   *
+   * @return the parser model
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public static ParserModel create(InputStream in, ExecutorService executor)
+      throws IOException, InvalidFormatException {
+
+    Map<String, Callable<Object>> tasks = new LinkedHashMap<String, Callable<Object>>();
+
+    for (Map.Entry<String, byte[]> entry : ArtifactLoader.readEntries(in).entrySet()) {
+      tasks.put(entry.getKey(), createTask(entry.getKey(),
+          new ByteArrayInputStream(entry.getValue())));
     }
 
+    Map<String, Object> artifacts = ArtifactLoader.createArtifacts(tasks, executor);
+
     // TODO: add checks, everything must be =! null
 
-    return new ParserModel(buildModel, checkModel, parserTagger, parserChunker, headRules);
+    return new ParserModel((AbstractModel) artifacts.get(BUILD_MODEL_ENTRY_NAME),
+        (AbstractModel) artifacts.get(CHECK_MODEL_ENTRY_NAME),
+        (POSModel) artifacts.get(PARSER_TAGGER_MODEL_ENTRY_NAME),
+        (ChunkerModel) artifacts.get(CHUNKER_TAGGER_MODEL_ENTRY_NAME),
+        (opennlp.tools.parser.lang.en.HeadRules) artifacts.get(HEAD_RULES_MODEL_ENTRY_NAME));
   }
 
   private static AbstractModel readModel(String fileName) throws FileNotFoundException, IOException {
@@ -25,7 +25,6 @@ import opennlp.tools.dictionary.Dictionary;
 import opennlp.tools.parser.AbstractContextGenerator;
 import opennlp.tools.parser.Cons;
 import opennlp.tools.parser.Parse;
-import opennlp.tools.util.StringList;
 
 /**
  * Class to generator predictive contexts for deciding how constituents should be combined together.
@@ -121,36 +120,36 @@ public class BuildContextGenerator extends AbstractContextGenerator {
 
       if (p_2 != null) {
         unigram[0] = p_2.getHead().toString();
-        u_2 = dict.contains(new StringList(unigram));
+        u_2 = dict.contains(unigram, 0, 1);
       }
 
       if (p2 != null) {
         unigram[0] = p2.getHead().toString();
-        u2 = dict.contains(new StringList(unigram));
+        u2 = dict.contains(unigram, 0, 1);
       }
 
       unigram[0] = p0.getHead().toString();
-      u0 = dict.contains(new StringList(unigram));
+      u0 = dict.contains(unigram, 0, 1);
 
       if (p_2 != null && p_1 != null) {
         bigram[0] = p_2.getHead().toString();
         bigram[1] = p_1.getHead().toString();
-        b_2_1 = dict.contains(new StringList(bigram));
+        b_2_1 = dict.contains(bigram, 0, 2);
 
         trigram[0] = p_2.getHead().toString();
         trigram[1] = p_1.getHead().toString();
         trigram[2] = p0.getHead().toString();
-        t_2_10 = dict.contains(new StringList(trigram));
+        t_2_10 = dict.contains(trigram, 0, 3);
       }
       if (p_1 != null && p1 != null) {
         trigram[0] = p_1.getHead().toString();
         trigram[1] = p0.getHead().toString();
         trigram[2] = p1.getHead().toString();
-        t_101 = dict.contains(new StringList(trigram));
+        t_101 = dict.contains(trigram, 0, 3);
       }
       if (p_1 != null) {
         unigram[0] = p_1.getHead().toString();
-        u_1 = dict.contains(new StringList(unigram));
+        u_1 = dict.contains(unigram, 0, 1);
 
         //extra check for 2==null case
         b_2_1 = b_2_1 && u_1;
@@ -159,21 +158,21 @@ public class BuildContextGenerator extends AbstractContextGenerator {
 
         bigram[0] = p_1.getHead().toString();
         bigram[1] = p0.getHead().toString();
-        b_10 = dict.contains(new StringList(bigram));
+        b_10 = dict.contains(bigram, 0, 2);
       }
       if (p1 != null && p2 != null) {
         bigram[0] = p1.getHead().toString();
         bigram[1] = p2.getHead().toString();
-        b12 = dict.contains(new StringList(bigram));
+        b12 = dict.contains(bigram, 0, 2);
 
         trigram[0] = p0.getHead().toString();
         trigram[1] = p1.getHead().toString();
         trigram[2] = p2.getHead().toString();
-        t012 = dict.contains(new StringList(trigram));
+        t012 = dict.contains(trigram, 0, 3);
       }
       if (p1 != null) {
         unigram[0] = p1.getHead().toString();
-        u1 = dict.contains(new StringList(unigram));
+        u1 = dict.contains(unigram, 0, 1);
 
         //extra check fpr 2==null case
         b12 = b12 && u1;
@@ -182,7 +181,7 @@ public class BuildContextGenerator extends AbstractContextGenerator {
 
         bigram[0] = p0.getHead().toString();
         bigram[1] = p1.getHead().toString();
-        b01 = dict.contains(new StringList(bigram));
+        b01 = dict.contains(bigram, 0, 2);
       }
     }
 
@@ -24,6 +24,7 @@ import java.util.List;
 
 import opennlp.tools.parser.AbstractContextGenerator;
 import opennlp.tools.parser.Parse;
+import opennlp.tools.util.PredicateBuffer;
 
 /**
  * Class for generating predictive context for deciding when a constituent is complete.
@@ -115,4 +116,72 @@ public class CheckContextGenerator extends AbstractContextGenerator {
 
     return features.toArray(new String[features.size()]);
   }
+
+  /**
+   * Adds the same context as {@link #getContext(Parse[], String, int, int)}
+   * to the predicate buffer without creating the predicate strings.
+   */
+  public void getContext(Parse[] constituents, String type, int start, int end,
+      PredicateBuffer predicates) {
+    int ps = constituents.length;
+
+    //default
+    predicates.add("default");
+    //first constituent label
+    predicates.start().append("fl=").append(constituents[0].getLabel()).add();
+    Parse pstart = constituents[start];
+    Parse pend = constituents[end];
+    checkcons(pstart, "begin", type, predicates);
+    checkcons(pend, "last", type, predicates);
+    for (int pi = start; pi < end; pi++) {
+      checkcons(constituents[pi], pend, type, predicates);
+    }
+
+    predicates.start().append("p=").append(type).append("->");
+    for (int pi = start; pi < end; pi++) {
+      predicates.append(constituents[pi].getType()).append(',');
+    }
+    predicates.append(pend.getType()).add();
+
+    predicates.start().append("pp=").append(type).append("->");
+    for (int pi = start; pi < end; pi++) {
+      Parse p = constituents[pi];
+      predicates.append(p.getType()).append(',');
+      Collection<Parse> nextPunct = p.getNextPunctuationSet();
+      if (nextPunct != null) {
+        for (Iterator<Parse> pit=nextPunct.iterator();pit.hasNext();) {
+          Parse punct = pit.next();
+          predicates.append(punct.getType()).append(',');
+        }
+      }
+    }
+    predicates.append(pend.getType()).add();
+
+    Parse p_2 = null;
+    Parse p_1 = null;
+    Parse p1 = null;
+    Parse p2 = null;
+    Collection<Parse> p1s = constituents[end].getNextPunctuationSet();
+    Collection<Parse> p2s = null;
+    Collection<Parse> p_1s = constituents[start].getPreviousPunctuationSet();
+    Collection<Parse> p_2s = null;
+    if (start - 2 >= 0) {
+      p_2 = constituents[start - 2];
+    }
+    if (start - 1 >= 0) {
+      p_1 = constituents[start - 1];
+      p_2s = p_1.getPreviousPunctuationSet();
+    }
+    if (end + 1 < ps) {
+      p1 = constituents[end + 1];
+      p2s = p1.getNextPunctuationSet();
+    }
+    if (end + 2 < ps) {
+      p2 = constituents[end + 2];
+    }
+    surround(p_1, -1, type, p_1s, predicates);
+    surround(p_2, -2, type, p_2s, predicates);
+    surround(p1, 1, type, p1s, predicates);
+    surround(p2, 2, type, p2s, predicates);
+  }
 }
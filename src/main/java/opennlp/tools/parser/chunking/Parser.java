@@ -25,15 +25,18 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import opennlp.maxent.DataStream;
 import opennlp.model.AbstractModel;
 import opennlp.model.MaxentModel;
 import opennlp.model.TwoPassDataIndexer;
 import opennlp.tools.chunker.Chunker;
 import opennlp.tools.chunker.ChunkerME;
 import opennlp.tools.dictionary.Dictionary;
-import opennlp.tools.ngram.NGramModel;
+import opennlp.tools.ngram.NGramCounter;
+import opennlp.tools.ngram.NGramSink;
+import opennlp.tools.ngram.ParallelNGramCounter;
 import opennlp.tools.parser.AbstractBottomUpParser;
 import opennlp.tools.parser.HeadRules;
 import opennlp.tools.parser.Parse;
@@ -41,9 +44,13 @@ import opennlp.tools.parser.ParserEventTypeEnum;
 import opennlp.tools.parser.ParserModel;
 import opennlp.tools.postag.POSTagger;
 import opennlp.tools.postag.POSTaggerME;
+import opennlp.tools.util.CompiledModel;
 import opennlp.tools.util.InvalidFormatException;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.ObjectStreamException;
+import opennlp.tools.util.PlainTextByLineStream;
+import opennlp.tools.util.PredicateBuffer;
 import opennlp.tools.util.Span;
-import opennlp.tools.util.StringList;
 
 /**
  * Class for a shift reduce style parser based on Adwait Ratnaparkhi's 1998 thesis.
@@ -59,6 +66,12 @@ public class Parser extends AbstractBottomUpParser {
   private double[] bprobs;
   private double[] cprobs;
 
+  /**
+   * The buffer for the predicates of the compiled check model or null
+   * if the check model cannot be compiled.
+   */
+  private PredicateBuffer checkPredicates;
+
   private static final String TOP_START = START + TOP_NODE;
   private int topStartIndex;
   private Map<String, String> startTypeMap;
@@ -107,6 +120,9 @@ public class Parser extends AbstractBottomUpParser {
     cprobs = new double[checkModel.getNumOutcomes()];
     this.buildContextGenerator = new BuildContextGenerator();
     this.checkContextGenerator = new CheckContextGenerator();
+    if (CompiledModel.isCompilable(checkModel)) {
+      checkPredicates = new PredicateBuffer(CompiledModel.compile(checkModel));
+    }
     startTypeMap = new HashMap<String, String>();
     contTypeMap = new HashMap<String, String>();
     for (int boi = 0, bon = buildModel.getNumOutcomes(); boi < bon; boi++) {
@@ -128,11 +144,25 @@ public class Parser extends AbstractBottomUpParser {
   protected void advanceTop(Parse p) {
     buildModel.eval(buildContextGenerator.getContext(p.getChildren(), 0), bprobs);
     p.addProb(Math.log(bprobs[topStartIndex]));
-    checkModel.eval(checkContextGenerator.getContext(p.getChildren(), TOP_NODE, 0, 0), cprobs);
+    evalCheck(p.getChildren(), TOP_NODE, 0, 0);
     p.addProb(Math.log(cprobs[completeIndex]));
     p.setType(TOP_NODE);
   }
 
+  /**
+   * Evaluates the check model for the specified constituent into cprobs.
+   */
+  private void evalCheck(Parse[] constituents, String type, int start, int end) {
+    if (checkPredicates != null) {
+      checkPredicates.clear();
+      checkContextGenerator.getContext(constituents, type, start, end, checkPredicates);
+      checkPredicates.eval(cprobs);
+    }
+    else {
+      checkModel.eval(checkContextGenerator.getContext(constituents, type, start, end), cprobs);
+    }
+  }
+
   protected Parse[] advanceParses(final Parse p, double probMass) {
     double q = 1 - probMass;
     /** The closest previous node which has been labeled as a start node. */
@@ -205,7 +235,7 @@ public class Parser extends AbstractBottomUpParser {
       newParse1.addProb(Math.log(bprob));
       //check
       //String[] context = checkContextGenerator.getContext(newParse1.getChildren(), lastStartType, lastStartIndex, advanceNodeIndex);
-      checkModel.eval(checkContextGenerator.getContext(collapsePunctuation(newParse1.getChildren(),punctSet), lastStartType, lastStartIndex, advanceNodeIndex), cprobs);
+      evalCheck(collapsePunctuation(newParse1.getChildren(),punctSet), lastStartType, lastStartIndex, advanceNodeIndex);
       //System.out.println("check "+lastStartType+" "+cprobs[completeIndex]+" "+cprobs[incompleteIndex]+" "+tag+" "+java.util.Arrays.asList(context));
       Parse newParse2 = newParse1;
       if (cprobs[completeIndex] > q) { //make sure a reduce is likely
@@ -271,80 +301,96 @@ public class Parser extends AbstractBottomUpParser {
   }
 
   /**
-   * Creates a n-gram dictionary from the specified data stream using the specified head rule and specified cut-off.
-   * @param data The data stream of parses.
-   * @param rules The head rules for the parses.
-   * @param cutoff The minimum number of entries required for the n-gram to be saved as part of the dictionary.
-   * @return A dictionary object.
+   * Adds the n-grams of the specified parse to the dictionary counts.
+   * @param parseStr The parse.
+   * @param rules The head rules for the parse.
+   * @param mdict The n-gram counts.
    */
-  private static Dictionary buildDictionary(DataStream data, HeadRules rules, int cutoff) {
-    NGramModel mdict = new NGramModel();
-    while(data.hasNext()) {
-      String parseStr = (String) data.nextToken();
-      Parse p = Parse.parseParse(parseStr);
-      p.updateHeads(rules);
-      Parse[] pwords = p.getTagNodes();
-      String[] words = new String[pwords.length];
-      //add all uni-grams
-      for (int wi=0;wi<words.length;wi++) {
-        words[wi] = pwords[wi].toString();
-      }
+  private static void addNGrams(String parseStr, HeadRules rules, NGramSink mdict) {
+    Parse p = Parse.parseParse(parseStr);
+    p.updateHeads(rules);
+    Parse[] pwords = p.getTagNodes();
+    String[] words = new String[pwords.length];
+    //add all uni-grams
+    for (int wi=0;wi<words.length;wi++) {
+      words[wi] = pwords[wi].toString();
+    }
 
-      mdict.add(new StringList(words), 1, 1);
-      //add tri-grams and bi-grams for inital sequence
-      Parse[] chunks = collapsePunctuation(ParserEventStream.getInitialChunks(p),rules.getPunctuationTags());
-      String[] cwords = new String[chunks.length];
-      for (int wi=0;wi<cwords.length;wi++) {
-        cwords[wi] = chunks[wi].getHead().toString();
-      }
-      mdict.add(new StringList(cwords), 2, 3);
+    mdict.add(words, 1, 1);
+    //add tri-grams and bi-grams for inital sequence
+    Parse[] chunks = collapsePunctuation(ParserEventStream.getInitialChunks(p),rules.getPunctuationTags());
+    String[] cwords = new String[chunks.length];
+    for (int wi=0;wi<cwords.length;wi++) {
+      cwords[wi] = chunks[wi].getHead().toString();
+    }
+    mdict.add(cwords, 2, 3);
 
-      //emulate reductions to produce additional n-grams
-      int ci = 0;
-      while (ci < chunks.length) {
-        //System.err.println("chunks["+ci+"]="+chunks[ci].getHead().toString()+" chunks.length="+chunks.length);
-        if (lastChild(chunks[ci], chunks[ci].getParent(),rules.getPunctuationTags())) {
-          //perform reduce
-          int reduceStart = ci;
-          while (reduceStart >=0 && chunks[reduceStart].getParent() == chunks[ci].getParent()) {
-            reduceStart--;
-          }
-          reduceStart++;
-          chunks = ParserEventStream.reduceChunks(chunks,ci,chunks[ci].getParent());
-          ci = reduceStart;
-          if (chunks.length != 0) {
-            String[] window = new String[5];
-            int wi = 0;
-            if (ci-2 >= 0) window[wi++] = chunks[ci-2].getHead().toString();
-            if (ci-1 >= 0) window[wi++] = chunks[ci-1].getHead().toString();
-            window[wi++] = chunks[ci].getHead().toString();
-            if (ci+1 < chunks.length) window[wi++] = chunks[ci+1].getHead().toString();
-            if (ci+2 < chunks.length) window[wi++] = chunks[ci+2].getHead().toString();
-            if (wi < 5) {
-              String[] subWindow = new String[wi];
-              for (int swi=0;swi<wi;swi++) {
-                subWindow[swi]=window[swi];
-              }
-              window = subWindow;
-            }
-            if (window.length >=3) {
-              mdict.add(new StringList(window), 2, 3);
-            }
-            else if (window.length == 2) {
-              mdict.add(new StringList(window), 2, 2);
+    //emulate reductions to produce additional n-grams
+    int ci = 0;
+    while (ci < chunks.length) {
+      //System.err.println("chunks["+ci+"]="+chunks[ci].getHead().toString()+" chunks.length="+chunks.length);
+      if (lastChild(chunks[ci], chunks[ci].getParent(),rules.getPunctuationTags())) {
+        //perform reduce
+        int reduceStart = ci;
+        while (reduceStart >=0 && chunks[reduceStart].getParent() == chunks[ci].getParent()) {
+          reduceStart--;
+        }
+        reduceStart++;
+        chunks = ParserEventStream.reduceChunks(chunks,ci,chunks[ci].getParent());
+        ci = reduceStart;
+        if (chunks.length != 0) {
+          String[] window = new String[5];
+          int wi = 0;
+          if (ci-2 >= 0) window[wi++] = chunks[ci-2].getHead().toString();
+          if (ci-1 >= 0) window[wi++] = chunks[ci-1].getHead().toString();
+          window[wi++] = chunks[ci].getHead().toString();
+          if (ci+1 < chunks.length) window[wi++] = chunks[ci+1].getHead().toString();
+          if (ci+2 < chunks.length) window[wi++] = chunks[ci+2].getHead().toString();
+          if (wi < 5) {
+            String[] subWindow = new String[wi];
+            for (int swi=0;swi<wi;swi++) {
+              subWindow[swi]=window[swi];
             }
+            window = subWindow;
+          }
+          if (window.length >=3) {
+            mdict.add(window, 2, 3);
+          }
+          else if (window.length == 2) {
+            mdict.add(window, 2, 2);
           }
-          ci=reduceStart-1; //ci will be incremented at end of loop
         }
-        ci++;
+        ci=reduceStart-1; //ci will be incremented at end of loop
       }
+      ci++;
     }
+  }
+
+  /**
+   * Creates a n-gram dictionary from the specified parses using the specified head rule and specified cut-off.
+   * The parses are counted by the specified number of threads.
+   * @param parses The stream of parses.
+   * @param rules The head rules for the parses.
+   * @param cutoff The minimum number of entries required for the n-gram to be saved as part of the dictionary.
+   * @param executor The executor which runs the threads or null to count in the calling thread.
+   * @param threads The number of threads.
+   * @return A dictionary object.
+   */
+  private static Dictionary buildDictionary(ObjectStream<String> parses, final HeadRules rules,
+      int cutoff, ExecutorService executor, int threads) throws ObjectStreamException {
+    NGramCounter mdict = new ParallelNGramCounter(executor, threads, 100).count(parses,
+        new ParallelNGramCounter.NGramExtractor() {
+          public void addNGrams(String parseStr, NGramSink sink) {
+            Parser.addNGrams(parseStr, rules, sink);
+          }
+        });
     //System.err.println("gas,and="+mdict.getCount((new TokenList(new String[] {"gas","and"}))));
     mdict.cutoff(cutoff, Integer.MAX_VALUE);
     return mdict.toDictionary(true);
   }
 
-  public static void main(String[] args) throws java.io.IOException, InvalidFormatException {
+  public static void main(String[] args) throws java.io.IOException, InvalidFormatException,
+      ObjectStreamException {
     if (args.length < 2) {
       usage();
       System.exit(1);
@@ -407,8 +453,16 @@ public class Parser extends AbstractBottomUpParser {
     }
     if (dict || all) {
       System.err.println("Building dictionary");
-      DataStream data = new opennlp.maxent.PlainTextByLineDataStream(new java.io.FileReader(inFile));
-      Dictionary mdict = buildDictionary(data, rules, cutoff);
+      int threads = Runtime.getRuntime().availableProcessors();
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      Dictionary mdict;
+      try {
+        mdict = buildDictionary(new PlainTextByLineStream(new java.io.FileReader(inFile)),
+            rules, cutoff, executor, threads);
+      }
+      finally {
+        executor.shutdown();
+      }
       System.out.println("Saving the dictionary");
       mdict.serialize(new FileOutputStream(dictFile));
     }
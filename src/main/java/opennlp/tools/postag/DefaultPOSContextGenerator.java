@@ -23,18 +23,24 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 import opennlp.tools.dictionary.Dictionary;
-import opennlp.tools.util.Cache;
-import opennlp.tools.util.StringList;
+import opennlp.tools.util.CompiledContextGenerator;
+import opennlp.tools.util.ConcurrentCache;
+import opennlp.tools.util.PredicateBuffer;
+import opennlp.tools.util.SplitContextGenerator;
 
 /**
  * A context generator for the POS Tagger.
+ * <p>
+ * The generator can be used concurrently, the optional contexts cache
+ * is kept per thread.
  *
  * @author      Gann Bierner
  * @author      Tom Morton
  * @version     $Revision: 1.2 $, $Date: 2009/01/24 01:32:19 $
  */
 
-public class DefaultPOSContextGenerator implements POSContextGenerator {
+public class DefaultPOSContextGenerator implements POSContextGenerator,
+    SplitContextGenerator<String>, CompiledContextGenerator<String> {
 
   protected final String SE = "*SE*";
   protected final String SB = "*SB*";
@@ -44,11 +50,23 @@ public class DefaultPOSContextGenerator implements POSContextGenerator {
   private static Pattern hasCap = Pattern.compile("[A-Z]");
   private static Pattern hasNum = Pattern.compile("[0-9]");
 
-  private Cache contextsCache;
-  private Object wordsKey;
+  private static final String[] EMPTY_CONTEXT = new String[0];
+
+  /**
+   * The contexts of the sentence which is currently tagged by a thread.
+   */
+  private static class SentenceContexts {
+    private ConcurrentCache<String, String[]> contextsCache;
+    private Object wordsKey;
+
+    SentenceContexts(int cacheSize) {
+      contextsCache = new ConcurrentCache<String, String[]>(cacheSize);
+    }
+  }
+
+  private ThreadLocal<SentenceContexts> sentenceContexts;
 
   private Dictionary dict;
-  private String[] dictGram;
 
   /**
    * Initializes the current instance.
@@ -65,11 +83,15 @@ public class DefaultPOSContextGenerator implements POSContextGenerator {
    * @param cacheSize
    * @param dict
    */
-  public DefaultPOSContextGenerator(int cacheSize, Dictionary dict) {
+  public DefaultPOSContextGenerator(final int cacheSize, Dictionary dict) {
     this.dict = dict;
-    dictGram = new String[1];
     if (cacheSize > 0) {
-      contextsCache = new Cache(cacheSize);
+      sentenceContexts = new ThreadLocal<SentenceContexts>() {
+        @Override
+        protected SentenceContexts initialValue() {
+          return new SentenceContexts(cacheSize);
+        }
+      };
     }
   }
   protected static String[] getPrefixes(String lex) {
@@ -88,6 +110,13 @@ public class DefaultPOSContextGenerator implements POSContextGenerator {
     return suffs;
   }
 
+  /**
+   * The contexts contain the two previous tags.
+   */
+  public int getHistoryOrder() {
+    return 2;
+  }
+
   public String[] getContext(int index, String[] sequence, String[] priorDecisions, Object[] additionalContext) {
     return getContext(index,sequence,priorDecisions);
   }
@@ -100,9 +129,68 @@ public class DefaultPOSContextGenerator implements POSContextGenerator {
    * @return The context for making a pos tag decision at the specified token index given the specified tokens and previous tags.
    */
   public String[] getContext(int index, Object[] tokens, String[] tags) {
-    String next, nextnext, lex, prev, prevprev;
     String tagprev, tagprevprev;
     tagprev = tagprevprev = null;
+
+    if (index - 1 >= 0) {
+      tagprev =  tags[index - 1];
+
+      if (index - 2 >= 0) {
+        tagprevprev = tags[index - 2];
+      }
+    }
+    String cacheKey = index+tagprev+tagprevprev;
+    SentenceContexts cache = null;
+    if (sentenceContexts != null) {
+      cache = sentenceContexts.get();
+      if (cache.wordsKey == tokens){
+        String[] cachedContexts = cache.contextsCache.get(cacheKey);
+        if (cachedContexts != null) {
+          return cachedContexts;
+        }
+      }
+      else {
+        cache.contextsCache.clear();
+        cache.wordsKey = tokens;
+      }
+    }
+    String[] contexts = createContext(index, tokens, tagprev, tagprevprev);
+    if (cache != null) {
+      cache.contextsCache.put(cacheKey,contexts);
+    }
+    return contexts;
+  }
+
+  /**
+   * Returns the context without the tag predicates, they depend
+   * on the previous tags.
+   */
+  public String[] getStaticContext(int index, String[] sequence, Object[] additionalContext) {
+    return createContext(index, sequence, null, null);
+  }
+
+  /**
+   * Returns the tag predicates of the context.
+   */
+  public String[] getHistoryContext(int index, String[] sequence, String[] priorDecisions,
+      Object[] additionalContext) {
+
+    if (index - 1 < 0 || priorDecisions[index - 1] == null) {
+      return EMPTY_CONTEXT;
+    }
+
+    String tagprev = priorDecisions[index - 1];
+
+    if (index - 2 >= 0 && priorDecisions[index - 2] != null) {
+      return new String[] {"t=" + tagprev, "t2=" + priorDecisions[index - 2] + "," + tagprev};
+    }
+
+    return new String[] {"t=" + tagprev};
+  }
+
+  private String[] createContext(int index, Object[] tokens, String tagprev,
+      String tagprevprev) {
+    String next, nextnext, lex, prev, prevprev;
     next = nextnext = lex = prev = prevprev = null;
 
     lex = tokens[index].toString();
@@ -120,11 +208,9 @@ public class DefaultPOSContextGenerator implements POSContextGenerator {
 
     if (index - 1 >= 0) {
       prev =  tokens[index - 1].toString();
-      tagprev =  tags[index - 1];
 
       if (index - 2 >= 0) {
         prevprev = tokens[index - 2].toString();
-        tagprevprev = tags[index - 2];
       }
       else {
         prevprev = SB; // Sentence Beginning
@@ -133,25 +219,12 @@ public class DefaultPOSContextGenerator implements POSContextGenerator {
     else {
       prev = SB; // Sentence Beginning
     }
-    String cacheKey = index+tagprev+tagprevprev;
-    if (contextsCache != null) {
-      if (wordsKey == tokens){
-        String[] cachedContexts = (String[]) contextsCache.get(cacheKey);
-        if (cachedContexts != null) {
-          return cachedContexts;
-        }
-      }
-      else {
-        contextsCache.clear();
-        wordsKey = tokens;
-      }
-    }
+
     List<String> e = new ArrayList<String>();
     e.add("default");
     // add the word itself
     e.add("w=" + lex);
-    dictGram[0] = lex;
-    if (dict == null || !dict.contains(new StringList(dictGram))) {
+    if (dict == null || !dict.contains(lex)) {
       // do some basic suffix analysis
       String[] suffs = getSuffixes(lex);
       for (int i = 0; i < suffs.length; i++) {
@@ -195,11 +268,92 @@ public class DefaultPOSContextGenerator implements POSContextGenerator {
         e.add("nn=" + nextnext);
       }
     }
-    String[] contexts = (String[]) e.toArray(new String[e.size()]);
-    if (contextsCache != null) {
-      contextsCache.put(cacheKey,contexts);
-    }
-    return contexts;
+    return (String[]) e.toArray(new String[e.size()]);
   }
 
+  /**
+   * Adds the same context as {@link #getContext(int, Object[], String[])} to
+   * the predicate buffer without creating the predicate strings. The contexts
+   * cache is not used.
+   */
+  public void getContext(int index, String[] tokens, String[] tags,
+      Object[] additionalContext, PredicateBuffer predicates) {
+
+    String lex = tokens[index].toString();
+
+    predicates.add("default");
+    // add the word itself
+    predicates.start().append("w=").append(lex).add();
+    if (dict == null || !dict.contains(lex)) {
+      // do some basic suffix analysis
+      for (int li = 0; li < SUFFIX_LENGTH; li++) {
+        predicates.start().append("suf=").append(lex,
+            Math.max(lex.length() - li - 1, 0), lex.length()).add();
+      }
+
+      for (int li = 0; li < PREFIX_LENGTH; li++) {
+        predicates.start().append("pre=").append(lex,
+            0, Math.min(li + 1, lex.length())).add();
+      }
+
+      // see if the word has any special characters
+      boolean hyphen = false;
+      boolean cap = false;
+      boolean num = false;
+      for (int ci = 0; ci < lex.length(); ci++) {
+        char c = lex.charAt(ci);
+        hyphen |= c == '-';
+        cap |= c >= 'A' && c <= 'Z';
+        num |= c >= '0' && c <= '9';
+      }
+
+      if (hyphen) {
+        predicates.add("h");
+      }
+
+      if (cap) {
+        predicates.add("c");
+      }
+
+      if (num) {
+        predicates.add("d");
+      }
+    }
+
+    // add the words and pos's of the surrounding context
+    if (index - 1 >= 0) {
+      predicates.start().append("p=").append(tokens[index - 1].toString()).add();
+      if (tags[index - 1] != null) {
+        predicates.start().append("t=").append(tags[index - 1]).add();
+      }
+
+      if (index - 2 >= 0) {
+        predicates.start().append("pp=").append(tokens[index - 2].toString()).add();
+        if (tags[index - 2] != null) {
+          predicates.start().append("t2=").append(tags[index - 2]).append(',')
+              .append(tags[index - 1]).add();
+        }
+      }
+      else {
+        predicates.start().append("pp=").append(SB).add();
+      }
+    }
+    else {
+      predicates.start().append("p=").append(SB).add();
+    }
+
+    if (tokens.length > index + 1) {
+      predicates.start().append("n=").append(tokens[index + 1].toString()).add();
+
+      if (tokens.length > index + 2) {
+        predicates.start().append("nn=").append(tokens[index + 2].toString()).add();
+      }
+      else {
+        predicates.start().append("nn=").append(SE).add();
+      }
+    }
+    else {
+      predicates.start().append("n=").append(SE).add();
+    }
+  }
 }
@@ -89,6 +89,21 @@ public final class POSModel extends BaseModel {
     super(in);
   }
 
+  /**
+   * Initializes the current instance from a model file, which can be
+   * a zip package or a mapped package.
+   *
+   * @param modelFile
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   *
+   * @see #serializeMapped(OutputStream)
+   */
+  public POSModel(File modelFile) throws IOException, InvalidFormatException {
+    super(modelFile);
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   protected void createArtifactSerializers(
@@ -29,17 +29,24 @@ import opennlp.model.TwoPassDataIndexer;
 import opennlp.perceptron.SimplePerceptronSequenceTrainer;
 import opennlp.tools.dictionary.Dictionary;
 import opennlp.tools.util.BeamSearch;
+import opennlp.tools.util.CompiledModel;
+import opennlp.tools.util.DecoderType;
 import opennlp.tools.util.ModelType;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.ObjectStreamException;
 import opennlp.tools.util.Sequence;
 import opennlp.tools.util.SequenceValidator;
+import opennlp.tools.util.ViterbiSearch;
 
 /**
  * A part-of-speech tagger that uses maximum entropy.  Tries to predict whether
  * words are nouns, verbs, or any of 70 other POS tags depending on their
  * surrounding context.
- *
+ * <p>
+ * A tagger created from a {@link POSModel} can be shared by many threads if
+ * only the {@link #tagWithProbs(String[])} methods are used. The other tag
+ * methods remember the last tagged sentence for {@link #probs()} and must
+ * only be called from one thread.
  */
 public class POSTaggerME implements POSTagger {
   
@@ -117,11 +124,34 @@ public class POSTaggerME implements POSTagger {
    * @param beamSize
    */
   public POSTaggerME(POSModel model, int beamSize) {
+    this(model, beamSize, DecoderType.BEAM_SEARCH);
+  }
+
+  /**
+   * Initializes the current instance with the provided
+   * model, beam size and decoder.
+   *
+   * @param model
+   * @param beamSize
+   * @param decoder the decoder which is used to find the best sequence of tags,
+   * the Viterbi search needs one search state per pair of tags and should
+   * only be used with small tag sets
+   */
+  public POSTaggerME(POSModel model, int beamSize, DecoderType decoder) {
     posModel = model.getPosModel();
     contextGen = new DefaultPOSContextGenerator(model.getNgramDictionary());
     tagDictionary = model.getTagDictionary();
     size = beamSize;
-    beam = new BeamSearch<String>(size, contextGen, posModel, new PosSequenceValidator(), 10);
+
+    // a compiled model evaluates the contexts faster than they can be cached
+    int cacheSize = CompiledModel.isCompilable(posModel) ? 0 : 10;
+
+    if (decoder == DecoderType.VITERBI) {
+      beam = new ViterbiSearch<String>(size, contextGen, posModel, new PosSequenceValidator(), cacheSize);
+    }
+    else {
+      beam = new BeamSearch<String>(size, contextGen, posModel, new PosSequenceValidator(), cacheSize);
+    }
   }
 
   /**
@@ -236,6 +266,65 @@ public class POSTaggerME implements POSTagger {
     return tags;
   }
 
+  /**
+   * Tags the sentence and returns the tags together with their probabilities.
+   * <p>
+   * This method does not change the state of the tagger, it can be called
+   * concurrently if the tagger was created from a {@link POSModel}.
+   *
+   * @param sentence An array of tokens which make up a sentence.
+   *
+   * @return the tagging of the sentence
+   */
+  public POSTaggingResult tagWithProbs(String[] sentence) {
+    return new POSTaggingResult(beam.bestSequence(sentence, null));
+  }
+
+  /**
+   * Returns at most the specified number of taggings for the specified sentence
+   * together with their probabilities.
+   * <p>
+   * This method does not change the state of the tagger, it can be called
+   * concurrently if the tagger was created from a {@link POSModel}.
+   *
+   * @param numTaggings The number of tagging to be returned.
+   * @param sentence An array of tokens which make up a sentence.
+   *
+   * @return the taggings of the sentence, best first
+   */
+  public POSTaggingResult[] tagWithProbs(int numTaggings, String[] sentence) {
+    Sequence[] bestSequences = beam.bestSequences(numTaggings, sentence, null);
+
+    POSTaggingResult[] taggings = new POSTaggingResult[bestSequences.length];
+    for (int si = 0; si < taggings.length; si++) {
+      taggings[si] = new POSTaggingResult(bestSequences[si]);
+    }
+
+    return taggings;
+  }
+
+  /**
+   * Tags many sentences at once. The sentences are decoded in lockstep, which
+   * evaluates contexts that occur in more than one sentence only once.
+   * <p>
+   * This method does not change the state of the tagger, it can be called
+   * concurrently if the tagger was created from a {@link POSModel}.
+   *
+   * @param sentences the sentences, each one an array of tokens
+   *
+   * @return the tagging of each sentence
+   */
+  public List<POSTaggingResult> tagWithProbs(List<String[]> sentences) {
+    List<Sequence[]> bestSequences = beam.bestSequences(1, sentences, null);
+
+    List<POSTaggingResult> taggings = new ArrayList<POSTaggingResult>(bestSequences.size());
+    for (Sequence[] sequences : bestSequences) {
+      taggings.add(new POSTaggingResult(sequences[0]));
+    }
+
+    return taggings;
+  }
+
   public Sequence[] topKSequences(List<String> sentence) {
     return beam.bestSequences(size, sentence.toArray(new String[sentence.size()]), null);
   }
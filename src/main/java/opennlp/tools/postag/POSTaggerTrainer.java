@@ -25,8 +25,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import opennlp.maxent.DataStream;
 import opennlp.maxent.GISModel;
 import opennlp.maxent.PlainTextByLineDataStream;
 import opennlp.maxent.io.SuffixSensitiveGISModelWriter;
@@ -37,10 +38,12 @@ import opennlp.model.TwoPassDataIndexer;
 import opennlp.perceptron.SimplePerceptronSequenceTrainer;
 import opennlp.perceptron.SuffixSensitivePerceptronModelWriter;
 import opennlp.tools.dictionary.Dictionary;
-import opennlp.tools.ngram.NGramModel;
+import opennlp.tools.ngram.NGramCounter;
+import opennlp.tools.ngram.NGramSink;
+import opennlp.tools.ngram.ParallelNGramCounter;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.ObjectStreamException;
-import opennlp.tools.util.StringList;
+import opennlp.tools.util.PlainTextByLineStream;
 
 public class POSTaggerTrainer {
 
@@ -274,22 +277,33 @@ public class POSTaggerTrainer {
   }
 
   private static void buildDictionary(String dict, File inFile, int cutoff)
-      throws FileNotFoundException, IOException {
+      throws FileNotFoundException, IOException, ObjectStreamException {
     System.err.println("Building dictionary");
 
-    NGramModel ngramModel = new NGramModel();
+    int threads = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
 
-    DataStream data = new opennlp.maxent.PlainTextByLineDataStream(new java.io.FileReader(inFile));
-    while(data.hasNext()) {
-      String tagStr = (String) data.nextToken();
-      String[] tt = tagStr.split(" ");
-      String[] words = new String[tt.length];
-      for (int wi=0;wi<words.length;wi++) {
-        words[wi] =
-            tt[wi].substring(0,tt[wi].lastIndexOf('_'));
-      }
+    NGramCounter ngramModel;
 
-      ngramModel.add(new StringList(words), 1, 1);
+    try {
+      ObjectStream<String> data = new PlainTextByLineStream(new java.io.FileReader(inFile));
+
+      ngramModel = new ParallelNGramCounter(executor, threads, 1000).count(data,
+          new ParallelNGramCounter.NGramExtractor() {
+            public void addNGrams(String tagStr, NGramSink sink) {
+              String[] tt = tagStr.split(" ");
+              String[] words = new String[tt.length];
+              for (int wi=0;wi<words.length;wi++) {
+                words[wi] =
+                    tt[wi].substring(0,tt[wi].lastIndexOf('_'));
+              }
+
+              sink.add(words, 1, 1);
+            }
+          });
+    }
+    finally {
+      executor.shutdown();
     }
 
     System.out.println("Saving the dictionary");
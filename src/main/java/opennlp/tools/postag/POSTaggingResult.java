@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.postag;
+
+import java.util.List;
+
+import opennlp.tools.util.Sequence;
+
+/**
+ * The immutable result of tagging one sentence, it contains the tags together
+ * with their probabilities and the score of the tag sequence.
+ * <p>
+ * Since a result does not depend on the state of the tagger which produced it,
+ * it can be used to tag with one {@link POSTaggerME} from many threads.
+ *
+ * @see POSTaggerME#tagWithProbs(String[])
+ */
+public final class POSTaggingResult {
+
+  private final String[] tags;
+
+  private final double[] probs;
+
+  private final double score;
+
+  POSTaggingResult(Sequence sequence) {
+    List<String> outcomes = sequence.getOutcomes();
+
+    tags = outcomes.toArray(new String[outcomes.size()]);
+    probs = sequence.getProbs();
+    score = sequence.getScore();
+  }
+
+  /**
+   * Retrieves the number of tags.
+   *
+   * @return the number of tags which is the number of tokens in the sentence
+   */
+  public int size() {
+    return tags.length;
+  }
+
+  /**
+   * Retrieves the tag of the token at the specified index.
+   *
+   * @param index
+   *
+   * @return the tag
+   */
+  public String getTag(int index) {
+    return tags[index];
+  }
+
+  /**
+   * Retrieves the probability of the tag at the specified index.
+   *
+   * @param index
+   *
+   * @return the probability
+   */
+  public double getProb(int index) {
+    return probs[index];
+  }
+
+  /**
+   * Retrieves a copy of the tags.
+   *
+   * @return the tags
+   */
+  public String[] getTags() {
+    return tags.clone();
+  }
+
+  /**
+   * Retrieves a copy of the probabilities of the tags.
+   *
+   * @return the probabilities
+   */
+  public double[] getProbs() {
+    return probs.clone();
+  }
+
+  /**
+   * Retrieves the score of the tag sequence, the sum of the
+   * logarithms of the tag probabilities.
+   *
+   * @return the score
+   */
+  public double getScore() {
+    return score;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder();
+
+    for (int i = 0; i < tags.length; i++) {
+      if (i > 0) {
+        result.append(' ');
+      }
+      result.append(tags[i]);
+      result.append('/');
+      result.append(probs[i]);
+    }
+
+    return result.toString();
+  }
+}
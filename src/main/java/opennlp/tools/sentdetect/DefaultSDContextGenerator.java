@@ -22,6 +22,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
+import opennlp.tools.util.PredicateBuffer;
+
 /**
  * Generate event contexts for maxent decisions for sentence detection.
  *
@@ -151,6 +153,102 @@ public class DefaultSDContextGenerator implements SDContextGenerator {
     return context;
   }
 
+  /**
+   * Adds the same context as {@link #getContext(String, int)} to the predicate
+   * buffer without creating the predicate strings.
+   * <p>
+   * Subclasses which change the features of {@link #getContext(String, int)}
+   * must also change this method.
+   *
+   * @param sb
+   * @param position
+   * @param predicates
+   */
+  public void getContext(CharSequence sb, int position, PredicateBuffer predicates) {
+
+    int lastIndex = sb.length() - 1;
+    { // compute space previous and space next features.
+      if (position > 0 && sb.charAt(position - 1) == ' ')
+        predicates.add("sp");
+      if (position < lastIndex && sb.charAt(position + 1) == ' ')
+        predicates.add("sn");
+      predicates.start().append("eos=").append(sb.charAt(position)).add();
+    }
+    int prefixStart = previousSpaceIndex(sb, position);
+
+    int c = position;
+    { ///assign prefix, stop if you run into a period though otherwise stop at space
+      while (--c > prefixStart) {
+        for (int eci = 0, ecl = eosCharacters.length; eci < ecl; eci++) {
+          if (sb.charAt(c) == eosCharacters[eci]) {
+            prefixStart = c;
+            c++; // this gets us out of while loop.
+            break;
+          }
+        }
+      }
+    }
+    int prevStart = previousSpaceIndex(sb, prefixStart);
+
+    int suffixEnd = nextSpaceIndex(sb, position, lastIndex);
+    {
+      c = position;
+      while (++c < suffixEnd) {
+        for (int eci = 0, ecl = eosCharacters.length; eci < ecl; eci++) {
+          if (sb.charAt(c) == eosCharacters[eci]) {
+            suffixEnd = c;
+            c--; // this gets us out of while loop.
+            break;
+          }
+        }
+      }
+    }
+    int nextEnd = nextSpaceIndex(sb, suffixEnd + 1, lastIndex + 1);
+
+    collectFeature(predicates, 'x', sb, prefixStart, position, true);
+    collectFeature(predicates, 'v', sb, prevStart, prefixStart, false);
+
+    if (position == lastIndex) {
+      collectFeature(predicates, 's', sb, 0, 0, false);
+      collectFeature(predicates, 'n', sb, 0, 0, false);
+    }
+    else {
+      collectFeature(predicates, 's', sb, position + 1, suffixEnd, false);
+      collectFeature(predicates, 'n', sb, suffixEnd + 1, nextEnd, false);
+    }
+  }
+
+  /**
+   * Adds the features of the trimmed text between start and end, like
+   * {@link #collectFeatures(String, String, String, String)} does for one of its texts.
+   */
+  private void collectFeature(PredicateBuffer predicates, char name, CharSequence sb,
+      int start, int end, boolean addLength) {
+
+    // trim like String.trim()
+    while (start < end && sb.charAt(start) <= ' ') {
+      start++;
+    }
+    while (start < end && sb.charAt(end - 1) <= ' ') {
+      end--;
+    }
+
+    predicates.start().append(name).append('=').append(sb, start, end).add();
+
+    if (start < end) {
+      if (addLength) {
+        predicates.start().append(end - start).add();
+      }
+      if (Character.isUpperCase(sb.charAt(start))) {
+        predicates.start().append(name).append("cap").add();
+      }
+      if (!inducedAbbreviations.isEmpty() &&
+          inducedAbbreviations.contains(sb.subSequence(start, end).toString())) {
+        predicates.start().append(name).append("abbrev").add();
+      }
+    }
+  }
+
   /**
    * Determines some of the features for the sentence detector and adds them to list features.
    *
@@ -32,8 +32,10 @@ import opennlp.model.EventStream;
 import opennlp.model.MaxentModel;
 import opennlp.tools.dictionary.Dictionary;
 import opennlp.tools.sentdetect.lang.Factory;
+import opennlp.tools.util.CompiledModel;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.PlainTextByLineStream;
+import opennlp.tools.util.PredicateBuffer;
 import opennlp.tools.util.Span;
 
 /**
@@ -66,6 +68,14 @@ public class SentenceDetectorME implements SentenceDetector {
    */
   private final SDContextGenerator cgen;
 
+  /**
+   * The buffer for the predicates of the compiled model or null if the
+   * model cannot be compiled or the context generator cannot emit predicate indexes.
+   */
+  private PredicateBuffer predicates;
+
+  private double[] probs;
+
   /**
    * The {@link EndOfSentenceScanner} to use when scanning for end of sentence offsets.
    */
@@ -92,6 +102,13 @@ public class SentenceDetectorME implements SentenceDetector {
     cgen = factory.createSentenceContextGenerator(model.getLanguage());
     scanner = factory.createEndOfSentenceScanner(model.getLanguage());
     useTokenEnd = model.useTokenEnd();
+
+    // subclasses of the default context generator may generate other features
+    if (cgen.getClass() == DefaultSDContextGenerator.class &&
+        CompiledModel.isCompilable(this.model)) {
+      predicates = new PredicateBuffer(CompiledModel.compile(this.model));
+      probs = new double[this.model.getNumOutcomes()];
+    }
   }
 
   /**
@@ -154,7 +171,15 @@ public class SentenceDetectorME implements SentenceDetector {
         continue;
       }
 
-      double[] probs = model.eval(cgen.getContext(sb.toString(), cint));
+      double[] probs;
+      if (predicates != null) {
+        predicates.clear();
+        ((DefaultSDContextGenerator) cgen).getContext(s, cint, predicates);
+        probs = predicates.eval(this.probs);
+      }
+      else {
+        probs = model.eval(cgen.getContext(sb.toString(), cint));
+      }
       String bestOutcome = model.getBestOutcome(probs);
       sentProb *= probs[model.getIndex(bestOutcome)];
 
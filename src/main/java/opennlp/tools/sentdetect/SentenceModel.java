@@ -69,6 +69,21 @@ public class SentenceModel extends BaseModel {
     super(in);
   }
 
+  /**
+   * Initializes the current instance from a model file, which can be
+   * a zip package or a mapped package.
+   *
+   * @param modelFile
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   *
+   * @see #serializeMapped(java.io.OutputStream)
+   */
+  public SentenceModel(File modelFile) throws IOException, InvalidFormatException {
+    super(modelFile);
+  }
+
   private static boolean isModelCompatible(MaxentModel model) {
     // TODO: add checks, what are the outcomes ?
     return true;
@@ -21,6 +21,8 @@ package opennlp.tools.tokenize;
 import java.util.ArrayList;
 import java.util.List;
 
+import opennlp.tools.util.PredicateBuffer;
+
 /**
  * Generate events for maxent decisions for tokenization.
  *
@@ -68,6 +70,91 @@ public class DefaultTokenContextGenerator implements TokenContextGenerator {
   }
 
 
+  /**
+   * Adds the same context as {@link #getContext(String, int)} to the
+   * predicate buffer without creating the predicate strings.
+   *
+   * @param sentence
+   * @param index
+   * @param predicates
+   */
+  public void getContext(String sentence, int index, PredicateBuffer predicates) {
+    // the prefix and suffix predicates of long tokens are usually unknown
+    int maxLength = predicates.getModel().getMaxPredicateLength() - 2;
+
+    if (index <= maxLength) {
+      predicates.start().append("p=").append(sentence, 0, index).add();
+    }
+    if (sentence.length() - index <= maxLength) {
+      predicates.start().append("s=").append(sentence, index, sentence.length()).add();
+    }
+    if (index>0) {
+      addCharPreds("p1", sentence.charAt(index-1), predicates);
+      if (index>1) {
+        addCharPreds("p2", sentence.charAt(index-2), predicates);
+        predicates.start().append("p21=").append(sentence.charAt(index-2))
+            .append(sentence.charAt(index-1)).add();
+      }
+      else {
+        predicates.add("p2=bok");
+      }
+      predicates.start().append("p1f1=").append(sentence.charAt(index-1))
+          .append(sentence.charAt(index)).add();
+    }
+    else {
+      predicates.add("p1=bok");
+    }
+    addCharPreds("f1",sentence.charAt(index), predicates);
+    if (index+1 < sentence.length()) {
+      addCharPreds("f2", sentence.charAt(index+1), predicates);
+      predicates.start().append("f12=").append(sentence.charAt(index))
+          .append(sentence.charAt(index+1)).add();
+    }
+    else {
+      predicates.add("f2=bok");
+    }
+    if (sentence.charAt(0) == '&' && sentence.charAt(sentence.length()-1) == ';') {
+      predicates.add("cc");//character code
+    }
+  }
+
+  /**
+   * Helper function for getContext.
+   */
+  private void addCharPreds(String key, char c, PredicateBuffer predicates) {
+    predicates.start().append(key).append('=').append(c).add();
+
+    // the key is a prefix of the current predicate
+    int keyLength = key.length();
+
+    if (Character.isLetter(c)) {
+      predicates.setLength(keyLength).append("_alpha").add();
+      if (Character.isUpperCase(c)) {
+        predicates.setLength(keyLength).append("_caps").add();
+      }
+    }
+    else if (Character.isDigit(c)) {
+      predicates.setLength(keyLength).append("_num").add();
+    }
+    else if (Character.isWhitespace(c)) {
+      predicates.setLength(keyLength).append("_ws").add();
+    }
+    else {
+      if (c=='.' || c=='?' || c=='!') {
+        predicates.setLength(keyLength).append("_eos").add();
+      }
+      else if (c=='`' || c=='"' || c=='\'') {
+        predicates.setLength(keyLength).append("_quote").add();
+      }
+      else if (c=='[' || c=='{' || c=='(') {
+        predicates.setLength(keyLength).append("_lp").add();
+      }
+      else if (c==']' || c=='}' || c==')') {
+        predicates.setLength(keyLength).append("_rp").add();
+      }
+    }
+  }
+
   /**
    * Helper function for getContext.
    */
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.tokenize;
+
+/**
+ * A {@link TokenContextGenerator} which produces exactly the same features
+ * as the {@link DefaultTokenContextGenerator} but with far fewer allocations.
+ * <p>
+ * The character and character class features come from precomputed tables,
+ * the prefix, suffix and character pair features are copied into a per thread
+ * char buffer and created with a single <code>String</code> allocation and the
+ * features are collected in a per thread array instead of a list. The only
+ * objects created per call are the feature strings which are not in the tables
+ * and the returned array.
+ * <p>
+ * An instance can be shared between threads.
+ */
+public class FastTokenContextGenerator extends DefaultTokenContextGenerator {
+
+  /**
+   * The maximum number of features the generator creates for one split point.
+   */
+  private static final int MAX_FEATURES = 18;
+
+  private static final String[] KEYS = {"p1", "p2", "f1", "f2"};
+
+  private static final int P1 = 0;
+  private static final int P2 = 1;
+  private static final int F1 = 2;
+  private static final int F2 = 3;
+
+  private static final String[] CLASSES = {"_alpha", "_caps", "_num", "_ws",
+      "_eos", "_quote", "_lp", "_rp"};
+
+  private static final int ALPHA = 0;
+  private static final int CAPS = 1;
+  private static final int NUM = 2;
+  private static final int WS = 3;
+  private static final int EOS = 4;
+  private static final int QUOTE = 5;
+  private static final int LP = 6;
+  private static final int RP = 7;
+
+  private static final int CHAR_TABLE_SIZE = 128;
+
+  /**
+   * The key=c features for the ascii characters, indexed by key and character.
+   */
+  private static final String[][] CHAR_FEATURES;
+
+  /**
+   * The key_class features, indexed by key and class.
+   */
+  private static final String[][] CLASS_FEATURES;
+
+  static {
+    CHAR_FEATURES = new String[KEYS.length][CHAR_TABLE_SIZE];
+    CLASS_FEATURES = new String[KEYS.length][CLASSES.length];
+
+    for (int k = 0; k < KEYS.length; k++) {
+      for (int c = 0; c < CHAR_TABLE_SIZE; c++) {
+        CHAR_FEATURES[k][c] = KEYS[k] + "=" + (char) c;
+      }
+      for (int ci = 0; ci < CLASSES.length; ci++) {
+        CLASS_FEATURES[k][ci] = KEYS[k] + CLASSES[ci];
+      }
+    }
+  }
+
+  /**
+   * The per thread buffers, the instance itself does not have any
+   * mutable state.
+   */
+  private static class Buffers {
+    char[] chars = new char[64];
+    final String[] features = new String[MAX_FEATURES];
+
+    char[] chars(int length) {
+      if (chars.length < length) {
+        chars = new char[Math.max(length, chars.length * 2)];
+      }
+      return chars;
+    }
+  }
+
+  private final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+    @Override
+    protected Buffers initialValue() {
+      return new Buffers();
+    }
+  };
+
+  @Override
+  public String[] getContext(String sentence, int index) {
+    Buffers b = buffers.get();
+    String[] features = b.features;
+    int count = 0;
+
+    int length = sentence.length();
+
+    features[count++] = span('p', sentence, 0, index, b);
+    features[count++] = span('s', sentence, index, length, b);
+
+    if (index > 0) {
+      count = addCharFeatures(P1, sentence.charAt(index - 1), features, count);
+      if (index > 1) {
+        count = addCharFeatures(P2, sentence.charAt(index - 2), features, count);
+        features[count++] = pair("p21=", sentence.charAt(index - 2),
+            sentence.charAt(index - 1), b);
+      }
+      else {
+        features[count++] = "p2=bok";
+      }
+      features[count++] = pair("p1f1=", sentence.charAt(index - 1),
+          sentence.charAt(index), b);
+    }
+    else {
+      features[count++] = "p1=bok";
+    }
+    count = addCharFeatures(F1, sentence.charAt(index), features, count);
+    if (index + 1 < length) {
+      count = addCharFeatures(F2, sentence.charAt(index + 1), features, count);
+      features[count++] = pair("f12=", sentence.charAt(index),
+          sentence.charAt(index + 1), b);
+    }
+    else {
+      features[count++] = "f2=bok";
+    }
+    if (sentence.charAt(0) == '&' && sentence.charAt(length - 1) == ';') {
+      features[count++] = "cc";//character code
+    }
+
+    String[] context = new String[count];
+    System.arraycopy(features, 0, context, 0, count);
+
+    // do not keep the strings of the last call alive
+    for (int i = 0; i < count; i++) {
+      features[i] = null;
+    }
+
+    return context;
+  }
+
+  /**
+   * Creates the feature name=sentence[start, end).
+   */
+  private static String span(char name, String sentence, int start, int end,
+      Buffers b) {
+    int length = end - start + 2;
+    char[] chars = b.chars(length);
+    chars[0] = name;
+    chars[1] = '=';
+    sentence.getChars(start, end, chars, 2);
+    return new String(chars, 0, length);
+  }
+
+  /**
+   * Creates the feature key + c1 + c2, the key already contains the =.
+   */
+  private static String pair(String key, char c1, char c2, Buffers b) {
+    int keyLength = key.length();
+    char[] chars = b.chars(keyLength + 2);
+    key.getChars(0, keyLength, chars, 0);
+    chars[keyLength] = c1;
+    chars[keyLength + 1] = c2;
+    return new String(chars, 0, keyLength + 2);
+  }
+
+  /**
+   * Adds the same features as the addCharPreds method of the
+   * {@link DefaultTokenContextGenerator}.
+   *
+   * @return the new feature count
+   */
+  private static int addCharFeatures(int key, char c, String[] features, int count) {
+    if (c < CHAR_TABLE_SIZE) {
+      features[count++] = CHAR_FEATURES[key][c];
+    }
+    else {
+      features[count++] = KEYS[key] + "=" + c;
+    }
+
+    String[] classFeatures = CLASS_FEATURES[key];
+
+    if (Character.isLetter(c)) {
+      features[count++] = classFeatures[ALPHA];
+      if (Character.isUpperCase(c)) {
+        features[count++] = classFeatures[CAPS];
+      }
+    }
+    else if (Character.isDigit(c)) {
+      features[count++] = classFeatures[NUM];
+    }
+    else if (Character.isWhitespace(c)) {
+      features[count++] = classFeatures[WS];
+    }
+    else {
+      if (c=='.' || c=='?' || c=='!') {
+        features[count++] = classFeatures[EOS];
+      }
+      else if (c=='`' || c=='"' || c=='\'') {
+        features[count++] = classFeatures[QUOTE];
+      }
+      else if (c=='[' || c=='{' || c=='(') {
+        features[count++] = classFeatures[LP];
+      }
+      else if (c==']' || c=='}' || c==')') {
+        features[count++] = classFeatures[RP];
+      }
+    }
+
+    return count;
+  }
+}
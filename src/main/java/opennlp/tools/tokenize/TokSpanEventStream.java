@@ -65,7 +65,7 @@ public class TokSpanEventStream extends AbstractEventStream<TokenSample> {
    */
   public TokSpanEventStream(ObjectStream<TokenSample> tokenSamples,
       boolean skipAlphaNumerics) {
-    this(tokenSamples, skipAlphaNumerics, new DefaultTokenContextGenerator());
+    this(tokenSamples, skipAlphaNumerics, new FastTokenContextGenerator());
   }
 
   /**
@@ -28,7 +28,9 @@ import opennlp.maxent.GISModel;
 import opennlp.model.EventStream;
 import opennlp.model.MaxentModel;
 import opennlp.model.TwoPassDataIndexer;
+import opennlp.tools.util.CompiledModel;
 import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.PredicateBuffer;
 import opennlp.tools.util.Span;
 
 /**
@@ -92,7 +94,15 @@ public class TokenizerME extends AbstractTokenizer {
   /**
    * The context generator.
    */
-  private final TokenContextGenerator cg = new DefaultTokenContextGenerator();
+  private final TokenContextGenerator cg;
+
+  /**
+   * The buffer for the predicates of the compiled model or null
+   * if the model cannot be compiled.
+   */
+  private PredicateBuffer predicates;
+
+  private double[] probs;
 
   /**
    * Optimization flag to skip alpha numeric tokens for further
@@ -109,11 +119,30 @@ public class TokenizerME extends AbstractTokenizer {
   private List<Span> newTokens;
 
   public TokenizerME(TokenizerModel model) {
+    this(model, new FastTokenContextGenerator());
+  }
+
+  /**
+   * Initializes the current instance with a custom context generator,
+   * the compiled model is only used if the context generator is a
+   * {@link DefaultTokenContextGenerator}.
+   *
+   * @param model
+   * @param cg
+   */
+  TokenizerME(TokenizerModel model, TokenContextGenerator cg) {
     this.model = model.getMaxentModel();
+    this.cg = cg;
     useAlphaNumericOptimization = model.useAlphaNumericOptimization();
 
     newTokens = new ArrayList<Span>();
     tokProbs = new ArrayList<Double>(50);
+
+    if (cg instanceof DefaultTokenContextGenerator &&
+        CompiledModel.isCompilable(this.model)) {
+      predicates = new PredicateBuffer(CompiledModel.compile(this.model));
+      probs = new double[this.model.getNumOutcomes()];
+    }
   }
 
   /**
@@ -145,24 +174,31 @@ public class TokenizerME extends AbstractTokenizer {
     tokProbs.clear();
     for (int i = 0, il = tokens.length; i < il; i++) {
       Span s = tokens[i];
-      String tok = d.substring(s.getStart(), s.getEnd());
       // Can't tokenize single characters
-      if (tok.length() < 2) {
+      if (s.length() < 2) {
         newTokens.add(s);
         tokProbs.add(1d);
       }
-      else if (useAlphaNumericOptimization() && alphaNumeric.matcher(tok).matches()) {
+      else if (useAlphaNumericOptimization() && isAlphaNumeric(d, s.getStart(), s.getEnd())) {
         newTokens.add(s);
         tokProbs.add(1d);
       }
       else {
+        String tok = d.substring(s.getStart(), s.getEnd());
         int start = s.getStart();
         int end = s.getEnd();
         final int origStart = s.getStart();
         double tokenProb = 1.0;
         for (int j = origStart + 1; j < end; j++) {
-          double[] probs =
-            model.eval(cg.getContext(tok, j - origStart));
+          double[] probs;
+          if (predicates != null) {
+            predicates.clear();
+            ((DefaultTokenContextGenerator) cg).getContext(tok, j - origStart, predicates);
+            probs = predicates.eval(this.probs);
+          }
+          else {
+            probs = model.eval(cg.getContext(tok, j - origStart));
+          }
           String best = model.getBestOutcome(probs);
           //System.err.println("TokenizerME: "+tok.substring(0,j-origStart)+"^"+tok.substring(j-origStart)+" "+best+" "+probs[model.getIndex(best)]);
           tokenProb *= probs[model.getIndex(best)];
@@ -183,6 +219,22 @@ public class TokenizerME extends AbstractTokenizer {
     return spans;
   }
 
+  /**
+   * Checks if the text between start and end matches the {@link #alphaNumeric}
+   * pattern without creating a substring and a matcher.
+   */
+  private static boolean isAlphaNumeric(String text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+
+      if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+        return false;
+      }
+    }
+
+    return start < end;
+  }
+
   /**
    * Trains a model for the {@link TokenizerME}.
    *
@@ -19,6 +19,7 @@
 package opennlp.tools.tokenize;
 
 import java.io.DataInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -79,6 +80,21 @@ public final class TokenizerModel extends BaseModel {
     super(in);
   }
 
+  /**
+   * Initializes the current instance from a model file, which can be
+   * a zip package or a mapped package.
+   *
+   * @param modelFile
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   *
+   * @see #serializeMapped(OutputStream)
+   */
+  public TokenizerModel(File modelFile) throws IOException, InvalidFormatException {
+    super(modelFile);
+  }
+
   /**
    * Checks if the tokenizer model has the right outcomes.
    *
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+/**
+ * Evaluates the contexts of many hypotheses together in one pass over the
+ * parameters of a {@link CompiledModel}.
+ * <p>
+ * The contexts are indexed by predicate, then the parameters of every
+ * distinct predicate are added to the scores of all hypotheses whose context
+ * contains the predicate one after another, so they are loaded from memory
+ * once per batch. The hypotheses of a beam share most of their predicates,
+ * e.g. the word features, and the hypotheses of different sentences share
+ * frequent predicates. The
+ * parameters are summed in a different order than by a single evaluation,
+ * the probabilities can differ in the last digits.
+ * <p>
+ * An evaluator is not thread safe, it is meant to be reused by one thread.
+ */
+class BatchEvaluator {
+
+  private final CompiledModel model;
+
+  // the hypotheses of the batch
+  private PredicateBuffer[] contexts = new PredicateBuffer[16];
+  private double[][] scores = new double[16][];
+  private int[][] featureCounts = new int[16][];
+  private int hypothesisCount;
+
+  // the occurrences of the predicates, linked per predicate
+  private int[] occurrenceHypotheses = new int[256];
+  private int[] nextOccurrences = new int[256];
+  private int occurrenceCount;
+
+  // open addressing table from predicate index to its last occurrence,
+  // the used slots are kept to clear the table
+  private int[] tablePredicates = new int[256];
+  private int[] tableOccurrences = new int[256];
+  private int[] usedSlots = new int[128];
+  private int usedSlotCount;
+
+  BatchEvaluator(CompiledModel model) {
+    this.model = model;
+
+    for (int slot = 0; slot < tablePredicates.length; slot++) {
+      tablePredicates[slot] = -1;
+    }
+  }
+
+  private static int[] grow(int[] array) {
+    int[] newArray = new int[array.length * 2];
+    System.arraycopy(array, 0, newArray, 0, array.length);
+    return newArray;
+  }
+
+  /**
+   * Adds a hypothesis to the batch, its scores are computed by {@link #eval()}.
+   *
+   * @param context the predicates of the context of the hypothesis
+   * @param hypothesisScores the array for the probabilities of the outcomes
+   * @param hypothesisFeatureCounts a scratch array with one entry per outcome
+   */
+  void add(PredicateBuffer context, double[] hypothesisScores, int[] hypothesisFeatureCounts) {
+
+    if (hypothesisCount == contexts.length) {
+      PredicateBuffer[] newContexts = new PredicateBuffer[contexts.length * 2];
+      System.arraycopy(contexts, 0, newContexts, 0, hypothesisCount);
+      contexts = newContexts;
+
+      double[][] newScores = new double[scores.length * 2][];
+      System.arraycopy(scores, 0, newScores, 0, hypothesisCount);
+      scores = newScores;
+
+      int[][] newFeatureCounts = new int[featureCounts.length * 2][];
+      System.arraycopy(featureCounts, 0, newFeatureCounts, 0, hypothesisCount);
+      featureCounts = newFeatureCounts;
+    }
+
+    contexts[hypothesisCount] = context;
+    scores[hypothesisCount] = hypothesisScores;
+    featureCounts[hypothesisCount] = hypothesisFeatureCounts;
+
+    int[] predicates = context.getPredicates();
+
+    for (int pi = 0; pi < context.size(); pi++) {
+      addOccurrence(predicates[pi], hypothesisCount);
+    }
+
+    hypothesisCount++;
+  }
+
+  private void addOccurrence(int predicate, int hypothesis) {
+
+    if (occurrenceCount == occurrenceHypotheses.length) {
+      occurrenceHypotheses = grow(occurrenceHypotheses);
+      nextOccurrences = grow(nextOccurrences);
+    }
+
+    int slot = find(predicate);
+
+    if (tablePredicates[slot] == -1) {
+      if (2 * (usedSlotCount + 1) > tablePredicates.length) {
+        rehash();
+        slot = find(predicate);
+      }
+
+      if (usedSlotCount == usedSlots.length) {
+        usedSlots = grow(usedSlots);
+      }
+
+      tablePredicates[slot] = predicate;
+      tableOccurrences[slot] = -1;
+      usedSlots[usedSlotCount++] = slot;
+    }
+
+    occurrenceHypotheses[occurrenceCount] = hypothesis;
+    nextOccurrences[occurrenceCount] = tableOccurrences[slot];
+    tableOccurrences[slot] = occurrenceCount;
+    occurrenceCount++;
+  }
+
+  private int find(int predicate) {
+    int mask = tablePredicates.length - 1;
+    int slot = (predicate * 0x9E3779B9 >>> 7) & mask;
+
+    while (tablePredicates[slot] != -1 && tablePredicates[slot] != predicate) {
+      slot = (slot + 1) & mask;
+    }
+
+    return slot;
+  }
+
+  private void rehash() {
+    int[] oldPredicates = tablePredicates;
+    int[] oldOccurrences = tableOccurrences;
+
+    tablePredicates = new int[oldPredicates.length * 2];
+    tableOccurrences = new int[oldPredicates.length * 2];
+
+    for (int slot = 0; slot < tablePredicates.length; slot++) {
+      tablePredicates[slot] = -1;
+    }
+
+    for (int ui = 0; ui < usedSlotCount; ui++) {
+      int slot = find(oldPredicates[usedSlots[ui]]);
+      tablePredicates[slot] = oldPredicates[usedSlots[ui]];
+      tableOccurrences[slot] = oldOccurrences[usedSlots[ui]];
+      usedSlots[ui] = slot;
+    }
+  }
+
+  /**
+   * Computes the probabilities of the outcomes of all hypotheses
+   * and removes them from the batch.
+   */
+  void eval() {
+
+    for (int h = 0; h < hypothesisCount; h++) {
+      model.prior(scores[h], featureCounts[h]);
+    }
+
+    for (int ui = 0; ui < usedSlotCount; ui++) {
+      int slot = usedSlots[ui];
+      int predicate = tablePredicates[slot];
+
+      for (int oi = tableOccurrences[slot]; oi != -1; oi = nextOccurrences[oi]) {
+        int h = occurrenceHypotheses[oi];
+        model.addParameters(predicate, scores[h], featureCounts[h]);
+      }
+
+      tablePredicates[slot] = -1;
+    }
+
+    for (int h = 0; h < hypothesisCount; h++) {
+      model.normalize(scores[h], featureCounts[h]);
+
+      contexts[h] = null;
+      scores[h] = null;
+      featureCounts[h] = null;
+    }
+
+    hypothesisCount = 0;
+    occurrenceCount = 0;
+    usedSlotCount = 0;
+  }
+}
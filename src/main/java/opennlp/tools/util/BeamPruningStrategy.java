@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+/**
+ * A {@link BeamPruningStrategy} decides which outcomes of a hypothesis
+ * are advanced by the {@link BeamSearch}. Only outcomes which have
+ * a probability which is greater or equal to the returned threshold are advanced.
+ * <p>
+ * Implementations must be stateless, all temporary data must be
+ * stored in the buffer provided by the caller.
+ *
+ * @see SortingPruningStrategy
+ * @see SelectionPruningStrategy
+ */
+public interface BeamPruningStrategy {
+
+  /**
+   * Retrieves the k-th largest score of the specified scores.
+   *
+   * @param scores the scores of all outcomes, must not be modified
+   * @param k the number of outcomes which should be advanced
+   * @param buffer a temporary buffer which is at least as long as the scores array
+   *
+   * @return the k-th largest score, or the smallest score if there are
+   * less than k scores
+   */
+  double threshold(double[] scores, int k, double[] buffer);
+}
@@ -17,14 +17,25 @@
 
 package opennlp.tools.util;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import opennlp.model.MaxentModel;
 
 /**
  * Performs k-best search over sequence.  This is based on the description in
  * Ratnaparkhi (1998), PhD diss, Univ. of Pennsylvania.
+ * <p>
+ * The search does not keep any state between calls, it can be used
+ * concurrently if the context generator, the sequence validator and
+ * the model can be used concurrently.
+ * <p>
+ * If no evaluation cache is used, the context generator implements
+ * {@link CompiledContextGenerator} and the model can be compiled, the contexts
+ * are generated and evaluated as predicate indexes of the {@link CompiledModel}.
  *
  * @see Sequence
  * @see SequenceValidator
@@ -34,15 +45,27 @@ public class BeamSearch<T> {
 
   private static final Object[] EMPTY_ADDITIONAL_CONTEXT = new Object[0];
 
+  private static final BeamPruningStrategy DEFAULT_PRUNING_STRATEGY =
+      new SelectionPruningStrategy();
+
   protected int size;
   protected BeamSearchContextGenerator<T> cg;
   protected MaxentModel model;
   private SequenceValidator<T> validator;
+  private BeamPruningStrategy pruningStrategy;
+
+  private EvaluationCache contextsCache;
 
-  private double[] probs;
-  private Cache contextsCache;
+  // only used if there is no evaluation cache
+  private CompiledModel compiledModel;
   private static final int zeroLog = -100000;
 
+  /**
+   * Assumed memory of the features of a context, used to convert
+   * a cache size in entries into a memory bound.
+   */
+  private static final int AVERAGE_CONTEXT_BYTES = 1024;
+
   /**
    * Creates new search object.
    *
@@ -61,17 +84,73 @@ public class BeamSearch<T> {
 
   public BeamSearch(int size, BeamSearchContextGenerator<T> cg, MaxentModel model,
       SequenceValidator<T> validator, int cacheSize) {
+    this(size, cg, model, validator, cacheSize, DEFAULT_PRUNING_STRATEGY);
+  }
+
+  /**
+   * Creates new search object.
+   *
+   * @param size The size of the beam (k).
+   * @param cg the context generator for the model.
+   * @param model the model for assigning probabilities to the sequence outcomes.
+   * @param validator the validator for the outcome sequences or null.
+   * @param cacheSize the number of evaluations which should be cached, it is converted
+   * into a memory bound for an {@link EvaluationCache}, 0 disables the cache.
+   * @param pruningStrategy the strategy which selects the outcomes of a
+   * hypothesis which are advanced.
+   */
+  public BeamSearch(int size, BeamSearchContextGenerator<T> cg, MaxentModel model,
+      SequenceValidator<T> validator, int cacheSize, BeamPruningStrategy pruningStrategy) {
+    this(size, cg, model, validator, cacheSize > 0 ?
+        new EvaluationCache(cacheSize * estimateEntrySize(model)) : null,
+        pruningStrategy);
+  }
+
+  /**
+   * Creates new search object.
+   *
+   * @param size The size of the beam (k).
+   * @param cg the context generator for the model.
+   * @param model the model for assigning probabilities to the sequence outcomes.
+   * @param validator the validator for the outcome sequences or null.
+   * @param evaluationCache the cache for the model evaluations or null,
+   * a cache can be shared by many search objects.
+   * @param pruningStrategy the strategy which selects the outcomes of a
+   * hypothesis which are advanced.
+   */
+  public BeamSearch(int size, BeamSearchContextGenerator<T> cg, MaxentModel model,
+      SequenceValidator<T> validator, EvaluationCache evaluationCache,
+      BeamPruningStrategy pruningStrategy) {
 
     this.size = size;
     this.cg = cg;
     this.model = model;
     this.validator = validator;
+    this.pruningStrategy = pruningStrategy;
+    this.contextsCache = evaluationCache;
 
-    if (cacheSize > 0) {
-      contextsCache = new Cache(cacheSize);
+    if (evaluationCache == null && cg instanceof CompiledContextGenerator &&
+        CompiledModel.isCompilable(model)) {
+      compiledModel = CompiledModel.compile(model);
     }
+  }
 
-    this.probs = new double[model.getNumOutcomes()];
+  /**
+   * Estimates the memory needed to cache one evaluation of the model,
+   * used to convert the cache size in entries of the older constructors
+   * into a memory bound.
+   */
+  private static long estimateEntrySize(MaxentModel model) {
+    return AVERAGE_CONTEXT_BYTES + 8L * model.getNumOutcomes();
+  }
+
+  /**
+   * Returns the cache which is used to memoize model evaluations.
+   *
+   * @return the cache or null if no cache is used
+   */
+  public EvaluationCache getEvaluationCache() {
+    return contextsCache;
   }
 
   /**
@@ -95,6 +174,313 @@ public class BeamSearch<T> {
     return bestSequences(numSequences, sequence, additionalContext, zeroLog);
   }
 
+  /**
+   * The search state of one input sequence.
+   * <p>
+   * The hypotheses are kept in a lattice of primitive arrays with one
+   * row of at most <code>size</code> slots per position. Each slot stores the
+   * outcome id, the probability of the outcome, the score of the path and a
+   * back-pointer to the slot of its parent in the previous row. The slots of
+   * a row are not ordered, while a row is filled a bounded heap tracks
+   * the worst hypothesis which falls out of the beam first.
+   * {@link Sequence} objects are only created for the returned top sequences.
+   */
+  private class Lattice {
+
+    private final T[] sequence;
+    private final Object[] additionalContext;
+    private final double minSequenceScore;
+
+    // row i holds the hypotheses which end at position i
+    private final int[] outcomeIds;
+    private final int[] parents;
+    private final double[] outcomeProbs;
+    private final double[] pathScores;
+    private final int[] rowSizes;
+
+    // the hypotheses of the row which is currently filled, keyed by slot
+    private final BoundedMinMaxHeap<Object> rowHeap;
+
+    // the outcomes of the hypotheses which are expanded next, the buffer of a
+    // slot is reused for every position, the lattice slot of the outcome at
+    // every position is kept to update only the outcomes which changed
+    private final String[][] outcomeBuffers;
+    private final int[][] outcomeBufferSlots;
+    private final int[] outcomeBufferLengths;
+
+    // the outcomes which are passed to the context generator and the
+    // validator, they have exactly the length of the current position
+    private final String[][] hypothesisOutcomes;
+
+    private final String[][] hypothesisContexts;
+
+    // the contexts and their scores if the model is compiled
+    private final PredicateBuffer[] predicateBuffers;
+    private final double[][] hypothesisScores;
+    private final int[][] featureCounts;
+
+    private boolean failed;
+
+    Lattice(T[] sequence, Object[] additionalContext, double minSequenceScore) {
+      this.sequence = sequence;
+      this.additionalContext = additionalContext != null ?
+          additionalContext : EMPTY_ADDITIONAL_CONTEXT;
+      this.minSequenceScore = minSequenceScore;
+
+      outcomeIds = new int[sequence.length * size];
+      parents = new int[sequence.length * size];
+      outcomeProbs = new double[sequence.length * size];
+      pathScores = new double[sequence.length * size];
+      rowSizes = new int[sequence.length];
+      rowHeap = new BoundedMinMaxHeap<Object>(size);
+
+      outcomeBuffers = new String[size][sequence.length];
+      outcomeBufferSlots = new int[size][sequence.length];
+      outcomeBufferLengths = new int[size];
+
+      hypothesisOutcomes = new String[size][];
+      hypothesisContexts = new String[size][];
+
+      if (compiledModel != null) {
+        predicateBuffers = new PredicateBuffer[size];
+        for (int sc = 0; sc < size; sc++) {
+          predicateBuffers[sc] = new PredicateBuffer(compiledModel);
+        }
+        hypothesisScores = new double[size][model.getNumOutcomes()];
+        featureCounts = new int[size][model.getNumOutcomes()];
+      }
+      else {
+        predicateBuffers = null;
+        hypothesisScores = null;
+        featureCounts = null;
+      }
+    }
+
+    /**
+     * Restores the outcomes of the hypothesis in the specified slot of the
+     * previous row into the outcome buffer of the slot. The walk back along
+     * the parents stops at the first outcome which is already in the buffer,
+     * the finished rows do not change, so the outcomes before it are equal too.
+     *
+     * @return a copy of the outcomes which has the length of the position
+     */
+    private String[] restoreOutcomes(int i, int hypothesis) {
+      String[] outcomes = outcomeBuffers[hypothesis];
+      int[] slots = outcomeBufferSlots[hypothesis];
+      int length = outcomeBufferLengths[hypothesis];
+
+      int slot = hypothesis;
+      for (int oi = i - 1; oi >= 0; oi--) {
+        if (oi < length && slots[oi] == slot) {
+          break;
+        }
+
+        outcomes[oi] = model.getOutcome(outcomeIds[oi * size + slot]);
+        slots[oi] = slot;
+        slot = parents[oi * size + slot];
+      }
+
+      outcomeBufferLengths[hypothesis] = i;
+
+      // the buffer is longer than the outcomes, callers may rely on the length
+      String[] copy = new String[i];
+      System.arraycopy(outcomes, 0, copy, 0, i);
+
+      return copy;
+    }
+
+    /**
+     * Restores the outcomes of the hypotheses which end at the previous
+     * position and generates their contexts for the specified position.
+     *
+     * @param evaluate true to evaluate compiled contexts right away, otherwise
+     * they are evaluated by a {@link BatchEvaluator}
+     *
+     * @return the number of hypotheses to expand, 0 if the search ended
+     */
+    int prepare(int i, boolean evaluate) {
+
+      if (failed || i >= sequence.length) {
+        return 0;
+      }
+
+      // position 0 is expanded from the empty sequence
+      int sz = i == 0 ? 1 : rowSizes[i - 1];
+
+      for (int sc = 0; sc < sz; sc++) {
+        String[] outcomes = restoreOutcomes(i, sc);
+        hypothesisOutcomes[sc] = outcomes;
+
+        if (compiledModel != null) {
+          PredicateBuffer predicates = predicateBuffers[sc];
+          predicates.clear();
+          ((CompiledContextGenerator<T>) cg).getContext(i, sequence, outcomes,
+              additionalContext, predicates);
+
+          if (evaluate) {
+            predicates.eval(hypothesisScores[sc]);
+          }
+        }
+        else {
+          hypothesisContexts[sc] = cg.getContext(i, sequence, outcomes, additionalContext);
+        }
+      }
+
+      return sz;
+    }
+
+    /**
+     * Adds the compiled contexts of the hypotheses to the batch.
+     */
+    void addTo(BatchEvaluator batch, int hypothesisCount) {
+      for (int sc = 0; sc < hypothesisCount; sc++) {
+        batch.add(predicateBuffers[sc], hypothesisScores[sc], featureCounts[sc]);
+      }
+    }
+
+    String[] getContext(int hypothesis) {
+      return hypothesisContexts[hypothesis];
+    }
+
+    /**
+     * Returns the scores of the outcomes for the specified hypothesis if the
+     * context was evaluated with the compiled model, otherwise null.
+     */
+    double[] getScores(int hypothesis) {
+      return hypothesisScores != null ? hypothesisScores[hypothesis] : null;
+    }
+
+    /**
+     * Extends the specified hypothesis with the outcomes which score
+     * well enough for the beam.
+     */
+    void expand(int i, int hypothesis, double[] scores, double[] pruningBuffer) {
+
+      int row = i * size;
+      double prevScore = i > 0 ? pathScores[row - size + hypothesis] : 0d;
+      String[] outcomes = hypothesisOutcomes[hypothesis];
+
+      double min = pruningStrategy.threshold(scores, size, pruningBuffer);
+
+      for (int p = 0; p < scores.length; p++) {
+        if (scores[p] < min)
+          continue; //only advance first "size" outcomes
+        String out = model.getOutcome(p);
+        if (validSequence(i, sequence, outcomes, out)) {
+          double score = prevScore + Math.log(scores[p]);
+          if (score > minSequenceScore) {
+            add(row, p, hypothesis, scores[p], score);
+          }
+        }
+      }
+
+      if (rowHeap.isEmpty()) {//if no advanced sequences, advance all valid
+        for (int p = 0; p < scores.length; p++) {
+          String out = model.getOutcome(p);
+          if (validSequence(i, sequence, outcomes, out)) {
+            double score = prevScore + Math.log(scores[p]);
+            if (score > minSequenceScore) {
+              add(row, p, hypothesis, scores[p], score);
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Must be called after all hypotheses of a position were expanded.
+     */
+    void finish(int i) {
+      for (int sc = 0; sc < size; sc++) {
+        hypothesisOutcomes[sc] = null;
+        hypothesisContexts[sc] = null;
+      }
+
+      rowSizes[i] = rowHeap.size();
+      rowHeap.clear();
+
+      if (rowSizes[i] == 0) {
+        // no hypothesis survived, there is nothing to continue from
+        failed = true;
+      }
+    }
+
+    /**
+     * Inserts a new hypothesis into the specified row of the lattice. The row
+     * holds at most <code>size</code> hypotheses, a hypothesis which does not
+     * score better than the worst one of a full row is discarded.
+     */
+    private void add(int row, int outcome, int parent, double prob, double score) {
+
+      if (!rowHeap.accepts(score)) {
+        return;
+      }
+
+      int slot;
+      if (rowHeap.isFull()) {
+        // the worst hypothesis falls out of the beam, its slot is reused
+        slot = rowHeap.getMinValue();
+        rowHeap.removeMin();
+      }
+      else {
+        slot = rowHeap.size();
+      }
+
+      int cell = row + slot;
+      outcomeIds[cell] = outcome;
+      parents[cell] = parent;
+      outcomeProbs[cell] = prob;
+      pathScores[cell] = score;
+
+      rowHeap.add(score, slot);
+    }
+
+    Sequence[] topSequences(int numSequences) {
+
+      if (sequence.length == 0) {
+        return numSequences > 0 ? new Sequence[] {new Sequence()} : new Sequence[0];
+      }
+
+      if (failed) {
+        return new Sequence[0];
+      }
+
+      int lastPosition = sequence.length - 1;
+      int lastRow = lastPosition * size;
+      int numSeq = Math.min(numSequences, rowSizes[lastPosition]);
+      Sequence[] topSequences = new Sequence[numSeq];
+
+      // order the slots of the last row by descending score
+      for (int slot = 0; slot < rowSizes[lastPosition]; slot++) {
+        rowHeap.add(pathScores[lastRow + slot], slot);
+      }
+
+      for (int seqIndex = 0; seqIndex < numSeq; seqIndex++) {
+        String[] outcomes = new String[sequence.length];
+        Double[] outcomeProbabilities = new Double[sequence.length];
+
+        int bestSlot = rowHeap.getMaxValue();
+        rowHeap.removeMax();
+
+        int slot = bestSlot;
+        for (int oi = lastPosition; oi >= 0; oi--) {
+          int cell = oi * size + slot;
+          outcomes[oi] = model.getOutcome(outcomeIds[cell]);
+          outcomeProbabilities[oi] = outcomeProbs[cell];
+          slot = parents[cell];
+        }
+
+        topSequences[seqIndex] = new Sequence(pathScores[lastRow + bestSlot],
+            new ArrayList<String>(Arrays.asList(outcomes)),
+            new ArrayList<Double>(Arrays.asList(outcomeProbabilities)));
+      }
+
+      rowHeap.clear();
+
+      return topSequences;
+    }
+  }
+
   /**
    * Returns the best sequence of outcomes based on model for this object.
    *
@@ -106,81 +492,140 @@ public class BeamSearch<T> {
    */
   public Sequence[] bestSequences(int numSequences, T[] sequence, Object[] additionalContext, double minSequenceScore) {
 
-    Heap<Sequence> prev = new ListHeap<Sequence>(size);
-    Heap<Sequence> next = new ListHeap<Sequence>(size);
-    Heap<Sequence> tmp;
-    prev.add(new Sequence());
+    Lattice lattice = new Lattice(sequence, additionalContext, minSequenceScore);
 
-    if (additionalContext == null) {
-      additionalContext = EMPTY_ADDITIONAL_CONTEXT;
-    }
+    // all scratch buffers are local, a search object can be used by many threads
+    double[] probs = new double[model.getNumOutcomes()];
+    double[] pruningBuffer = new double[model.getNumOutcomes()];
 
     for (int i = 0; i < sequence.length; i++) {
-      int sz = Math.min(size, prev.size());
-
-      for (int sc = 0; prev.size() > 0 && sc < sz; sc++) {
-        Sequence top = (Sequence) prev.extract();
-        List<String> tmpOutcomes = top.getOutcomes();
-        String[] outcomes = (String[]) tmpOutcomes.toArray(new String[tmpOutcomes.size()]);
-        String[] contexts = cg.getContext(i, sequence, outcomes, additionalContext);
-        double[] scores;
-        if (contextsCache != null) {
-          scores = (double[]) contextsCache.get(contexts);
-          if (scores == null) {
+      int sz = lattice.prepare(i, true);
+
+      if (sz == 0) {
+        break;
+      }
+
+      for (int sc = 0; sc < sz; sc++) {
+        double[] scores = lattice.getScores(sc);
+        if (scores == null) {
+          String[] contexts = lattice.getContext(sc);
+          if (contextsCache != null) {
+            scores = contextsCache.eval(model, contexts);
+          }
+          else {
             scores = model.eval(contexts, probs);
-            contextsCache.put(contexts,scores);
           }
         }
-        else {
-          scores = model.eval(contexts, probs);
-        }
 
-        double[] temp_scores = new double[scores.length];
-        for (int c = 0; c < scores.length; c++) {
-          temp_scores[c] = scores[c];
+        lattice.expand(i, sc, scores, pruningBuffer);
+      }
+
+      lattice.finish(i);
+    }
+
+    return lattice.topSequences(numSequences);
+  }
+
+  public List<Sequence[]> bestSequences(int numSequences, List<T[]> sequences,
+      List<Object[]> additionalContexts) {
+    return bestSequences(numSequences, sequences, additionalContexts, zeroLog);
+  }
+
+  /**
+   * Returns the best sequences of outcomes for many input sequences.
+   * <p>
+   * The input sequences are searched in lockstep, for every position the
+   * contexts of all hypotheses of all input sequences are generated first
+   * and then evaluated together. If the model is compiled, the contexts are
+   * evaluated in one pass over the parameters of the model by a
+   * {@link BatchEvaluator}. Otherwise equal contexts, e.g. of hypotheses which
+   * only differ in outcomes the context generator does not look at, are
+   * evaluated only once per position.
+   * <p>
+   * Context generators which cache the contexts of the current sentence
+   * work less effective in this mode, because the sentences are interleaved.
+   *
+   * @param numSequences The maximum number of sequences to be returned per input sequence.
+   * @param sequences The input sequences.
+   * @param additionalContexts The additional context for each input sequence, or null.
+   * @param minSequenceScore A lower bound on the score of a returned sequence.
+   * @return An array of the top ranked sequences of outcomes for each input sequence.
+   */
+  public List<Sequence[]> bestSequences(int numSequences, List<T[]> sequences,
+      List<Object[]> additionalContexts, double minSequenceScore) {
+
+    List<Lattice> lattices = new ArrayList<Lattice>(sequences.size());
+
+    int maxLength = 0;
+    for (int si = 0; si < sequences.size(); si++) {
+      T[] sequence = sequences.get(si);
+      lattices.add(new Lattice(sequence,
+          additionalContexts != null ? additionalContexts.get(si) : null,
+          minSequenceScore));
+      maxLength = Math.max(maxLength, sequence.length);
+    }
+
+    double[] pruningBuffer = new double[model.getNumOutcomes()];
+
+    int[] hypothesisCounts = new int[lattices.size()];
+    Map<ContextKey, double[]> batchScores = new HashMap<ContextKey, double[]>();
+    BatchEvaluator batch = compiledModel != null ? new BatchEvaluator(compiledModel) : null;
+
+    for (int i = 0; i < maxLength; i++) {
+
+      for (int li = 0; li < lattices.size(); li++) {
+        hypothesisCounts[li] = lattices.get(li).prepare(i, batch == null);
+      }
+
+      if (batch != null) {
+        for (int li = 0; li < lattices.size(); li++) {
+          lattices.get(li).addTo(batch, hypothesisCounts[li]);
         }
 
-        Arrays.sort(temp_scores);
+        batch.eval();
+      }
 
-        double min = temp_scores[Math.max(0,scores.length-size)];
+      // evaluate every distinct context of this position once
+      batchScores.clear();
 
-        for (int p = 0; p < scores.length; p++) {
-          if (scores[p] < min)
-            continue; //only advance first "size" outcomes
-          String out = model.getOutcome(p);
-          if (validSequence(i, sequence, outcomes, out)) {
-            Sequence ns = new Sequence(top, out, scores[p]);
-            if (ns.getScore() > minSequenceScore) {
-              next.add(ns);
-            }
+      for (int li = 0; li < lattices.size(); li++) {
+        Lattice lattice = lattices.get(li);
+
+        for (int sc = 0; sc < hypothesisCounts[li]; sc++) {
+          double[] scores = lattice.getScores(sc);
+
+          if (scores != null) {
+            lattice.expand(i, sc, scores, pruningBuffer);
+            continue;
           }
-        }
 
-        if (next.size() == 0) {//if no advanced sequences, advance all valid
-          for (int p = 0; p < scores.length; p++) {
-            String out = model.getOutcome(p);
-            if (validSequence(i, sequence, outcomes, out)) {
-              Sequence ns = new Sequence(top, out, scores[p]);
-              if (ns.getScore() > minSequenceScore) {
-                next.add(ns);
-              }
+          String[] contexts = lattice.getContext(sc);
+          ContextKey key = new ContextKey(model, contexts);
+
+          scores = batchScores.get(key);
+
+          if (scores == null) {
+            if (contextsCache != null) {
+              scores = contextsCache.eval(model, contexts);
+            }
+            else {
+              scores = model.eval(contexts, new double[model.getNumOutcomes()]);
             }
+            batchScores.put(key, scores);
           }
+
+          lattice.expand(i, sc, scores, pruningBuffer);
         }
-      }
 
-      //    make prev = next; and re-init next (we reuse existing prev set once we clear it)
-      prev.clear();
-      tmp = prev;
-      prev = next;
-      next = tmp;
+        if (hypothesisCounts[li] > 0) {
+          lattice.finish(i);
+        }
+      }
     }
 
-    int numSeq = Math.min(numSequences, prev.size());
-    Sequence[] topSequences = new Sequence[numSeq];
-
-    for (int seqIndex = 0; seqIndex < numSeq; seqIndex++) {
-      topSequences[seqIndex] = (Sequence) prev.extract();
+    List<Sequence[]> topSequences = new ArrayList<Sequence[]>(lattices.size());
+    for (int li = 0; li < lattices.size(); li++) {
+      topSequences.add(lattices.get(li).topSequences(numSequences));
     }
 
     return topSequences;
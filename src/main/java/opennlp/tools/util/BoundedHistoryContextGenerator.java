@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+/**
+ * Interface for context generators which only look at a bounded number of
+ * prior decisions. Such a context generator can be decoded exactly with
+ * the {@link ViterbiSearch}.
+ */
+public interface BoundedHistoryContextGenerator<T> extends BeamSearchContextGenerator<T> {
+
+  /**
+   * Returns the number of prior decisions the context generator looks at.
+   * A context generator of order 2 only uses the two decisions made directly
+   * before the current position, a context generator of order 0 does not
+   * look at prior decisions at all.
+   *
+   * @return the number of prior decisions which influence the context
+   */
+  public int getHistoryOrder();
+}
@@ -0,0 +1,393 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+/**
+ * A double-ended priority queue of fixed capacity which orders its
+ * entries by a score.
+ * <p>
+ * The heap is a min-max heap over parallel arrays, every entry consists of
+ * a score, an optional element and an optional int value. The entries with
+ * the lowest and with the highest score can be accessed in constant time and
+ * removed in O(log k). When the heap is full a new entry must score
+ * better than the lowest scoring entry, which is then evicted, so the heap
+ * never grows past its capacity. A heap can be cleared and reused without
+ * allocating new arrays.
+ * <p>
+ * The heap is not thread safe.
+ */
+public class BoundedMinMaxHeap<E> {
+
+  private final double[] scores;
+  private final Object[] elements;
+  private final int[] values;
+
+  private int size;
+
+  /**
+   * Initializes the heap.
+   *
+   * @param capacity the maximal number of entries, must be positive
+   */
+  public BoundedMinMaxHeap(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+
+    scores = new double[capacity];
+    elements = new Object[capacity];
+    values = new int[capacity];
+  }
+
+  public int getCapacity() {
+    return scores.length;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean isFull() {
+    return size == scores.length;
+  }
+
+  /**
+   * Removes all entries, the capacity is kept.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      elements[i] = null;
+    }
+    size = 0;
+  }
+
+  /**
+   * Checks if an entry with the specified score would be added to the heap.
+   *
+   * @param score
+   * @return true if the heap is not full or the score is higher than
+   * the lowest score of the heap
+   */
+  public boolean accepts(double score) {
+    return size < scores.length || score > scores[0];
+  }
+
+  /**
+   * Adds an entry, if the heap is full the lowest scoring entry is evicted.
+   *
+   * @param score the score of the entry
+   * @param element the element of the entry
+   * @param value the int value of the entry
+   *
+   * @return true if the entry was added, false if the heap is full and
+   * the score is not higher than the lowest score of the heap
+   */
+  public boolean add(double score, E element, int value) {
+
+    if (size == scores.length) {
+      if (!(score > scores[0])) {
+        return false;
+      }
+
+      removeAt(0);
+    }
+
+    int i = size++;
+    scores[i] = score;
+    elements[i] = element;
+    values[i] = value;
+
+    pushUp(i);
+
+    return true;
+  }
+
+  public boolean add(double score, E element) {
+    return add(score, element, 0);
+  }
+
+  public boolean add(double score, int value) {
+    return add(score, null, value);
+  }
+
+  private int maxIndex() {
+    if (size == 0) {
+      throw new RuntimeException("Heap Underflow");
+    }
+
+    if (size == 1) {
+      return 0;
+    }
+    else if (size == 2 || scores[1] >= scores[2]) {
+      return 1;
+    }
+    else {
+      return 2;
+    }
+  }
+
+  private int minIndex() {
+    if (size == 0) {
+      throw new RuntimeException("Heap Underflow");
+    }
+
+    return 0;
+  }
+
+  public double getMinScore() {
+    return scores[minIndex()];
+  }
+
+  @SuppressWarnings("unchecked")
+  public E getMin() {
+    return (E) elements[minIndex()];
+  }
+
+  public int getMinValue() {
+    return values[minIndex()];
+  }
+
+  public double getMaxScore() {
+    return scores[maxIndex()];
+  }
+
+  @SuppressWarnings("unchecked")
+  public E getMax() {
+    return (E) elements[maxIndex()];
+  }
+
+  public int getMaxValue() {
+    return values[maxIndex()];
+  }
+
+  /**
+   * Removes the entry with the lowest score.
+   *
+   * @return the element of the removed entry
+   */
+  public E removeMin() {
+    return removeAt(minIndex());
+  }
+
+  /**
+   * Removes the entry with the highest score.
+   *
+   * @return the element of the removed entry
+   */
+  public E removeMax() {
+    return removeAt(maxIndex());
+  }
+
+  /**
+   * Returns the score of the entry at the specified position, the entries
+   * are not stored in a particular order.
+   *
+   * @param index a position between 0 and {@link #size()}
+   */
+  public double getScore(int index) {
+    checkIndex(index);
+    return scores[index];
+  }
+
+  /**
+   * Returns the element of the entry at the specified position.
+   *
+   * @see #getScore(int)
+   */
+  @SuppressWarnings("unchecked")
+  public E getElement(int index) {
+    checkIndex(index);
+    return (E) elements[index];
+  }
+
+  /**
+   * Returns the int value of the entry at the specified position.
+   *
+   * @see #getScore(int)
+   */
+  public int getValue(int index) {
+    checkIndex(index);
+    return values[index];
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+    }
+  }
+
+  /**
+   * Removes the entry at index 0 (the minimum) or at index 1 or 2 (the maximum).
+   */
+  @SuppressWarnings("unchecked")
+  private E removeAt(int i) {
+    E element = (E) elements[i];
+
+    int last = --size;
+
+    if (i != last) {
+      scores[i] = scores[last];
+      elements[i] = elements[last];
+      values[i] = values[last];
+    }
+
+    elements[last] = null;
+
+    if (i < size) {
+      trickleDown(i);
+    }
+
+    return element;
+  }
+
+  private static boolean isMinLevel(int i) {
+    // the root is on level 0, levels alternate between min and max levels
+    return ((31 - Integer.numberOfLeadingZeros(i + 1)) & 1) == 0;
+  }
+
+  private void swap(int x, int y) {
+    double score = scores[x];
+    scores[x] = scores[y];
+    scores[y] = score;
+
+    Object element = elements[x];
+    elements[x] = elements[y];
+    elements[y] = element;
+
+    int value = values[x];
+    values[x] = values[y];
+    values[y] = value;
+  }
+
+  private void pushUp(int i) {
+    if (i == 0) {
+      return;
+    }
+
+    int parent = (i - 1) / 2;
+
+    if (isMinLevel(i)) {
+      if (scores[i] > scores[parent]) {
+        swap(i, parent);
+        pushUpMax(parent);
+      }
+      else {
+        pushUpMin(i);
+      }
+    }
+    else {
+      if (scores[i] < scores[parent]) {
+        swap(i, parent);
+        pushUpMin(parent);
+      }
+      else {
+        pushUpMax(i);
+      }
+    }
+  }
+
+  private void pushUpMin(int i) {
+    while (i > 2) {
+      int grandparent = ((i - 1) / 2 - 1) / 2;
+
+      if (scores[i] < scores[grandparent]) {
+        swap(i, grandparent);
+        i = grandparent;
+      }
+      else {
+        break;
+      }
+    }
+  }
+
+  private void pushUpMax(int i) {
+    while (i > 2) {
+      int grandparent = ((i - 1) / 2 - 1) / 2;
+
+      if (scores[i] > scores[grandparent]) {
+        swap(i, grandparent);
+        i = grandparent;
+      }
+      else {
+        break;
+      }
+    }
+  }
+
+  private void trickleDown(int i) {
+    boolean min = isMinLevel(i);
+
+    while (true) {
+      int firstChild = 2 * i + 1;
+
+      if (firstChild >= size) {
+        return;
+      }
+
+      // find the extreme entry among the children and grandchildren
+      int m = firstChild;
+      for (int c = firstChild; c <= firstChild + 1 && c < size; c++) {
+        if (better(c, m, min)) {
+          m = c;
+        }
+
+        for (int g = 2 * c + 1; g <= 2 * c + 2 && g < size; g++) {
+          if (better(g, m, min)) {
+            m = g;
+          }
+        }
+      }
+
+      if (m > firstChild + 1) {
+        // m is a grandchild
+        if (better(m, i, min)) {
+          swap(m, i);
+
+          // the parent is on a level of the opposite kind
+          int parent = (m - 1) / 2;
+          if (better(m, parent, !min)) {
+            swap(m, parent);
+          }
+
+          i = m;
+        }
+        else {
+          return;
+        }
+      }
+      else {
+        if (better(m, i, min)) {
+          swap(m, i);
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * On a min level an entry is better if its score is lower,
+   * on a max level if its score is higher.
+   */
+  private boolean better(int x, int y, boolean min) {
+    return min ? scores[x] < scores[y] : scores[x] > scores[y];
+  }
+}
@@ -24,7 +24,10 @@ import java.util.Set;
 
 /**
  * Provides fixed size, pre-allocated, least recently used replacement cache.
+ *
+ * @deprecated use the type safe and thread safe {@link ConcurrentCache} instead
  */
+@Deprecated
 @SuppressWarnings("unchecked")
 public class Cache implements Map {
 
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+/**
+ * The hit and miss statistics of a cache.
+ * <p>
+ * The counters are cumulative, they are not reset when the cache is cleared.
+ * Implementations which can be used concurrently must also count concurrently.
+ */
+public interface CacheMetrics {
+
+  /**
+   * Retrieves the number of times a cache hit occurred.
+   *
+   * @return number of cache hits
+   */
+  long getNumberOfCacheHits();
+
+  /**
+   * Retrieves the number of times a cache miss occurred.
+   *
+   * @return number of cache misses
+   */
+  long getNumberOfCacheMisses();
+
+  /**
+   * Retrieves the fraction of lookups which were answered from the cache.
+   *
+   * @return the hit rate between 0 and 1
+   */
+  double getHitRate();
+}
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import opennlp.maxent.GISModel;
+import opennlp.model.Context;
+import opennlp.model.EvalParameters;
+import opennlp.model.MaxentModel;
+import opennlp.perceptron.PerceptronModel;
+
+/**
+ * A compiled form of a {@link GISModel} or {@link PerceptronModel} which
+ * evaluates contexts of predicate indexes instead of predicate strings.
+ * <p>
+ * The predicate table of the model is kept in an open addressing hash table
+ * which can be searched with the characters of a predicate, so a context
+ * generator can look up its predicates without creating the predicate strings,
+ * see {@link PredicateBuffer}. The evaluation of a context repeats the
+ * computation of the evaluation code of the model on the predicate indexes
+ * and gives the same result as the evaluation of the predicate strings.
+ * <p>
+ * Models are compiled with their uniform prior, which is the prior
+ * of all models read from a model file.
+ * <p>
+ * A compiled model is immutable and can be used concurrently.
+ */
+public final class CompiledModel {
+
+  // compiled models do not reference the model, entries go away with the model
+  private static final Map<MaxentModel, CompiledModel> compiledModels =
+      Collections.synchronizedMap(new WeakHashMap<MaxentModel, CompiledModel>());
+
+  private final boolean perceptron;
+  private final EvalParameters evalParams;
+  private final double uniformPrior;
+  private final int numOutcomes;
+
+  private final String[] predicates;
+  private final int[] predicateHashes;
+  private final int[] predicateIndexes;
+  private final int mask;
+  private final int maxPredicateLength;
+
+  @SuppressWarnings("unchecked")
+  private CompiledModel(MaxentModel model) {
+
+    Object[] dataStructures = model.getDataStructures();
+
+    Context[] params = (Context[]) dataStructures[0];
+    Map<String, Integer> pmap = (Map<String, Integer>) dataStructures[1];
+
+    numOutcomes = model.getNumOutcomes();
+    uniformPrior = Math.log(1.0 / numOutcomes);
+    perceptron = model instanceof PerceptronModel;
+
+    if (perceptron) {
+      evalParams = new EvalParameters(params, numOutcomes);
+    }
+    else {
+      double correctionConstant = ((Number) dataStructures[3]).doubleValue();
+      double correctionParam = ((Number) dataStructures[4]).doubleValue();
+
+      evalParams = new EvalParameters(params, correctionParam, correctionConstant,
+          numOutcomes);
+    }
+
+    int capacity = 16;
+    while (capacity < 2 * pmap.size()) {
+      capacity <<= 1;
+    }
+
+    predicates = new String[capacity];
+    predicateHashes = new int[capacity];
+    predicateIndexes = new int[capacity];
+    mask = capacity - 1;
+
+    int maxLength = 0;
+
+    for (Iterator<Map.Entry<String, Integer>> it = pmap.entrySet().iterator(); it.hasNext();) {
+      Map.Entry<String, Integer> entry = it.next();
+
+      String predicate = entry.getKey();
+      int hash = predicate.hashCode();
+
+      int slot = spread(hash) & mask;
+      while (predicates[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+
+      maxLength = Math.max(maxLength, predicate.length());
+
+      predicates[slot] = predicate;
+      predicateHashes[slot] = hash;
+      predicateIndexes[slot] = entry.getValue().intValue();
+    }
+
+    maxPredicateLength = maxLength;
+  }
+
+  /**
+   * Checks if the specified model can be compiled.
+   *
+   * @param model
+   * @return true if the model is a {@link GISModel} or a {@link PerceptronModel}
+   */
+  public static boolean isCompilable(MaxentModel model) {
+    return model instanceof GISModel || model instanceof PerceptronModel;
+  }
+
+  /**
+   * Returns the compiled form of the specified model. A model is only
+   * compiled once, later calls return the same compiled model.
+   *
+   * @param model
+   * @return the compiled model
+   *
+   * @throws IllegalArgumentException if the model cannot be compiled
+   */
+  public static CompiledModel compile(MaxentModel model) {
+
+    if (!isCompilable(model)) {
+      throw new IllegalArgumentException("Cannot compile model of type " +
+          model.getClass().getName());
+    }
+
+    synchronized (compiledModels) {
+      CompiledModel compiledModel = compiledModels.get(model);
+
+      if (compiledModel == null) {
+        compiledModel = new CompiledModel(model);
+        compiledModels.put(model, compiledModel);
+      }
+
+      return compiledModel;
+    }
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  public int getNumOutcomes() {
+    return numOutcomes;
+  }
+
+  /**
+   * Retrieves the length of the longest predicate of the model, a context
+   * generator does not need to write longer predicates, they are unknown.
+   */
+  public int getMaxPredicateLength() {
+    return maxPredicateLength;
+  }
+
+  /**
+   * Retrieves the index of the predicate which consists of the specified
+   * characters.
+   *
+   * @param chars
+   * @param offset
+   * @param length
+   * @param hash the hash of the characters, it is computed like {@link String#hashCode()}
+   *
+   * @return the index of the predicate or -1 if the model does not know the predicate
+   */
+  public int getPredicateIndex(char[] chars, int offset, int length, int hash) {
+
+    int slot = spread(hash) & mask;
+
+    String predicate;
+    while ((predicate = predicates[slot]) != null) {
+
+      if (predicateHashes[slot] == hash && predicate.length() == length) {
+        int ci = 0;
+        while (ci < length && predicate.charAt(ci) == chars[offset + ci]) {
+          ci++;
+        }
+
+        if (ci == length) {
+          return predicateIndexes[slot];
+        }
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Retrieves the index of the specified predicate.
+   *
+   * @param predicate
+   * @return the index of the predicate or -1 if the model does not know the predicate
+   */
+  public int getPredicateIndex(String predicate) {
+    int hash = predicate.hashCode();
+
+    int slot = spread(hash) & mask;
+
+    String candidate;
+    while ((candidate = predicates[slot]) != null) {
+      if (predicateHashes[slot] == hash && candidate.equals(predicate)) {
+        return predicateIndexes[slot];
+      }
+
+      slot = (slot + 1) & mask;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Evaluates a context of predicate indexes.
+   *
+   * @param context the predicate indexes, indexes of unknown predicates are negative
+   * @param length the number of predicate indexes in the context array
+   * @param probs the array for the probabilities of the outcomes,
+   * its length must be the number of outcomes
+   *
+   * @return the probs array
+   */
+  public double[] eval(int[] context, int length, double[] probs) {
+    return eval(context, length, probs, perceptron ? null : new int[numOutcomes]);
+  }
+
+  /**
+   * Evaluates a context of predicate indexes without allocating memory.
+   *
+   * @param featureCounts a scratch array with one entry per outcome,
+   * it is only used by GIS models and can be null for perceptron models
+   */
+  double[] eval(int[] context, int length, double[] probs, int[] featureCounts) {
+    prior(probs, featureCounts);
+    addParameters(context, length, probs, featureCounts);
+    return normalize(probs, featureCounts);
+  }
+
+  /**
+   * Sets the scores to the prior of the model, the first step of an
+   * evaluation. The evaluation is split into steps, so the parameters of
+   * predicates which are shared by many contexts can be added once and the
+   * scores are copied.
+   */
+  void prior(double[] scores, int[] featureCounts) {
+    double prior = perceptron ? 0 : uniformPrior;
+
+    for (int oi = 0; oi < numOutcomes; oi++) {
+      scores[oi] = prior;
+    }
+
+    if (!perceptron) {
+      for (int oi = 0; oi < numOutcomes; oi++) {
+        featureCounts[oi] = 0;
+      }
+    }
+  }
+
+  /**
+   * Adds the parameters of one predicate to the scores.
+   */
+  void addParameters(int predicate, double[] scores, int[] featureCounts) {
+    Context predicateParams = evalParams.getParams()[predicate];
+
+    int[] outcomes = predicateParams.getOutcomes();
+    double[] parameters = predicateParams.getParameters();
+
+    if (perceptron) {
+      for (int ai = 0; ai < outcomes.length; ai++) {
+        scores[outcomes[ai]] += parameters[ai];
+      }
+    }
+    else {
+      for (int ai = 0; ai < outcomes.length; ai++) {
+        int oi = outcomes[ai];
+        featureCounts[oi]++;
+        scores[oi] += parameters[ai];
+      }
+    }
+  }
+
+  /**
+   * Adds the parameters of the predicates of a context to the scores,
+   * negative predicate indexes are skipped.
+   */
+  void addParameters(int[] context, int length, double[] scores, int[] featureCounts) {
+    for (int ci = 0; ci < length; ci++) {
+      if (context[ci] >= 0) {
+        addParameters(context[ci], scores, featureCounts);
+      }
+    }
+  }
+
+  /**
+   * Converts the summed scores into the probabilities of the outcomes, the
+   * last step of an evaluation. The computation is the same as the one of
+   * {@link GISModel#eval(int[], double[], EvalParameters)} and
+   * {@link PerceptronModel#eval(int[], float[], double[], EvalParameters, boolean)}.
+   *
+   * @return the scores array which contains the probabilities
+   */
+  double[] normalize(double[] scores, int[] featureCounts) {
+
+    if (perceptron) {
+      double min = scores[0];
+      for (int oi = 0; oi < numOutcomes; oi++) {
+        if (scores[oi] < min) {
+          min = scores[oi];
+        }
+      }
+
+      double normal = 0;
+      for (int oi = 0; oi < numOutcomes; oi++) {
+        if (min < 0) {
+          scores[oi] += -1 * min;
+        }
+        normal += scores[oi];
+      }
+
+      if (normal == 0) {
+        for (int oi = 0; oi < numOutcomes; oi++) {
+          scores[oi] = 1d / numOutcomes;
+        }
+      }
+      else {
+        for (int oi = 0; oi < numOutcomes; oi++) {
+          scores[oi] /= normal;
+        }
+      }
+    }
+    else {
+      double normal = 0;
+      for (int oi = 0; oi < numOutcomes; oi++) {
+        if (evalParams.getCorrectionParam() != 0) {
+          scores[oi] = Math.exp(scores[oi] * evalParams.getConstantInverse() +
+              ((1d - ((double) featureCounts[oi] / evalParams.getCorrectionConstant())) *
+              evalParams.getCorrectionParam()));
+        }
+        else {
+          scores[oi] = Math.exp(scores[oi] * evalParams.getConstantInverse());
+        }
+
+        normal += scores[oi];
+      }
+
+      for (int oi = 0; oi < numOutcomes; oi++) {
+        scores[oi] /= normal;
+      }
+    }
+
+    return scores;
+  }
+}
@@ -0,0 +1,604 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread safe, bounded cache.
+ * <p>
+ * The cache is split into segments which are selected by the hash of the key
+ * and locked independently, so threads which access different keys rarely
+ * contend. Every segment uses a W-TinyLFU eviction policy: new entries
+ * are placed in a small LRU window, when they leave the window they are
+ * only admitted to the main area if they were used more often than the
+ * entry which would have to be evicted for them. The usage frequencies are
+ * estimated by a {@link FrequencySketch}. The main area is a segmented
+ * LRU with a probation and a protected part, entries are promoted to the
+ * protected part when they are hit again.
+ * <p>
+ * The cache is bounded by the sum of the weights of its entries, by default
+ * every entry has the weight one and the bound is the number of entries.
+ * <p>
+ * Null keys and values are not supported.
+ */
+public class ConcurrentCache<K, V> implements CacheMetrics {
+
+  /**
+   * Computes the weight of a cache entry, e.g. its estimated memory usage.
+   */
+  public interface Weigher<K, V> {
+
+    /**
+     * Computes the weight of the entry.
+     *
+     * @param key
+     * @param value
+     *
+     * @return the weight, must be at least one
+     */
+    int weigh(K key, V value);
+  }
+
+  private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+  /**
+   * The minimum bound of a segment, smaller caches use fewer segments.
+   */
+  private static final int MIN_SEGMENT_WEIGHT = 32;
+
+  private static final byte WINDOW = 0;
+  private static final byte PROBATION = 1;
+  private static final byte PROTECTED = 2;
+
+  private static class Node<K, V> {
+    K key;
+    V value;
+    int hash;
+    int weight;
+    byte queue;
+    Node<K, V> prev;
+    Node<K, V> next;
+
+    Node() {
+      prev = this;
+      next = this;
+    }
+
+    Node(K key, V value, int hash, int weight) {
+      this.key = key;
+      this.value = value;
+      this.hash = hash;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * A part of the cache with its own lock, map and eviction policy. The
+   * queues are circular lists, the head's next node is the least recently
+   * used node.
+   */
+  @SuppressWarnings("serial")
+  private static class Segment<K, V> extends ReentrantLock {
+
+    private final Map<K, Node<K, V>> map = new HashMap<K, Node<K, V>>();
+
+    private final Node<K, V> window = new Node<K, V>();
+    private final Node<K, V> probation = new Node<K, V>();
+    private final Node<K, V> protectedQueue = new Node<K, V>();
+
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private final long windowMax;
+    private final long mainMax;
+    private final long protectedMax;
+
+    private final FrequencySketch sketch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    Segment(long maxWeight) {
+      // a cache with a bound of one has no window
+      windowMax = maxWeight > 1 ? Math.max(1, maxWeight / 100) : 0;
+      mainMax = Math.max(1, maxWeight - windowMax);
+      protectedMax = Math.max(1, mainMax * 4 / 5);
+      sketch = new FrequencySketch(maxWeight);
+    }
+
+    private static <K, V> void unlink(Node<K, V> node) {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+    }
+
+    private static <K, V> void linkLast(Node<K, V> head, Node<K, V> node) {
+      node.prev = head.prev;
+      node.next = head;
+      head.prev.next = node;
+      head.prev = node;
+    }
+
+    private void addWeight(byte queue, long weight) {
+      if (queue == WINDOW) {
+        windowWeight += weight;
+      }
+      else if (queue == PROBATION) {
+        probationWeight += weight;
+      }
+      else {
+        protectedWeight += weight;
+      }
+    }
+
+    private Node<K, V> head(byte queue) {
+      if (queue == WINDOW) {
+        return window;
+      }
+      else if (queue == PROBATION) {
+        return probation;
+      }
+      else {
+        return protectedQueue;
+      }
+    }
+
+    private void onAccess(Node<K, V> node) {
+      if (node.queue == PROBATION) {
+        unlink(node);
+        probationWeight -= node.weight;
+
+        node.queue = PROTECTED;
+        linkLast(protectedQueue, node);
+        protectedWeight += node.weight;
+
+        // demote the least recently used protected nodes
+        while (protectedWeight > protectedMax && protectedQueue.next != node) {
+          Node<K, V> demoted = protectedQueue.next;
+          unlink(demoted);
+          protectedWeight -= demoted.weight;
+
+          demoted.queue = PROBATION;
+          linkLast(probation, demoted);
+          probationWeight += demoted.weight;
+        }
+      }
+      else {
+        unlink(node);
+        linkLast(head(node.queue), node);
+      }
+    }
+
+    private void evict(Node<K, V> node) {
+      map.remove(node.key);
+      evictions++;
+    }
+
+    /**
+     * Moves nodes which overflow the window into the main area if they
+     * are more popular than the nodes they would replace.
+     */
+    private void evictFromWindow() {
+      while (windowWeight > windowMax) {
+        Node<K, V> candidate = window.next;
+        unlink(candidate);
+        windowWeight -= candidate.weight;
+
+        admit(candidate);
+      }
+    }
+
+    private void admit(Node<K, V> candidate) {
+
+      if (candidate.weight > mainMax) {
+        evict(candidate);
+        return;
+      }
+
+      if (probationWeight + protectedWeight + candidate.weight > mainMax) {
+        // the candidate competes only with the first victim, it is either
+        // rejected before anything is evicted or it evicts as many nodes as
+        // it needs room
+        Node<K, V> victim = probation.next != probation ? probation.next : protectedQueue.next;
+
+        if (sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+          evict(candidate);
+          return;
+        }
+
+        while (probationWeight + protectedWeight + candidate.weight > mainMax) {
+          victim = probation.next != probation ? probation.next : protectedQueue.next;
+          unlink(victim);
+          addWeight(victim.queue, -victim.weight);
+          evict(victim);
+        }
+      }
+
+      candidate.queue = PROBATION;
+      linkLast(probation, candidate);
+      probationWeight += candidate.weight;
+    }
+
+    /**
+     * Evicts the least recently used nodes of the main area until it fits.
+     */
+    private void evictFromMain() {
+      while (probationWeight + protectedWeight > mainMax) {
+        Node<K, V> victim = probation.next != probation ? probation.next : protectedQueue.next;
+        unlink(victim);
+        addWeight(victim.queue, -victim.weight);
+        evict(victim);
+      }
+    }
+
+    V get(K key, int hash) {
+      lock();
+      try {
+        sketch.increment(hash);
+
+        Node<K, V> node = map.get(key);
+
+        if (node != null) {
+          hits++;
+          onAccess(node);
+          return node.value;
+        }
+        else {
+          misses++;
+          return null;
+        }
+      }
+      finally {
+        unlock();
+      }
+    }
+
+    V put(K key, V value, int hash, int weight) {
+      lock();
+      try {
+        sketch.increment(hash);
+
+        Node<K, V> node = map.get(key);
+
+        if (node != null) {
+          V oldValue = node.value;
+          node.value = value;
+          addWeight(node.queue, weight - node.weight);
+          node.weight = weight;
+          onAccess(node);
+
+          evictFromWindow();
+          evictFromMain();
+
+          return oldValue;
+        }
+
+        node = new Node<K, V>(key, value, hash, weight);
+        node.queue = WINDOW;
+        map.put(key, node);
+        linkLast(window, node);
+        windowWeight += weight;
+
+        evictFromWindow();
+
+        return null;
+      }
+      finally {
+        unlock();
+      }
+    }
+
+    V remove(K key) {
+      lock();
+      try {
+        Node<K, V> node = map.remove(key);
+
+        if (node != null) {
+          unlink(node);
+          addWeight(node.queue, -node.weight);
+          return node.value;
+        }
+
+        return null;
+      }
+      finally {
+        unlock();
+      }
+    }
+
+    void clear() {
+      lock();
+      try {
+        map.clear();
+        window.prev = window.next = window;
+        probation.prev = probation.next = probation;
+        protectedQueue.prev = protectedQueue.next = protectedQueue;
+        windowWeight = probationWeight = protectedWeight = 0;
+        sketch.clear();
+      }
+      finally {
+        unlock();
+      }
+    }
+  }
+
+  private static final Weigher<Object, Object> SINGLETON_WEIGHER = new Weigher<Object, Object>() {
+    public int weigh(Object key, Object value) {
+      return 1;
+    }
+  };
+
+  private final Segment<K, V>[] segments;
+
+  private final int segmentShift;
+
+  private final Weigher<? super K, ? super V> weigher;
+
+  private final long maxWeight;
+
+  /**
+   * Initializes a cache which holds at most the specified number of entries.
+   *
+   * @param maxSize the maximum number of entries
+   */
+  public ConcurrentCache(long maxSize) {
+    this(maxSize, SINGLETON_WEIGHER, DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  /**
+   * Initializes a cache which is bounded by the sum of the weights
+   * of its entries.
+   *
+   * @param maxWeight the maximum sum of the weights of the entries
+   * @param weigher computes the weight of an entry
+   * @param concurrencyLevel the estimated number of threads which use
+   * the cache concurrently, the cache is split into at most this many segments
+   */
+  @SuppressWarnings("unchecked")
+  public ConcurrentCache(long maxWeight, Weigher<? super K, ? super V> weigher,
+      int concurrencyLevel) {
+
+    if (maxWeight <= 0) {
+      throw new IllegalArgumentException("maxWeight must be positive: " + maxWeight);
+    }
+
+    if (weigher == null) {
+      throw new IllegalArgumentException("weigher must not be null!");
+    }
+
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+
+    int segmentCount = 1;
+    int shift = 0;
+    while (segmentCount < concurrencyLevel &&
+        maxWeight / (segmentCount * 2) >= MIN_SEGMENT_WEIGHT) {
+      segmentCount <<= 1;
+      shift++;
+    }
+
+    segmentShift = 32 - shift;
+
+    @SuppressWarnings("unchecked")
+    Segment<K, V>[] newSegments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+    segments = newSegments;
+    for (int i = 0; i < segments.length; i++) {
+      // the remainder is distributed, so the bounds add up to maxWeight
+      segments[i] = new Segment<K, V>(maxWeight / segmentCount +
+          (i < maxWeight % segmentCount ? 1 : 0));
+    }
+  }
+
+  private static int spread(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x45D9F3B;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+
+  private Segment<K, V> segmentFor(int hash) {
+    return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+  }
+
+  /**
+   * Retrieves the value which is mapped to the key.
+   *
+   * @param key
+   *
+   * @return the value or null if the key is not cached
+   */
+  public V get(K key) {
+    int hash = spread(key.hashCode());
+    return segmentFor(hash).get(key, hash);
+  }
+
+  /**
+   * Maps the key to the value. The entry might be evicted right away
+   * if it is heavy or if it is less popular than the cached entries.
+   *
+   * @param key
+   * @param value
+   *
+   * @return the previously mapped value or null
+   */
+  public V put(K key, V value) {
+
+    if (key == null || value == null) {
+      throw new IllegalArgumentException("key and value must not be null!");
+    }
+
+    int weight = weigher.weigh(key, value);
+
+    if (weight < 1) {
+      throw new IllegalArgumentException("weight must be at least one: " + weight);
+    }
+
+    int hash = spread(key.hashCode());
+    return segmentFor(hash).put(key, value, hash, weight);
+  }
+
+  /**
+   * Removes the key from the cache.
+   *
+   * @param key
+   *
+   * @return the removed value or null
+   */
+  public V remove(K key) {
+    int hash = spread(key.hashCode());
+    return segmentFor(hash).remove(key);
+  }
+
+  /**
+   * Removes all entries, the counters are not reset.
+   */
+  public void clear() {
+    for (int i = 0; i < segments.length; i++) {
+      segments[i].clear();
+    }
+  }
+
+  /**
+   * Retrieves the number of cached entries.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    int size = 0;
+    for (int i = 0; i < segments.length; i++) {
+      segments[i].lock();
+      try {
+        size += segments[i].map.size();
+      }
+      finally {
+        segments[i].unlock();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Retrieves the sum of the weights of the cached entries.
+   *
+   * @return the weighted size
+   */
+  public long weightedSize() {
+    long weight = 0;
+    for (int i = 0; i < segments.length; i++) {
+      Segment<K, V> segment = segments[i];
+      segment.lock();
+      try {
+        weight += segment.windowWeight + segment.probationWeight + segment.protectedWeight;
+      }
+      finally {
+        segment.unlock();
+      }
+    }
+    return weight;
+  }
+
+  /**
+   * Retrieves the bound of the weighted size.
+   *
+   * @return the maximum weight
+   */
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  /**
+   * Retrieves the number of times a cache hit occurred.
+   *
+   * @return number of cache hits
+   */
+  public long getNumberOfCacheHits() {
+    long hits = 0;
+    for (int i = 0; i < segments.length; i++) {
+      segments[i].lock();
+      try {
+        hits += segments[i].hits;
+      }
+      finally {
+        segments[i].unlock();
+      }
+    }
+    return hits;
+  }
+
+  /**
+   * Retrieves the number of times a cache miss occurred.
+   *
+   * @return number of cache misses
+   */
+  public long getNumberOfCacheMisses() {
+    long misses = 0;
+    for (int i = 0; i < segments.length; i++) {
+      segments[i].lock();
+      try {
+        misses += segments[i].misses;
+      }
+      finally {
+        segments[i].unlock();
+      }
+    }
+    return misses;
+  }
+
+  /**
+   * Retrieves the number of entries which were evicted to
+   * stay below the bound.
+   *
+   * @return number of evictions
+   */
+  public long getNumberOfEvictions() {
+    long evictions = 0;
+    for (int i = 0; i < segments.length; i++) {
+      segments[i].lock();
+      try {
+        evictions += segments[i].evictions;
+      }
+      finally {
+        segments[i].unlock();
+      }
+    }
+    return evictions;
+  }
+
+  /**
+   * Retrieves the fraction of lookups which were answered from the cache.
+   *
+   * @return the hit rate between 0 and 1
+   */
+  public double getHitRate() {
+    long hits = getNumberOfCacheHits();
+    long lookups = hits + getNumberOfCacheMisses();
+    return lookups > 0 ? (double) hits / lookups : 0;
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrentCache: hits=" + getNumberOfCacheHits() +
+        " misses=" + getNumberOfCacheMisses() +
+        " evictions=" + getNumberOfEvictions() + " hit%" + getHitRate() +
+        " entries=" + size() + " weight=" + weightedSize() + "/" + maxWeight;
+  }
+}
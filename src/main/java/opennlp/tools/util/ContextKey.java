@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.Arrays;
+
+import opennlp.model.MaxentModel;
+
+/**
+ * A key for a context which is evaluated by a model. Keys are equal if the
+ * features are equal and the model is the same instance. The hash is a
+ * 64 bit fingerprint of the feature strings and the identity of the model.
+ *
+ * @see EvaluationCache
+ */
+class ContextKey {
+
+  private final MaxentModel model;
+  private final String[] context;
+  private final long fingerprint;
+
+  ContextKey(MaxentModel model, String[] context) {
+    this.model = model;
+    this.context = context;
+
+    long hash = System.identityHashCode(model);
+
+    for (int i = 0; i < context.length; i++) {
+      hash = hash * 0x9E3779B97F4A7C15L + context[i].hashCode();
+    }
+
+    fingerprint = hash ^ (hash >>> 29);
+  }
+
+  /**
+   * Initializes a key with the fingerprint of an other key,
+   * the context must be equal to the context of the other key.
+   */
+  ContextKey(ContextKey key, String[] context) {
+    this.model = key.model;
+    this.context = context;
+    this.fingerprint = key.fingerprint;
+  }
+
+  String[] getContext() {
+    return context;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (fingerprint ^ (fingerprint >>> 32));
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    else if (obj instanceof ContextKey) {
+      ContextKey key = (ContextKey) obj;
+
+      return fingerprint == key.fingerprint && model == key.model &&
+          Arrays.equals(context, key.context);
+    }
+    else {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import opennlp.model.MaxentModel;
+
+/**
+ * Memoizes the outcome distributions computed by {@link MaxentModel#eval(String[])}.
+ * <p>
+ * Contexts are keyed by their content, a 64 bit fingerprint of the feature
+ * strings and the identity of the model is used as hash, equal fingerprints are
+ * verified by comparing the features. Therefore equal contexts which are
+ * produced by different beam paths or for different sentences share one entry,
+ * and one cache can be shared by all searches which use the same model,
+ * or even by searches with different models.
+ * <p>
+ * The entries are stored in a {@link ConcurrentCache} which is bounded
+ * by an estimate of the memory used by the entries.
+ * <p>
+ * The returned distributions are shared and must not be modified by the caller.
+ * <p>
+ * This class is thread safe.
+ */
+public class EvaluationCache implements CacheMetrics {
+
+  /**
+   * Estimated bytes of a map entry, the key and the array headers.
+   */
+  private static final int ENTRY_OVERHEAD = 128;
+
+  /**
+   * Estimated bytes of a String object without its characters.
+   */
+  private static final int STRING_OVERHEAD = 40;
+
+  /**
+   * The minimum memory of one segment of the underlying cache,
+   * small caches use fewer segments to fit large entries.
+   */
+  private static final long MIN_SEGMENT_MEMORY = 256 * 1024;
+
+  private final ConcurrentCache<ContextKey, double[]> entries;
+
+  /**
+   * Initializes the cache.
+   *
+   * @param maxMemory the maximum number of bytes the entries
+   * of the cache should occupy
+   */
+  public EvaluationCache(long maxMemory) {
+
+    if (maxMemory <= 0) {
+      throw new IllegalArgumentException("maxMemory must be positive: " + maxMemory);
+    }
+
+    entries = new ConcurrentCache<ContextKey, double[]>(maxMemory,
+        new ConcurrentCache.Weigher<ContextKey, double[]>() {
+          public int weigh(ContextKey key, double[] probs) {
+            return estimateMemory(key, probs);
+          }
+        }, (int) Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+            maxMemory / MIN_SEGMENT_MEMORY)));
+  }
+
+  private static int estimateMemory(ContextKey key, double[] probs) {
+    int size = ENTRY_OVERHEAD + 4 * key.getContext().length + 8 * probs.length;
+
+    String[] context = key.getContext();
+    for (int i = 0; i < context.length; i++) {
+      size += STRING_OVERHEAD + 2 * context[i].length();
+    }
+
+    return size;
+  }
+
+  /**
+   * Evaluates the context with the model, or retrieves the
+   * distribution from the cache if the same context was evaluated
+   * by the same model before.
+   *
+   * @param model the model
+   * @param context the context, the array must not be modified after this call
+   *
+   * @return the outcome distribution, which must not be modified
+   */
+  public double[] eval(MaxentModel model, String[] context) {
+
+    ContextKey key = new ContextKey(model, context);
+
+    double[] probs = entries.get(key);
+
+    if (probs == null) {
+      probs = model.eval(context, new double[model.getNumOutcomes()]);
+
+      // the key is copied, the caller may reuse the context array
+      entries.put(new ContextKey(key, context.clone()), probs);
+    }
+
+    return probs;
+  }
+
+  /**
+   * Removes all entries from the cache, the counters are not reset.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Retrieves the number of entries in the cache.
+   *
+   * @return number of entries
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Retrieves the estimated number of bytes used by the entries.
+   *
+   * @return the estimated memory usage
+   */
+  public long getMemoryUsage() {
+    return entries.weightedSize();
+  }
+
+  /**
+   * Retrieves the number of times a cache hit occurred.
+   *
+   * @return number of cache hits
+   */
+  public long getNumberOfCacheHits() {
+    return entries.getNumberOfCacheHits();
+  }
+
+  /**
+   * Retrieves the number of times a cache miss occurred.
+   *
+   * @return number of cache misses
+   */
+  public long getNumberOfCacheMisses() {
+    return entries.getNumberOfCacheMisses();
+  }
+
+  /**
+   * Retrieves the number of entries which were evicted to
+   * stay below the memory bound.
+   *
+   * @return number of evictions
+   */
+  public long getNumberOfEvictions() {
+    return entries.getNumberOfEvictions();
+  }
+
+  /**
+   * Retrieves the fraction of lookups which were answered from the cache.
+   *
+   * @return the hit rate between 0 and 1
+   */
+  public double getHitRate() {
+    return entries.getHitRate();
+  }
+
+  @Override
+  public String toString() {
+    return "EvaluationCache: hits=" + getNumberOfCacheHits() +
+        " misses=" + getNumberOfCacheMisses() +
+        " evictions=" + getNumberOfEvictions() + " hit%" + getHitRate() +
+        " entries=" + size() + " memory=" + getMemoryUsage() + "/" +
+        entries.getMaxWeight();
+  }
+}
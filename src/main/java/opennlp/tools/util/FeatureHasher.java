@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.Collection;
+
+/**
+ * Maps features into a fixed number of 2^bits hash buckets, the hashing trick.
+ * <p>
+ * A hashed feature is named after its bucket, so a model trained on hashed
+ * features has at most 2^bits predicates no matter how large the vocabulary of
+ * the training data is. Features which fall into the same bucket share one
+ * predicate.
+ * <p>
+ * The bucket of a feature is computed from {@link String#hashCode()} with a
+ * finalization step which mixes all bits into the low bits used for the bucket.
+ * The hash function is part of the model format and must never change, a model
+ * must always be used with the number of bits it was trained with.
+ * <p>
+ * This class is thread safe.
+ */
+public final class FeatureHasher {
+
+  /**
+   * The prefix of the hashed features.
+   */
+  public static final String HASHED_FEATURE_PREFIX = "h=";
+
+  /**
+   * The largest number of bits for which the bucket names are kept.
+   */
+  private static final int MAX_CACHED_BITS = 16;
+
+  private static final int MAX_BITS = 30;
+
+  private final int bits;
+  private final int mask;
+
+  /**
+   * The names of the buckets, they are filled in on first use. Threads
+   * may race on a slot, but they all store an equal immutable string.
+   * The array is null if there are too many buckets to keep their names.
+   */
+  private final String[] bucketNames;
+
+  /**
+   * Initializes the hasher.
+   *
+   * @param bits the number of buckets is 2^bits, between 1 and 30
+   */
+  public FeatureHasher(int bits) {
+
+    if (bits < 1 || bits > MAX_BITS) {
+      throw new IllegalArgumentException("bits must be between 1 and " + MAX_BITS +
+          ": " + bits);
+    }
+
+    this.bits = bits;
+    mask = (1 << bits) - 1;
+
+    if (bits <= MAX_CACHED_BITS) {
+      bucketNames = new String[1 << bits];
+    }
+    else {
+      bucketNames = null;
+    }
+  }
+
+  public int getBits() {
+    return bits;
+  }
+
+  public int getNumberOfBuckets() {
+    return mask + 1;
+  }
+
+  /**
+   * Mixes the bits of the hash, the finalization step of MurmurHash3.
+   */
+  private static int mix(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+
+  /**
+   * Retrieves the bucket of the specified feature.
+   *
+   * @param feature
+   * @return the bucket, between 0 and {@link #getNumberOfBuckets()} - 1
+   */
+  public int bucket(String feature) {
+    return mix(feature.hashCode()) & mask;
+  }
+
+  /**
+   * Retrieves the hashed feature of the specified feature.
+   *
+   * @param feature
+   * @return the name of the bucket of the feature
+   */
+  public String hash(String feature) {
+    int bucket = bucket(feature);
+
+    if (bucketNames == null) {
+      return HASHED_FEATURE_PREFIX + bucket;
+    }
+
+    String name = bucketNames[bucket];
+
+    if (name == null) {
+      name = HASHED_FEATURE_PREFIX + bucket;
+      bucketNames[bucket] = name;
+    }
+
+    return name;
+  }
+
+  /**
+   * Hashes the specified features.
+   *
+   * @param features
+   * @return a new array with the hashed features in the same order
+   */
+  public String[] hash(String[] features) {
+    String[] hashedFeatures = new String[features.length];
+
+    for (int i = 0; i < features.length; i++) {
+      hashedFeatures[i] = hash(features[i]);
+    }
+
+    return hashedFeatures;
+  }
+
+  /**
+   * Hashes the specified features and adds them to a collection.
+   *
+   * @param features
+   * @param hashedFeatures the collection the hashed features are added to
+   */
+  public void hash(Collection<String> features, Collection<String> hashedFeatures) {
+    for (String feature : features) {
+      hashedFeatures.add(hash(feature));
+    }
+  }
+}
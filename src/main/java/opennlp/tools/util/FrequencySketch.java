@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+/**
+ * A count-min sketch with 4 bit counters which estimates how often
+ * a hash was seen recently. When the number of increments reaches a
+ * sample size all counters are halved, so old popularity fades away.
+ * <p>
+ * Two counters are packed into one byte, the counter with an even
+ * index in the low four bits and the counter with an odd index in the
+ * high four bits.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @see ConcurrentCache
+ */
+class FrequencySketch {
+
+  private static final int DEPTH = 4;
+
+  private static final int MAX_COUNT = 15;
+
+  private static final int MAX_WIDTH = 1 << 14;
+
+  private static final int[] SEEDS = new int[] {
+    0x97CB3127, 0xB8F2E3E1, 0x5BD1E995, 0xC2B2AE35
+  };
+
+  /**
+   * The counters of all rows, two counters per byte.
+   */
+  private final byte[] table;
+
+  private final int width;
+
+  private final int sampleSize;
+
+  private int additions;
+
+  /**
+   * Initializes the sketch.
+   *
+   * @param expectedEntries the expected number of distinct entries
+   */
+  FrequencySketch(long expectedEntries) {
+    // four counters per entry and row keep the overestimation by collisions low
+    int w = 16;
+    while (w < 4 * expectedEntries && w < MAX_WIDTH) {
+      w <<= 1;
+    }
+
+    width = w;
+    table = new byte[DEPTH * width / 2];
+    sampleSize = 10 * width;
+  }
+
+  private int index(int hash, int row) {
+    int h = hash * SEEDS[row];
+    h ^= h >>> 17;
+    return row * width + (h & (width - 1));
+  }
+
+  private int count(int i) {
+    return (table[i >>> 1] >>> ((i & 1) << 2)) & MAX_COUNT;
+  }
+
+  /**
+   * Increments the popularity of the hash.
+   *
+   * @param hash
+   */
+  void increment(int hash) {
+    boolean added = false;
+
+    for (int row = 0; row < DEPTH; row++) {
+      int i = index(hash, row);
+      if (count(i) < MAX_COUNT) {
+        // adds one to the four bits of the counter
+        table[i >>> 1] += 1 << ((i & 1) << 2);
+        added = true;
+      }
+    }
+
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  /**
+   * Estimates the popularity of the hash.
+   *
+   * @param hash
+   *
+   * @return the estimated number of recent occurrences, at most 15
+   */
+  int frequency(int hash) {
+    int frequency = MAX_COUNT;
+
+    for (int row = 0; row < DEPTH; row++) {
+      frequency = Math.min(frequency, count(index(hash, row)));
+    }
+
+    return frequency;
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      // halves both counters, the bit shifted into the low counter is masked out
+      table[i] = (byte) ((table[i] >>> 1) & 0x77);
+    }
+    additions /= 2;
+  }
+
+  /**
+   * Forgets all counts.
+   */
+  void clear() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = 0;
+    }
+    additions = 0;
+  }
+}
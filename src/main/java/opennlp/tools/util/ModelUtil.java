@@ -30,6 +30,7 @@ import java.util.Set;
 import opennlp.model.AbstractModel;
 import opennlp.model.GenericModelWriter;
 import opennlp.model.MaxentModel;
+import opennlp.tools.util.model.MappedModel;
 
 /**
  * Utility class for handling of {@link MaxentModel}s.
@@ -49,6 +50,12 @@ public final class ModelUtil {
    * @throws IOException
    */
   public static void writeModel(AbstractModel model, final OutputStream out) throws IOException {
+
+    // the data structures of a mapped model are empty
+    if (model instanceof MappedModel) {
+      model = ((MappedModel) model).toModel();
+    }
+
     GenericModelWriter modelWriter = new GenericModelWriter(model,new DataOutputStream(new OutputStream() {
       public void write(int b) throws IOException {
         out.write(b);
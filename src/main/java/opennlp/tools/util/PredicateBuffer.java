@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+/**
+ * Collects the predicate indexes of a context for a {@link CompiledModel}.
+ * <p>
+ * A predicate is written character by character into a reusable buffer,
+ * the hash of the characters is rolled forward with every character. When the
+ * predicate is complete, {@link #add()} looks it up in the predicate table of the
+ * model and adds its index to the context. Predicates which are unknown to the
+ * model are skipped, they do not influence the evaluation.
+ * <p>
+ * The hash of every prefix is kept, so a common prefix can be written once
+ * and the buffer can be truncated back to it with {@link #setLength(int)}.
+ * <p>
+ * A predicate buffer is not thread safe, it is meant to be reused
+ * by one thread for many contexts.
+ */
+public class PredicateBuffer {
+
+  private final CompiledModel model;
+
+  private char[] chars = new char[64];
+
+  // the hash of the first i + 1 characters, like String.hashCode()
+  private int[] hashes = new int[64];
+
+  private int length;
+
+  private int[] predicates = new int[32];
+
+  private int size;
+
+  // scratch array of the evaluation
+  private final int[] featureCounts;
+
+  /**
+   * Initializes the buffer.
+   *
+   * @param model the model whose predicate table is used
+   */
+  public PredicateBuffer(CompiledModel model) {
+    this.model = model;
+    featureCounts = new int[model.getNumOutcomes()];
+  }
+
+  public CompiledModel getModel() {
+    return model;
+  }
+
+  /**
+   * Removes all predicates of the context and the current predicate.
+   */
+  public void clear() {
+    size = 0;
+    length = 0;
+  }
+
+  /**
+   * Starts a new predicate.
+   *
+   * @return this buffer
+   */
+  public PredicateBuffer start() {
+    length = 0;
+    return this;
+  }
+
+  /**
+   * Retrieves the number of characters of the current predicate.
+   */
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Truncates the current predicate to the specified number of characters.
+   *
+   * @param length a length between 0 and {@link #length()}
+   * @return this buffer
+   */
+  public PredicateBuffer setLength(int length) {
+    if (length < 0 || length > this.length) {
+      throw new IndexOutOfBoundsException("length: " + length);
+    }
+
+    this.length = length;
+    return this;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > chars.length) {
+      int newCapacity = Math.max(capacity, chars.length * 2);
+
+      char[] newChars = new char[newCapacity];
+      System.arraycopy(chars, 0, newChars, 0, length);
+      chars = newChars;
+
+      int[] newHashes = new int[newCapacity];
+      System.arraycopy(hashes, 0, newHashes, 0, length);
+      hashes = newHashes;
+    }
+  }
+
+  public PredicateBuffer append(char c) {
+    ensureCapacity(length + 1);
+
+    int hash = length > 0 ? hashes[length - 1] : 0;
+
+    chars[length] = c;
+    hashes[length] = 31 * hash + c;
+    length++;
+
+    return this;
+  }
+
+  /**
+   * Appends the characters of the specified sequence, a null sequence
+   * is appended as "null" like {@link StringBuilder#append(CharSequence)} does.
+   *
+   * @return this buffer
+   */
+  public PredicateBuffer append(CharSequence s) {
+    if (s == null) {
+      return append("null");
+    }
+
+    return append(s, 0, s.length());
+  }
+
+  public PredicateBuffer append(CharSequence s, int start, int end) {
+    ensureCapacity(length + end - start);
+
+    int hash = length > 0 ? hashes[length - 1] : 0;
+
+    for (int ci = start; ci < end; ci++) {
+      char c = s.charAt(ci);
+      hash = 31 * hash + c;
+
+      chars[length] = c;
+      hashes[length] = hash;
+      length++;
+    }
+
+    return this;
+  }
+
+  /**
+   * Appends the decimal representation of the specified number.
+   *
+   * @return this buffer
+   */
+  public PredicateBuffer append(int i) {
+    long value = i;
+
+    if (value < 0) {
+      append('-');
+      value = -value;
+    }
+
+    long divisor = 1;
+    while (divisor * 10 <= value) {
+      divisor *= 10;
+    }
+
+    for (; divisor > 0; divisor /= 10) {
+      append((char) ('0' + (value / divisor) % 10));
+    }
+
+    return this;
+  }
+
+  private void addIndex(int index) {
+    if (index < 0) {
+      return;
+    }
+
+    if (size == predicates.length) {
+      int[] newPredicates = new int[predicates.length * 2];
+      System.arraycopy(predicates, 0, newPredicates, 0, size);
+      predicates = newPredicates;
+    }
+
+    predicates[size++] = index;
+  }
+
+  /**
+   * Adds the current predicate to the context.
+   */
+  public void add() {
+    addIndex(model.getPredicateIndex(chars, 0, length, length > 0 ? hashes[length - 1] : 0));
+  }
+
+  /**
+   * Adds the specified predicate to the context, the current predicate
+   * is not changed.
+   *
+   * @param predicate
+   */
+  public void add(String predicate) {
+    addIndex(model.getPredicateIndex(predicate));
+  }
+
+  /**
+   * Retrieves the number of known predicates in the context.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Retrieves the predicate indexes of the context, only the first
+   * {@link #size()} entries of the returned array are valid.
+   */
+  public int[] getPredicates() {
+    return predicates;
+  }
+
+  /**
+   * Evaluates the context with the model.
+   *
+   * @param probs the array for the probabilities of the outcomes
+   *
+   * @return the probs array
+   */
+  public double[] eval(double[] probs) {
+    return model.eval(predicates, size, probs, featureCounts);
+  }
+
+  /**
+   * Returns the current predicate.
+   */
+  @Override
+  public String toString() {
+    return new String(chars, 0, length);
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+/**
+ * Retrieves the threshold without sorting the scores.
+ * <p>
+ * If k is small compared to the number of outcomes the k largest scores
+ * are collected in a bounded min-heap which is stored in the buffer,
+ * this needs O(n log k) time and only touches k elements of the buffer.
+ * Otherwise a quickselect is performed on a copy of the scores which
+ * needs O(n) expected time.
+ */
+public class SelectionPruningStrategy implements BeamPruningStrategy {
+
+  /**
+   * If the number of outcomes divided by k is at least this
+   * value the heap is used, otherwise quickselect.
+   */
+  private static final int HEAP_RATIO = 8;
+
+  public double threshold(double[] scores, int k, double[] buffer) {
+
+    int n = scores.length;
+
+    if (k >= n) {
+      double min = scores[0];
+      for (int i = 1; i < n; i++) {
+        if (scores[i] < min) {
+          min = scores[i];
+        }
+      }
+      return min;
+    }
+
+    if (k <= 0) {
+      k = 1;
+    }
+
+    if (n / k >= HEAP_RATIO) {
+      return heapSelect(scores, k, buffer);
+    }
+    else {
+      System.arraycopy(scores, 0, buffer, 0, n);
+      return quickSelect(buffer, n, n - k);
+    }
+  }
+
+  /**
+   * Collects the k largest scores in a min-heap and returns its root.
+   */
+  private static double heapSelect(double[] scores, int k, double[] heap) {
+
+    System.arraycopy(scores, 0, heap, 0, k);
+
+    for (int i = k / 2 - 1; i >= 0; i--) {
+      siftDown(heap, k, i);
+    }
+
+    for (int i = k; i < scores.length; i++) {
+      if (scores[i] > heap[0]) {
+        heap[0] = scores[i];
+        siftDown(heap, k, 0);
+      }
+    }
+
+    return heap[0];
+  }
+
+  private static void siftDown(double[] heap, int size, int i) {
+    double value = heap[i];
+
+    while (true) {
+      int child = 2 * i + 1;
+
+      if (child >= size)
+        break;
+
+      if (child + 1 < size && heap[child + 1] < heap[child])
+        child++;
+
+      if (heap[child] >= value)
+        break;
+
+      heap[i] = heap[child];
+      i = child;
+    }
+
+    heap[i] = value;
+  }
+
+  /**
+   * Returns the element which would be at the specified index if the
+   * first n elements of the values array would be sorted in ascending
+   * order. The values array is reordered.
+   */
+  private static double quickSelect(double[] values, int n, int index) {
+
+    int left = 0;
+    int right = n - 1;
+
+    while (left < right) {
+      // median of three reduces the chance of a bad pivot on sorted input
+      int mid = (left + right) >>> 1;
+      if (values[mid] < values[left])
+        swap(values, left, mid);
+      if (values[right] < values[left])
+        swap(values, left, right);
+      if (values[right] < values[mid])
+        swap(values, mid, right);
+
+      double pivot = values[mid];
+
+      int i = left;
+      int j = right;
+
+      while (i <= j) {
+        while (values[i] < pivot)
+          i++;
+        while (values[j] > pivot)
+          j--;
+
+        if (i <= j) {
+          swap(values, i, j);
+          i++;
+          j--;
+        }
+      }
+
+      if (index <= j) {
+        right = j;
+      }
+      else if (index >= i) {
+        left = i;
+      }
+      else {
+        break;
+      }
+    }
+
+    return values[index];
+  }
+
+  private static void swap(double[] values, int i, int j) {
+    double tmp = values[i];
+    values[i] = values[j];
+    values[j] = tmp;
+  }
+}
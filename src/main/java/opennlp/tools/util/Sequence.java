@@ -53,6 +53,20 @@ public class Sequence implements Comparable<Sequence> {
       score = s.score+Math.log(p);
     }
 
+  /**
+   * Creates a sequence from outcomes and probabilities which were
+   * already computed, e.g. by the {@link BeamSearch}.
+   *
+   * @param score the score of the sequence
+   * @param outcomes the outcomes, the list is not copied
+   * @param probs the probabilities of the outcomes, the list is not copied
+   */
+  Sequence(double score, List<String> outcomes, List<Double> probs) {
+    this.score = score;
+    this.outcomes = outcomes;
+    this.probs = probs;
+  }
+
   public Sequence(List<String> outcomes) {
     this.outcomes = outcomes;
     this.probs = Collections.nCopies(outcomes.size(),ONE);
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.Arrays;
+
+/**
+ * Retrieves the threshold by sorting a copy of all scores.
+ * This is the O(n log n) strategy the {@link BeamSearch} always used,
+ * it is mostly useful to compare the results and performance of other
+ * strategies against.
+ */
+public class SortingPruningStrategy implements BeamPruningStrategy {
+
+  public double threshold(double[] scores, int k, double[] buffer) {
+    System.arraycopy(scores, 0, buffer, 0, scores.length);
+
+    Arrays.sort(buffer, 0, scores.length);
+
+    return buffer[Math.max(0, scores.length - k)];
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+/**
+ * Interface for bounded history context generators which can generate the
+ * predicates which depend on the prior decisions separately from the
+ * predicates which do not. The {@link ViterbiSearch} evaluates the predicates
+ * which do not depend on the prior decisions once per position and only
+ * adds the other predicates for every combination of prior decisions.
+ */
+public interface SplitContextGenerator<T> extends BoundedHistoryContextGenerator<T> {
+
+  /**
+   * Returns the predicates of the context for the specified position which
+   * do not depend on the prior decisions.
+   *
+   * @param index The index of the sequence.
+   * @param sequence The sequence of items over which the search is performed.
+   * @param additionalContext Any addition context specific to a class implementing this interface.
+   *
+   * @return the predicates which do not depend on the prior decisions
+   */
+  public String[] getStaticContext(int index, T[] sequence, Object[] additionalContext);
+
+  /**
+   * Returns the predicates of the context for the specified position which
+   * depend on the prior decisions. Together with the predicates of
+   * {@link #getStaticContext(int, Object[], Object[])} they are the predicates
+   * of {@link #getContext(int, Object[], String[], Object[])}.
+   *
+   * @param index The index of the sequence.
+   * @param sequence The sequence of items over which the search is performed.
+   * @param priorDecisions The decisions made prior to the position, only the
+   * last {@link #getHistoryOrder()} entries before index are valid.
+   * @param additionalContext Any addition context specific to a class implementing this interface.
+   *
+   * @return the predicates which depend on the prior decisions
+   */
+  public String[] getHistoryContext(int index, T[] sequence, String[] priorDecisions,
+      Object[] additionalContext);
+}
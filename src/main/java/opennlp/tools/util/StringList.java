@@ -27,6 +27,11 @@ import java.util.NoSuchElementException;
  */
 public class StringList implements Iterable<String> {
 
+  /**
+   * Shares the tokens of all lists, equal tokens are usually the same string.
+   */
+  private static final TokenPool TOKENS = new TokenPool(1 << 16);
+
   private String tokens[];
 
   /**
@@ -36,7 +41,7 @@ public class StringList implements Iterable<String> {
    */
   public StringList(String singleToken) {
     tokens = new String[] {
-          singleToken.intern()
+          TOKENS.get(singleToken)
         };
   }
 
@@ -55,7 +60,7 @@ public class StringList implements Iterable<String> {
     this.tokens = new String[tokens.length];
 
     for (int i = 0; i < tokens.length; i++) {
-      this.tokens[i] = tokens[i].intern();
+      this.tokens[i] = TOKENS.get(tokens[i]);
     }
   }
 
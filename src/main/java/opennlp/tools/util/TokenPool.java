@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded pool of tokens which shares equal strings, it replaces
+ * {@link String#intern()} for tokens.
+ * <p>
+ * The pool is a fixed size table, a token is stored in the slot of its hash
+ * and replaces the token which was stored there before. The slots are only
+ * read and written, never locked, so threads do not contend on the pool.
+ * A token which collides with another token is not shared anymore, but the
+ * pool never returns a token which is not equal to the given one.
+ * <p>
+ * The tokens are weakly referenced, the pool does not keep a token alive
+ * which is not used anymore, and the number of slots is fixed, so the pool
+ * does not grow with the number of distinct tokens it has seen.
+ */
+public class TokenPool {
+
+  private final AtomicReferenceArray<WeakReference<String>> slots;
+
+  private final int mask;
+
+  /**
+   * Initializes the pool.
+   *
+   * @param capacity the number of slots, it is rounded up to a power of two
+   */
+  public TokenPool(int capacity) {
+
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+    }
+
+    int size = 1;
+    while (size < capacity) {
+      size <<= 1;
+    }
+
+    slots = new AtomicReferenceArray<WeakReference<String>>(size);
+    mask = size - 1;
+  }
+
+  /**
+   * Retrieves the number of slots.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return slots.length();
+  }
+
+  /**
+   * Retrieves the pooled token which is equal to the given token or
+   * adds the given token to the pool.
+   *
+   * @param token
+   *
+   * @return the pooled token or the given token, it is always equal to the
+   *     given token
+   */
+  public String get(String token) {
+    int hash = token.hashCode();
+    int index = (hash ^ (hash >>> 16)) & mask;
+
+    WeakReference<String> reference = slots.get(index);
+
+    if (reference != null) {
+      String pooledToken = reference.get();
+
+      if (token.equals(pooledToken)) {
+        return pooledToken;
+      }
+    }
+
+    slots.set(index, new WeakReference<String>(token));
+
+    return token;
+  }
+}
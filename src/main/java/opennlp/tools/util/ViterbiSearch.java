@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import opennlp.model.MaxentModel;
+
+/**
+ * Performs an exact search for the best sequence with the Viterbi algorithm.
+ * <p>
+ * The search is only exact for context generators which look at a bounded number
+ * of prior decisions, they must implement {@link BoundedHistoryContextGenerator}.
+ * The search keeps the best path for every combination of the last
+ * <code>max(order, 1)</code> outcomes, a sequence validator must not look
+ * further back than that, the earlier entries of the array of prior decisions
+ * are null. The array has the length of the position. Contexts are generated and evaluated once per position
+ * and combination of the last <code>order</code> outcomes, a context generator
+ * of order 0 is evaluated only once per position.
+ * <p>
+ * If the context generator implements {@link SplitContextGenerator}, the model
+ * can be compiled and no evaluation cache is used, the parameters of the
+ * predicates which do not depend on the prior decisions are summed once per
+ * position. For every combination of outcomes only the parameters of the
+ * predicates which depend on the prior decisions are added.
+ * <p>
+ * The number of combinations grows exponentially with the order, the search is
+ * intended for models with few outcomes, e.g. chunkers or name finders.
+ * <p>
+ * Only the single best sequence is found by the Viterbi algorithm, requests
+ * for more sequences are answered by the beam search of the super class.
+ * Like the {@link BeamSearch} the search does not keep any state between calls.
+ *
+ * @see BoundedHistoryContextGenerator
+ */
+public class ViterbiSearch<T> extends BeamSearch<T> {
+
+  /**
+   * The maximal number of search states per position.
+   */
+  public static final int MAX_STATES = 1 << 16;
+
+  private static final Object[] EMPTY_ADDITIONAL_CONTEXT = new Object[0];
+
+  private final SequenceValidator<T> validator;
+
+  private final int numOutcomes;
+
+  // outcome id numOutcomes marks a position before the sequence start
+  private final int base;
+
+  private final int stateOrder;
+  private final int numStates;
+  private final int numContextStates;
+
+  private final int startState;
+
+  // only used for split context generators
+  private final CompiledModel compiledModel;
+
+  /**
+   * Initializes the search.
+   *
+   * @param size the size of the beam which is used to find more than one sequence
+   * @param cg the context generator, must implement {@link BoundedHistoryContextGenerator}
+   * @param model the model
+   */
+  public ViterbiSearch(int size, BeamSearchContextGenerator<T> cg, MaxentModel model) {
+    this(size, cg, model, null, 0);
+  }
+
+  /**
+   * Initializes the search.
+   *
+   * @param size the size of the beam which is used to find more than one sequence
+   * @param cg the context generator, must implement {@link BoundedHistoryContextGenerator}
+   * @param model the model
+   * @param validator the validator for the outcome sequences or null.
+   * @param cacheSize the number of model evaluations to cache, 0 disables the cache
+   *
+   * @throws IllegalArgumentException if the context generator does not declare
+   * its history order or the search would need more than {@link #MAX_STATES} states
+   */
+  public ViterbiSearch(int size, BeamSearchContextGenerator<T> cg, MaxentModel model,
+      SequenceValidator<T> validator, int cacheSize) {
+    super(size, cg, model, validator, cacheSize);
+
+    if (!(cg instanceof BoundedHistoryContextGenerator)) {
+      throw new IllegalArgumentException(
+          "The context generator must declare its history order!");
+    }
+
+    int historyOrder = ((BoundedHistoryContextGenerator<T>) cg).getHistoryOrder();
+
+    if (historyOrder < 0) {
+      throw new IllegalArgumentException("history order must not be negative: " +
+          historyOrder);
+    }
+
+    this.validator = validator;
+
+    numOutcomes = model.getNumOutcomes();
+    base = numOutcomes + 1;
+
+    stateOrder = Math.max(historyOrder, 1);
+
+    long states = 1;
+    for (int i = 0; i < stateOrder; i++) {
+      states *= base;
+
+      if (states > MAX_STATES) {
+        throw new IllegalArgumentException("A history order of " + historyOrder +
+            " over " + numOutcomes + " outcomes is too large for the Viterbi search!");
+      }
+    }
+
+    numStates = (int) states;
+
+    int contextStates = 1;
+    for (int i = 0; i < historyOrder; i++) {
+      contextStates *= base;
+    }
+    numContextStates = contextStates;
+
+    int start = 0;
+    for (int i = 0; i < stateOrder; i++) {
+      start = start * base + numOutcomes;
+    }
+    startState = start;
+
+    if (getEvaluationCache() == null && cg instanceof SplitContextGenerator &&
+        CompiledModel.isCompilable(model)) {
+      compiledModel = CompiledModel.compile(model);
+    }
+    else {
+      compiledModel = null;
+    }
+  }
+
+  /**
+   * Returns the best sequences, the single best sequence is found
+   * with the Viterbi algorithm.
+   */
+  @Override
+  public Sequence[] bestSequences(int numSequences, T[] sequence,
+      Object[] additionalContext, double minSequenceScore) {
+
+    if (numSequences != 1) {
+      return super.bestSequences(numSequences, sequence, additionalContext,
+          minSequenceScore);
+    }
+
+    Sequence best = viterbi(sequence, additionalContext, minSequenceScore);
+
+    return best != null ? new Sequence[] {best} : new Sequence[0];
+  }
+
+  @Override
+  public List<Sequence[]> bestSequences(int numSequences, List<T[]> sequences,
+      List<Object[]> additionalContexts, double minSequenceScore) {
+
+    if (numSequences != 1) {
+      return super.bestSequences(numSequences, sequences, additionalContexts,
+          minSequenceScore);
+    }
+
+    List<Sequence[]> bestSequences = new ArrayList<Sequence[]>(sequences.size());
+
+    for (int si = 0; si < sequences.size(); si++) {
+      bestSequences.add(bestSequences(1, sequences.get(si),
+          additionalContexts != null ? additionalContexts.get(si) : null,
+          minSequenceScore));
+    }
+
+    return bestSequences;
+  }
+
+  /**
+   * Decodes the last outcomes which are encoded in the state into the
+   * outcomes array, the entries before them are not changed.
+   */
+  private void decodeOutcomes(int i, int state, String[] outcomes) {
+    for (int oi = i - 1; oi >= 0 && oi >= i - stateOrder; oi--) {
+      outcomes[oi] = model.getOutcome(state % base);
+      state /= base;
+    }
+  }
+
+  /**
+   * Maps the predicates of the context to the predicate indexes of the compiled model.
+   */
+  private int[] predicateIndexes(String[] context, int[] indexes) {
+    if (indexes.length < context.length) {
+      indexes = new int[Math.max(context.length, indexes.length * 2)];
+    }
+
+    for (int ci = 0; ci < context.length; ci++) {
+      indexes[ci] = compiledModel.getPredicateIndex(context[ci]);
+    }
+
+    return indexes;
+  }
+
+  private Sequence viterbi(T[] sequence, Object[] additionalContext,
+      double minSequenceScore) {
+
+    if (sequence.length == 0) {
+      return new Sequence();
+    }
+
+    if (additionalContext == null) {
+      additionalContext = EMPTY_ADDITIONAL_CONTEXT;
+    }
+
+    EvaluationCache contextsCache = getEvaluationCache();
+
+    // the states reached at every position, a state encodes the last outcomes,
+    // parents point to the index of the best previous state
+    int[][] states = new int[sequence.length][];
+    int[][] parents = new int[sequence.length][];
+    double[][] outcomeProbs = new double[sequence.length][];
+
+    int[] prevStates = new int[] {startState};
+    double[] prevScores = new double[] {0d};
+
+    // the last outcomes of the state which is currently expanded, the array
+    // has the length of the position and is shared by all states of it
+    String[] outcomes = null;
+
+    // scratch buffers addressed by state, reset after every position
+    boolean[] reached = new boolean[numStates];
+    double[] nextScores = new double[numStates];
+    int[] nextParents = new int[numStates];
+    double[] nextProbs = new double[numStates];
+    int[] nextStates = new int[numStates];
+
+    // the scores of the context which was evaluated last
+    double[] scoresBuffer = new double[numOutcomes];
+    double[] scores = null;
+    int scoresContextState = -1;
+
+    // the summed parameters of the predicates which do not depend on the
+    // prior decisions, only used for split context generators
+    double[] staticScores = null;
+    int[] staticFeatureCounts = null;
+    int[] featureCounts = null;
+    int[] predicates = null;
+
+    if (compiledModel != null) {
+      staticScores = new double[numOutcomes];
+      staticFeatureCounts = new int[numOutcomes];
+      featureCounts = new int[numOutcomes];
+      predicates = new int[32];
+    }
+
+    for (int i = 0; i < sequence.length; i++) {
+
+      int nextCount = 0;
+      scoresContextState = -1;
+
+      outcomes = new String[i];
+
+      if (compiledModel != null) {
+        String[] staticContext = ((SplitContextGenerator<T>) cg).getStaticContext(i,
+            sequence, additionalContext);
+
+        predicates = predicateIndexes(staticContext, predicates);
+
+        compiledModel.prior(staticScores, staticFeatureCounts);
+        compiledModel.addParameters(predicates, staticContext.length, staticScores,
+            staticFeatureCounts);
+      }
+
+      for (int ps = 0; ps < prevStates.length; ps++) {
+        int state = prevStates[ps];
+
+        decodeOutcomes(i, state, outcomes);
+
+        // states which share the last order outcomes share the context
+        int contextState = state % numContextStates;
+
+        if (contextState != scoresContextState) {
+          if (compiledModel != null) {
+            String[] historyContext = ((SplitContextGenerator<T>) cg).getHistoryContext(i,
+                sequence, outcomes, additionalContext);
+
+            predicates = predicateIndexes(historyContext, predicates);
+
+            System.arraycopy(staticScores, 0, scoresBuffer, 0, numOutcomes);
+            System.arraycopy(staticFeatureCounts, 0, featureCounts, 0, numOutcomes);
+            compiledModel.addParameters(predicates, historyContext.length, scoresBuffer,
+                featureCounts);
+            scores = compiledModel.normalize(scoresBuffer, featureCounts);
+          }
+          else {
+            String[] contexts = cg.getContext(i, sequence, outcomes, additionalContext);
+
+            if (contextsCache != null) {
+              scores = contextsCache.eval(model, contexts);
+            }
+            else {
+              scores = model.eval(contexts, scoresBuffer);
+            }
+          }
+
+          scoresContextState = contextState;
+        }
+
+        // drop the oldest outcome and append the new one
+        int shiftedState = (state % (numStates / base)) * base;
+
+        for (int o = 0; o < numOutcomes; o++) {
+
+          if (validator != null &&
+              !validator.validSequence(i, sequence, outcomes, model.getOutcome(o))) {
+            continue;
+          }
+
+          double score = prevScores[ps] + Math.log(scores[o]);
+
+          if (!(score > minSequenceScore)) {
+            continue;
+          }
+
+          int nextState = shiftedState + o;
+
+          if (!reached[nextState]) {
+            reached[nextState] = true;
+            nextStates[nextCount++] = nextState;
+          }
+          else if (score <= nextScores[nextState]) {
+            continue;
+          }
+
+          nextScores[nextState] = score;
+          nextParents[nextState] = ps;
+          nextProbs[nextState] = scores[o];
+        }
+      }
+
+      if (nextCount == 0) {
+        // every continuation is invalid or scores too low
+        return null;
+      }
+
+      states[i] = new int[nextCount];
+      parents[i] = new int[nextCount];
+      outcomeProbs[i] = new double[nextCount];
+      prevScores = new double[nextCount];
+
+      for (int ns = 0; ns < nextCount; ns++) {
+        int state = nextStates[ns];
+        states[i][ns] = state;
+        parents[i][ns] = nextParents[state];
+        outcomeProbs[i][ns] = nextProbs[state];
+        prevScores[ns] = nextScores[state];
+        reached[state] = false;
+      }
+
+      prevStates = states[i];
+    }
+
+    int best = 0;
+    for (int ns = 1; ns < prevScores.length; ns++) {
+      if (prevScores[ns] > prevScores[best]) {
+        best = ns;
+      }
+    }
+
+    outcomes = new String[sequence.length];
+    Double[] probs = new Double[sequence.length];
+
+    int index = best;
+    for (int oi = sequence.length - 1; oi >= 0; oi--) {
+      outcomes[oi] = model.getOutcome(states[oi][index] % base);
+      probs[oi] = outcomeProbs[oi][index];
+      index = parents[oi][index];
+    }
+
+    return new Sequence(prevScores[best], new ArrayList<String>(Arrays.asList(outcomes)),
+        new ArrayList<Double>(Arrays.asList(probs)));
+  }
+}
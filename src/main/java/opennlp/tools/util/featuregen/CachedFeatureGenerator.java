@@ -20,63 +20,146 @@ package opennlp.tools.util.featuregen;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-import opennlp.tools.util.Cache;
+import opennlp.tools.util.CacheMetrics;
 
 /**
  * Caches features of the aggregated {@link AdaptiveFeatureGenerator}s.
+ * <p>
+ * The features of one sentence are cached in an array which is indexed by the
+ * token index and sized to the sentence. A new sentence is detected by the identity
+ * of the tokens array, its length and the token at the requested index; when the
+ * first token is requested all tokens are compared, so a tokens array which is reused
+ * for the next sentence does not return the features of the previous one.
+ * <p>
+ * The cache is confined to the calling thread, so an instance
+ * can be shared by many threads if the aggregated generators are thread safe.
+ * The caches of all threads are discarded when the adaptive data is updated
+ * or cleared.
+ * <p>
+ * The hit and miss counters are kept per thread and summed up when they are read,
+ * the sums are exact once the threads which use the generator are finished.
  */
-public class CachedFeatureGenerator implements AdaptiveFeatureGenerator {
+public class CachedFeatureGenerator implements AdaptiveFeatureGenerator, CacheMetrics {
+
+  /**
+   * The hit and miss counts of one thread.
+   */
+  private static class CacheCounts {
+    long hits;
+    long misses;
+  }
+
+  /**
+   * The cached features of the sentence the current thread works on.
+   */
+  private static class SentenceFeatures {
+    String[] tokens;
+    String[] tokenCopy;
+    String[][] features;
+    int generation;
+    CacheCounts counts;
+  }
 
   private final AdaptiveFeatureGenerator generator;
 
-  private String[] prevTokens;
+  private final Queue<CacheCounts> threadCounts = new ConcurrentLinkedQueue<CacheCounts>();
 
-  private Cache contextsCache;
+  private final ThreadLocal<SentenceFeatures> sentenceFeatures =
+      new ThreadLocal<SentenceFeatures>() {
+    @Override
+    protected SentenceFeatures initialValue() {
+      SentenceFeatures sentence = new SentenceFeatures();
+      sentence.counts = new CacheCounts();
+      threadCounts.add(sentence.counts);
+      return sentence;
+    }
+  };
 
-  private long numberOfCacheHits;
-  private long numberOfCacheMisses;
+  /**
+   * Is incremented when the adaptive data changes, a cached sentence
+   * of an older generation is discarded.
+   */
+  private volatile int generation;
 
   public CachedFeatureGenerator(AdaptiveFeatureGenerator... generators) {
     this.generator = new AggregatedFeatureGenerator(generators);
-    contextsCache = new Cache(100);
   }
 
-  @SuppressWarnings("unchecked")
+  /**
+   * Checks that the cached sentence contains the specified tokens.
+   */
+  private static boolean isCached(SentenceFeatures sentence, String[] tokens, int index) {
+    if (tokens != sentence.tokens || tokens.length != sentence.tokenCopy.length ||
+        tokens[index] != sentence.tokenCopy[index]) {
+      return false;
+    }
+
+    if (index == 0) {
+      for (int i = 1; i < tokens.length; i++) {
+        if (tokens[i] != sentence.tokenCopy[i]) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+
   public void createFeatures(List<String> features, String[] tokens, int index,
       String[] previousOutcomes) {
 
-    List<String> cacheFeatures;
+    SentenceFeatures sentence = sentenceFeatures.get();
 
-    if (tokens == prevTokens) {
-      cacheFeatures = (List<String>) contextsCache.get(new Integer(index));
+    int currentGeneration = generation;
 
-      if (cacheFeatures != null) {
-        numberOfCacheHits++;
-        features.addAll(cacheFeatures);
-        return;
-      }
+    if (sentence.generation != currentGeneration || !isCached(sentence, tokens, index)) {
+      sentence.tokens = tokens;
+      sentence.tokenCopy = tokens.clone();
+      sentence.features = new String[tokens.length][];
+      sentence.generation = currentGeneration;
+    }
+
+    String[] cacheFeatures = sentence.features[index];
+
+    if (cacheFeatures != null) {
+      sentence.counts.hits++;
+    }
+    else {
+      sentence.counts.misses++;
+
+      List<String> newFeatures = new ArrayList<String>();
 
-    } else {
-      contextsCache.clear();
-      prevTokens = tokens;
+      generator.createFeatures(newFeatures, tokens, index, previousOutcomes);
+
+      cacheFeatures = newFeatures.toArray(new String[newFeatures.size()]);
+      sentence.features[index] = cacheFeatures;
     }
 
-    cacheFeatures = new ArrayList<String>();
+    for (int i = 0; i < cacheFeatures.length; i++) {
+      features.add(cacheFeatures[i]);
+    }
+  }
 
-    numberOfCacheMisses++;
+  private void clearCache() {
+    generation++;
 
-    generator.createFeatures(cacheFeatures, tokens, index, previousOutcomes);
+    SentenceFeatures sentence = sentenceFeatures.get();
 
-    contextsCache.put(new Integer(index), cacheFeatures);
-    features.addAll(cacheFeatures);
+    sentence.tokens = null;
+    sentence.tokenCopy = null;
+    sentence.features = null;
   }
 
   public void updateAdaptiveData(String[] tokens, String[] outcomes) {
+    clearCache();
     generator.updateAdaptiveData(tokens, outcomes);
   }
 
   public void clearAdaptiveData() {
+    clearCache();
     generator.clearAdaptiveData();
   }
 
@@ -86,7 +169,11 @@ public class CachedFeatureGenerator implements AdaptiveFeatureGenerator {
    * @return number of cache hits
    */
   public long getNumberOfCacheHits() {
-    return numberOfCacheHits;
+    long hits = 0;
+    for (CacheCounts counts : threadCounts) {
+      hits += counts.hits;
+    }
+    return hits;
   }
 
   /**
@@ -95,11 +182,20 @@ public class CachedFeatureGenerator implements AdaptiveFeatureGenerator {
    * @return number of cache misses
    */
   public long getNumberOfCacheMisses() {
-    return numberOfCacheMisses;
+    long misses = 0;
+    for (CacheCounts counts : threadCounts) {
+      misses += counts.misses;
+    }
+    return misses;
+  }
+  public double getHitRate() {
+    long hits = getNumberOfCacheHits();
+    long lookups = hits + getNumberOfCacheMisses();
+    return lookups > 0 ? (double) hits / lookups : 0;
   }
 
   public String toString() {
-    return super.toString()+": hits=" + numberOfCacheHits+" misses="+ numberOfCacheMisses+" hit%"+ (numberOfCacheHits > 0 ?
-        (double) numberOfCacheHits/(numberOfCacheMisses+numberOfCacheHits) : 0);
+    return super.toString()+": hits=" + getNumberOfCacheHits()+" misses="+
+        getNumberOfCacheMisses()+" hit%"+ getHitRate();
   }
 }
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.featuregen;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates the same character ngram features as the
+ * {@link CharacterNgramFeatureGenerator} without building an ngram model for
+ * every token.
+ * <p>
+ * The token is lowercased once and the ngrams are taken directly from the
+ * lowercased token, shorter ngrams first and from left to right. Every distinct
+ * ngram is emitted once. The number of features per token can be limited,
+ * so the time spent on long tokens is bounded.
+ * <p>
+ * Optionally the ngrams are replaced by the id of a hash bucket, then the
+ * features are "ng#" + id and the ngram strings are never created. The feature
+ * of a bucket is created when the bucket is seen for the first time and is
+ * reused for all later tokens.
+ * <p>
+ * Note: The ngrams of the {@link CharacterNgramFeatureGenerator} are lowercased one
+ * by one, which only gives different ngrams for the few characters whose lowercase
+ * form depends on their neighbors or has a different length.
+ */
+public class FastCharacterNgramFeatureGenerator extends FeatureGeneratorAdapter {
+
+  private static final String NGRAM_PREFIX = "ng=";
+  private static final String HASHED_NGRAM_PREFIX = "ng#";
+
+  private final int minLength;
+  private final int maxLength;
+  private final int maxFeatures;
+  private final int numberOfBuckets;
+
+  /**
+   * The features of the hash buckets, indexed by bucket, null until the
+   * bucket is seen. Threads which race on a bucket create equal features.
+   */
+  private final String[] bucketFeatures;
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param minLength the minimum length of the ngrams
+   * @param maxLength the maximum length of the ngrams
+   * @param maxFeatures the maximum number of features generated per token
+   * @param numberOfBuckets the number of hash buckets, or 0 to generate the ngrams
+   */
+  public FastCharacterNgramFeatureGenerator(int minLength, int maxLength,
+      int maxFeatures, int numberOfBuckets) {
+
+    if (minLength < 1 || maxLength < minLength) {
+      throw new IllegalArgumentException("Invalid ngram length range: " +
+          minLength + " - " + maxLength);
+    }
+
+    if (maxFeatures < 1) {
+      throw new IllegalArgumentException("maxFeatures must be positive: " + maxFeatures);
+    }
+
+    if (numberOfBuckets < 0) {
+      throw new IllegalArgumentException("numberOfBuckets must not be negative: " +
+          numberOfBuckets);
+    }
+
+    this.minLength = minLength;
+    this.maxLength = maxLength;
+    this.maxFeatures = maxFeatures;
+    this.numberOfBuckets = numberOfBuckets;
+
+    bucketFeatures = new String[numberOfBuckets];
+  }
+
+  /**
+   * Initializes the current instance with the specified ngram lengths
+   * and at most the specified number of features per token.
+   *
+   * @param minLength
+   * @param maxLength
+   * @param maxFeatures
+   */
+  public FastCharacterNgramFeatureGenerator(int minLength, int maxLength, int maxFeatures) {
+    this(minLength, maxLength, maxFeatures, 0);
+  }
+
+  /**
+   * Initializes the current instance with the specified ngram lengths,
+   * the number of features is not limited.
+   *
+   * @param minLength
+   * @param maxLength
+   */
+  public FastCharacterNgramFeatureGenerator(int minLength, int maxLength) {
+    this(minLength, maxLength, Integer.MAX_VALUE, 0);
+  }
+
+  /**
+   * Initializes the current instance with min 2 length and max 5 length of ngrams.
+   */
+  public FastCharacterNgramFeatureGenerator() {
+    this(2, 5);
+  }
+
+  /**
+   * Computes the hash bucket of an ngram, the hash is the same
+   * as the {@link String#hashCode()} of the ngram.
+   */
+  private int bucket(String token, int start, int end) {
+    int hash = 0;
+
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + token.charAt(i);
+    }
+
+    return (hash & 0x7fffffff) % numberOfBuckets;
+  }
+
+  private String bucketFeature(int bucket) {
+    String feature = bucketFeatures[bucket];
+
+    if (feature == null) {
+      feature = HASHED_NGRAM_PREFIX + bucket;
+      bucketFeatures[bucket] = feature;
+    }
+
+    return feature;
+  }
+
+  public void createFeatures(List<String> features, String[] tokens, int index,
+      String[] preds) {
+
+    String token = tokens[index].toLowerCase();
+
+    if (numberOfBuckets > 0) {
+      createHashedFeatures(features, token);
+      return;
+    }
+
+    int length = token.length();
+
+    // the feature is built behind the prefix
+    int prefixLength = NGRAM_PREFIX.length();
+    char[] buffer = new char[prefixLength + Math.min(maxLength, length)];
+    NGRAM_PREFIX.getChars(0, prefixLength, buffer, 0);
+
+    Set<String> generated = new HashSet<String>();
+
+    for (int gramLength = minLength; gramLength <= maxLength && gramLength <= length;
+        gramLength++) {
+
+      for (int start = 0; start + gramLength <= length; start++) {
+
+        token.getChars(start, start + gramLength, buffer, prefixLength);
+        String feature = new String(buffer, 0, prefixLength + gramLength);
+
+        if (generated.add(feature)) {
+          features.add(feature);
+
+          if (generated.size() == maxFeatures) {
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds the bucket features of the ngrams of the lowercased token, every
+   * bucket is added once. A token has few ngrams, so the buckets which were
+   * already added are searched linearly.
+   */
+  private void createHashedFeatures(List<String> features, String token) {
+    int length = token.length();
+
+    int ngramCount = 0;
+    for (int gramLength = minLength; gramLength <= maxLength && gramLength <= length;
+        gramLength++) {
+      ngramCount += length - gramLength + 1;
+    }
+
+    int[] generated = new int[Math.min(ngramCount, maxFeatures)];
+    int generatedCount = 0;
+
+    for (int gramLength = minLength; gramLength <= maxLength && gramLength <= length;
+        gramLength++) {
+
+      for (int start = 0; start + gramLength <= length; start++) {
+
+        int bucket = bucket(token, start, start + gramLength);
+
+        int i = 0;
+        while (i < generatedCount && generated[i] != bucket) {
+          i++;
+        }
+
+        if (i == generatedCount) {
+          generated[generatedCount++] = bucket;
+          features.add(bucketFeature(bucket));
+
+          if (generatedCount == maxFeatures) {
+            return;
+          }
+        }
+      }
+    }
+  }
+}
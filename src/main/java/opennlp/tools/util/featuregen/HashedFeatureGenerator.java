@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.featuregen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import opennlp.tools.util.FeatureHasher;
+
+/**
+ * Maps the features of the aggregated {@link AdaptiveFeatureGenerator}s
+ * into hash buckets with a {@link FeatureHasher}.
+ */
+public class HashedFeatureGenerator implements AdaptiveFeatureGenerator {
+
+  private final FeatureHasher hasher;
+
+  private final AdaptiveFeatureGenerator generator;
+
+  public HashedFeatureGenerator(FeatureHasher hasher, AdaptiveFeatureGenerator... generators) {
+
+    if (hasher == null)
+      throw new IllegalArgumentException("hasher must not be null!");
+
+    this.hasher = hasher;
+    this.generator = new AggregatedFeatureGenerator(generators);
+  }
+
+  public void createFeatures(List<String> features, String[] tokens, int index,
+      String[] previousOutcomes) {
+
+    List<String> plainFeatures = new ArrayList<String>();
+
+    generator.createFeatures(plainFeatures, tokens, index, previousOutcomes);
+
+    hasher.hash(plainFeatures, features);
+  }
+
+  public void updateAdaptiveData(String[] tokens, String[] outcomes) {
+    generator.updateAdaptiveData(tokens, outcomes);
+  }
+
+  public void clearAdaptiveData() {
+    generator.clearAdaptiveData();
+  }
+}
@@ -35,7 +35,11 @@ public class InSpanGenerator extends FeatureGeneratorAdapter {
 
   private String currentSentence[];
 
-  private Span currentNames[];
+  /**
+   * Indicates for each token of the current sentence if a name contains it,
+   * see {@link Span#contains(int)}.
+   */
+  private boolean currentInSpan[];
 
   /**
    * Initializes the current instance. 
@@ -62,20 +66,27 @@ public class InSpanGenerator extends FeatureGeneratorAdapter {
     // cache results for sentence
     if (currentSentence != tokens) {
       currentSentence = tokens;
-      currentNames = finder.find(tokens);
-    }
 
-    // iterate over names and check if a span is contained
-    for (int i = 0; i < currentNames.length; i++) {
-      if (currentNames[i].contains(index)) {
-        // found a span for the current token
-        features.add(prefix + ":w=dic");
-        features.add(prefix + ":w=dic=" + tokens[index]);
+      currentInSpan = new boolean[tokens.length];
 
-        // TODO: consider generation start and continuation features
+      Span names[] = finder.find(tokens);
 
-        break;
+      // like Span.contains(int) the end index is included, the
+      // token after a name gets the features too
+      for (int i = 0; i < names.length; i++) {
+        for (int ti = names[i].getStart(); ti <= names[i].getEnd() && ti < tokens.length;
+            ti++) {
+          currentInSpan[ti] = true;
+        }
       }
     }
+
+    if (currentInSpan[index]) {
+      // found a span for the current token
+      features.add(prefix + ":w=dic");
+      features.add(prefix + ":w=dic=" + tokens[index]);
+
+      // TODO: consider generation start and continuation features
+    }
   }
 }
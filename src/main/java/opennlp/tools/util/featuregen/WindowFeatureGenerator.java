@@ -19,7 +19,6 @@
 package opennlp.tools.util.featuregen;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -30,28 +29,95 @@ import java.util.List;
  * Current token is always included unchanged
  * Previous tokens are prefixed with p distance
  * Next tokens are prefix with n distance
+ * <p>
+ * In the sentence table mode the features of the wrapped generator are computed
+ * only once per token of a sentence and the prefixed features are computed only
+ * once per token and distance. The table is used as long as the same tokens array
+ * is passed in with the same length and the same token at the requested index, when
+ * the first token is requested all tokens are compared, so a tokens array which is
+ * reused for the next sentence gets a new table. The table is discarded when the
+ * adaptive data is updated or cleared.
+ * This mode can only be used if the features of the wrapped generator do not
+ * depend on the previous outcomes. An instance in this mode must not be shared
+ * between threads.
  */
 public class WindowFeatureGenerator implements AdaptiveFeatureGenerator {
 
   public static final String PREV_PREFIX = "p";
   public static final String NEXT_PREFIX = "n";
 
+  private static final String[] EMPTY = new String[0];
+
   private final AdaptiveFeatureGenerator generator;
 
   private final int prevWindowSize;
   private final int nextWindowSize;
 
+  private final String[] prevPrefixes;
+  private final String[] nextPrefixes;
+
+  private final boolean useSentenceTable;
+
+  /**
+   * The features of the wrapped generator for one token in the sentence table mode.
+   */
+  private final List<String> windowFeatures = new ArrayList<String>();
+
+  /**
+   * The tokens of the sentence table or null if there is no table.
+   */
+  private String[] tableTokens;
+
+  /**
+   * A copy of the tokens of the sentence table, to detect that the tokens array
+   * was reused for another sentence.
+   */
+  private String[] tableTokenCopy;
+
+  /**
+   * The features of the wrapped generator, indexed by token.
+   */
+  private String[][] tokenFeatures;
+
+  /**
+   * The features prefixed for the previous window, indexed by token and distance - 1.
+   */
+  private String[][][] prevFeatures;
+
+  /**
+   * The features prefixed for the next window, indexed by token and distance - 1.
+   */
+  private String[][][] nextFeatures;
+
   /**
    * Initializes the current instance with the given parameters.
    *
    * @param generator Feature generator to apply to the window.
    * @param prevWindowSize Size of the window to the left of the current token.
    * @param nextWindowSize Size of the window to the right of the current token.
+   * @param useSentenceTable true if the features of the generator should be kept
+   * in a sentence table, the features of the generator must not depend on the previous outcomes.
    */
-  public WindowFeatureGenerator(AdaptiveFeatureGenerator generator, int prevWindowSize,  int nextWindowSize) {
+  public WindowFeatureGenerator(AdaptiveFeatureGenerator generator, int prevWindowSize,
+      int nextWindowSize, boolean useSentenceTable) {
     this.generator = generator;
     this.prevWindowSize = prevWindowSize;
     this.nextWindowSize = nextWindowSize;
+    this.useSentenceTable = useSentenceTable;
+
+    prevPrefixes = createPrefixes(PREV_PREFIX, prevWindowSize);
+    nextPrefixes = createPrefixes(NEXT_PREFIX, nextWindowSize);
+  }
+
+  /**
+   * Initializes the current instance with the given parameters.
+   *
+   * @param generator Feature generator to apply to the window.
+   * @param prevWindowSize Size of the window to the left of the current token.
+   * @param nextWindowSize Size of the window to the right of the current token.
+   */
+  public WindowFeatureGenerator(AdaptiveFeatureGenerator generator, int prevWindowSize,  int nextWindowSize) {
+    this(generator, prevWindowSize, nextWindowSize, false);
   }
   
   /**
@@ -82,21 +148,40 @@ public class WindowFeatureGenerator implements AdaptiveFeatureGenerator {
   public WindowFeatureGenerator(AdaptiveFeatureGenerator... generators) {
     this(new AggregatedFeatureGenerator(generators), 5, 5);
   }
-  
+
+  private static String[] createPrefixes(String prefix, int windowSize) {
+    String[] prefixes = new String[windowSize + 1];
+
+    for (int i = 1; i < prefixes.length; i++) {
+      prefixes[i] = prefix + i;
+    }
+
+    return prefixes;
+  }
+
   public void createFeatures(List<String> features, String[] tokens, int index, String[] preds) {
+
+    if (useSentenceTable) {
+      createTableFeatures(features, tokens, index, preds);
+      return;
+    }
+
     // current features
     generator.createFeatures(features, tokens, index, preds);
 
+    // one list per call, the default mode does not have state
+    List<String> neighborFeatures = new ArrayList<String>();
+
     // previous features
     for (int i = 1; i < prevWindowSize + 1; i++) {
       if (index - i >= 0) {
 
-        List<String> prevFeatures = new ArrayList<String>();
+        neighborFeatures.clear();
 
-        generator.createFeatures(prevFeatures, tokens, index - i, preds);
+        generator.createFeatures(neighborFeatures, tokens, index - i, preds);
 
-        for (Iterator<String> it = prevFeatures.iterator(); it.hasNext();) {
-          features.add(PREV_PREFIX + i + it.next());
+        for (int fi = 0, fl = neighborFeatures.size(); fi < fl; fi++) {
+          features.add(prevPrefixes[i] + neighborFeatures.get(fi));
         }
       }
     }
@@ -105,23 +190,133 @@ public class WindowFeatureGenerator implements AdaptiveFeatureGenerator {
     for (int i = 1; i < nextWindowSize + 1; i++) {
       if (i + index < tokens.length) {
 
-        List<String> nextFeatures = new ArrayList<String>();
+        neighborFeatures.clear();
+
+        generator.createFeatures(neighborFeatures, tokens, index + i, preds);
+
+        for (int fi = 0, fl = neighborFeatures.size(); fi < fl; fi++) {
+          features.add(nextPrefixes[i] + neighborFeatures.get(fi));
+        }
+      }
+    }
+  }
+
+  private void createTableFeatures(List<String> features, String[] tokens, int index,
+      String[] preds) {
+
+    if (!isTableSentence(tokens, index)) {
+      tableTokens = tokens;
+      tableTokenCopy = tokens.clone();
+      tokenFeatures = new String[tokens.length][];
+      prevFeatures = new String[tokens.length][prevWindowSize][];
+      nextFeatures = new String[tokens.length][nextWindowSize][];
+    }
+
+    // current features
+    addAll(features, tokenFeatures(tokens, index, preds));
+
+    // previous features
+    for (int i = 1; i < prevWindowSize + 1 && index - i >= 0; i++) {
+      String[] prefixed = prevFeatures[index - i][i - 1];
+
+      if (prefixed == null) {
+        prefixed = prefix(prevPrefixes[i], tokenFeatures(tokens, index - i, preds));
+        prevFeatures[index - i][i - 1] = prefixed;
+      }
+
+      addAll(features, prefixed);
+    }
+
+    // next features
+    for (int i = 1; i < nextWindowSize + 1 && i + index < tokens.length; i++) {
+      String[] prefixed = nextFeatures[index + i][i - 1];
+
+      if (prefixed == null) {
+        prefixed = prefix(nextPrefixes[i], tokenFeatures(tokens, index + i, preds));
+        nextFeatures[index + i][i - 1] = prefixed;
+      }
+
+      addAll(features, prefixed);
+    }
+  }
 
-        generator.createFeatures(nextFeatures, tokens, index + i, preds);
+  /**
+   * Checks that the sentence table was created for the specified tokens.
+   */
+  private boolean isTableSentence(String[] tokens, int index) {
+    if (tokens != tableTokens || tokens.length != tableTokenCopy.length ||
+        tokens[index] != tableTokenCopy[index]) {
+      return false;
+    }
 
-        for (Iterator<String> it = nextFeatures.iterator(); it.hasNext();) {
-          features.add(NEXT_PREFIX + i + it.next());
+    if (index == 0) {
+      for (int i = 1; i < tokens.length; i++) {
+        if (tokens[i] != tableTokenCopy[i]) {
+          return false;
         }
       }
     }
+
+    return true;
+  }
+
+  /**
+   * Retrieves the features of the wrapped generator from the table,
+   * they are generated if they are not yet in the table.
+   */
+  private String[] tokenFeatures(String[] tokens, int index, String[] preds) {
+    String[] tableFeatures = tokenFeatures[index];
+
+    if (tableFeatures == null) {
+      windowFeatures.clear();
+
+      generator.createFeatures(windowFeatures, tokens, index, preds);
+
+      if (windowFeatures.isEmpty()) {
+        tableFeatures = EMPTY;
+      }
+      else {
+        tableFeatures = windowFeatures.toArray(new String[windowFeatures.size()]);
+      }
+
+      tokenFeatures[index] = tableFeatures;
+    }
+
+    return tableFeatures;
+  }
+
+  private static String[] prefix(String prefix, String[] features) {
+    String[] prefixed = new String[features.length];
+
+    for (int i = 0; i < features.length; i++) {
+      prefixed[i] = prefix + features[i];
+    }
+
+    return prefixed;
+  }
+
+  private static void addAll(List<String> features, String[] newFeatures) {
+    for (int i = 0; i < newFeatures.length; i++) {
+      features.add(newFeatures[i]);
+    }
+  }
+
+  private void clearTable() {
+    tableTokens = null;
+    tableTokenCopy = null;
+    tokenFeatures = null;
+    prevFeatures = null;
+    nextFeatures = null;
   }
 
   public void updateAdaptiveData(String[] tokens, String[] outcomes) {
+    clearTable();
     generator.updateAdaptiveData(tokens, outcomes);
   }
 
   public void clearAdaptiveData() {
-      generator.clearAdaptiveData();
+    clearTable();
+    generator.clearAdaptiveData();
   }
 
   public String toString() {
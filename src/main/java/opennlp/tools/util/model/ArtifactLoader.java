@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import opennlp.tools.util.InvalidFormatException;
+
+/**
+ * Utility methods to load the artifacts of a model package concurrently.
+ * <p>
+ * Reading a zip package is sequential, but creating the artifacts from
+ * their bytes, decoding the maxent models in particular, is CPU bound and
+ * the artifacts are independent of each other. A model package is therefore
+ * loaded in two steps, first the bytes of all entries are read with
+ * {@link #readEntries(InputStream)} and then the artifacts are created
+ * concurrently with {@link #createArtifacts(Map, ExecutorService)}.
+ */
+public final class ArtifactLoader {
+
+  private ArtifactLoader() {
+  }
+
+  /**
+   * Reads the bytes of all entries of a zip package.
+   *
+   * @param in the zip package, the stream remains open
+   *
+   * @return a map from the entry name to the entry bytes in package order
+   *
+   * @throws IOException
+   */
+  public static Map<String, byte[]> readEntries(InputStream in) throws IOException {
+
+    ZipInputStream zip = new ZipInputStream(in);
+
+    Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+
+    byte[] buffer = new byte[8192];
+
+    ZipEntry entry;
+    while((entry = zip.getNextEntry()) != null ) {
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+      int length;
+      while ((length = zip.read(buffer)) > 0) {
+        bytes.write(buffer, 0, length);
+      }
+
+      entries.put(entry.getName(), bytes.toByteArray());
+
+      zip.closeEntry();
+    }
+
+    return entries;
+  }
+
+  /**
+   * Creates the artifacts with the specified tasks on the executor and waits
+   * until all are created. The tasks must not wait for other tasks on the
+   * same executor, a bounded executor could otherwise dead lock.
+   * <p>
+   * If one of the tasks fails the remaining tasks are cancelled and its
+   * exception is thrown.
+   *
+   * @param tasks a map from the artifact name to the task which creates the artifact
+   * @param executor the executor or null to create the artifacts in the calling thread
+   *
+   * @return a map from the artifact name to the artifact in the order of the tasks
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public static Map<String, Object> createArtifacts(
+      Map<String, ? extends Callable<?>> tasks, ExecutorService executor)
+      throws IOException, InvalidFormatException {
+
+    Map<String, Object> artifacts = new LinkedHashMap<String, Object>();
+
+    if (executor == null) {
+      for (Map.Entry<String, ? extends Callable<?>> task : tasks.entrySet()) {
+        try {
+          artifacts.put(task.getKey(), task.getValue().call());
+        }
+        catch (Exception e) {
+          throw rethrow(task.getKey(), e);
+        }
+      }
+
+      return artifacts;
+    }
+
+    Map<String, Future<?>> futures = new LinkedHashMap<String, Future<?>>();
+
+    for (Map.Entry<String, ? extends Callable<?>> task : tasks.entrySet()) {
+      futures.put(task.getKey(), executor.submit(task.getValue()));
+    }
+
+    List<Future<?>> pending = new ArrayList<Future<?>>(futures.values());
+
+    try {
+      for (Map.Entry<String, Future<?>> future : futures.entrySet()) {
+        try {
+          artifacts.put(future.getKey(), future.getValue().get());
+        }
+        catch (ExecutionException e) {
+          throw rethrow(future.getKey(), e.getCause());
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+
+          throw new IOException("Interrupted while loading " + future.getKey());
+        }
+
+        pending.remove(future.getValue());
+      }
+    }
+    finally {
+      for (Future<?> future : pending) {
+        future.cancel(true);
+      }
+    }
+
+    return artifacts;
+  }
+
+  /**
+   * Rethrows the exception of a task as an unchecked exception, an
+   * {@link IOException} or an {@link InvalidFormatException}.
+   *
+   * @return never returns, the return type lets the caller use a throw statement
+   */
+  private static IOException rethrow(String name, Throwable t)
+      throws IOException, InvalidFormatException {
+
+    if (t instanceof IOException) {
+      throw (IOException) t;
+    }
+    else if (t instanceof InvalidFormatException) {
+      throw (InvalidFormatException) t;
+    }
+    else if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    }
+    else if (t instanceof Error) {
+      throw (Error) t;
+    }
+
+    IOException e = new IOException("Failed to load " + name);
+    e.initCause(t);
+
+    throw e;
+  }
+}
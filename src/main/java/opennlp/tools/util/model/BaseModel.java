@@ -18,17 +18,28 @@
 
 package opennlp.tools.util.model;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import opennlp.model.AbstractModel;
 import opennlp.tools.util.InvalidFormatException;
 import opennlp.tools.util.Version;
 
@@ -44,6 +55,12 @@ public abstract class BaseModel {
   protected static final String MANIFEST_ENTRY = "manifest.properties";
   private static final String VERSION_PROPERTY = "version";
   private static final String LANGUAGE_PROPERTY = "language";
+
+  /**
+   * The extension of the maxent model artifacts, they are stored
+   * in the mapped layout in a mapped package.
+   */
+  private static final String MODEL_EXTENSION = "model";
   
   @SuppressWarnings("unchecked")
   private Map<String, ArtifactSerializer> artifactSerializers =
@@ -51,6 +68,16 @@ public abstract class BaseModel {
 
   protected final Map<String, Object> artifactMap;
 
+  /**
+   * The time in nanoseconds it took to create each loaded artifact.
+   */
+  private final Map<String, Long> artifactLoadTimes = new ConcurrentHashMap<String, Long>();
+
+  /**
+   * The artifacts of a lazily loaded model, otherwise null.
+   */
+  private LazyArtifactMap lazyArtifactMap;
+
   /**
    * Initializes the current instance.
    *
@@ -80,38 +107,284 @@ public abstract class BaseModel {
    * @throws IOException
    * @throws InvalidFormatException
    */
-  @SuppressWarnings("unchecked")
   protected BaseModel(InputStream in) throws IOException, InvalidFormatException {
+    this(in, false);
+  }
+
+  /**
+   * Initializes the current instance.
+   * <p>
+   * If the artifacts are loaded lazily only the bytes of the zip entries are read,
+   * an artifact is created on the first access to it or when it is loaded with
+   * {@link #loadArtifacts(String...)}. The artifacts which are checked by
+   * {@link #validateArtifactMap()} are always loaded by this constructor.
+   *
+   * @param in
+   * @param loadLazily if true the artifacts are created on first access
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  protected BaseModel(InputStream in, boolean loadLazily)
+      throws IOException, InvalidFormatException {
 
     if (in == null)
         throw new IllegalArgumentException("in must not be null!");
 
-    Map<String, Object> artifactMap = new HashMap<String, Object>();
+    // the serializers are also used to serialize the loaded model
+    createArtifactSerializers(artifactSerializers);
+
+    Map<String, Object> artifactMap;
+
+    if (loadLazily) {
+      lazyArtifactMap = createLazyArtifactMap(false);
+      readZipPackage(in, lazyArtifactMap);
+      artifactMap = lazyArtifactMap;
+    }
+    else {
+      artifactMap = new HashMap<String, Object>();
+      loadZipPackage(in, artifactMap);
+    }
+
+    this.artifactMap = Collections.unmodifiableMap(artifactMap);
+
+    validateArtifactMap();
+  }
+
+  /**
+   * Initializes the current instance and creates the artifacts concurrently.
+   * <p>
+   * The bytes of all zip entries are read first, then the artifacts are
+   * created by tasks on the executor. A bounded executor limits the number
+   * of artifacts which are created at the same time.
+   *
+   * @param in
+   * @param executor the executor which creates the artifacts
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  protected BaseModel(InputStream in, ExecutorService executor)
+      throws IOException, InvalidFormatException {
+
+    if (in == null)
+        throw new IllegalArgumentException("in must not be null!");
+
+    if (executor == null)
+        throw new IllegalArgumentException("executor must not be null!");
+
+    // the serializers are also used to serialize the loaded model
+    createArtifactSerializers(artifactSerializers);
+
+    Map<String, Callable<Object>> tasks = new LinkedHashMap<String, Callable<Object>>();
 
-    Map<String, ArtifactSerializer> factories = new HashMap<String, ArtifactSerializer>();
-    createArtifactSerializers(factories);
+    for (Map.Entry<String, byte[]> entry : ArtifactLoader.readEntries(in).entrySet()) {
+
+      final String name = entry.getKey();
+      final byte[] data = entry.getValue();
+
+      // fails before any task is started on unknown artifacts
+      getArtifactFactory(name);
+
+      tasks.put(name, new Callable<Object>() {
+        public Object call() throws Exception {
+          return createArtifact(name, ByteBuffer.wrap(data), false);
+        }
+      });
+    }
+
+    this.artifactMap = Collections.unmodifiableMap(
+        new HashMap<String, Object>(ArtifactLoader.createArtifacts(tasks, executor)));
+
+    validateArtifactMap();
+  }
+
+  /**
+   * Initializes the current instance from a model file, which is
+   * either a zip package or a mapped package.
+   *
+   * @param file
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   *
+   * @see #BaseModel(File, boolean)
+   */
+  protected BaseModel(File file) throws IOException, InvalidFormatException {
+    this(file, false);
+  }
+
+  /**
+   * Initializes the current instance from a model file, which is
+   * either a zip package or a mapped package.
+   * <p>
+   * The models of a mapped package are {@link MappedModel}s which evaluate
+   * directly from the memory mapped file, the other artifacts are created
+   * by their {@link ArtifactSerializer}s. A mapped file must not be changed
+   * or replaced in place while the model is in use.
+   * <p>
+   * If the artifacts are loaded lazily, see {@link #BaseModel(InputStream, boolean)},
+   * the artifacts of a mapped package are created from the mapped file
+   * without copying their bytes.
+   *
+   * @param file
+   * @param loadLazily if true the artifacts are created on first access
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   *
+   * @see #serializeMapped(OutputStream)
+   */
+  protected BaseModel(File file, boolean loadLazily)
+      throws IOException, InvalidFormatException {
+
+    if (file == null)
+        throw new IllegalArgumentException("file must not be null!");
+
+    // the serializers are also used to serialize the loaded model
+    createArtifactSerializers(artifactSerializers);
+
+    Map<String, Object> artifactMap;
+
+    if (MappedPackage.isMappedPackage(file)) {
+      Map<String, ByteBuffer> entries = MappedPackage.read(MappedPackage.map(file));
+
+      if (loadLazily) {
+        lazyArtifactMap = createLazyArtifactMap(true);
+
+        for (Map.Entry<String, ByteBuffer> entry : entries.entrySet()) {
+          getArtifactFactory(entry.getKey());
+          lazyArtifactMap.add(entry.getKey(), entry.getValue());
+        }
+
+        artifactMap = lazyArtifactMap;
+      }
+      else {
+        artifactMap = new HashMap<String, Object>();
+
+        for (Map.Entry<String, ByteBuffer> entry : entries.entrySet()) {
+          artifactMap.put(entry.getKey(),
+              createArtifact(entry.getKey(), entry.getValue(), true));
+        }
+      }
+    }
+    else {
+      InputStream in = new BufferedInputStream(new FileInputStream(file));
+
+      try {
+        if (loadLazily) {
+          lazyArtifactMap = createLazyArtifactMap(false);
+          readZipPackage(in, lazyArtifactMap);
+          artifactMap = lazyArtifactMap;
+        }
+        else {
+          artifactMap = new HashMap<String, Object>();
+          loadZipPackage(in, artifactMap);
+        }
+      }
+      finally {
+        in.close();
+      }
+    }
+
+    this.artifactMap = Collections.unmodifiableMap(artifactMap);
+
+    validateArtifactMap();
+  }
+
+  /**
+   * Retrieves the {@link ArtifactSerializer} which creates the artifact.
+   *
+   * @throws InvalidFormatException if there is no serializer for the extension of the name
+   */
+  @SuppressWarnings("unchecked")
+  private ArtifactSerializer getArtifactFactory(String name) throws InvalidFormatException {
+    String extension = getEntryExtension(name);
+
+    ArtifactSerializer factory = artifactSerializers.get(extension);
+
+    if (factory == null) {
+      throw new InvalidFormatException("Unkown artifact format: " + extension);
+    }
+
+    return factory;
+  }
+
+  /**
+   * Creates an artifact from its serialized bytes and records the time it took.
+   *
+   * @param name
+   * @param data
+   * @param mappedPackage true if the bytes are from a mapped package, then models
+   *     are in the {@link MappedModel} layout
+   *
+   * @return the artifact
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  private Object createArtifact(String name, ByteBuffer data, boolean mappedPackage)
+      throws IOException, InvalidFormatException {
+
+    long startTime = System.nanoTime();
+
+    Object artifact;
+
+    if (mappedPackage && name.endsWith("." + MODEL_EXTENSION)) {
+      artifact = new MappedModel(data);
+    }
+    else {
+      artifact = getArtifactFactory(name).create(new ByteBufferInputStream(data));
+    }
+
+    artifactLoadTimes.put(name, System.nanoTime() - startTime);
+
+    return artifact;
+  }
+
+  private LazyArtifactMap createLazyArtifactMap(final boolean mappedPackage) {
+    return new LazyArtifactMap() {
+      @Override
+      protected Object createArtifact(String name, ByteBuffer data)
+          throws IOException, InvalidFormatException {
+        return BaseModel.this.createArtifact(name, data, mappedPackage);
+      }
+    };
+  }
+
+  private void loadZipPackage(InputStream in, Map<String, Object> artifactMap)
+      throws IOException, InvalidFormatException {
 
     final ZipInputStream zip = new ZipInputStream(in);
 
     ZipEntry entry;
     while((entry = zip.getNextEntry()) != null ) {
 
-      String extension = getEntryExtension(entry.getName());
-
-      ArtifactSerializer factory = factories.get(extension);
+      ArtifactSerializer<?> factory = getArtifactFactory(entry.getName());
 
-      if (factory == null) {
-        throw new InvalidFormatException("Unkown artifact format: " + extension);
-      }
+      long startTime = System.nanoTime();
 
       artifactMap.put(entry.getName(), factory.create(zip));
 
+      artifactLoadTimes.put(entry.getName(), System.nanoTime() - startTime);
+
       zip.closeEntry();
     }
+  }
 
-    this.artifactMap = Collections.unmodifiableMap(artifactMap);
+  /**
+   * Reads the bytes of the zip entries, the artifacts are created later.
+   */
+  private void readZipPackage(InputStream in, LazyArtifactMap artifactMap)
+      throws IOException, InvalidFormatException {
 
-    validateArtifactMap();
+    for (Map.Entry<String, byte[]> entry : ArtifactLoader.readEntries(in).entrySet()) {
+
+      // fails early on unknown artifacts
+      getArtifactFactory(entry.getKey());
+
+      artifactMap.add(entry.getKey(), ByteBuffer.wrap(entry.getValue()));
+    }
   }
 
   /**
@@ -168,6 +441,7 @@ public abstract class BaseModel {
     GenericModelSerializer.register(serializers);
     PropertiesSerializer.register(serializers);
     DictionarySerializer.register(serializers);
+    BinaryDictionarySerializer.register(serializers);
   }
 
   /**
@@ -238,6 +512,66 @@ public abstract class BaseModel {
     return Version.parse(version);
   }
 
+  /**
+   * Retrieves the names of all artifacts in the model.
+   *
+   * @return the artifact names
+   */
+  public Set<String> getArtifactNames() {
+    return Collections.unmodifiableSet(artifactMap.keySet());
+  }
+
+  /**
+   * Checks if the artifact was already created. The artifacts of
+   * a model which is not loaded lazily are always created.
+   *
+   * @param name
+   *
+   * @return true if the artifact was created
+   *
+   * @throws IllegalArgumentException if there is no artifact with the name
+   */
+  public boolean isArtifactLoaded(String name) {
+    if (!artifactMap.containsKey(name)) {
+      throw new IllegalArgumentException("Unknown artifact: " + name);
+    }
+
+    return lazyArtifactMap == null || lazyArtifactMap.isLoaded(name);
+  }
+
+  /**
+   * Creates the specified artifacts if they were not created yet, this can be
+   * used to pre-warm the artifacts of a lazily loaded model which are needed
+   * later. The artifacts of a model which is not loaded lazily are always created.
+   *
+   * @param names
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   * @throws IllegalArgumentException if there is no artifact with one of the names
+   */
+  public void loadArtifacts(String... names) throws IOException, InvalidFormatException {
+    for (String name : names) {
+      if (lazyArtifactMap != null) {
+        lazyArtifactMap.load(name);
+      }
+      else if (!artifactMap.containsKey(name)) {
+        throw new IllegalArgumentException("Unknown artifact: " + name);
+      }
+    }
+  }
+
+  /**
+   * Retrieves the time it took to create the artifacts which were loaded
+   * so far. Artifacts of a model which was not read from a model package
+   * have no load time.
+   *
+   * @return a map from the artifact name to the load time in nanoseconds
+   */
+  public Map<String, Long> getArtifactLoadTimes() {
+    return Collections.unmodifiableMap(artifactLoadTimes);
+  }
+
   /**
    * Serializes the model to the given {@link OutputStream}.
    *
@@ -260,4 +594,40 @@ public abstract class BaseModel {
       zip.closeEntry();
     }
   }
+
+  /**
+   * Serializes the model as a mapped package to the given {@link OutputStream}.
+   * <p>
+   * The models are written in the layout of the {@link MappedModel}, the other
+   * artifacts are written by their {@link ArtifactSerializer}s. A model file
+   * in this format is loaded with the file constructor of the model class, its
+   * models are then evaluated directly from the mapped file.
+   *
+   * @param out
+   *
+   * @throws IOException
+   * @throws IllegalArgumentException if a model cannot be mapped,
+   *     see {@link MappedModel#isMappable(AbstractModel)}
+   */
+  @SuppressWarnings("unchecked")
+  public void serializeMapped(OutputStream out) throws IOException {
+    Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+
+    for (String name : artifactMap.keySet()) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+      Object artifact = artifactMap.get(name);
+
+      if (name.endsWith("." + MODEL_EXTENSION)) {
+        MappedModel.write((AbstractModel) artifact, bytes);
+      }
+      else {
+        getArtifactSerializer(name).serialize(artifact, bytes);
+      }
+
+      entries.put(name, bytes.toByteArray());
+    }
+
+    MappedPackage.write(entries, out);
+  }
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.util.InvalidFormatException;
+import opennlp.tools.util.UncloseableInputStream;
+
+/**
+ * Serializes {@link Dictionary} artifacts in the compact binary format, an
+ * artifact which ends with .bindictionary is written in the binary format,
+ * both formats can be read.
+ */
+class BinaryDictionarySerializer implements ArtifactSerializer<Dictionary> {
+
+  public Dictionary create(InputStream in) throws IOException,
+      InvalidFormatException {
+    return new Dictionary(new UncloseableInputStream(in));
+  }
+
+  public void serialize(Dictionary dictionary, OutputStream out)
+      throws IOException {
+    dictionary.serializeBinary(out);
+  }
+
+  @SuppressWarnings("unchecked")
+  static void register(Map<String, ArtifactSerializer> factories) {
+    factories.put("bindictionary", new BinaryDictionarySerializer());
+  }
+}
@@ -25,13 +25,13 @@ import java.util.Map;
 
 import opennlp.tools.dictionary.Dictionary;
 import opennlp.tools.util.InvalidFormatException;
+import opennlp.tools.util.UncloseableInputStream;
 
 class DictionarySerializer implements ArtifactSerializer<Dictionary> {
 
   public Dictionary create(InputStream in) throws IOException,
       InvalidFormatException {
-    // TODO: Attention stream is closed
-    return new Dictionary(in);
+    return new Dictionary(new UncloseableInputStream(in));
   }
 
   public void serialize(Dictionary dictionary, OutputStream out)
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import opennlp.tools.util.InvalidFormatException;
+
+/**
+ * An artifact map which keeps the serialized bytes of its artifacts and
+ * creates an artifact on the first access to it.
+ * <p>
+ * An artifact is created at most once, concurrent first accesses to the same
+ * artifact wait for each other, accesses to different artifacts do not. The
+ * bytes of an artifact are released after it was created.
+ * <p>
+ * The map cannot be modified.
+ */
+abstract class LazyArtifactMap extends AbstractMap<String, Object> {
+
+  private static final class Artifact {
+
+    private final String name;
+
+    private ByteBuffer data;
+
+    private volatile Object value;
+
+    Artifact(String name, ByteBuffer data) {
+      this.name = name;
+      this.data = data;
+    }
+  }
+
+  private final Map<String, Artifact> artifacts = new LinkedHashMap<String, Artifact>();
+
+  private final Set<Map.Entry<String, Object>> entrySet = new AbstractSet<Map.Entry<String, Object>>() {
+
+    @Override
+    public Iterator<Map.Entry<String, Object>> iterator() {
+
+      final Iterator<Artifact> it = artifacts.values().iterator();
+
+      return new Iterator<Map.Entry<String, Object>>() {
+
+        public boolean hasNext() {
+          return it.hasNext();
+        }
+
+        public Map.Entry<String, Object> next() {
+          final Artifact artifact = it.next();
+
+          return new Map.Entry<String, Object>() {
+
+            public String getKey() {
+              return artifact.name;
+            }
+
+            public Object getValue() {
+              return getArtifact(artifact);
+            }
+
+            public Object setValue(Object value) {
+              throw new UnsupportedOperationException();
+            }
+          };
+        }
+
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return artifacts.size();
+    }
+  };
+
+  /**
+   * Adds an artifact, all artifacts must be added before the
+   * map is shared with other threads.
+   *
+   * @param name
+   * @param data the serialized artifact
+   */
+  void add(String name, ByteBuffer data) {
+    artifacts.put(name, new Artifact(name, data));
+  }
+
+  /**
+   * Creates the artifact from its serialized bytes.
+   *
+   * @param name
+   * @param data
+   *
+   * @return the artifact
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  protected abstract Object createArtifact(String name, ByteBuffer data)
+      throws IOException, InvalidFormatException;
+
+  private Object load(Artifact artifact) throws IOException, InvalidFormatException {
+    Object value = artifact.value;
+
+    if (value == null) {
+      synchronized (artifact) {
+        value = artifact.value;
+
+        if (value == null) {
+          value = createArtifact(artifact.name, artifact.data.duplicate());
+          artifact.value = value;
+          artifact.data = null;
+        }
+      }
+    }
+
+    return value;
+  }
+
+  private Object getArtifact(Artifact artifact) {
+    try {
+      return load(artifact);
+    }
+    catch (IOException e) {
+      throw new RuntimeException("Failed to load the artifact " + artifact.name, e);
+    }
+    catch (InvalidFormatException e) {
+      throw new RuntimeException("Failed to load the artifact " + artifact.name, e);
+    }
+  }
+
+  /**
+   * Creates the artifact if it was not created yet.
+   *
+   * @param name
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   * @throws IllegalArgumentException if there is no artifact with the name
+   */
+  void load(String name) throws IOException, InvalidFormatException {
+    Artifact artifact = artifacts.get(name);
+
+    if (artifact == null) {
+      throw new IllegalArgumentException("Unknown artifact: " + name);
+    }
+
+    load(artifact);
+  }
+
+  /**
+   * Checks if the artifact was already created.
+   *
+   * @param name
+   *
+   * @return true if the artifact was created or if there is no artifact with the name
+   */
+  boolean isLoaded(String name) {
+    Artifact artifact = artifacts.get(name);
+
+    return artifact == null || artifact.value != null;
+  }
+
+  @Override
+  public Object get(Object name) {
+    Artifact artifact = artifacts.get(name);
+
+    return artifact != null ? getArtifact(artifact) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object name) {
+    return artifacts.containsKey(name);
+  }
+
+  @Override
+  public Set<String> keySet() {
+    return Collections.unmodifiableSet(artifacts.keySet());
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    return entrySet;
+  }
+
+  @Override
+  public int size() {
+    return artifacts.size();
+  }
+}
@@ -0,0 +1,589 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+import opennlp.maxent.GISModel;
+import opennlp.model.AbstractModel;
+import opennlp.model.Context;
+import opennlp.perceptron.PerceptronModel;
+import opennlp.tools.util.InvalidFormatException;
+
+/**
+ * A {@link GISModel} or {@link PerceptronModel} which evaluates its contexts
+ * directly from a flat binary layout in a {@link ByteBuffer}, usually a file
+ * mapped with {@link java.nio.channels.FileChannel#map}.
+ * <p>
+ * Only the outcome labels are copied into the heap, the predicate table and
+ * the parameters are read from the buffer on every evaluation. A mapped model
+ * loads in constant time and the pages of a model file are shared by all
+ * processes which map it.
+ * <p>
+ * The layout is big endian and every section starts at an offset aligned to 8 bytes:
+ * <pre>
+ * header              magic "ONLPMMD1", model type, counts and section offsets
+ * outcome labels      modified UTF-8 strings
+ * predicate table     open addressing table of (hash, predicate index + 1) pairs
+ * predicate starts    int[predicates + 1], offsets into the predicate chars
+ * predicate chars     char[], the UTF-16 chars of all predicates
+ * parameter starts    int[predicates + 1], offsets into the parameter arrays
+ * parameter outcomes  int[], the outcome of each parameter
+ * parameter values    double[], the value of each parameter
+ * </pre>
+ * The evaluation gives exactly the same probabilities as the evaluation of the
+ * {@link GISModel} or the {@link PerceptronModel} with the uniform prior, which
+ * is the prior of all models read from a model file.
+ * <p>
+ * The data structures returned by {@link #getDataStructures()} are empty,
+ * use {@link #toModel()} to get a heap model with the same parameters.
+ * <p>
+ * A mapped model is immutable and can be used concurrently.
+ */
+public final class MappedModel extends AbstractModel {
+
+  private static final byte[] MAGIC = {'O', 'N', 'L', 'P', 'M', 'M', 'D', '1'};
+
+  private static final int GIS_MODEL = 0;
+  private static final int PERCEPTRON_MODEL = 1;
+
+  private static final int HEADER_SIZE = 80;
+
+  private final ByteBuffer data;
+
+  private final boolean perceptron;
+  private final double correctionConstant;
+  private final double correctionParam;
+  private final double constantInverse;
+  private final double uniformPrior;
+  private final int numOutcomes;
+  private final int numPredicates;
+  private final int mask;
+
+  private final IntBuffer table;
+  private final IntBuffer predicateStarts;
+  private final CharBuffer predicateChars;
+  private final IntBuffer paramStarts;
+  private final IntBuffer paramOutcomes;
+  private final DoubleBuffer paramValues;
+
+  /**
+   * Initializes the model from the specified buffer, the buffer must not be
+   * changed afterwards.
+   *
+   * @param buffer the model layout between the position and the limit of the buffer
+   *
+   * @throws InvalidFormatException if the buffer does not contain a mapped model
+   */
+  public MappedModel(ByteBuffer buffer) throws InvalidFormatException {
+    super(new Context[0], new String[0], readOutcomes(buffer));
+
+    ByteBuffer header = buffer.slice();
+
+    int type = header.getInt(8);
+    numOutcomes = header.getInt(12);
+    numPredicates = header.getInt(16);
+    int tableCapacity = header.getInt(20);
+    correctionConstant = header.getDouble(24);
+    correctionParam = header.getDouble(32);
+    int numParams = header.getInt(40);
+    int numChars = header.getInt(44);
+    int length = header.getInt(76);
+
+    if (type != GIS_MODEL && type != PERCEPTRON_MODEL) {
+      throw new InvalidFormatException("Unknown mapped model type: " + type);
+    }
+
+    if (numPredicates < 0 || numParams < 0 || numChars < 0 || tableCapacity < 2 * numPredicates ||
+        Integer.bitCount(tableCapacity) != 1 || length < HEADER_SIZE ||
+        length > header.capacity()) {
+      throw new InvalidFormatException("Invalid mapped model header!");
+    }
+
+    header.limit(length);
+    data = header.slice();
+
+    perceptron = type == PERCEPTRON_MODEL;
+    modelType = perceptron ? ModelType.Perceptron : ModelType.Maxent;
+    constantInverse = 1.0 / correctionConstant;
+    uniformPrior = Math.log(1.0 / numOutcomes);
+    mask = tableCapacity - 1;
+
+    try {
+      table = section(data, 52, 8 * tableCapacity).asIntBuffer();
+      predicateStarts = section(data, 56, 4 * (numPredicates + 1)).asIntBuffer();
+      predicateChars = section(data, 60, 2 * numChars).asCharBuffer();
+      paramStarts = section(data, 64, 4 * (numPredicates + 1)).asIntBuffer();
+      paramOutcomes = section(data, 68, 4 * numParams).asIntBuffer();
+      paramValues = section(data, 72, 8 * numParams).asDoubleBuffer();
+    }
+    catch (IllegalArgumentException e) {
+      throw new InvalidFormatException("Mapped model section is out of bounds!");
+    }
+  }
+
+  /**
+   * Reads the outcome labels, the only part of the layout which is copied into the heap.
+   */
+  private static String[] readOutcomes(ByteBuffer buffer) throws InvalidFormatException {
+    ByteBuffer header = buffer.slice();
+
+    if (header.remaining() < HEADER_SIZE) {
+      throw new InvalidFormatException("Mapped model is too short!");
+    }
+
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (header.get(i) != MAGIC[i]) {
+        throw new InvalidFormatException("Not a mapped model!");
+      }
+    }
+
+    int numOutcomes = header.getInt(12);
+
+    if (numOutcomes < 1) {
+      throw new InvalidFormatException("Mapped model must have outcomes!");
+    }
+
+    String[] outcomes = new String[numOutcomes];
+
+    try {
+      header.position(header.getInt(48));
+
+      DataInputStream in = new DataInputStream(new ByteBufferInputStream(header));
+
+      for (int i = 0; i < numOutcomes; i++) {
+        outcomes[i] = in.readUTF();
+      }
+    }
+    catch (IOException e) {
+      throw new InvalidFormatException("Invalid outcome labels in mapped model!");
+    }
+    catch (IllegalArgumentException e) {
+      throw new InvalidFormatException("Invalid outcome labels in mapped model!");
+    }
+
+    return outcomes;
+  }
+
+  /**
+   * Retrieves the section which starts at the offset stored at the specified header index.
+   */
+  private static ByteBuffer section(ByteBuffer data, int offsetIndex, int length) {
+    ByteBuffer section = data.duplicate();
+    int offset = data.getInt(offsetIndex);
+    section.position(offset);
+    section.limit(offset + length);
+    return section.slice();
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static long align(long position) {
+    return (position + 7) & ~7L;
+  }
+
+  private boolean isPredicate(String predicate, int index) {
+    int start = predicateStarts.get(index);
+    int end = predicateStarts.get(index + 1);
+
+    if (end - start != predicate.length()) {
+      return false;
+    }
+
+    for (int i = start; i < end; i++) {
+      if (predicateChars.get(i) != predicate.charAt(i - start)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Retrieves the index of the predicate or -1 if the model does not have
+   * the predicate.
+   */
+  private int getPredicateIndex(String predicate) {
+    int hash = predicate.hashCode();
+
+    for (int slot = spread(hash) & mask;; slot = (slot + 1) & mask) {
+      int index = table.get(2 * slot + 1) - 1;
+
+      if (index == -1) {
+        return -1;
+      }
+
+      if (table.get(2 * slot) == hash && isPredicate(predicate, index)) {
+        return index;
+      }
+    }
+  }
+
+  public double[] eval(String[] context) {
+    return eval(context, null, new double[numOutcomes]);
+  }
+
+  public double[] eval(String[] context, float[] values) {
+    return eval(context, values, new double[numOutcomes]);
+  }
+
+  public double[] eval(String[] context, double[] outsums) {
+    return eval(context, null, outsums);
+  }
+
+  /**
+   * Evaluates the context in the same way as {@link GISModel#eval(String[], float[], double[])}
+   * or {@link PerceptronModel#eval(String[], float[], double[])}.
+   *
+   * @param context
+   * @param values the values of the predicates or null
+   * @param outsums
+   *
+   * @return the outsums array with the normalized probabilities
+   */
+  public double[] eval(String[] context, float[] values, double[] outsums) {
+
+    int[] numfeats = null;
+
+    if (perceptron) {
+      Arrays.fill(outsums, 0);
+    }
+    else {
+      numfeats = new int[numOutcomes];
+
+      for (int oid = 0; oid < numOutcomes; oid++) {
+        outsums[oid] = uniformPrior;
+      }
+    }
+
+    for (int ci = 0; ci < context.length; ci++) {
+      int index = getPredicateIndex(context[ci]);
+
+      if (index >= 0) {
+        double value = values != null ? values[ci] : 1;
+
+        int end = paramStarts.get(index + 1);
+
+        for (int pi = paramStarts.get(index); pi < end; pi++) {
+          int oid = paramOutcomes.get(pi);
+
+          if (numfeats != null) {
+            numfeats[oid]++;
+          }
+
+          outsums[oid] += paramValues.get(pi) * value;
+        }
+      }
+    }
+
+    if (perceptron) {
+      normalizePerceptron(outsums);
+    }
+    else {
+      normalizeGIS(outsums, numfeats);
+    }
+
+    return outsums;
+  }
+
+  private void normalizeGIS(double[] outsums, int[] numfeats) {
+    double normal = 0.0;
+
+    for (int oid = 0; oid < numOutcomes; oid++) {
+      if (correctionParam != 0) {
+        outsums[oid] = Math.exp(outsums[oid] * constantInverse +
+            (1.0 - numfeats[oid] / correctionConstant) * correctionParam);
+      }
+      else {
+        outsums[oid] = Math.exp(outsums[oid] * constantInverse);
+      }
+
+      normal += outsums[oid];
+    }
+
+    for (int oid = 0; oid < numOutcomes; oid++) {
+      outsums[oid] /= normal;
+    }
+  }
+
+  private void normalizePerceptron(double[] outsums) {
+    double min = outsums[0];
+
+    for (int oid = 0; oid < numOutcomes; oid++) {
+      if (outsums[oid] < min) {
+        min = outsums[oid];
+      }
+    }
+
+    double normal = 0.0;
+
+    for (int oid = 0; oid < numOutcomes; oid++) {
+      if (min < 0) {
+        outsums[oid] += -1.0 * min;
+      }
+
+      normal += outsums[oid];
+    }
+
+    if (normal == 0.0) {
+      for (int oid = 0; oid < numOutcomes; oid++) {
+        outsums[oid] = 1.0 / numOutcomes;
+      }
+    }
+    else {
+      for (int oid = 0; oid < numOutcomes; oid++) {
+        outsums[oid] /= normal;
+      }
+    }
+  }
+
+  /**
+   * Creates a heap model with the same predicates and parameters,
+   * a {@link PerceptronModel} or a {@link GISModel}.
+   *
+   * @return the new model
+   */
+  public AbstractModel toModel() {
+    String[] predicates = new String[numPredicates];
+    Context[] params = new Context[numPredicates];
+
+    for (int index = 0; index < numPredicates; index++) {
+      int charStart = predicateStarts.get(index);
+      char[] chars = new char[predicateStarts.get(index + 1) - charStart];
+
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = predicateChars.get(charStart + i);
+      }
+
+      predicates[index] = new String(chars);
+
+      int paramStart = paramStarts.get(index);
+      int[] outcomes = new int[paramStarts.get(index + 1) - paramStart];
+      double[] parameters = new double[outcomes.length];
+
+      for (int i = 0; i < outcomes.length; i++) {
+        outcomes[i] = paramOutcomes.get(paramStart + i);
+        parameters[i] = paramValues.get(paramStart + i);
+      }
+
+      params[index] = new Context(outcomes, parameters);
+    }
+
+    if (perceptron) {
+      return new PerceptronModel(params, predicates, ocNames);
+    }
+    else {
+      return new GISModel(params, predicates, ocNames, (int) correctionConstant,
+          correctionParam);
+    }
+  }
+
+  /**
+   * Checks if the specified model can be written in the mapped layout.
+   *
+   * @param model
+   * @return true if the model is a {@link GISModel}, a {@link PerceptronModel}
+   * or a {@link MappedModel}
+   */
+  public static boolean isMappable(AbstractModel model) {
+    return model instanceof GISModel || model instanceof PerceptronModel ||
+        model instanceof MappedModel;
+  }
+
+  /**
+   * Writes the model in the mapped layout to the specified stream.
+   *
+   * The {@link OutputStream} remains open.
+   *
+   * @param model the model, see {@link #isMappable(AbstractModel)}
+   * @param out
+   *
+   * @throws IOException
+   * @throws IllegalArgumentException if the model cannot be written in the mapped layout
+   */
+  @SuppressWarnings("unchecked")
+  public static void write(AbstractModel model, OutputStream out) throws IOException {
+
+    if (model instanceof MappedModel) {
+      ByteBuffer data = ((MappedModel) model).data.duplicate();
+
+      byte[] buffer = new byte[8192];
+
+      while (data.hasRemaining()) {
+        int length = Math.min(buffer.length, data.remaining());
+        data.get(buffer, 0, length);
+        out.write(buffer, 0, length);
+      }
+
+      return;
+    }
+
+    if (!isMappable(model)) {
+      throw new IllegalArgumentException("Only GIS and perceptron models can be mapped: " +
+          model.getClass().getName());
+    }
+
+    Object[] dataStructures = model.getDataStructures();
+
+    Context[] params = (Context[]) dataStructures[0];
+    Map<String, Integer> pmap = (Map<String, Integer>) dataStructures[1];
+    String[] outcomes = (String[]) dataStructures[2];
+    double correctionConstant = ((Number) dataStructures[3]).doubleValue();
+    double correctionParam = ((Number) dataStructures[4]).doubleValue();
+
+    int numPredicates = params.length;
+
+    String[] predicates = new String[numPredicates];
+    for (Iterator<Map.Entry<String, Integer>> it = pmap.entrySet().iterator(); it.hasNext();) {
+      Map.Entry<String, Integer> entry = it.next();
+      predicates[entry.getValue()] = entry.getKey();
+    }
+
+    int capacity = 16;
+    while (capacity < 2 * numPredicates) {
+      capacity <<= 1;
+    }
+
+    int mask = capacity - 1;
+
+    int[] table = new int[2 * capacity];
+    int[] predicateStarts = new int[numPredicates + 1];
+    int[] paramStarts = new int[numPredicates + 1];
+
+    for (int index = 0; index < numPredicates; index++) {
+      int hash = predicates[index].hashCode();
+
+      int slot = spread(hash) & mask;
+      while (table[2 * slot + 1] != 0) {
+        slot = (slot + 1) & mask;
+      }
+
+      table[2 * slot] = hash;
+      table[2 * slot + 1] = index + 1;
+
+      predicateStarts[index + 1] = predicateStarts[index] + predicates[index].length();
+      paramStarts[index + 1] = paramStarts[index] + params[index].getOutcomes().length;
+    }
+
+    int numChars = predicateStarts[numPredicates];
+    int numParams = paramStarts[numPredicates];
+
+    ByteArrayOutputStream labelBytes = new ByteArrayOutputStream();
+    DataOutputStream labelOut = new DataOutputStream(labelBytes);
+    for (int i = 0; i < outcomes.length; i++) {
+      labelOut.writeUTF(outcomes[i]);
+    }
+    labelOut.flush();
+
+    long labelsOffset = HEADER_SIZE;
+    long tableOffset = align(labelsOffset + labelBytes.size());
+    long predicateStartsOffset = tableOffset + 8L * capacity;
+    long predicateCharsOffset = align(predicateStartsOffset + 4L * (numPredicates + 1));
+    long paramStartsOffset = align(predicateCharsOffset + 2L * numChars);
+    long paramOutcomesOffset = align(paramStartsOffset + 4L * (numPredicates + 1));
+    long paramValuesOffset = align(paramOutcomesOffset + 4L * numParams);
+    long length = paramValuesOffset + 8L * numParams;
+
+    if (length > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Model is too large to be mapped: " + length +
+          " bytes");
+    }
+
+    DataOutputStream dataOut = new DataOutputStream(out);
+
+    dataOut.write(MAGIC);
+    dataOut.writeInt(model instanceof PerceptronModel ? PERCEPTRON_MODEL : GIS_MODEL);
+    dataOut.writeInt(outcomes.length);
+    dataOut.writeInt(numPredicates);
+    dataOut.writeInt(capacity);
+    dataOut.writeDouble(correctionConstant);
+    dataOut.writeDouble(correctionParam);
+    dataOut.writeInt(numParams);
+    dataOut.writeInt(numChars);
+    dataOut.writeInt((int) labelsOffset);
+    dataOut.writeInt((int) tableOffset);
+    dataOut.writeInt((int) predicateStartsOffset);
+    dataOut.writeInt((int) predicateCharsOffset);
+    dataOut.writeInt((int) paramStartsOffset);
+    dataOut.writeInt((int) paramOutcomesOffset);
+    dataOut.writeInt((int) paramValuesOffset);
+    dataOut.writeInt((int) length);
+
+    labelBytes.writeTo(dataOut);
+
+    pad(dataOut, tableOffset);
+    for (int i = 0; i < table.length; i++) {
+      dataOut.writeInt(table[i]);
+    }
+
+    for (int i = 0; i < predicateStarts.length; i++) {
+      dataOut.writeInt(predicateStarts[i]);
+    }
+
+    pad(dataOut, predicateCharsOffset);
+    for (int index = 0; index < numPredicates; index++) {
+      dataOut.writeChars(predicates[index]);
+    }
+
+    pad(dataOut, paramStartsOffset);
+    for (int i = 0; i < paramStarts.length; i++) {
+      dataOut.writeInt(paramStarts[i]);
+    }
+
+    pad(dataOut, paramOutcomesOffset);
+    for (int index = 0; index < numPredicates; index++) {
+      int[] paramOutcomes = params[index].getOutcomes();
+      for (int i = 0; i < paramOutcomes.length; i++) {
+        dataOut.writeInt(paramOutcomes[i]);
+      }
+    }
+
+    pad(dataOut, paramValuesOffset);
+    for (int index = 0; index < numPredicates; index++) {
+      double[] paramValues = params[index].getParameters();
+      for (int i = 0; i < paramValues.length; i++) {
+        dataOut.writeDouble(paramValues[i]);
+      }
+    }
+
+    dataOut.flush();
+  }
+
+  /**
+   * Writes zero bytes until the offset of the next section is reached, the
+   * stream counts the written bytes from the start of the header.
+   */
+  private static void pad(DataOutputStream out, long nextOffset) throws IOException {
+    while (out.size() < nextOffset) {
+      out.writeByte(0);
+    }
+  }
+}
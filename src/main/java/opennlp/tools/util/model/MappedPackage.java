@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import opennlp.tools.util.InvalidFormatException;
+
+/**
+ * The flat model package which can be mapped into memory, it is the
+ * uncompressed counterpart of the zip package.
+ * <p>
+ * The package starts with the magic "ONLPMAP1" and the number of entries,
+ * followed by the name, the offset and the length of every entry. The data
+ * of the entries follows the directory, every entry starts at an offset
+ * aligned to 8 bytes.
+ */
+final class MappedPackage {
+
+  private static final byte[] MAGIC = {'O', 'N', 'L', 'P', 'M', 'A', 'P', '1'};
+
+  private MappedPackage() {
+  }
+
+  /**
+   * Checks if the file starts with the magic of a mapped package.
+   *
+   * @param file
+   * @return true if the file is a mapped package
+   *
+   * @throws IOException
+   */
+  static boolean isMappedPackage(File file) throws IOException {
+    DataInputStream in = new DataInputStream(new FileInputStream(file));
+
+    try {
+      byte[] magic = new byte[MAGIC.length];
+      in.readFully(magic);
+
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (magic[i] != MAGIC[i]) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+    catch (EOFException e) {
+      return false;
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Maps the file read only into memory. The mapping stays valid
+   * after the file is closed.
+   *
+   * @param file
+   * @return the mapped file
+   *
+   * @throws IOException
+   */
+  static ByteBuffer map(File file) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+    try {
+      FileChannel channel = raf.getChannel();
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * Reads the directory of the package.
+   *
+   * @param buffer the package
+   *
+   * @return the entries of the package, each entry is a slice of the buffer
+   *
+   * @throws InvalidFormatException
+   */
+  static Map<String, ByteBuffer> read(ByteBuffer buffer) throws InvalidFormatException {
+    ByteBuffer directory = buffer.slice();
+
+    Map<String, ByteBuffer> entries = new LinkedHashMap<String, ByteBuffer>();
+
+    try {
+      DataInputStream in = new DataInputStream(new ByteBufferInputStream(directory.duplicate()));
+
+      byte[] magic = new byte[MAGIC.length];
+      in.readFully(magic);
+
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (magic[i] != MAGIC[i]) {
+          throw new InvalidFormatException("Not a mapped model package!");
+        }
+      }
+
+      int numberOfEntries = in.readInt();
+
+      for (int i = 0; i < numberOfEntries; i++) {
+        String name = in.readUTF();
+        long offset = in.readLong();
+        long length = in.readLong();
+
+        if (offset < 0 || length < 0 || offset + length > directory.capacity()) {
+          throw new InvalidFormatException("Entry " + name + " is out of bounds!");
+        }
+
+        ByteBuffer entry = directory.duplicate();
+        entry.position((int) offset);
+        entry.limit((int) (offset + length));
+
+        entries.put(name, entry.slice());
+      }
+    }
+    catch (IOException e) {
+      throw new InvalidFormatException("Invalid mapped model package directory!");
+    }
+
+    return entries;
+  }
+
+  private static byte[] createDirectory(Map<String, byte[]> entries, long dataOffset)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+
+    out.write(MAGIC);
+    out.writeInt(entries.size());
+
+    long offset = dataOffset;
+
+    for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeLong(offset);
+      out.writeLong(entry.getValue().length);
+
+      offset = align(offset + entry.getValue().length);
+    }
+
+    out.flush();
+
+    return bytes.toByteArray();
+  }
+
+  private static long align(long position) {
+    return (position + 7) & ~7L;
+  }
+
+  /**
+   * Writes a package with the specified entries.
+   *
+   * The {@link OutputStream} remains open.
+   *
+   * @param entries the serialized entries
+   * @param out
+   *
+   * @throws IOException
+   */
+  static void write(Map<String, byte[]> entries, OutputStream out) throws IOException {
+
+    // the size of the directory does not depend on the offsets
+    long dataOffset = align(createDirectory(entries, 0).length);
+
+    byte[] directory = createDirectory(entries, dataOffset);
+
+    out.write(directory);
+
+    long position = directory.length;
+
+    for (byte[] entry : entries.values()) {
+      long entryOffset = align(position);
+
+      for (; position < entryOffset; position++) {
+        out.write(0);
+      }
+
+      out.write(entry);
+      position += entry.length;
+    }
+
+    out.flush();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.chunker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import opennlp.maxent.GISModel;
+import opennlp.model.Context;
+import opennlp.tools.util.CompiledModel;
+import opennlp.tools.util.PredicateBuffer;
+
+/**
+ * Tests for the {@link DefaultChunkerContextGenerator} class.
+ */
+public class DefaultChunkerContextGeneratorTest extends TestCase {
+
+  private static final String[] TOKENS = new String[] {"Rockwell", "said", "the",
+      "agreement", "calls", "for", "it", "."};
+
+  private static final String[] TAGS = new String[] {"NNP", "VBD", "DT", "NN", "VBZ",
+      "IN", "PRP", "."};
+
+  private static final String[] PREDS = new String[] {"B-NP", "B-VP", "B-NP", "I-NP",
+      "B-VP", "B-PP", "B-NP", "O"};
+
+  /**
+   * Creates a model which knows every predicate of the specified contexts.
+   */
+  static CompiledModel createModel(List<String[]> contexts) {
+    Set<String> predicates = new LinkedHashSet<String>();
+    for (String[] context : contexts) {
+      predicates.addAll(Arrays.asList(context));
+    }
+
+    Context[] params = new Context[predicates.size()];
+    for (int i = 0; i < params.length; i++) {
+      params[i] = new Context(new int[] {0}, new double[] {0});
+    }
+
+    return CompiledModel.compile(new GISModel(params,
+        predicates.toArray(new String[predicates.size()]), new String[] {"a", "b"}, 1, 0));
+  }
+
+  /**
+   * Asserts that the predicate buffer contains exactly the indexes of the
+   * specified predicates, in any order.
+   */
+  static void assertSamePredicates(CompiledModel model, String[] expected,
+      PredicateBuffer predicates) {
+    int[] expectedIndexes = new int[expected.length];
+    for (int i = 0; i < expected.length; i++) {
+      expectedIndexes[i] = model.getPredicateIndex(expected[i]);
+    }
+
+    int[] actualIndexes = new int[predicates.size()];
+    System.arraycopy(predicates.getPredicates(), 0, actualIndexes, 0, actualIndexes.length);
+
+    Arrays.sort(expectedIndexes);
+    Arrays.sort(actualIndexes);
+    assertTrue(Arrays.toString(expected), Arrays.equals(expectedIndexes, actualIndexes));
+  }
+
+  /**
+   * Tests that the compiled context contains the same predicates as the
+   * String context at every position.
+   */
+  public void testCompiledContext() {
+    DefaultChunkerContextGenerator cg = new DefaultChunkerContextGenerator();
+
+    List<String[]> contexts = new ArrayList<String[]>();
+    for (int i = 0; i < TOKENS.length; i++) {
+      contexts.add(cg.getContext(i, TOKENS, TAGS, PREDS));
+    }
+
+    CompiledModel model = createModel(contexts);
+    PredicateBuffer predicates = new PredicateBuffer(model);
+
+    for (int i = 0; i < TOKENS.length; i++) {
+      predicates.clear();
+      cg.getContext(i, TOKENS, TAGS, PREDS, predicates);
+      assertSamePredicates(model, contexts.get(i), predicates);
+    }
+  }
+
+  /**
+   * Tests that the static and the history context together are the context.
+   */
+  public void testSplitContext() {
+    DefaultChunkerContextGenerator cg = new DefaultChunkerContextGenerator();
+
+    for (int i = 0; i < TOKENS.length; i++) {
+      List<String> split = new ArrayList<String>();
+      split.addAll(Arrays.asList(cg.getStaticContext(i, TOKENS, TAGS)));
+      split.addAll(Arrays.asList(cg.getHistoryContext(i, TOKENS, TAGS, PREDS)));
+
+      assertEquals(Arrays.asList(cg.getContext(i, TOKENS, TAGS, PREDS)), split);
+    }
+  }
+}
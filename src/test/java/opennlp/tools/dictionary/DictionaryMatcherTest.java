@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import opennlp.tools.util.Span;
+import opennlp.tools.util.StringList;
+
+/**
+ * Tests for the {@link DictionaryMatcher} class.
+ */
+public class DictionaryMatcherTest extends TestCase {
+
+  private static Dictionary createDictionary(boolean caseSensitive, String... entries) {
+    Dictionary dictionary = new Dictionary(caseSensitive);
+
+    for (String entry : entries) {
+      dictionary.put(new StringList(entry.split(" ")));
+    }
+
+    return dictionary;
+  }
+
+  public void testFindAll() {
+    DictionaryMatcher matcher = new DictionaryMatcher(createDictionary(false,
+        "he", "she", "his", "hers", "she said"));
+
+    Span matches[] = matcher.findAll(new String[] {"ushers", "she", "said", "his", "hers"});
+
+    assertEquals(Arrays.asList(new Span(1, 3), new Span(1, 2), new Span(3, 4),
+        new Span(4, 5)), Arrays.asList(matches));
+  }
+
+  public void testFindAllOverlapping() {
+    DictionaryMatcher matcher = new DictionaryMatcher(createDictionary(false,
+        "a b c", "b", "b c d", "c"));
+
+    Span matches[] = matcher.findAll(new String[] {"a", "b", "c", "d"});
+
+    assertEquals(Arrays.asList(new Span(0, 3), new Span(1, 4), new Span(1, 2),
+        new Span(2, 3)), Arrays.asList(matches));
+  }
+
+  public void testFindLongest() {
+    DictionaryMatcher matcher = new DictionaryMatcher(createDictionary(false,
+        "a b c", "b", "b c d", "c", "d"));
+
+    Span matches[] = matcher.findLongest(new String[] {"x", "a", "b", "c", "d"});
+
+    assertEquals(Arrays.asList(new Span(1, 4), new Span(4, 5)), Arrays.asList(matches));
+  }
+
+  public void testCaseSensitivity() {
+    String tokens[] = new String[] {"new", "York"};
+
+    assertEquals(1, new DictionaryMatcher(createDictionary(false, "New york"))
+        .findAll(tokens).length);
+    assertEquals(0, new DictionaryMatcher(createDictionary(true, "New york"))
+        .findAll(tokens).length);
+  }
+
+  /**
+   * Compares the matcher with a brute force search on random entries and tokens.
+   */
+  public void testRandomDictionaries() {
+    Random random = new Random(7);
+
+    for (int round = 0; round < 50; round++) {
+      Dictionary dictionary = new Dictionary();
+
+      for (int i = 0; i < 20; i++) {
+        String entry[] = new String[1 + random.nextInt(4)];
+
+        for (int ti = 0; ti < entry.length; ti++) {
+          entry[ti] = Integer.toString(random.nextInt(3));
+        }
+
+        dictionary.put(new StringList(entry));
+      }
+
+      String tokens[] = new String[50];
+      for (int i = 0; i < tokens.length; i++) {
+        tokens[i] = Integer.toString(random.nextInt(3));
+      }
+
+      List<Span> expected = new ArrayList<Span>();
+      int expectedLengths[] = new int[tokens.length];
+
+      for (int start = 0; start < tokens.length; start++) {
+        for (int end = tokens.length; end > start; end--) {
+          if (dictionary.contains(tokens, start, end)) {
+            expected.add(new Span(start, end));
+            expectedLengths[start] = Math.max(expectedLengths[start], end - start);
+          }
+        }
+      }
+
+      DictionaryMatcher matcher = new DictionaryMatcher(dictionary);
+
+      assertEquals(expected, Arrays.asList(matcher.findAll(tokens)));
+      assertTrue(Arrays.equals(expectedLengths, matcher.longestMatchLengths(tokens)));
+    }
+  }
+}
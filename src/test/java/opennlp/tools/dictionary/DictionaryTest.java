@@ -22,6 +22,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Iterator;
 
 import opennlp.tools.dictionary.Dictionary;
 import opennlp.tools.util.InvalidFormatException;
@@ -76,6 +77,30 @@ public class DictionaryTest extends TestCase  {
     assertTrue(reference.equals(recreated));
   }
 
+  /**
+   * Tests serialization and deserialization of the {@link Dictionary}
+   * in the binary format.
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public void testBinarySerialization() throws IOException, InvalidFormatException {
+    Dictionary reference = new Dictionary();
+
+    reference.put(new StringList(new String[]{"a1", "a2", "a3", "a5"}));
+    reference.put(new StringList(new String[]{"a1", "\u00e4\u00f6\u00fc"}));
+    reference.put(new StringList(new String[]{"a2"}));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    reference.serializeBinary(out);
+
+    Dictionary recreated = new Dictionary(
+        new ByteArrayInputStream(out.toByteArray()));
+
+    assertTrue(reference.equals(recreated));
+  }
+
   /**
    * Tests for the {@link Dictionary#parseOneEntryPerLine(java.io.Reader)}
    * method.
@@ -166,4 +191,126 @@ public class DictionaryTest extends TestCase  {
 
     assertTrue(dict.contains(entry2));
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests the lookup of tokens of different case in a case sensitive dictionary.
+   */
+  public void testCaseSensitiveLookup() {
+
+    Dictionary dict = new Dictionary(true);
+
+    dict.put(new StringList(new String[]{"1a", "1b"}));
+
+    assertTrue(dict.contains(new StringList(new String[]{"1a", "1b"})));
+    assertFalse(dict.contains(new StringList(new String[]{"1A", "1B"})));
+    assertFalse(dict.contains(new StringList("1a")));
+  }
+
+  /**
+   * Tests the lookups on token arrays.
+   */
+  public void testTokenArrayLookup() {
+
+    Dictionary dict = new Dictionary();
+
+    dict.put(new StringList(new String[]{"New", "York"}));
+    dict.put(new StringList(new String[]{"New", "York", "City"}));
+    dict.put(new StringList("Paris"));
+
+    String tokens[] = new String[]{"in", "new", "york", "city", "or", "Paris"};
+
+    assertTrue(dict.contains(tokens, 1, 3));
+    assertFalse(dict.contains(tokens, 1, 2));
+    assertTrue(dict.contains("paris"));
+    assertFalse(dict.contains("new"));
+
+    assertTrue(dict.isPrefix(tokens, 1, 2));
+    assertFalse(dict.isPrefix(tokens, 0, 1));
+
+    assertEquals(3, dict.longestMatch(tokens, 1, tokens.length));
+    assertEquals(2, dict.longestMatch(tokens, 1, 3));
+    assertEquals(0, dict.longestMatch(tokens, 1, 2));
+    assertEquals(0, dict.longestMatch(tokens, 0, tokens.length));
+    assertEquals(1, dict.longestMatch(tokens, 5, tokens.length));
+  }
+
+  /**
+   * Tests that the tokens of removed entries are no prefix anymore.
+   */
+  public void testIsPrefixAfterRemove() {
+
+    Dictionary dict = new Dictionary();
+
+    dict.put(new StringList(new String[]{"New", "York"}));
+    dict.put(new StringList(new String[]{"New", "York", "City"}));
+
+    String tokens[] = new String[]{"New", "York", "City"};
+
+    dict.remove(new StringList(new String[]{"New", "York", "City"}));
+
+    assertTrue(dict.isPrefix(tokens, 0, 2));
+    assertFalse(dict.isPrefix(tokens, 0, 3));
+
+    dict.remove(new StringList(new String[]{"New", "York"}));
+
+    assertFalse(dict.isPrefix(tokens, 0, 1));
+    assertFalse(dict.isPrefix(tokens, 0, 2));
+    assertEquals(0, dict.longestMatch(tokens, 0, 3));
+
+    dict.put(new StringList(new String[]{"New", "York"}));
+
+    assertTrue(dict.isPrefix(tokens, 0, 1));
+
+    Iterator<StringList> it = dict.iterator();
+    it.next();
+    it.remove();
+
+    assertFalse(dict.isPrefix(tokens, 0, 1));
+  }
+
+  /**
+   * Tests that removed entries are neither found nor iterated.
+   */
+  public void testRemove() {
+
+    Dictionary dict = new Dictionary();
+
+    StringList entry1 = new StringList(new String[]{"1a", "1b"});
+    StringList entry2 = new StringList(new String[]{"1a"});
+
+    dict.put(entry1);
+    dict.put(entry2);
+    dict.remove(entry1);
+
+    assertEquals(1, dict.size());
+    assertFalse(dict.contains(entry1));
+    assertTrue(dict.contains(entry2));
+
+    Iterator<StringList> it = dict.iterator();
+    assertEquals(entry2, it.next());
+    assertFalse(it.hasNext());
+
+    dict.put(entry1);
+    assertTrue(dict.contains(entry1));
+    assertEquals(2, dict.size());
+  }
+
+  /**
+   * Tests a dictionary which is large enough to grow its tables.
+   */
+  public void testManyEntries() {
+
+    Dictionary dict = new Dictionary();
+
+    for (int i = 0; i < 1000; i++) {
+      dict.put(new StringList(new String[]{"t" + (i % 10), "e" + i}));
+    }
+
+    assertEquals(1000, dict.size());
+
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(dict.contains(new StringList(new String[]{"T" + (i % 10), "E" + i})));
+      assertFalse(dict.contains(new StringList(new String[]{"t" + ((i + 1) % 10), "e" + i})));
+    }
+  }
+}
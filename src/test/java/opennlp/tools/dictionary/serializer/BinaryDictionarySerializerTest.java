@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.dictionary.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import opennlp.tools.util.InvalidFormatException;
+import opennlp.tools.util.StringList;
+
+/**
+ * Tests for the {@link BinaryDictionarySerializer} class.
+ */
+public class BinaryDictionarySerializerTest extends TestCase {
+
+  private static List<Entry> createEntries() {
+    List<Entry> entries = new ArrayList<Entry>();
+
+    Attributes attributes = new Attributes();
+    attributes.setValue("count", "7");
+    attributes.setValue("tags", "NN VB");
+    entries.add(new Entry(new StringList(new String[] {"to", "be"}), attributes));
+
+    entries.add(new Entry(new StringList("be"), new Attributes()));
+
+    return entries;
+  }
+
+  private static List<Entry> read(byte[] dictionary) throws IOException,
+      InvalidFormatException {
+    final List<Entry> entries = new ArrayList<Entry>();
+
+    DictionarySerializer.create(new ByteArrayInputStream(dictionary), new EntryInserter() {
+      public void insert(Entry entry) {
+        entries.add(entry);
+      }
+    });
+
+    return entries;
+  }
+
+  private static void assertEntries(List<Entry> expected, List<Entry> actual) {
+    assertEquals(expected.size(), actual.size());
+
+    for (int i = 0; i < expected.size(); i++) {
+      Entry expectedEntry = expected.get(i);
+      Entry actualEntry = actual.get(i);
+
+      assertEquals(expectedEntry.getTokens(), actualEntry.getTokens());
+
+      assertEquals(expectedEntry.getAttributes().getValue("count"),
+          actualEntry.getAttributes().getValue("count"));
+      assertEquals(expectedEntry.getAttributes().getValue("tags"),
+          actualEntry.getAttributes().getValue("tags"));
+    }
+  }
+
+  public void testSerialization() throws IOException, InvalidFormatException {
+    List<Entry> entries = createEntries();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryDictionarySerializer.serialize(out, entries.iterator());
+
+    assertTrue(BinaryDictionarySerializer.isBinaryDictionary(
+        new ByteArrayInputStream(out.toByteArray())));
+
+    assertEntries(entries, read(out.toByteArray()));
+  }
+
+  public void testConvert() throws IOException, InvalidFormatException {
+    List<Entry> entries = createEntries();
+
+    ByteArrayOutputStream xml = new ByteArrayOutputStream();
+    DictionarySerializer.serialize(xml, entries.iterator());
+
+    assertFalse(BinaryDictionarySerializer.isBinaryDictionary(
+        new ByteArrayInputStream(xml.toByteArray())));
+
+    ByteArrayOutputStream binary = new ByteArrayOutputStream();
+    BinaryDictionarySerializer.convert(new ByteArrayInputStream(xml.toByteArray()), binary);
+
+    assertEntries(read(xml.toByteArray()), read(binary.toByteArray()));
+    assertTrue(binary.size() < xml.size());
+  }
+
+  public void testTruncatedDictionary() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryDictionarySerializer.serialize(out, createEntries().iterator());
+
+    byte[] truncated = new byte[out.size() - 3];
+    System.arraycopy(out.toByteArray(), 0, truncated, 0, truncated.length);
+
+    try {
+      read(truncated);
+      fail();
+    }
+    catch (InvalidFormatException e) {
+      // expected, the dictionary is incomplete
+    }
+  }
+
+  private static void assertInvalid(byte[] dictionary) throws IOException {
+    try {
+      read(dictionary);
+      fail();
+    }
+    catch (InvalidFormatException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Creates a binary dictionary with the string count and the bytes
+   * which follow it.
+   */
+  private static byte[] createDictionary(int stringCount, int... bytes)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DataOutputStream dataOut = new DataOutputStream(out);
+
+    dataOut.writeBytes("ONLPDIC1");
+    dataOut.writeInt(stringCount);
+
+    for (int i = 0; i < bytes.length; i++) {
+      dataOut.writeByte(bytes[i]);
+    }
+
+    dataOut.close();
+
+    return out.toByteArray();
+  }
+
+  public void testInvalidCounts() throws IOException {
+    // negative string count
+    assertInvalid(createDictionary(-1));
+
+    // huge string count and string length, the stream ends early
+    assertInvalid(createDictionary(Integer.MAX_VALUE, 1, 'a'));
+    assertInvalid(createDictionary(1, 0xff, 0xff, 0xff, 0xff, 0x07, 'a'));
+
+    // negative entry count
+    assertInvalid(createDictionary(0, 0xff, 0xff, 0xff, 0xff));
+
+    // the fifth byte of the token count overflows to a negative count
+    assertInvalid(createDictionary(0, 0, 0, 0, 1, 0x80, 0x80, 0x80, 0x80, 0x0f));
+
+    // an entry without tokens
+    assertInvalid(createDictionary(0, 0, 0, 0, 1, 0, 0));
+  }
+}
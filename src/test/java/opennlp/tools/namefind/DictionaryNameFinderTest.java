@@ -27,12 +27,12 @@ import junit.framework.TestCase;
 /**
   *Tests for the {@link DictionaryNameFinder} class.
   */
-public class DictionaryNameFinderTetst extends TestCase {
+public class DictionaryNameFinderTest extends TestCase {
 
   private Dictionary mDictionary = new Dictionary();
   private TokenNameFinder mNameFinder;
 
-  public DictionaryNameFinderTetst() {
+  public DictionaryNameFinderTest() {
 
     StringList vanessa = new StringList(new String[]{"Vanessa"});
     mDictionary.put(vanessa);
@@ -104,4 +104,13 @@ public class DictionaryNameFinderTetst extends TestCase {
     assertTrue(names.length == 1);
     assertTrue(names[0].getStart() == 3 && names[0].getEnd() == 5);
   }
-}
\ No newline at end of file
+
+  public void testCaseIsNotIgnored() {
+    String sentence[] = {"a", "vanessa", "Williams", "MAX", "Vanessa", "williams"};
+
+    Span names[] = mNameFinder.find(sentence);
+
+    assertTrue(names.length == 1);
+    assertTrue(names[0].getStart() == 4 && names[0].getEnd() == 5);
+  }
+}
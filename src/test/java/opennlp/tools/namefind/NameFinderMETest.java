@@ -18,14 +18,18 @@
 
 package opennlp.tools.namefind;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.Collections;
+import java.util.Map;
 
 import junit.framework.TestCase;
 import opennlp.maxent.GISModel;
 import opennlp.model.EventStream;
+import opennlp.tools.util.FeatureHasher;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.PlainTextByLineStream;
 import opennlp.tools.util.Span;
@@ -102,4 +106,57 @@ public class NameFinderMETest extends TestCase {
     assertEquals(new Span(1, 2), names[0]);
     assertEquals(new Span(4, 6), names[1]);
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests that a name finder trained with hashed features
+   * stores the number of bits and still finds the names.
+   */
+  public void testNameFinderWithHashedFeatures() throws Exception {
+
+    InputStream in = getClass().getClassLoader().getResourceAsStream(
+        "opennlp/tools/namefind/AnnotatedSentences.txt");
+
+    ObjectStream<NameSample> sampleStream =
+          new NameSampleDataStream(
+          new PlainTextByLineStream(new InputStreamReader(in, "ISO-8859-1")));
+
+    TokenNameFinderModel nameFinderModel = NameFinderME.train("en", sampleStream,
+        70, 1, 18, Collections.<String, Object>emptyMap());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    nameFinderModel.serialize(out);
+
+    nameFinderModel = new TokenNameFinderModel(new ByteArrayInputStream(out.toByteArray()));
+
+    assertEquals(18, nameFinderModel.getFeatureHashBits());
+
+    Object[] dataStructures = nameFinderModel.getNameFinderModel().getDataStructures();
+
+    @SuppressWarnings("unchecked")
+    Map<String, Integer> predicates = (Map<String, Integer>) dataStructures[1];
+
+    assertTrue(predicates.size() <= 1 << 18);
+
+    for (String predicate : predicates.keySet()) {
+      assertTrue(predicate.startsWith(FeatureHasher.HASHED_FEATURE_PREFIX));
+    }
+
+    TokenNameFinder nameFinder = new NameFinderME(nameFinderModel);
+
+    String sentence[] = {"Alisa",
+        "appreciated",
+        "the",
+        "hint",
+        "and",
+        "enjoyed",
+        "a",
+        "delicious",
+        "traditional",
+        "meal."};
+
+    Span names[] = nameFinder.find(sentence);
+
+    assertEquals(1, names.length);
+    assertEquals(new Span(0, 1), names[0]);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ngram;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import opennlp.tools.util.StringList;
+
+/**
+ * Tests for the {@link ExternalNGramCounter} class.
+ */
+public class ExternalNGramCounterTest extends TestCase {
+
+  public void testSameNGramsAsInMemoryCounting() throws Exception {
+    Random random = new Random(5);
+
+    NGramCounter counter = new NGramCounter();
+    ExternalNGramCounter externalCounter = new ExternalNGramCounter(50);
+
+    try {
+      for (int i = 0; i < 200; i++) {
+        String tokens[] = new String[1 + random.nextInt(10)];
+
+        for (int ti = 0; ti < tokens.length; ti++) {
+          tokens[ti] = "t" + random.nextInt(15);
+        }
+
+        counter.add(tokens, 1, 3);
+        externalCounter.add(tokens, 1, 3);
+      }
+
+      assertTrue(externalCounter.getRunCount() > 1);
+
+      counter.cutoff(2, 20);
+
+      assertEquals(counter.toDictionary(true), externalCounter.toDictionary(true, 2, 20));
+      assertEquals(counter.toDictionary(false), externalCounter.toDictionary(false, 2, 20));
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      externalCounter.serialize(out, 2, 20);
+
+      NGramModel model = new NGramModel(new ByteArrayInputStream(out.toByteArray()));
+
+      assertEquals(counter.size(), model.size());
+
+      for (StringList ngram : counter) {
+        assertEquals(counter.getCount(ngram), model.getCount(ngram));
+      }
+    }
+    finally {
+      externalCounter.close();
+    }
+
+    assertEquals(0, externalCounter.getRunCount());
+  }
+
+  /**
+   * Tests that more runs than can be open at the same time are merged
+   * in several passes to the same counts.
+   */
+  public void testMultiPassMerge() throws Exception {
+    Random random = new Random(7);
+
+    NGramCounter counter = new NGramCounter();
+    ExternalNGramCounter externalCounter = new ExternalNGramCounter(10, 3, null);
+
+    try {
+      for (int i = 0; i < 200; i++) {
+        String tokens[] = new String[1 + random.nextInt(10)];
+
+        for (int ti = 0; ti < tokens.length; ti++) {
+          tokens[ti] = "t" + random.nextInt(15);
+        }
+
+        counter.add(tokens, 1, 2);
+        externalCounter.add(tokens, 1, 2);
+      }
+
+      assertTrue(externalCounter.getRunCount() > 9);
+
+      counter.cutoff(3, 30);
+
+      assertEquals(counter.toDictionary(true), externalCounter.toDictionary(true, 3, 30));
+      assertTrue(externalCounter.getRunCount() <= 3);
+
+      // the intermediate runs can be merged again
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      externalCounter.serialize(out, 3, 30);
+
+      NGramModel model = new NGramModel(new ByteArrayInputStream(out.toByteArray()));
+
+      assertEquals(counter.size(), model.size());
+
+      for (StringList ngram : counter) {
+        assertEquals(counter.getCount(ngram), model.getCount(ngram));
+      }
+    }
+    finally {
+      externalCounter.close();
+    }
+
+    assertEquals(0, externalCounter.getRunCount());
+  }
+
+  public void testTooFewOpenRuns() {
+    try {
+      new ExternalNGramCounter(10, 1, null);
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}
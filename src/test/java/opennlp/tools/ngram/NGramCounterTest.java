@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ngram;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import opennlp.tools.util.StringList;
+
+/**
+ * Tests for the {@link NGramCounter} class.
+ */
+public class NGramCounterTest extends TestCase {
+
+  private static String[] createTokens(Random random, int length) {
+    String tokens[] = new String[length];
+
+    for (int i = 0; i < tokens.length; i++) {
+      tokens[i] = "t" + random.nextInt(20);
+    }
+
+    return tokens;
+  }
+
+  public void testCount() {
+    NGramCounter counter = new NGramCounter();
+
+    counter.add(new String[] {"a", "b", "a", "b"}, 1, 2);
+
+    assertEquals(4, counter.size());
+    assertEquals(7, counter.numberOfGrams());
+    assertEquals(2, counter.getCount(new StringList("a")));
+    assertEquals(2, counter.getCount(new StringList(new String[] {"a", "b"})));
+    assertEquals(1, counter.getCount(new StringList(new String[] {"b", "a"})));
+    assertEquals(0, counter.getCount(new StringList(new String[] {"b", "b"})));
+    assertEquals(0, counter.getCount(new StringList("c")));
+  }
+
+  /**
+   * Compares the counter with the {@link NGramModel} on random tokens.
+   */
+  public void testSameCountsAsNGramModel() {
+    Random random = new Random(3);
+
+    NGramCounter counter = new NGramCounter();
+    NGramModel model = new NGramModel();
+
+    for (int i = 0; i < 200; i++) {
+      String tokens[] = createTokens(random, 1 + random.nextInt(10));
+
+      counter.add(tokens, 1, 3);
+      model.add(new StringList(tokens), 1, 3);
+    }
+
+    assertEquals(model.size(), counter.size());
+    assertEquals(model.numberOfGrams(), counter.numberOfGrams());
+
+    for (StringList ngram : model) {
+      assertEquals(model.getCount(ngram), counter.getCount(ngram));
+    }
+
+    counter.cutoff(3, 10);
+    model.cutoff(3, 10);
+
+    assertEquals(model.size(), counter.size());
+
+    for (Iterator<StringList> it = counter.iterator(); it.hasNext();) {
+      StringList ngram = it.next();
+      assertEquals(model.getCount(ngram), counter.getCount(ngram));
+    }
+
+    assertEquals(model.toDictionary(), counter.toDictionary());
+    assertEquals(model.toDictionary(true), counter.toDictionary(true));
+    assertEquals(model, counter.toNGramModel());
+
+    // the counter can be used after the cutoff
+    counter.add(new String[] {"x", "y"}, 0, 2, 4);
+    assertEquals(4, counter.getCount(new StringList(new String[] {"x", "y"})));
+  }
+
+  public void testMerge() {
+    NGramCounter counterA = new NGramCounter();
+    counterA.add(new String[] {"a", "b", "a"}, 1, 2);
+
+    NGramCounter counterB = new NGramCounter();
+    counterB.add(new String[] {"c", "a", "b"}, 1, 2);
+
+    counterA.merge(counterB);
+
+    assertEquals(3, counterA.getCount(new StringList("a")));
+    assertEquals(1, counterA.getCount(new StringList("c")));
+    assertEquals(2, counterA.getCount(new StringList(new String[] {"a", "b"})));
+    assertEquals(1, counterA.getCount(new StringList(new String[] {"c", "a"})));
+    assertEquals(10, counterA.numberOfGrams());
+
+    // the merged counter is not changed
+    assertEquals(5, counterB.numberOfGrams());
+  }
+
+  public void testCharacterNGrams() {
+    NGramCounter counter = new NGramCounter();
+    NGramModel model = new NGramModel();
+
+    counter.add("Abcab", 2, 3);
+    model.add("Abcab", 2, 3);
+
+    assertEquals(model, counter.toNGramModel());
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ngram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+import opennlp.tools.util.CollectionObjectStream;
+import opennlp.tools.util.StringList;
+
+/**
+ * Tests for the {@link ParallelNGramCounter} class.
+ */
+public class ParallelNGramCounterTest extends TestCase {
+
+  private static final ParallelNGramCounter.NGramExtractor EXTRACTOR =
+      new ParallelNGramCounter.NGramExtractor() {
+        public void addNGrams(String sample, NGramSink sink) {
+          sink.add(sample.split(" "), 1, 3);
+        }
+      };
+
+  private static List<String> createSamples() {
+    Random random = new Random(11);
+
+    List<String> samples = new ArrayList<String>();
+
+    for (int i = 0; i < 500; i++) {
+      StringBuilder sample = new StringBuilder("t" + random.nextInt(30));
+
+      for (int ti = random.nextInt(10); ti > 0; ti--) {
+        sample.append(" t").append(random.nextInt(30));
+      }
+
+      samples.add(sample.toString());
+    }
+
+    return samples;
+  }
+
+  private static void assertSameCounts(ExecutorService executor, int workers)
+      throws Exception {
+    List<String> samples = createSamples();
+
+    NGramCounter expected = new ParallelNGramCounter(null, 1, 1).count(
+        new CollectionObjectStream<String>(samples), EXTRACTOR);
+
+    NGramCounter counter = new ParallelNGramCounter(executor, workers, 7).count(
+        new CollectionObjectStream<String>(samples), EXTRACTOR);
+
+    assertEquals(expected.size(), counter.size());
+    assertEquals(expected.numberOfGrams(), counter.numberOfGrams());
+
+    for (StringList ngram : expected) {
+      assertEquals(expected.getCount(ngram), counter.getCount(ngram));
+    }
+  }
+
+  public void testSameCountsAsSequentialCounting() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    try {
+      assertSameCounts(executor, 3);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testFewerThreadsThanWorkers() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    try {
+      assertSameCounts(executor, 4);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Tests that the counting does not wait for an executor
+   * which cannot run any worker.
+   */
+  public void testBusyExecutor() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    final CountDownLatch release = new CountDownLatch(1);
+
+    executor.execute(new Runnable() {
+      public void run() {
+        try {
+          release.await();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    try {
+      assertSameCounts(executor, 2);
+    }
+    finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  public void testFailingWorker() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    try {
+      new ParallelNGramCounter(executor, 2, 1).count(
+          new CollectionObjectStream<String>(createSamples()),
+          new ParallelNGramCounter.NGramExtractor() {
+            public void addNGrams(String sample, NGramSink sink) {
+              throw new IllegalArgumentException(sample);
+            }
+          });
+
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      // expected, the exception of the worker
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testMergeNGramModels() {
+    NGramModel modelA = new NGramModel();
+    modelA.add(new StringList(new String[] {"a", "b", "a"}), 1, 2);
+
+    NGramModel modelB = new NGramModel();
+    modelB.add(new StringList(new String[] {"b", "c"}), 1, 2);
+
+    NGramModel merged = new NGramModel();
+    merged.add(new StringList(new String[] {"a", "b", "a"}), 1, 2);
+    merged.add(new StringList(new String[] {"b", "c"}), 1, 2);
+
+    modelA.merge(modelB);
+
+    assertEquals(merged, modelA);
+    assertEquals(2, modelA.getCount(new StringList("b")));
+  }
+}
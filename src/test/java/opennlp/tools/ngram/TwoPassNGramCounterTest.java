@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ngram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import opennlp.tools.util.CollectionObjectStream;
+import opennlp.tools.util.StringList;
+
+/**
+ * Tests for the {@link TwoPassNGramCounter} and the {@link CountMinSketch}.
+ */
+public class TwoPassNGramCounterTest extends TestCase {
+
+  private static final ParallelNGramCounter.NGramExtractor EXTRACTOR =
+      new ParallelNGramCounter.NGramExtractor() {
+        public void addNGrams(String sample, NGramSink sink) {
+          sink.add(sample.split(" "), 1, 3);
+        }
+      };
+
+  public void testEstimateIsNotLowerThanCount() {
+    CountMinSketch sketch = new CountMinSketch(64, 3);
+    NGramCounter counter = new NGramCounter();
+
+    Random random = new Random(13);
+
+    for (int i = 0; i < 5000; i++) {
+      String ngram[] = new String[] {"t" + random.nextInt(500)};
+
+      sketch.add(CountMinSketch.hash(ngram, 0, 1), 1);
+      counter.add(ngram, 0, 1, 1);
+    }
+
+    assertEquals(5000, sketch.getTotalCount());
+
+    for (StringList ngram : counter) {
+      assertTrue(sketch.estimate(CountMinSketch.hash(ngram)) >= counter.getCount(ngram));
+    }
+  }
+
+  public void testHashesAreConsistent() {
+    String tokens[] = new String[] {"a", "b", "c"};
+
+    assertEquals(CountMinSketch.hash(tokens, 1, 3),
+        CountMinSketch.hash(new StringList(new String[] {"b", "c"})));
+    assertEquals(CountMinSketch.hash(tokens, 0, 1), CountMinSketch.hash("a"));
+  }
+
+  public void testCreate() {
+    CountMinSketch sketch = CountMinSketch.create(0.001, 0.01);
+
+    assertTrue(sketch.getWidth() >= Math.E / 0.001);
+    assertEquals(5, sketch.getDepth());
+  }
+
+  public void testTooManyCounters() {
+    // the number of counters overflows to a negative and to a zero int
+    for (int depth : new int[] {2, 4}) {
+      try {
+        new CountMinSketch(1 << 30, depth);
+        fail();
+      }
+      catch (IllegalArgumentException e) {
+        // expected, the counters do not fit into an array
+      }
+    }
+  }
+
+  public void testSameNGramsAsExactCutoff() throws Exception {
+    Random random = new Random(17);
+
+    List<String> samples = new ArrayList<String>();
+
+    for (int i = 0; i < 1000; i++) {
+      StringBuilder sample = new StringBuilder("t" + random.nextInt(100));
+
+      for (int ti = random.nextInt(10); ti > 0; ti--) {
+        sample.append(" t").append((int) (200 * Math.pow(random.nextDouble(), 3)));
+      }
+
+      samples.add(sample.toString());
+    }
+
+    NGramCounter expected = new ParallelNGramCounter(null, 1, 1).count(
+        new CollectionObjectStream<String>(samples), EXTRACTOR);
+    expected.cutoff(5, 100);
+
+    // a small sketch overestimates many ngrams, the result must still be exact
+    NGramCounter counter = new TwoPassNGramCounter(new CountMinSketch(1024, 3)).count(
+        new CollectionObjectStream<String>(samples), EXTRACTOR, 5, 100);
+
+    assertEquals(expected.size(), counter.size());
+
+    for (StringList ngram : expected) {
+      assertEquals(expected.getCount(ngram), counter.getCount(ngram));
+    }
+  }
+}
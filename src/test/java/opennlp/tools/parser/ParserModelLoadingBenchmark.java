@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures the time {@link ParserModel#create(InputStream)} and
+ * {@link ParserModel#create(InputStream, ExecutorService)} need to load
+ * a parser model.
+ * <p>
+ * This is not a unit test, it must be started manually:<br>
+ * ParserModelLoadingBenchmark parserModel [threads] [iterations]
+ * <p>
+ * The model file is read into memory once, so the times do not include
+ * reading the file from disk.
+ */
+public class ParserModelLoadingBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 2;
+
+  private static byte[] readFile(String fileName) throws IOException {
+    InputStream in = new FileInputStream(fileName);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    byte[] buffer = new byte[8192];
+    int length;
+    while ((length = in.read(buffer)) > 0) {
+      bytes.write(buffer, 0, length);
+    }
+
+    in.close();
+
+    return bytes.toByteArray();
+  }
+
+  private static void benchmark(String name, byte[] model, ExecutorService executor,
+      int iterations) throws Exception {
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      ParserModel.create(new ByteArrayInputStream(model), executor);
+    }
+
+    long start = System.nanoTime();
+
+    for (int i = 0; i < iterations; i++) {
+      ParserModel.create(new ByteArrayInputStream(model), executor);
+    }
+
+    long time = System.nanoTime() - start;
+
+    System.out.println(name + ": " + time / iterations / 1000000 + " ms per model");
+  }
+
+  public static void main(String[] args) throws Exception {
+
+    if (args.length < 1) {
+      System.err.println("Usage: ParserModelLoadingBenchmark parserModel [threads] [iterations]");
+      System.exit(1);
+    }
+
+    byte[] model = readFile(args[0]);
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    if (args.length > 1) {
+      threads = Integer.parseInt(args[1]);
+    }
+
+    int iterations = 5;
+    if (args.length > 2) {
+      iterations = Integer.parseInt(args[2]);
+    }
+
+    benchmark("sequential", model, null, iterations);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    try {
+      benchmark("concurrent, " + threads + " threads", model, executor, iterations);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.parser.chunking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+import opennlp.maxent.GISModel;
+import opennlp.model.Context;
+import opennlp.tools.parser.AbstractBottomUpParser;
+import opennlp.tools.parser.Parse;
+import opennlp.tools.util.CompiledModel;
+import opennlp.tools.util.PredicateBuffer;
+
+/**
+ * Tests for the {@link CheckContextGenerator} class.
+ */
+public class CheckContextGeneratorTest extends TestCase {
+
+  private static final String[] TYPES = new String[] {"NP", "VP", "S"};
+
+  private static Parse[] createConstituents() {
+    Parse parse = Parse.parseParse("(TOP (S (NP (NNP Rockwell)) (, ,) (VP (VBD said) " +
+        "(SBAR (S (NP (DT the) (NN agreement)) (VP (VBZ calls) (PP (IN for) " +
+        "(NP (PRP it))))))) (. .)))");
+
+    Set<String> punctSet = new HashSet<String>();
+    punctSet.add(",");
+    punctSet.add(".");
+
+    Parse[] constituents = AbstractBottomUpParser.collapsePunctuation(parse.getTagNodes(), punctSet);
+    for (int i = 0; i < constituents.length; i++) {
+      constituents[i].setLabel(i % 2 == 0 ? "S-NP" : "C-VP");
+    }
+    return constituents;
+  }
+
+  /**
+   * Tests that the compiled context contains the same predicates as the
+   * String context for every proposed constituent.
+   */
+  public void testCompiledContext() {
+    CheckContextGenerator cg = new CheckContextGenerator();
+    Parse[] constituents = createConstituents();
+
+    List<String[]> contexts = new ArrayList<String[]>();
+    for (String type : TYPES) {
+      for (int start = 0; start < constituents.length; start++) {
+        for (int end = start; end < constituents.length; end++) {
+          contexts.add(cg.getContext(constituents, type, start, end));
+        }
+      }
+    }
+
+    Set<String> labels = new LinkedHashSet<String>();
+    for (String[] context : contexts) {
+      labels.addAll(Arrays.asList(context));
+    }
+
+    Context[] params = new Context[labels.size()];
+    for (int i = 0; i < params.length; i++) {
+      params[i] = new Context(new int[] {0}, new double[] {0});
+    }
+    CompiledModel model = CompiledModel.compile(new GISModel(params,
+        labels.toArray(new String[labels.size()]), new String[] {"a", "b"}, 1, 0));
+
+    PredicateBuffer predicates = new PredicateBuffer(model);
+
+    int c = 0;
+    for (String type : TYPES) {
+      for (int start = 0; start < constituents.length; start++) {
+        for (int end = start; end < constituents.length; end++) {
+          predicates.clear();
+          cg.getContext(constituents, type, start, end, predicates);
+
+          String[] expected = contexts.get(c++);
+          int[] expectedIndexes = new int[expected.length];
+          for (int i = 0; i < expected.length; i++) {
+            expectedIndexes[i] = model.getPredicateIndex(expected[i]);
+          }
+          int[] actualIndexes = new int[predicates.size()];
+          System.arraycopy(predicates.getPredicates(), 0, actualIndexes, 0, actualIndexes.length);
+
+          Arrays.sort(expectedIndexes);
+          Arrays.sort(actualIndexes);
+          assertTrue(Arrays.toString(expected), Arrays.equals(expectedIndexes, actualIndexes));
+        }
+      }
+    }
+  }
+}
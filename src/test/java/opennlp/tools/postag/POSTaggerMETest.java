@@ -21,8 +21,15 @@ package opennlp.tools.postag;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import junit.framework.TestCase;
+import opennlp.model.MaxentModel;
+import opennlp.tools.util.CompiledModel;
+import opennlp.tools.util.PredicateBuffer;
 
 /**
  * Tests for the {@link POSTaggerME} class.
@@ -66,4 +73,127 @@ public class POSTaggerMETest extends TestCase {
     assertEquals(tags[4], "VBN");
     assertEquals(tags[5], ".");
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests that one tagger can be used by many threads with
+   * {@link POSTaggerME#tagWithProbs(String[])}.
+   */
+  public void testTagWithProbsConcurrently() throws Exception {
+    POSModel posModel = trainPOSModel();
+
+    final POSTaggerME tagger = new POSTaggerME(posModel);
+
+    final String sentence[] = new String[] {"The", "driver", "got", "badly", "injured", "."};
+
+    final POSTaggingResult expected = tagger.tagWithProbs(sentence);
+
+    assertEquals(6, expected.size());
+    assertEquals("VBD", expected.getTag(2));
+    assertTrue(Arrays.equals(tagger.tag(sentence), expected.getTags()));
+
+    final boolean failed[] = new boolean[1];
+
+    Thread threads[] = new Thread[4];
+    for (int ti = 0; ti < threads.length; ti++) {
+      threads[ti] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 200; i++) {
+            POSTaggingResult result = tagger.tagWithProbs(sentence);
+
+            if (!Arrays.equals(expected.getTags(), result.getTags()) ||
+                !Arrays.equals(expected.getProbs(), result.getProbs())) {
+              synchronized (failed) {
+                failed[0] = true;
+              }
+            }
+          }
+        }
+      };
+      threads[ti].start();
+    }
+
+    for (int ti = 0; ti < threads.length; ti++) {
+      threads[ti].join();
+    }
+
+    synchronized (failed) {
+      assertFalse(failed[0]);
+    }
+  }
+
+  /**
+   * Tests that tagging many sentences at once gives the same
+   * results as tagging them one by one.
+   */
+  public void testTagWithProbsBatch() throws IOException {
+    POSTaggerME tagger = new POSTaggerME(trainPOSModel());
+
+    List<String[]> sentences = new ArrayList<String[]>();
+    sentences.add(new String[] {"The", "driver", "got", "badly", "injured", "."});
+    sentences.add(new String[] {"The", "driver", "got", "injured", "."});
+
+    List<POSTaggingResult> taggings = tagger.tagWithProbs(sentences);
+
+    assertEquals(2, taggings.size());
+
+    for (int si = 0; si < sentences.size(); si++) {
+      POSTaggingResult expected = tagger.tagWithProbs(sentences.get(si));
+
+      assertTrue(Arrays.equals(expected.getTags(), taggings.get(si).getTags()));
+      assertTrue(Arrays.equals(expected.getProbs(), taggings.get(si).getProbs()));
+    }
+  }
+
+  /**
+   * Tests that the compiled contexts of the {@link DefaultPOSContextGenerator}
+   * are evaluated like the String contexts.
+   */
+  public void testCompiledContexts() throws IOException {
+    POSModel posModel = trainPOSModel();
+
+    MaxentModel model = posModel.getPosModel();
+    CompiledModel compiledModel = CompiledModel.compile(model);
+
+    DefaultPOSContextGenerator cg =
+        new DefaultPOSContextGenerator(posModel.getNgramDictionary());
+
+    String[] sentence = new String[] {"The", "driver", "got", "badly", "injured", "."};
+    String[] tags = new String[] {"DT", "NN", "VBD", "RB", "VBN", "."};
+
+    PredicateBuffer predicates = new PredicateBuffer(compiledModel);
+
+    for (int i = 0; i < sentence.length; i++) {
+      predicates.clear();
+      cg.getContext(i, sentence, tags, null, predicates);
+
+      assertTrue(Arrays.equals(model.eval(cg.getContext(i, sentence, tags, null)),
+          predicates.eval(new double[model.getNumOutcomes()])));
+    }
+  }
+
+  /**
+   * Tests that the static and the history context of the
+   * {@link DefaultPOSContextGenerator} together are the context.
+   */
+  public void testSplitContexts() {
+    DefaultPOSContextGenerator cg = new DefaultPOSContextGenerator(null);
+
+    String[] sentence = new String[] {"The", "driver", "got", "badly", "injured", "."};
+    String[] tags = new String[] {"DT", "NN", "VBD", "RB", "VBN", "."};
+
+    for (int i = 0; i < sentence.length; i++) {
+      List<String> context = new ArrayList<String>(
+          Arrays.asList(cg.getStaticContext(i, sentence, null)));
+      context.addAll(Arrays.asList(cg.getHistoryContext(i, sentence, tags, null)));
+
+      List<String> expected = new ArrayList<String>(
+          Arrays.asList(cg.getContext(i, sentence, tags, null)));
+
+      Collections.sort(context);
+      Collections.sort(expected);
+
+      assertEquals(expected, context);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.tokenize;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link FastTokenContextGenerator} class.
+ */
+public class FastTokenContextGeneratorTest extends TestCase {
+
+  private static void assertSameContexts(String token) {
+    TokenContextGenerator expected = new DefaultTokenContextGenerator();
+    TokenContextGenerator actual = new FastTokenContextGenerator();
+
+    for (int i = 0; i < token.length(); i++) {
+      assertEquals(token + " at " + i,
+          Arrays.asList(expected.getContext(token, i)),
+          Arrays.asList(actual.getContext(token, i)));
+    }
+  }
+
+  public void testSameContexts() {
+    assertSameContexts("a");
+    assertSameContexts("year,");
+    assertSameContexts("It's");
+    assertSameContexts("(U.S.A.)");
+    assertSameContexts("&amp;");
+    assertSameContexts("`x'\"[y]{z}!?");
+    assertSameContexts("12,5%");
+    assertSameContexts("a\tb");
+    assertSameContexts("Straße-Ärger€");
+  }
+
+  public void testLongToken() {
+    StringBuilder token = new StringBuilder();
+
+    for (int i = 0; i < 50; i++) {
+      token.append("http://www.example.com/a-b_c");
+    }
+
+    assertSameContexts(token.toString());
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.tokenize;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the speed and the allocation rate of {@link TokenizerME#tokenizePos(String)}
+ * with the original String context generation, the {@link FastTokenContextGenerator}
+ * and the compiled model path.
+ * <p>
+ * This is not a unit test, it must be started manually:<br>
+ * TokenizerMEBenchmark tokenizerModel textFile [iterations]
+ * <p>
+ * The text file contains one sentence per line. The allocated bytes are
+ * only reported if the VM supports thread allocation counters.
+ */
+public class TokenizerMEBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 3;
+
+  private static List<String> readSentences(String fileName) throws IOException {
+    BufferedReader in = new BufferedReader(new InputStreamReader(
+        new FileInputStream(fileName), "UTF-8"));
+
+    List<String> sentences = new ArrayList<String>();
+
+    String line;
+    while ((line = in.readLine()) != null) {
+      if (line.trim().length() > 0) {
+        sentences.add(line);
+      }
+    }
+
+    in.close();
+
+    return sentences;
+  }
+
+  /**
+   * Retrieves the bytes allocated by the current thread with the
+   * com.sun.management extension, or -1 if it is not available.
+   */
+  private static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+    try {
+      Method method = Class.forName("com.sun.management.ThreadMXBean")
+          .getMethod("getThreadAllocatedBytes", long.class);
+      return (Long) method.invoke(bean, Thread.currentThread().getId());
+    }
+    catch (Exception e) {
+      return -1;
+    }
+  }
+
+  private static void benchmark(String name, TokenizerME tokenizer,
+      List<String> sentences, int iterations) {
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      for (String sentence : sentences) {
+        tokenizer.tokenizePos(sentence);
+      }
+    }
+
+    long tokens = 0;
+    long startBytes = allocatedBytes();
+    long start = System.nanoTime();
+
+    for (int i = 0; i < iterations; i++) {
+      for (String sentence : sentences) {
+        tokens += tokenizer.tokenizePos(sentence).length;
+      }
+    }
+
+    long time = System.nanoTime() - start;
+    long bytes = allocatedBytes() - startBytes;
+
+    String allocation = startBytes != -1 ? (bytes / tokens) + " bytes/token" : "n/a";
+
+    System.out.println(name + ": " + time / 1000000 + " ms, " +
+        (int) (tokens / (time / 1000000000d)) + " tokens/s, " + allocation);
+  }
+
+  public static void main(String[] args) throws Exception {
+
+    if (args.length < 2) {
+      System.err.println("Usage: TokenizerMEBenchmark tokenizerModel textFile [iterations]");
+      System.exit(1);
+    }
+
+    TokenizerModel model = new TokenizerModel(new FileInputStream(args[0]));
+    List<String> sentences = readSentences(args[1]);
+
+    int iterations = 10;
+    if (args.length > 2) {
+      iterations = Integer.parseInt(args[2]);
+    }
+
+    final TokenContextGenerator defaultCg = new DefaultTokenContextGenerator();
+
+    // hides the compiled path of the default context generator
+    TokenContextGenerator stringCg = new TokenContextGenerator() {
+      public String[] getContext(String sentence, int index) {
+        return defaultCg.getContext(sentence, index);
+      }
+    };
+
+    final TokenContextGenerator fastCg = new FastTokenContextGenerator();
+
+    TokenContextGenerator fastStringCg = new TokenContextGenerator() {
+      public String[] getContext(String sentence, int index) {
+        return fastCg.getContext(sentence, index);
+      }
+    };
+
+    benchmark("default", new TokenizerME(model, stringCg), sentences, iterations);
+    benchmark("fast", new TokenizerME(model, fastStringCg), sentences, iterations);
+    benchmark("compiled", new TokenizerME(model), sentences, iterations);
+  }
+}
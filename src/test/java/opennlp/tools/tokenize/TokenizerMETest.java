@@ -19,6 +19,7 @@
 package opennlp.tools.tokenize;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import junit.framework.TestCase;
 
@@ -64,4 +65,39 @@ public class TokenizerMETest extends TestCase {
     assertEquals("through", tokens[7]);
     assertEquals("!", tokens[8]);
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests that the compiled path and the String path of the default
+   * context generator produce the same tokens and probabilities.
+   */
+  public void testContextGeneratorsAgree() throws IOException {
+    TokenizerModel model = TokenizerTestUtil.createMaxentTokenModel();
+
+    final TokenContextGenerator defaultCg = new DefaultTokenContextGenerator();
+
+    // hides the compiled path of the default context generator
+    TokenContextGenerator stringCg = new TokenContextGenerator() {
+      public String[] getContext(String sentence, int index) {
+        return defaultCg.getContext(sentence, index);
+      }
+    };
+
+    TokenizerME reference = new TokenizerME(model, stringCg);
+    TokenizerME tokenizer = new TokenizerME(model);
+
+    String sentence = "Sounds like it's not (properly) thought through, " +
+        "e.g. at http://www.example.com/a-b!";
+
+    assertEquals(Arrays.asList(reference.tokenizePos(sentence)),
+        Arrays.asList(tokenizer.tokenizePos(sentence)));
+
+    double[] referenceProbs = reference.getTokenProbabilities();
+    double[] probs = tokenizer.getTokenProbabilities();
+
+    assertEquals(referenceProbs.length, probs.length);
+
+    for (int i = 0; i < probs.length; i++) {
+      assertEquals(referenceProbs[i], probs[i], 0.000000001d);
+    }
+  }
+}
@@ -20,10 +20,15 @@ package opennlp.tools.tokenize;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 import junit.framework.TestCase;
 import opennlp.tools.util.InvalidFormatException;
+import opennlp.tools.util.model.MappedModel;
 
 /**
  * Tests for the {@link TokenizerModel} class.
@@ -42,4 +47,44 @@ public class TokenizerModelTest extends TestCase {
 
     // TODO: check that both maxent models are equal
   }
-}
\ No newline at end of file
+
+  public void testMappedTokenizerModel() throws IOException, InvalidFormatException {
+
+    TokenizerModel model = TokenizerTestUtil.createMaxentTokenModel();
+
+    File modelFile = File.createTempFile("tokenizer", ".bin");
+    File zipModelFile = File.createTempFile("tokenizer", ".bin");
+
+    try {
+      OutputStream out = new FileOutputStream(modelFile);
+      model.serializeMapped(out);
+      out.close();
+
+      TokenizerModel mappedModel = new TokenizerModel(modelFile);
+
+      assertTrue(mappedModel.getMaxentModel() instanceof MappedModel);
+      assertEquals(model.useAlphaNumericOptimization(),
+          mappedModel.useAlphaNumericOptimization());
+
+      String sentence = "Sounds like it's not properly thought through!";
+
+      assertTrue(Arrays.equals(new TokenizerME(model).tokenizePos(sentence),
+          new TokenizerME(mappedModel).tokenizePos(sentence)));
+
+      // a mapped model can be serialized as zip package again
+      out = new FileOutputStream(zipModelFile);
+      mappedModel.serialize(out);
+      out.close();
+
+      TokenizerModel zipModel = new TokenizerModel(zipModelFile);
+
+      assertFalse(zipModel.getMaxentModel() instanceof MappedModel);
+      assertTrue(Arrays.equals(new TokenizerME(model).tokenizePos(sentence),
+          new TokenizerME(zipModel).tokenizePos(sentence)));
+    }
+    finally {
+      modelFile.delete();
+      zipModelFile.delete();
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import opennlp.tools.chunker.ChunkerModel;
+import opennlp.tools.chunker.DefaultChunkerContextGenerator;
+import opennlp.tools.postag.DefaultPOSContextGenerator;
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.postag.POSSample;
+import opennlp.tools.postag.WordTagSampleStream;
+
+/**
+ * Compares the decoding speed of the {@link BeamSearch} with the
+ * {@link SortingPruningStrategy} and the {@link SelectionPruningStrategy}
+ * on a pos tagger and a chunker model.
+ * <p>
+ * This is not a unit test, it must be started manually:<br>
+ * BeamSearchBenchmark posModel chunkerModel wordTagFile [iterations]
+ * <p>
+ * The word_tag file contains one tagged sentence per line, the tags
+ * are used as input for the chunker.
+ */
+public class BeamSearchBenchmark {
+
+  private static final int WARMUP_ITERATIONS = 3;
+
+  private static List<POSSample> readSamples(String fileName) throws IOException,
+      ObjectStreamException {
+
+    ObjectStream<POSSample> samples = new WordTagSampleStream(
+        new InputStreamReader(new FileInputStream(fileName), "UTF-8"));
+
+    List<POSSample> sampleList = new ArrayList<POSSample>();
+
+    POSSample sample;
+    while ((sample = samples.read()) != null) {
+      if (sample.getSentence().length > 0) {
+        sampleList.add(sample);
+      }
+    }
+
+    samples.close();
+
+    return sampleList;
+  }
+
+  private static long decode(BeamSearch<String> search, List<POSSample> samples,
+      boolean tagsAsContext, List<List<String>> outcomes) {
+
+    long start = System.nanoTime();
+
+    for (POSSample sample : samples) {
+      Object[] additionalContext = null;
+
+      if (tagsAsContext) {
+        additionalContext = new Object[] {sample.getTags()};
+      }
+
+      Sequence best = search.bestSequence(sample.getSentence(), additionalContext);
+
+      if (outcomes != null) {
+        outcomes.add(best.getOutcomes());
+      }
+    }
+
+    return System.nanoTime() - start;
+  }
+
+  private static void benchmark(String name, BeamSearch<String> sorting,
+      BeamSearch<String> selection, List<POSSample> samples,
+      boolean tagsAsContext, int iterations) {
+
+    List<List<String>> sortingOutcomes = new ArrayList<List<String>>();
+    List<List<String>> selectionOutcomes = new ArrayList<List<String>>();
+
+    decode(sorting, samples, tagsAsContext, sortingOutcomes);
+    decode(selection, samples, tagsAsContext, selectionOutcomes);
+
+    if (!sortingOutcomes.equals(selectionOutcomes)) {
+      System.out.println(name + ": WARNING, strategies produced different outcomes!");
+    }
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      decode(sorting, samples, tagsAsContext, null);
+      decode(selection, samples, tagsAsContext, null);
+    }
+
+    long sortingTime = 0;
+    long selectionTime = 0;
+
+    for (int i = 0; i < iterations; i++) {
+      sortingTime += decode(sorting, samples, tagsAsContext, null);
+      selectionTime += decode(selection, samples, tagsAsContext, null);
+    }
+
+    double sentences = (double) samples.size() * iterations;
+
+    System.out.println(name + " sorting:   " + sortingTime / 1000000 + " ms, " +
+        (int) (sentences / (sortingTime / 1000000000d)) + " sent/s");
+    System.out.println(name + " selection: " + selectionTime / 1000000 + " ms, " +
+        (int) (sentences / (selectionTime / 1000000000d)) + " sent/s");
+    System.out.println(name + " speedup:   " +
+        (double) sortingTime / selectionTime);
+  }
+
+  public static void main(String[] args) throws Exception {
+
+    if (args.length < 3) {
+      System.err.println("Usage: BeamSearchBenchmark posModel chunkerModel wordTagFile [iterations]");
+      System.exit(1);
+    }
+
+    POSModel posModel = new POSModel(new FileInputStream(args[0]));
+    ChunkerModel chunkerModel = new ChunkerModel(new FileInputStream(args[1]));
+    List<POSSample> samples = readSamples(args[2]);
+
+    int iterations = 10;
+    if (args.length > 3) {
+      iterations = Integer.parseInt(args[3]);
+    }
+
+    BeamPruningStrategy sorting = new SortingPruningStrategy();
+    BeamPruningStrategy selection = new SelectionPruningStrategy();
+
+    benchmark("pos", new BeamSearch<String>(3,
+        new DefaultPOSContextGenerator(posModel.getNgramDictionary()),
+        posModel.getPosModel(), null, 0, sorting),
+        new BeamSearch<String>(3,
+        new DefaultPOSContextGenerator(posModel.getNgramDictionary()),
+        posModel.getPosModel(), null, 0, selection),
+        samples, false, iterations);
+
+    benchmark("chunker", new BeamSearch<String>(10,
+        new DefaultChunkerContextGenerator(),
+        chunkerModel.getChunkerModel(), null, 0, sorting),
+        new BeamSearch<String>(10,
+        new DefaultChunkerContextGenerator(),
+        chunkerModel.getChunkerModel(), null, 0, selection),
+        samples, true, iterations);
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import opennlp.maxent.GISModel;
+import opennlp.model.Context;
+import opennlp.model.MaxentModel;
+
+/**
+ * Tests for the {@link BeamSearch} class.
+ */
+public class BeamSearchTest extends TestCase {
+
+  /**
+   * Context generator which uses the token and the previous outcome
+   * as context.
+   */
+  static class IdentityContextGenerator implements BeamSearchContextGenerator<String> {
+
+    public String[] getContext(int index, String[] sequence,
+        String[] priorDecisions, Object[] additionalContext) {
+
+      String prev = index > 0 ? priorDecisions[index - 1] : "*SB*";
+
+      return new String[] {"w=" + sequence[index], "p=" + prev};
+    }
+  }
+
+  /**
+   * The {@link IdentityContextGenerator} which also emits its
+   * context as predicate indexes.
+   */
+  static class CompiledIdentityContextGenerator extends IdentityContextGenerator
+      implements CompiledContextGenerator<String> {
+
+    public void getContext(int index, String[] sequence, String[] priorDecisions,
+        Object[] additionalContext, PredicateBuffer predicates) {
+
+      String[] context = getContext(index, sequence, priorDecisions, additionalContext);
+
+      for (int i = 0; i < context.length; i++) {
+        predicates.add(context[i]);
+      }
+    }
+  }
+
+  /**
+   * Creates a GIS model for the predicates of the {@link IdentityContextGenerator}.
+   */
+  static MaxentModel createGISModel() {
+    Context[] params = new Context[] {
+        new Context(new int[] {0, 1, 2}, new double[] {0.5, 0.3, -0.4}),
+        new Context(new int[] {0, 1}, new double[] {-0.2, 0.6}),
+        new Context(new int[] {0, 2}, new double[] {0.8, 0.1}),
+        new Context(new int[] {2}, new double[] {1.7}),
+        new Context(new int[] {1, 2}, new double[] {0.4, -0.9})
+    };
+
+    return new GISModel(params, new String[] {"w=1", "w=2", "p=a", "p=b", "p=c"},
+        new String[] {"a", "b", "c"}, 2, 0.3);
+  }
+
+  /**
+   * Model which assigns a fixed distribution to every token. If the
+   * previous outcome was <code>b</code> the outcome <code>c</code> gets
+   * a very high probability.
+   */
+  static class FixedDistributionModel implements MaxentModel {
+
+    private String[] outcomes = new String[] {"a", "b", "c"};
+
+    private Map<String, double[]> distributions = new HashMap<String, double[]>();
+
+    FixedDistributionModel() {
+      distributions.put("w=1", new double[] {0.5, 0.4, 0.1});
+      distributions.put("w=2", new double[] {0.6, 0.3, 0.1});
+    }
+
+    public double[] eval(String[] context) {
+      return eval(context, new double[outcomes.length]);
+    }
+
+    public double[] eval(String[] context, double[] probs) {
+      double[] dist = distributions.get(context[0]);
+
+      if ("p=b".equals(context[1])) {
+        dist = new double[] {0.05, 0.05, 0.9};
+      }
+
+      System.arraycopy(dist, 0, probs, 0, dist.length);
+      return probs;
+    }
+
+    public double[] eval(String[] context, float[] probs) {
+      return eval(context);
+    }
+
+    public String getAllOutcomes(double[] outcomes) {
+      return Arrays.toString(outcomes);
+    }
+
+    public String getBestOutcome(double[] outcomes) {
+      int best = 0;
+      for (int i = 1; i < outcomes.length; i++) {
+        if (outcomes[i] > outcomes[best])
+          best = i;
+      }
+      return getOutcome(best);
+    }
+
+    public Object[] getDataStructures() {
+      return null;
+    }
+
+    public int getIndex(String outcome) {
+      return Arrays.asList(outcomes).indexOf(outcome);
+    }
+
+    public int getNumOutcomes() {
+      return outcomes.length;
+    }
+
+    public String getOutcome(int i) {
+      return outcomes[i];
+    }
+  }
+
+  /**
+   * Tests that the best sequence is found even if it starts
+   * with an outcome which is not the locally best one.
+   */
+  public void testBestSequence() {
+    BeamSearch<String> search = new BeamSearch<String>(3,
+        new IdentityContextGenerator(), new FixedDistributionModel());
+
+    Sequence sequence = search.bestSequence(new String[] {"1", "2"}, null);
+
+    // a,a = 0.5 * 0.6 = 0.3 is worse than b,c = 0.4 * 0.9 = 0.36
+    assertEquals(Arrays.asList("b", "c"), sequence.getOutcomes());
+    assertTrue(Arrays.equals(new double[] {0.4, 0.9}, sequence.getProbs()));
+    assertEquals(Math.log(0.4) + Math.log(0.9), sequence.getScore(), 0.000001d);
+  }
+
+  /**
+   * Tests that the top sequences are returned in descending score order.
+   */
+  public void testBestSequences() {
+    BeamSearch<String> search = new BeamSearch<String>(3,
+        new IdentityContextGenerator(), new FixedDistributionModel());
+
+    Sequence[] sequences = search.bestSequences(3, new String[] {"1", "2"}, null);
+
+    assertEquals(3, sequences.length);
+    assertEquals(Arrays.asList("b", "c"), sequences[0].getOutcomes());
+    assertEquals(Arrays.asList("a", "a"), sequences[1].getOutcomes());
+
+    for (int i = 1; i < sequences.length; i++) {
+      assertTrue(sequences[i - 1].getScore() >= sequences[i].getScore());
+    }
+  }
+
+  /**
+   * Tests that outcomes rejected by the {@link SequenceValidator}
+   * are never part of a returned sequence.
+   */
+  public void testSequenceValidator() {
+    SequenceValidator<String> noB = new SequenceValidator<String>() {
+      public boolean validSequence(int i, String[] inputSequence,
+          String[] outcomesSequence, String outcome) {
+        return !"b".equals(outcome);
+      }
+    };
+
+    BeamSearch<String> search = new BeamSearch<String>(3,
+        new IdentityContextGenerator(), new FixedDistributionModel(), noB, 0);
+
+    Sequence sequence = search.bestSequence(new String[] {"1", "2"}, null);
+
+    assertEquals(Arrays.asList("a", "a"), sequence.getOutcomes());
+  }
+
+  /**
+   * Tests that an empty input sequence results in an empty outcome sequence.
+   */
+  public void testEmptySequence() {
+    BeamSearch<String> search = new BeamSearch<String>(3,
+        new IdentityContextGenerator(), new FixedDistributionModel());
+
+    Sequence sequence = search.bestSequence(new String[0], null);
+
+    assertEquals(0, sequence.getOutcomes().size());
+  }
+
+  /**
+   * Tests that the batch search finds the same sequences as
+   * the search of the single input sequences.
+   */
+  public void testBatchSearch() {
+    BeamSearch<String> search = new BeamSearch<String>(3,
+        new IdentityContextGenerator(), new FixedDistributionModel());
+
+    List<String[]> sequences = new ArrayList<String[]>();
+    sequences.add(new String[] {"1", "2"});
+    sequences.add(new String[0]);
+    sequences.add(new String[] {"2", "1", "1", "2", "1"});
+    sequences.add(new String[] {"1"});
+
+    List<Sequence[]> batchSequences = search.bestSequences(3, sequences, null);
+
+    assertEquals(sequences.size(), batchSequences.size());
+
+    for (int si = 0; si < sequences.size(); si++) {
+      Sequence[] expected = search.bestSequences(3, sequences.get(si), null);
+      Sequence[] actual = batchSequences.get(si);
+
+      assertEquals(expected.length, actual.length);
+
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals(expected[i].getOutcomes(), actual[i].getOutcomes());
+        assertEquals(expected[i].getScore(), actual[i].getScore(), 0d);
+      }
+    }
+  }
+
+  /**
+   * Tests that the batch search evaluates compiled contexts like
+   * the search of the single input sequences evaluates the context strings.
+   */
+  public void testCompiledBatchSearch() {
+    MaxentModel model = createGISModel();
+
+    BeamSearch<String> search = new BeamSearch<String>(2,
+        new CompiledIdentityContextGenerator(), model);
+
+    // the contexts of this search are evaluated as strings
+    BeamSearch<String> stringSearch = new BeamSearch<String>(2,
+        new IdentityContextGenerator(), model);
+
+    List<String[]> sequences = new ArrayList<String[]>();
+    sequences.add(new String[] {"1", "2", "2"});
+    sequences.add(new String[] {"2", "1", "1", "2", "1"});
+    sequences.add(new String[] {"1"});
+
+    List<Sequence[]> batchSequences = search.bestSequences(2, sequences, null);
+
+    for (int si = 0; si < sequences.size(); si++) {
+      Sequence[] expected = stringSearch.bestSequences(2, sequences.get(si), null);
+      Sequence[] actual = batchSequences.get(si);
+
+      assertEquals(expected.length, actual.length);
+
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals(expected[i].getOutcomes(), actual[i].getOutcomes());
+        assertEquals(expected[i].getScore(), actual[i].getScore(), 0.000000001d);
+      }
+    }
+  }
+
+  /**
+   * Tests that the validator and the context generator get the outcomes
+   * before the position in an array of exactly that length.
+   */
+  public void testOutcomesHaveExactLength() {
+    SequenceValidator<String> validator = new SequenceValidator<String>() {
+      public boolean validSequence(int i, String[] inputSequence,
+          String[] outcomesSequence, String outcome) {
+        assertEquals(i, outcomesSequence.length);
+        return true;
+      }
+    };
+
+    CompiledIdentityContextGenerator cg = new CompiledIdentityContextGenerator() {
+      public void getContext(int index, String[] sequence, String[] priorDecisions,
+          Object[] additionalContext, PredicateBuffer predicates) {
+        assertEquals(index, priorDecisions.length);
+        super.getContext(index, sequence, priorDecisions, additionalContext, predicates);
+      }
+    };
+
+    BeamSearch<String> search = new BeamSearch<String>(3, cg, createGISModel(),
+        validator, 0);
+
+    List<String[]> sequences = new ArrayList<String[]>();
+    sequences.add(new String[] {"1", "2", "2", "1"});
+    sequences.add(new String[] {"2", "1"});
+
+    search.bestSequences(3, sequences, null);
+    search.bestSequences(3, sequences.get(0), null);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link BoundedMinMaxHeap} class.
+ */
+public class BoundedMinMaxHeapTest extends TestCase {
+
+  public void testMinAndMax() {
+    BoundedMinMaxHeap<String> heap = new BoundedMinMaxHeap<String>(5);
+
+    heap.add(0.3, "c");
+    heap.add(0.1, "a");
+    heap.add(0.5, "e");
+    heap.add(0.2, "b");
+
+    assertEquals(4, heap.size());
+    assertEquals("a", heap.getMin());
+    assertEquals(0.1, heap.getMinScore(), 0d);
+    assertEquals("e", heap.getMax());
+    assertEquals(0.5, heap.getMaxScore(), 0d);
+
+    assertEquals("e", heap.removeMax());
+    assertEquals("a", heap.removeMin());
+    assertEquals("c", heap.removeMax());
+    assertEquals("b", heap.removeMax());
+    assertTrue(heap.isEmpty());
+  }
+
+  /**
+   * Tests that a full heap evicts the lowest scoring entry.
+   */
+  public void testEviction() {
+    BoundedMinMaxHeap<Object> heap = new BoundedMinMaxHeap<Object>(2);
+
+    assertTrue(heap.add(1d, 1));
+    assertTrue(heap.add(2d, 2));
+    assertTrue(heap.isFull());
+
+    assertFalse(heap.accepts(1d));
+    assertFalse(heap.add(0.5d, 3));
+
+    assertTrue(heap.add(3d, 4));
+    assertEquals(2, heap.size());
+    assertEquals(2, heap.getMinValue());
+    assertEquals(4, heap.getMaxValue());
+  }
+
+  /**
+   * Tests that the heap keeps the highest scores of random input and
+   * returns them in order after it was reused.
+   */
+  public void testRandomScores() {
+    Random random = new Random(7);
+
+    BoundedMinMaxHeap<Object> heap = new BoundedMinMaxHeap<Object>(13);
+
+    for (int round = 0; round < 50; round++) {
+      heap.clear();
+
+      List<Double> scores = new ArrayList<Double>();
+      int n = random.nextInt(40);
+
+      for (int i = 0; i < n; i++) {
+        double score = random.nextInt(20);
+        scores.add(score);
+        heap.add(score, i);
+      }
+
+      Collections.sort(scores);
+      Collections.reverse(scores);
+      List<Double> expected = scores.subList(0, Math.min(13, scores.size()));
+
+      assertEquals(expected.size(), heap.size());
+
+      // remove from both ends alternately
+      int low = expected.size() - 1;
+      int high = 0;
+      while (!heap.isEmpty()) {
+        if (heap.size() % 2 == 0) {
+          assertEquals(expected.get(high++), heap.getMaxScore(), 0d);
+          heap.removeMax();
+        }
+        else {
+          assertEquals(expected.get(low--), heap.getMinScore(), 0d);
+          heap.removeMin();
+        }
+      }
+    }
+  }
+
+  public void testUnderflow() {
+    BoundedMinMaxHeap<Object> heap = new BoundedMinMaxHeap<Object>(1);
+
+    try {
+      heap.removeMax();
+      fail();
+    }
+    catch (RuntimeException e) {
+      // expected
+    }
+  }
+}
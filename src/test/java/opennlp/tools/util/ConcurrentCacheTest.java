@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link ConcurrentCache} class.
+ */
+public class ConcurrentCacheTest extends TestCase {
+
+  public void testGetAndPut() {
+    ConcurrentCache<String, Integer> cache = new ConcurrentCache<String, Integer>(10);
+
+    assertNull(cache.get("a"));
+    assertNull(cache.put("a", 1));
+    assertEquals(Integer.valueOf(1), cache.get("a"));
+    assertEquals(Integer.valueOf(1), cache.put("a", 2));
+    assertEquals(Integer.valueOf(2), cache.get("a"));
+
+    assertEquals(2, cache.getNumberOfCacheHits());
+    assertEquals(1, cache.getNumberOfCacheMisses());
+
+    assertEquals(Integer.valueOf(2), cache.remove("a"));
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+  }
+
+  /**
+   * Tests that the number of entries never exceeds the bound.
+   */
+  public void testSizeBound() {
+    ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>(100);
+
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i, i);
+      assertTrue(cache.size() <= 100);
+    }
+
+    assertEquals(1000 - cache.size(), cache.getNumberOfEvictions());
+  }
+
+  /**
+   * Tests that frequently used entries survive a scan over many
+   * entries which are used only once.
+   */
+  public void testFrequentEntriesSurviveScan() {
+    ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>(50);
+
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 10; i++) {
+        if (cache.get(i) == null) {
+          cache.put(i, i);
+        }
+      }
+    }
+
+    for (int i = 1000; i < 2000; i++) {
+      cache.put(i, i);
+    }
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(Integer.valueOf(i), cache.get(i));
+    }
+  }
+
+  /**
+   * Tests the bound of a weighted cache.
+   */
+  public void testWeightBound() {
+    ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>(100,
+        new ConcurrentCache.Weigher<String, String>() {
+          public int weigh(String key, String value) {
+            return value.length();
+          }
+        }, 1);
+
+    for (int i = 0; i < 100; i++) {
+      cache.put("key" + i, "0123456789");
+      assertTrue(cache.weightedSize() <= 100);
+    }
+
+    // an entry which is heavier than the cache is not stored
+    cache.put("heavy", new String(new char[200]));
+    assertNull(cache.get("heavy"));
+  }
+
+  /**
+   * Tests that a candidate which is more popular than the first victim is
+   * admitted, even if it has to evict more popular entries to fit.
+   */
+  public void testAdmissionComparesWithFirstVictim() {
+    ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>(10,
+        new ConcurrentCache.Weigher<String, String>() {
+          public int weigh(String key, String value) {
+            return value.length();
+          }
+        }, 1);
+
+    cache.put("cold", "x");
+
+    for (int i = 0; i < 8; i++) {
+      cache.put("hot" + i, "x");
+    }
+
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 8; i++) {
+        assertNotNull(cache.get("hot" + i));
+      }
+    }
+
+    cache.get("candidate");
+    cache.get("candidate");
+    cache.put("candidate", "xxx");
+
+    assertNull(cache.get("cold"));
+    assertEquals("xxx", cache.get("candidate"));
+    assertTrue(cache.weightedSize() <= 10);
+  }
+
+  public void testClear() {
+    ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>(10);
+
+    cache.put(1, 1);
+    cache.clear();
+
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.weightedSize());
+    assertNull(cache.get(1));
+  }
+
+  /**
+   * Tests that many threads can use the cache at the same time.
+   */
+  public void testConcurrentAccess() throws InterruptedException {
+    final ConcurrentCache<Integer, Integer> cache =
+        new ConcurrentCache<Integer, Integer>(1000);
+
+    final boolean[] failed = new boolean[1];
+
+    Thread[] threads = new Thread[4];
+    for (int ti = 0; ti < threads.length; ti++) {
+      final int offset = ti;
+      threads[ti] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 20000; i++) {
+            int key = (i * 7 + offset) % 3000;
+            Integer value = cache.get(key);
+            if (value == null) {
+              cache.put(key, key);
+            }
+            else if (value.intValue() != key) {
+              synchronized (failed) {
+                failed[0] = true;
+              }
+            }
+          }
+        }
+      };
+      threads[ti].start();
+    }
+
+    for (int ti = 0; ti < threads.length; ti++) {
+      threads[ti].join();
+    }
+
+    synchronized (failed) {
+      assertFalse(failed[0]);
+    }
+    assertTrue(cache.size() <= 1000);
+  }
+}
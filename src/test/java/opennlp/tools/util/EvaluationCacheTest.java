@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import junit.framework.TestCase;
+import opennlp.model.MaxentModel;
+
+/**
+ * Tests for the {@link EvaluationCache} class.
+ */
+public class EvaluationCacheTest extends TestCase {
+
+  private MaxentModel model = new BeamSearchTest.FixedDistributionModel();
+
+  /**
+   * Tests that contexts with equal content but different array
+   * identities are answered from the cache.
+   */
+  public void testContentEquality() {
+    EvaluationCache cache = new EvaluationCache(1024 * 1024);
+
+    double[] first = cache.eval(model, new String[] {"w=1", "p=a"});
+    double[] second = cache.eval(model, new String[] {"w=1", "p=a"});
+
+    assertSame(first, second);
+    assertEquals(1, cache.getNumberOfCacheHits());
+    assertEquals(1, cache.getNumberOfCacheMisses());
+    assertEquals(0.5d, cache.getHitRate(), 0d);
+
+    double[] third = cache.eval(model, new String[] {"w=1", "p=b"});
+
+    assertNotSame(first, third);
+    assertEquals(0.9d, third[2], 0d);
+    assertEquals(2, cache.getNumberOfCacheMisses());
+  }
+
+  /**
+   * Tests that the cache stays below the memory bound and that
+   * a frequently used context replaces a rarely used one.
+   */
+  public void testMemoryBound() {
+    EvaluationCache cache = new EvaluationCache(600);
+
+    cache.eval(model, new String[] {"w=1", "p=a"});
+    cache.eval(model, new String[] {"w=2", "p=a"});
+    cache.eval(model, new String[] {"w=1", "p=b"});
+    cache.eval(model, new String[] {"w=2", "p=b"});
+
+    assertTrue(cache.getMemoryUsage() <= 600);
+    assertTrue(cache.getNumberOfEvictions() > 0);
+    assertEquals(4 - cache.getNumberOfEvictions(), cache.size());
+
+    for (int i = 0; i < 5; i++) {
+      cache.eval(model, new String[] {"w=2", "p=b"});
+    }
+
+    long hits = cache.getNumberOfCacheHits();
+    cache.eval(model, new String[] {"w=2", "p=b"});
+    assertEquals(hits + 1, cache.getNumberOfCacheHits());
+    assertTrue(cache.getMemoryUsage() <= 600);
+  }
+
+  /**
+   * Tests that a {@link BeamSearch} with a cache finds the same sequence.
+   */
+  public void testBeamSearchWithCache() {
+    EvaluationCache cache = new EvaluationCache(1024 * 1024);
+
+    BeamSearch<String> search = new BeamSearch<String>(3,
+        new BeamSearchTest.IdentityContextGenerator(), model, null, cache,
+        new SelectionPruningStrategy());
+
+    Sequence sequence = search.bestSequence(new String[] {"1", "2", "1", "2"}, null);
+
+    assertEquals(sequence.getOutcomes(),
+        search.bestSequence(new String[] {"1", "2", "1", "2"}, null).getOutcomes());
+    assertTrue(cache.getNumberOfCacheHits() > 0);
+  }
+}
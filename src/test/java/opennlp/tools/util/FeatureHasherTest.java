@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link FeatureHasher} class.
+ */
+public class FeatureHasherTest extends TestCase {
+
+  public void testBuckets() {
+    FeatureHasher hasher = new FeatureHasher(4);
+
+    assertEquals(16, hasher.getNumberOfBuckets());
+
+    Set<String> hashedFeatures = new HashSet<String>();
+
+    for (int i = 0; i < 1000; i++) {
+      String feature = "w=" + i;
+
+      int bucket = hasher.bucket(feature);
+      assertTrue(bucket >= 0 && bucket < 16);
+
+      String hashedFeature = hasher.hash(feature);
+      assertEquals(FeatureHasher.HASHED_FEATURE_PREFIX + bucket, hashedFeature);
+      assertSame(hashedFeature, hasher.hash(feature));
+
+      hashedFeatures.add(hashedFeature);
+    }
+
+    // the features are spread over all buckets
+    assertEquals(16, hashedFeatures.size());
+  }
+
+  /**
+   * The buckets are part of the model format, they must not change.
+   */
+  public void testStableBuckets() {
+    FeatureHasher hasher = new FeatureHasher(20);
+
+    assertEquals(hasher.bucket("w=house"), new FeatureHasher(20).bucket("w=house"));
+    assertEquals(hasher.bucket("w=house") & 0xff, new FeatureHasher(8).bucket("w=house"));
+    assertFalse(hasher.bucket("w=house") == hasher.bucket("w=House"));
+  }
+
+  public void testHashArray() {
+    FeatureHasher hasher = new FeatureHasher(24);
+
+    String[] hashedFeatures = hasher.hash(new String[] {"a", "b"});
+
+    assertEquals(2, hashedFeatures.length);
+    assertEquals(hasher.hash("a"), hashedFeatures[0]);
+    assertEquals(hasher.hash("b"), hashedFeatures[1]);
+  }
+
+  public void testInvalidBits() {
+    try {
+      new FeatureHasher(0);
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    try {
+      new FeatureHasher(31);
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package opennlp.tools.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link FrequencySketch} class.
+ */
+public class FrequencySketchTest extends TestCase {
+
+  /**
+   * Tests that the counters are capped at 15 and that the counters
+   * which share a byte do not influence each other.
+   */
+  public void testIncrement() {
+    FrequencySketch sketch = new FrequencySketch(1000);
+
+    for (int i = 0; i < 20; i++) {
+      sketch.increment(1);
+    }
+    sketch.increment(2);
+
+    assertEquals(15, sketch.frequency(1));
+    assertEquals(1, sketch.frequency(2));
+    assertEquals(0, sketch.frequency(3));
+
+    sketch.clear();
+    assertEquals(0, sketch.frequency(1));
+    assertEquals(0, sketch.frequency(2));
+  }
+
+  /**
+   * Tests that all counters are halved when the sample size is reached.
+   */
+  public void testReset() {
+    FrequencySketch sketch = new FrequencySketch(1000);
+
+    int hotHashes = 2000;
+    for (int hash = 0; hash < hotHashes; hash++) {
+      for (int i = 0; i < 15; i++) {
+        sketch.increment(hash);
+      }
+    }
+
+    int hash = hotHashes;
+    while (sketch.frequency(0) == 15 && hash < 100000) {
+      sketch.increment(hash++);
+    }
+
+    for (hash = 0; hash < hotHashes; hash++) {
+      assertEquals(7, sketch.frequency(hash));
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import opennlp.maxent.GISModel;
+import opennlp.model.Context;
+import opennlp.model.MaxentModel;
+import opennlp.perceptron.PerceptronModel;
+
+/**
+ * Tests for the {@link PredicateBuffer} and the {@link CompiledModel} classes.
+ */
+public class PredicateBufferTest extends TestCase {
+
+  private static MaxentModel createModel() {
+    Context[] params = new Context[] {
+        new Context(new int[] {0, 1}, new double[] {0.5, -0.2}),
+        new Context(new int[] {1}, new double[] {1.3}),
+        new Context(new int[] {0, 2}, new double[] {-0.7, 0.4}),
+        new Context(new int[] {2}, new double[] {2.1})
+    };
+
+    return new GISModel(params, new String[] {"w=the", "w=dog", "n=-12", "default"},
+        new String[] {"a", "b", "c"}, 1, 0);
+  }
+
+  public void testPredicateIndexes() {
+    CompiledModel model = CompiledModel.compile(createModel());
+
+    PredicateBuffer predicates = new PredicateBuffer(model);
+
+    predicates.start().append("w=").append("the").add();
+    predicates.start().append("w=").append("cat").add();
+    predicates.setLength(2).append("dog").add();
+    predicates.start().append("n=").append(-12).add();
+    predicates.add("default");
+
+    assertEquals(4, predicates.size());
+    assertEquals(0, predicates.getPredicates()[0]);
+    assertEquals(1, predicates.getPredicates()[1]);
+    assertEquals(2, predicates.getPredicates()[2]);
+    assertEquals(3, predicates.getPredicates()[3]);
+
+    assertEquals("n=-12", predicates.toString());
+
+    predicates.clear();
+    assertEquals(0, predicates.size());
+  }
+
+  /**
+   * Tests that the evaluation of the predicate indexes gives the same
+   * result as the evaluation of the predicate strings.
+   */
+  public void testEval() {
+    MaxentModel model = createModel();
+
+    PredicateBuffer predicates = new PredicateBuffer(CompiledModel.compile(model));
+
+    String[] context = new String[] {"default", "w=dog", "unknown", "n=-12", "w=dog"};
+
+    for (int i = 0; i < context.length; i++) {
+      predicates.start().append(context[i]).add();
+    }
+
+    double[] expected = model.eval(context);
+    double[] actual = predicates.eval(new double[model.getNumOutcomes()]);
+
+    assertTrue(Arrays.equals(expected, actual));
+  }
+
+  /**
+   * Tests that a perceptron model is evaluated like the predicate strings,
+   * also if the context array is longer than the context.
+   */
+  public void testEvalPerceptron() {
+    Context[] params = new Context[] {
+        new Context(new int[] {0, 1}, new double[] {0.5, -0.2}),
+        new Context(new int[] {1, 2}, new double[] {1.3, -2.4})
+    };
+
+    MaxentModel model = new PerceptronModel(params, new String[] {"w=the", "w=dog"},
+        new String[] {"a", "b", "c"});
+
+    CompiledModel compiledModel = CompiledModel.compile(model);
+
+    int[] context = new int[] {1, 0, 1, 0};
+
+    double[] expected = model.eval(new String[] {"w=dog", "w=the", "w=dog"});
+    double[] actual = compiledModel.eval(context, 3, new double[model.getNumOutcomes()]);
+
+    assertTrue(Arrays.equals(expected, actual));
+  }
+
+  public void testCompileOnce() {
+    MaxentModel model = createModel();
+
+    assertSame(CompiledModel.compile(model), CompiledModel.compile(model));
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link SelectionPruningStrategy} class.
+ */
+public class SelectionPruningStrategyTest extends TestCase {
+
+  /**
+   * Tests that the threshold is identical to the one computed by
+   * the {@link SortingPruningStrategy} for heap and quickselect sizes.
+   */
+  public void testThresholdMatchesSorting() {
+    BeamPruningStrategy sorting = new SortingPruningStrategy();
+    BeamPruningStrategy selection = new SelectionPruningStrategy();
+
+    Random random = new Random(42);
+
+    int[] sizes = new int[] {1, 2, 3, 10, 37, 300};
+    int[] ks = new int[] {1, 3, 10, 20};
+
+    for (int si = 0; si < sizes.length; si++) {
+      double[] scores = new double[sizes[si]];
+      double[] buffer = new double[sizes[si]];
+
+      for (int round = 0; round < 50; round++) {
+        for (int i = 0; i < scores.length; i++) {
+          // a coarse grid produces duplicate scores
+          scores[i] = random.nextInt(20) / 20d;
+        }
+
+        double[] copy = (double[]) scores.clone();
+
+        for (int ki = 0; ki < ks.length; ki++) {
+          assertEquals(sorting.threshold(scores, ks[ki], buffer),
+              selection.threshold(scores, ks[ki], buffer), 0d);
+        }
+
+        // the scores must not be modified
+        for (int i = 0; i < scores.length; i++) {
+          assertEquals(copy[i], scores[i], 0d);
+        }
+      }
+    }
+  }
+}
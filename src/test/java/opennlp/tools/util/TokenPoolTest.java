@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the {@link TokenPool} class.
+ */
+public class TokenPoolTest extends TestCase {
+
+  public void testSharesEqualTokens() {
+    TokenPool pool = new TokenPool(16);
+
+    String token = new String("token");
+
+    assertSame(token, pool.get(token));
+    assertSame(token, pool.get(new String("token")));
+  }
+
+  public void testReturnsEqualTokenOnCollision() {
+    TokenPool pool = new TokenPool(1);
+
+    assertEquals(1, pool.getCapacity());
+
+    String a = new String("a");
+
+    assertSame(a, pool.get(a));
+    assertEquals("b", pool.get("b"));
+
+    String otherA = new String("a");
+
+    // "b" replaced "a" in the only slot
+    assertSame(otherA, pool.get(otherA));
+  }
+
+  public void testStringListSharesTokens() {
+    StringList a = new StringList(new String("a"), new String("b"));
+    StringList b = new StringList(new String("a"), new String("b"));
+
+    assertEquals(a, b);
+    assertSame(a.getToken(0), b.getToken(0));
+    assertSame(a.getToken(1), b.getToken(1));
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+import opennlp.model.MaxentModel;
+import opennlp.tools.util.BeamSearchTest.FixedDistributionModel;
+import opennlp.tools.util.BeamSearchTest.IdentityContextGenerator;
+
+/**
+ * Tests for the {@link ViterbiSearch} class.
+ */
+public class ViterbiSearchTest extends TestCase {
+
+  /**
+   * The {@link IdentityContextGenerator} only looks at the previous outcome.
+   */
+  static class FirstOrderContextGenerator extends IdentityContextGenerator
+      implements BoundedHistoryContextGenerator<String> {
+
+    public int getHistoryOrder() {
+      return 1;
+    }
+  }
+
+  /**
+   * The {@link FirstOrderContextGenerator} which generates the word and
+   * the previous outcome predicate separately.
+   */
+  static class SplitFirstOrderContextGenerator extends FirstOrderContextGenerator
+      implements SplitContextGenerator<String> {
+
+    public String[] getStaticContext(int index, String[] sequence,
+        Object[] additionalContext) {
+      return new String[] {"w=" + sequence[index]};
+    }
+
+    public String[] getHistoryContext(int index, String[] sequence,
+        String[] priorDecisions, Object[] additionalContext) {
+
+      String prev = index > 0 ? priorDecisions[index - 1] : "*SB*";
+
+      return new String[] {"p=" + prev};
+    }
+  }
+
+  /**
+   * Computes the score of the best sequence by trying all outcome sequences.
+   */
+  private static double exhaustiveBestScore(MaxentModel model,
+      BeamSearchContextGenerator<String> cg, String[] sequence) {
+
+    int numOutcomes = model.getNumOutcomes();
+
+    int numSequences = 1;
+    for (int i = 0; i < sequence.length; i++) {
+      numSequences *= numOutcomes;
+    }
+
+    double bestScore = Double.NEGATIVE_INFINITY;
+
+    for (int s = 0; s < numSequences; s++) {
+      String[] outcomes = new String[sequence.length];
+      double score = 0;
+
+      int code = s;
+      for (int i = 0; i < sequence.length; i++) {
+        int outcome = code % numOutcomes;
+        code /= numOutcomes;
+
+        double[] probs = model.eval(cg.getContext(i, sequence, outcomes, null));
+        score += Math.log(probs[outcome]);
+        outcomes[i] = model.getOutcome(outcome);
+      }
+
+      bestScore = Math.max(bestScore, score);
+    }
+
+    return bestScore;
+  }
+
+  /**
+   * Tests that the best sequence is found where a small beam misses it.
+   */
+  public void testBestSequence() {
+    BeamSearch<String> beam = new BeamSearch<String>(1,
+        new FirstOrderContextGenerator(), new FixedDistributionModel());
+
+    ViterbiSearch<String> viterbi = new ViterbiSearch<String>(1,
+        new FirstOrderContextGenerator(), new FixedDistributionModel());
+
+    String[] tokens = new String[] {"1", "2"};
+
+    assertEquals(Arrays.asList("a", "a"), beam.bestSequence(tokens, null).getOutcomes());
+
+    Sequence sequence = viterbi.bestSequence(tokens, null);
+
+    assertEquals(Arrays.asList("b", "c"), sequence.getOutcomes());
+    assertTrue(Arrays.equals(new double[] {0.4, 0.9}, sequence.getProbs()));
+    assertEquals(Math.log(0.4) + Math.log(0.9), sequence.getScore(), 0.000001d);
+  }
+
+  /**
+   * Tests that the Viterbi search finds the same score as an exhaustive search.
+   */
+  public void testExactness() {
+    MaxentModel model = new FixedDistributionModel();
+    BeamSearchContextGenerator<String> cg = new FirstOrderContextGenerator();
+
+    ViterbiSearch<String> viterbi = new ViterbiSearch<String>(1, cg, model);
+
+    String[][] sequences = new String[][] {
+        {"1"},
+        {"2", "1"},
+        {"1", "2", "2", "1"},
+        {"2", "1", "1", "2", "1", "2"},
+        {"1", "1", "1", "1", "2", "2", "1"}
+    };
+
+    for (int si = 0; si < sequences.length; si++) {
+      Sequence sequence = viterbi.bestSequence(sequences[si], null);
+
+      assertEquals(sequences[si].length, sequence.getOutcomes().size());
+      assertEquals(exhaustiveBestScore(model, cg, sequences[si]),
+          sequence.getScore(), 0.000001d);
+    }
+  }
+
+  /**
+   * Tests that outcomes rejected by the {@link SequenceValidator}
+   * are never part of the returned sequence.
+   */
+  public void testSequenceValidator() {
+    SequenceValidator<String> noCAfterB = new SequenceValidator<String>() {
+      public boolean validSequence(int i, String[] inputSequence,
+          String[] outcomesSequence, String outcome) {
+        return !(i > 0 && "b".equals(outcomesSequence[i - 1]) && "c".equals(outcome));
+      }
+    };
+
+    ViterbiSearch<String> viterbi = new ViterbiSearch<String>(1,
+        new FirstOrderContextGenerator(), new FixedDistributionModel(), noCAfterB, 0);
+
+    Sequence sequence = viterbi.bestSequence(new String[] {"1", "2"}, null);
+
+    assertEquals(Arrays.asList("a", "a"), sequence.getOutcomes());
+  }
+
+  /**
+   * Tests that an empty input sequence results in an empty outcome sequence.
+   */
+  public void testEmptySequence() {
+    ViterbiSearch<String> viterbi = new ViterbiSearch<String>(1,
+        new FirstOrderContextGenerator(), new FixedDistributionModel());
+
+    assertEquals(0, viterbi.bestSequence(new String[0], null).getOutcomes().size());
+  }
+
+  /**
+   * Tests that a context generator without a declared history order is rejected.
+   */
+  public void testUnboundedContextGenerator() {
+    try {
+      new ViterbiSearch<String>(1, new IdentityContextGenerator(),
+          new FixedDistributionModel());
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Tests that more than one sequence is found with the beam search and
+   * the batch search returns the Viterbi result for every input sequence.
+   */
+  public void testBestSequences() {
+    ViterbiSearch<String> viterbi = new ViterbiSearch<String>(3,
+        new FirstOrderContextGenerator(), new FixedDistributionModel());
+
+    Sequence[] sequences = viterbi.bestSequences(3, new String[] {"1", "2"}, null);
+    assertEquals(3, sequences.length);
+    assertEquals(Arrays.asList("b", "c"), sequences[0].getOutcomes());
+
+    List<String[]> batch = new ArrayList<String[]>();
+    batch.add(new String[] {"1", "2"});
+    batch.add(new String[] {"2", "1", "2"});
+
+    List<Sequence[]> batchSequences = viterbi.bestSequences(1, batch, null);
+
+    for (int si = 0; si < batch.size(); si++) {
+      assertEquals(1, batchSequences.get(si).length);
+      assertEquals(viterbi.bestSequence(batch.get(si), null).getOutcomes(),
+          batchSequences.get(si)[0].getOutcomes());
+    }
+  }
+
+  /**
+   * Tests that the split contexts are evaluated like the String contexts.
+   */
+  public void testSplitContextGenerator() {
+    MaxentModel model = BeamSearchTest.createGISModel();
+
+    ViterbiSearch<String> viterbi = new ViterbiSearch<String>(1,
+        new SplitFirstOrderContextGenerator(), model);
+
+    // the contexts of this search are evaluated as strings
+    ViterbiSearch<String> stringViterbi = new ViterbiSearch<String>(1,
+        new FirstOrderContextGenerator(), model);
+
+    String[][] sequences = new String[][] {
+        {"1"},
+        {"2", "1"},
+        {"1", "2", "2", "1"},
+        {"2", "1", "1", "2", "1", "2"}
+    };
+
+    for (int si = 0; si < sequences.length; si++) {
+      Sequence expected = stringViterbi.bestSequence(sequences[si], null);
+      Sequence sequence = viterbi.bestSequence(sequences[si], null);
+
+      assertEquals(expected.getOutcomes(), sequence.getOutcomes());
+      assertEquals(expected.getScore(), sequence.getScore(), 0.000000001d);
+      assertEquals(exhaustiveBestScore(model, new FirstOrderContextGenerator(),
+          sequences[si]), sequence.getScore(), 0.000000001d);
+    }
+  }
+
+  /**
+   * Tests that the validator gets the outcomes before the position
+   * in an array of exactly that length.
+   */
+  public void testOutcomesHaveExactLength() {
+    SequenceValidator<String> validator = new SequenceValidator<String>() {
+      public boolean validSequence(int i, String[] inputSequence,
+          String[] outcomesSequence, String outcome) {
+        assertEquals(i, outcomesSequence.length);
+        return i == 0 || outcomesSequence[i - 1] != null;
+      }
+    };
+
+    ViterbiSearch<String> viterbi = new ViterbiSearch<String>(1,
+        new FirstOrderContextGenerator(), new FixedDistributionModel(), validator, 0);
+
+    Sequence sequence = viterbi.bestSequence(new String[] {"1", "2", "2", "1"}, null);
+
+    assertEquals(4, sequence.getOutcomes().size());
+  }
+}
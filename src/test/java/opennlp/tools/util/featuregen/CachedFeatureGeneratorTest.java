@@ -20,6 +20,7 @@ package opennlp.tools.util.featuregen;
 import java.util.ArrayList;
 import java.util.List;
 
+import opennlp.tools.util.CacheMetrics;
 import opennlp.tools.util.featuregen.AdaptiveFeatureGenerator;
 import opennlp.tools.util.featuregen.CachedFeatureGenerator;
 
@@ -71,8 +72,6 @@ public class CachedFeatureGeneratorTest extends TestCase {
 
     final String expectedToken = testSentence1[testIndex];
 
-    testSentence1[testIndex] = null;
-
     generator.createFeatures(features, testSentence1, testIndex, null);
 
     Assert.assertEquals(1, generator.getNumberOfCacheMisses());
@@ -132,12 +131,170 @@ public class CachedFeatureGeneratorTest extends TestCase {
     // check if features are really cached
     final String expectedToken = testSentence2[testIndex];
 
-    testSentence2[testIndex] = null;
-
     generator.createFeatures(features, testSentence2, testIndex, null);
 
+    Assert.assertEquals(2, generator.getNumberOfCacheMisses());
+    Assert.assertEquals(1, generator.getNumberOfCacheHits());
+
     Assert.assertTrue(features.contains(expectedToken));
 
     Assert.assertEquals(1, features.size());
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests that all features of a sentence with more than 100 tokens stay cached.
+   */
+  public void testCachingOfLongSentence() {
+    CachedFeatureGenerator generator = new CachedFeatureGenerator(identityGenerator);
+
+    String sentence[] = new String[250];
+    for (int i = 0; i < sentence.length; i++) {
+      sentence[i] = "t" + i;
+    }
+
+    for (int i = 0; i < sentence.length; i++) {
+      generator.createFeatures(features, sentence, i, null);
+    }
+
+    for (int i = 0; i < sentence.length; i++) {
+      generator.createFeatures(features, sentence, i, null);
+    }
+
+    CacheMetrics metrics = generator;
+
+    Assert.assertEquals(sentence.length, metrics.getNumberOfCacheMisses());
+    Assert.assertEquals(sentence.length, metrics.getNumberOfCacheHits());
+    Assert.assertEquals(0.5d, metrics.getHitRate(), 0d);
+  }
+
+  /**
+   * Tests that the cache is discarded after the adaptive data was updated.
+   */
+  public void testCacheClearAfterUpdate() {
+    CachedFeatureGenerator generator = new CachedFeatureGenerator(identityGenerator);
+
+    generator.createFeatures(features, testSentence1, 0, null);
+
+    generator.updateAdaptiveData(testSentence1, new String[testSentence1.length]);
+
+    testSentence1[0] = "x";
+
+    features.clear();
+    generator.createFeatures(features, testSentence1, 0, null);
+
+    Assert.assertEquals(2, generator.getNumberOfCacheMisses());
+    Assert.assertTrue(features.contains("x"));
+  }
+
+  /**
+   * Tests that a tokens array which is reused for the next sentence
+   * does not return the cached features of the previous sentence.
+   */
+  public void testReusedTokensArray() {
+    CachedFeatureGenerator generator = new CachedFeatureGenerator(identityGenerator);
+
+    String sentence[] = new String[] {"a1", "b1", "c1", "d1"};
+
+    for (int i = 0; i < sentence.length; i++) {
+      generator.createFeatures(features, sentence, i, null);
+    }
+
+    // the first token of the next sentence is the same
+    sentence[1] = "b2";
+    sentence[2] = "c2";
+    sentence[3] = "d2";
+
+    for (int i = 0; i < sentence.length; i++) {
+      features.clear();
+      generator.createFeatures(features, sentence, i, null);
+
+      Assert.assertEquals(1, features.size());
+      Assert.assertEquals(sentence[i], features.get(0));
+    }
+
+    Assert.assertEquals(8, generator.getNumberOfCacheMisses());
+    Assert.assertEquals(0, generator.getNumberOfCacheHits());
+  }
+
+  /**
+   * Tests that an update of the adaptive data discards the
+   * cached features of the other threads too.
+   */
+  public void testCacheClearOfOtherThreads() throws InterruptedException {
+    final CachedFeatureGenerator generator = new CachedFeatureGenerator(identityGenerator);
+
+    generator.createFeatures(features, testSentence1, 0, null);
+
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        generator.clearAdaptiveData();
+      }
+    };
+    thread.start();
+    thread.join();
+
+    generator.createFeatures(features, testSentence1, 0, null);
+
+    Assert.assertEquals(2, generator.getNumberOfCacheMisses());
+    Assert.assertEquals(0, generator.getNumberOfCacheHits());
+  }
+
+  /**
+   * Tests that threads which share one generator do not see the
+   * cached features of the other threads.
+   */
+  public void testSharedBetweenThreads() throws InterruptedException {
+    final CachedFeatureGenerator generator = new CachedFeatureGenerator(identityGenerator);
+
+    final int iterations = 1000;
+    final Throwable failures[] = new Throwable[2];
+
+    Thread threads[] = new Thread[2];
+
+    for (int ti = 0; ti < threads.length; ti++) {
+      final int threadIndex = ti;
+
+      threads[ti] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 0; i < iterations; i++) {
+              String sentence[] = new String[] {threadIndex + "a" + i, threadIndex + "b" + i};
+
+              for (int pass = 0; pass < 2; pass++) {
+                for (int wi = 0; wi < sentence.length; wi++) {
+                  List<String> threadFeatures = new ArrayList<String>();
+                  generator.createFeatures(threadFeatures, sentence, wi, null);
+
+                  Assert.assertEquals(1, threadFeatures.size());
+                  Assert.assertEquals(sentence[wi], threadFeatures.get(0));
+                }
+              }
+            }
+          }
+          catch (Throwable t) {
+            failures[threadIndex] = t;
+          }
+        }
+      };
+    }
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    for (Throwable failure : failures) {
+      if (failure != null) {
+        fail(failure.toString());
+      }
+    }
+
+    Assert.assertEquals(2 * iterations * 2, generator.getNumberOfCacheMisses());
+    Assert.assertEquals(2 * iterations * 2, generator.getNumberOfCacheHits());
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.featuregen;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Test for the {@link FastCharacterNgramFeatureGenerator} class.
+ */
+public class FastCharacterNgramFeatureGeneratorTest extends TestCase {
+
+  private static List<String> createFeatures(AdaptiveFeatureGenerator generator,
+      String token) {
+    List<String> features = new ArrayList<String>();
+    generator.createFeatures(features, new String[] {token}, 0, null);
+    return features;
+  }
+
+  /**
+   * Tests that the same features are generated as by the
+   * {@link CharacterNgramFeatureGenerator}.
+   */
+  public void testSameFeatures() {
+    AdaptiveFeatureGenerator expected = new CharacterNgramFeatureGenerator(2, 4);
+    AdaptiveFeatureGenerator actual = new FastCharacterNgramFeatureGenerator(2, 4);
+
+    String tokens[] = new String[] {"a", "ab", "Banana", "http://www.example.com",
+        "AAAAAAA"};
+
+    for (String token : tokens) {
+      List<String> features = createFeatures(actual, token);
+
+      assertEquals(new HashSet<String>(createFeatures(expected, token)),
+          new HashSet<String>(features));
+
+      // no duplicates
+      assertEquals(new HashSet<String>(features).size(), features.size());
+    }
+  }
+
+  public void testOrder() {
+    assertEquals("[ng=ab, ng=bc, ng=abc]", createFeatures(
+        new FastCharacterNgramFeatureGenerator(2, 3), "ABC").toString());
+  }
+
+  public void testMaxFeatures() {
+    List<String> features = createFeatures(
+        new FastCharacterNgramFeatureGenerator(2, 5, 3), "abcdefgh");
+
+    assertEquals("[ng=ab, ng=bc, ng=cd]", features.toString());
+  }
+
+  public void testHashedFeatures() {
+    AdaptiveFeatureGenerator generator = new FastCharacterNgramFeatureGenerator(2, 5,
+        Integer.MAX_VALUE, 16);
+
+    List<String> features = createFeatures(generator, "Banana");
+
+    assertEquals(features, createFeatures(generator, "banana"));
+
+    assertEquals("ng#" + ("ba".hashCode() & 0x7fffffff) % 16, features.get(0));
+
+    for (String feature : features) {
+      int id = Integer.parseInt(feature.substring(3));
+      assertTrue(id >= 0 && id < 16);
+    }
+  }
+
+  /**
+   * Tests that every bucket is added once, in the order of the ngrams,
+   * and that the bucket features are reused for the next token.
+   */
+  public void testHashedFeaturesAreDistinct() {
+    AdaptiveFeatureGenerator generator = new FastCharacterNgramFeatureGenerator(2, 3,
+        4, 3);
+
+    List<String> expected = new ArrayList<String>();
+    for (String ngram : new String[] {"ab", "ba", "ab", "ba", "aba", "bab", "aba"}) {
+      String feature = "ng#" + (ngram.hashCode() & 0x7fffffff) % 3;
+      if (!expected.contains(feature) && expected.size() < 4) {
+        expected.add(feature);
+      }
+    }
+
+    List<String> features = createFeatures(generator, "ababa");
+    assertEquals(expected, features);
+
+    List<String> nextFeatures = createFeatures(generator, "ababa");
+    for (int i = 0; i < features.size(); i++) {
+      assertSame(features.get(i), nextFeatures.get(i));
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreemnets.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.featuregen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import opennlp.tools.namefind.TokenNameFinder;
+import opennlp.tools.util.Span;
+
+/**
+ * Tests for the {@link InSpanGenerator} class.
+ */
+public class InSpanGeneratorTest extends TestCase {
+
+  private static final Span NAMES[] = new Span[] {new Span(1, 3), new Span(5, 6)};
+
+  private static final TokenNameFinder FINDER = new TokenNameFinder() {
+    public Span[] find(String tokens[]) {
+      return NAMES;
+    }
+  };
+
+  /**
+   * Tests that a token gets the features if a name contains it, the end
+   * index of a name is included like in {@link Span#contains(int)}.
+   */
+  public void testFeaturesAtSpanBoundary() {
+    String tokens[] = new String[] {"a", "b", "c", "d", "e", "f"};
+
+    InSpanGenerator generator = new InSpanGenerator("dict", FINDER);
+
+    for (int i = 0; i < tokens.length; i++) {
+      List<String> features = new ArrayList<String>();
+      generator.createFeatures(features, tokens, i, null);
+
+      boolean contained = false;
+      for (int ni = 0; ni < NAMES.length; ni++) {
+        contained |= NAMES[ni].contains(i);
+      }
+
+      List<String> expected = new ArrayList<String>();
+      if (contained) {
+        expected.add("dict:w=dic");
+        expected.add("dict:w=dic=" + tokens[i]);
+      }
+
+      assertEquals(expected, features);
+    }
+  }
+}
@@ -120,4 +120,94 @@ public class WindowFeatureGeneratorTest extends TestCase {
     Assert.assertTrue(features.contains(WindowFeatureGenerator.NEXT_PREFIX + "2" +
         testSentence[testTokenIndex + 2]));
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests that the sentence table mode generates the same features
+   * as the default mode.
+   */
+  public void testSentenceTableFeatures() {
+    AdaptiveFeatureGenerator windowFeatureGenerator = new WindowFeatureGenerator(
+        new IdentityFeatureGenerator(), 3, 2);
+    AdaptiveFeatureGenerator tableFeatureGenerator = new WindowFeatureGenerator(
+        new IdentityFeatureGenerator(), 3, 2, true);
+
+    for (int i = 0; i < testSentence.length; i++) {
+      List<String> tableFeatures = new ArrayList<String>();
+
+      features.clear();
+      windowFeatureGenerator.createFeatures(features, testSentence, i, null);
+      tableFeatureGenerator.createFeatures(tableFeatures, testSentence, i, null);
+
+      Assert.assertEquals(features, tableFeatures);
+    }
+  }
+
+  /**
+   * Tests that the sentence table mode calls the wrapped generator
+   * only once per token and discards the table after an update.
+   */
+  public void testSentenceTableReuse() {
+    final int calls[] = new int[1];
+
+    AdaptiveFeatureGenerator countingGenerator = new FeatureGeneratorAdapter() {
+      public void createFeatures(List<String> features, String[] tokens, int index,
+          String[] previousOutcomes) {
+        calls[0]++;
+        features.add(tokens[index]);
+      }
+    };
+
+    AdaptiveFeatureGenerator tableFeatureGenerator = new WindowFeatureGenerator(
+        countingGenerator, 2, 2, true);
+
+    String[] tokens = testSentence.clone();
+
+    for (int i = 0; i < tokens.length; i++) {
+      tableFeatureGenerator.createFeatures(features, tokens, i, null);
+      tableFeatureGenerator.createFeatures(features, tokens, i, null);
+    }
+
+    Assert.assertEquals(tokens.length, calls[0]);
+
+    tableFeatureGenerator.updateAdaptiveData(tokens, new String[tokens.length]);
+
+    tokens[0] = "x";
+
+    features.clear();
+    tableFeatureGenerator.createFeatures(features, tokens, 1, null);
+
+    Assert.assertTrue(features.contains(WindowFeatureGenerator.PREV_PREFIX + "1x"));
+  }
+
+  /**
+   * Tests that a tokens array which is reused for the next sentence
+   * does not get the features of the previous sentence.
+   */
+  public void testSentenceTableWithReusedTokens() {
+    AdaptiveFeatureGenerator windowFeatureGenerator = new WindowFeatureGenerator(
+        new IdentityFeatureGenerator(), 2, 2);
+    AdaptiveFeatureGenerator tableFeatureGenerator = new WindowFeatureGenerator(
+        new IdentityFeatureGenerator(), 2, 2, true);
+
+    String[] tokens = testSentence.clone();
+
+    for (int i = 0; i < tokens.length; i++) {
+      tableFeatureGenerator.createFeatures(features, tokens, i, null);
+    }
+
+    // the next sentence starts with the same token
+    for (int i = 1; i < tokens.length; i++) {
+      tokens[i] = "s2-" + i;
+    }
+
+    for (int i = 0; i < tokens.length; i++) {
+      List<String> tableFeatures = new ArrayList<String>();
+
+      features.clear();
+      windowFeatureGenerator.createFeatures(features, tokens, i, null);
+      tableFeatureGenerator.createFeatures(tableFeatures, tokens, i, null);
+
+      Assert.assertEquals(features, tableFeatures);
+    }
+  }
+}
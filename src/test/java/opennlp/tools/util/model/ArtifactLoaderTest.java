@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+import opennlp.tools.util.InvalidFormatException;
+
+/**
+ * Tests for the {@link ArtifactLoader} class.
+ */
+public class ArtifactLoaderTest extends TestCase {
+
+  private static Callable<Object> createTask(final Object artifact) {
+    return new Callable<Object>() {
+      public Object call() throws Exception {
+        if (artifact instanceof Exception) {
+          throw (Exception) artifact;
+        }
+
+        return artifact;
+      }
+    };
+  }
+
+  public void testCreateArtifacts() throws Exception {
+    Map<String, Callable<Object>> tasks = new LinkedHashMap<String, Callable<Object>>();
+
+    for (int i = 0; i < 10; i++) {
+      tasks.put("artifact" + i, createTask(Integer.valueOf(i)));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    try {
+      Map<String, Object> artifacts = ArtifactLoader.createArtifacts(tasks, executor);
+
+      assertEquals(10, artifacts.size());
+
+      // the artifacts are in the order of the tasks
+      Iterator<Map.Entry<String, Object>> it = artifacts.entrySet().iterator();
+      for (int i = 0; i < 10; i++) {
+        Map.Entry<String, Object> artifact = it.next();
+        assertEquals("artifact" + i, artifact.getKey());
+        assertEquals(Integer.valueOf(i), artifact.getValue());
+      }
+
+      assertEquals(artifacts, ArtifactLoader.createArtifacts(tasks, null));
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testFailingTask() throws Exception {
+    Map<String, Callable<Object>> tasks = new LinkedHashMap<String, Callable<Object>>();
+    tasks.put("valid", createTask("valid"));
+    tasks.put("invalid", createTask(new InvalidFormatException("invalid")));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    try {
+      ArtifactLoader.createArtifacts(tasks, executor);
+      fail();
+    }
+    catch (InvalidFormatException e) {
+      assertEquals("invalid", e.getMessage());
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+}
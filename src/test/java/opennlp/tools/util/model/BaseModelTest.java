@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.util.InvalidFormatException;
+import opennlp.tools.util.StringList;
+
+/**
+ * Tests for the lazy and the concurrent loading of the {@link BaseModel}.
+ */
+public class BaseModelTest extends TestCase {
+
+  private static final String FIRST_ENTRY = "first.dictionary";
+  private static final String SECOND_ENTRY = "second.dictionary";
+
+  private static class DictionaryModel extends BaseModel {
+
+    DictionaryModel(Dictionary first, Dictionary second) {
+      super("en");
+      artifactMap.put(FIRST_ENTRY, first);
+      artifactMap.put(SECOND_ENTRY, second);
+    }
+
+    DictionaryModel(InputStream in, boolean loadLazily) throws IOException,
+        InvalidFormatException {
+      super(in, loadLazily);
+    }
+
+    DictionaryModel(InputStream in, ExecutorService executor) throws IOException,
+        InvalidFormatException {
+      super(in, executor);
+    }
+
+    DictionaryModel(File file, boolean loadLazily) throws IOException,
+        InvalidFormatException {
+      super(file, loadLazily);
+    }
+
+    Dictionary getDictionary(String name) {
+      return (Dictionary) artifactMap.get(name);
+    }
+  }
+
+  private static Dictionary createDictionary(String... entries) {
+    Dictionary dictionary = new Dictionary();
+
+    for (String entry : entries) {
+      dictionary.put(new StringList(entry));
+    }
+
+    return dictionary;
+  }
+
+  private static DictionaryModel createModel() {
+    return new DictionaryModel(createDictionary("a", "b"), createDictionary("c"));
+  }
+
+  private static void assertLazyModel(DictionaryModel model) throws Exception {
+    assertTrue(model.isArtifactLoaded(BaseModel.MANIFEST_ENTRY));
+    assertFalse(model.isArtifactLoaded(FIRST_ENTRY));
+    assertFalse(model.isArtifactLoaded(SECOND_ENTRY));
+    assertFalse(model.getArtifactLoadTimes().containsKey(FIRST_ENTRY));
+
+    assertEquals(createDictionary("a", "b"), model.getDictionary(FIRST_ENTRY));
+    assertTrue(model.isArtifactLoaded(FIRST_ENTRY));
+    assertTrue(model.getArtifactLoadTimes().containsKey(FIRST_ENTRY));
+    assertSame(model.getDictionary(FIRST_ENTRY), model.getDictionary(FIRST_ENTRY));
+
+    model.loadArtifacts(SECOND_ENTRY);
+    assertTrue(model.isArtifactLoaded(SECOND_ENTRY));
+    assertEquals(createDictionary("c"), model.getDictionary(SECOND_ENTRY));
+  }
+
+  public void testLazyLoading() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    createModel().serialize(out);
+
+    DictionaryModel model = new DictionaryModel(
+        new ByteArrayInputStream(out.toByteArray()), true);
+
+    assertEquals(3, model.getArtifactNames().size());
+
+    assertLazyModel(model);
+
+    // a lazily loaded model can be serialized again
+    out = new ByteArrayOutputStream();
+    model.serialize(out);
+
+    model = new DictionaryModel(new ByteArrayInputStream(out.toByteArray()), false);
+    assertTrue(model.isArtifactLoaded(FIRST_ENTRY));
+    assertTrue(model.getArtifactLoadTimes().containsKey(FIRST_ENTRY));
+    assertEquals(createDictionary("c"), model.getDictionary(SECOND_ENTRY));
+  }
+
+  public void testLazyLoadingOfMappedPackage() throws Exception {
+    File file = File.createTempFile("model", ".bin");
+
+    try {
+      OutputStream out = new FileOutputStream(file);
+      createModel().serializeMapped(out);
+      out.close();
+
+      assertLazyModel(new DictionaryModel(file, true));
+    }
+    finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Tests that concurrent first accesses create the artifact only once.
+   */
+  public void testConcurrentLoading() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    createModel().serialize(out);
+
+    final DictionaryModel model = new DictionaryModel(
+        new ByteArrayInputStream(out.toByteArray()), true);
+
+    final Dictionary[] dictionaries = new Dictionary[8];
+
+    Thread[] threads = new Thread[dictionaries.length];
+
+    for (int i = 0; i < threads.length; i++) {
+      final int index = i;
+
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          dictionaries[index] = model.getDictionary(FIRST_ENTRY);
+        }
+      };
+
+      threads[i].start();
+    }
+
+    for (int i = 0; i < threads.length; i++) {
+      threads[i].join();
+    }
+
+    for (int i = 0; i < dictionaries.length; i++) {
+      assertSame(dictionaries[0], dictionaries[i]);
+    }
+  }
+
+  public void testConcurrentArtifactCreation() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    createModel().serialize(out);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    try {
+      DictionaryModel model = new DictionaryModel(
+          new ByteArrayInputStream(out.toByteArray()), executor);
+
+      assertTrue(model.isArtifactLoaded(FIRST_ENTRY));
+      assertEquals(3, model.getArtifactLoadTimes().size());
+      assertEquals(createDictionary("a", "b"), model.getDictionary(FIRST_ENTRY));
+      assertEquals(createDictionary("c"), model.getDictionary(SECOND_ENTRY));
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  public void testBinaryDictionaryArtifact() throws Exception {
+    DictionaryModel model = createModel();
+    model.artifactMap.put("third.bindictionary", createDictionary("d", "e f"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    model.serialize(out);
+
+    DictionaryModel recreated = new DictionaryModel(
+        new ByteArrayInputStream(out.toByteArray()), false);
+
+    assertEquals(createDictionary("a", "b"), recreated.getDictionary(FIRST_ENTRY));
+    assertEquals(createDictionary("d", "e f"),
+        recreated.getDictionary("third.bindictionary"));
+  }
+
+  public void testLoadUnknownArtifact() throws Exception {
+    try {
+      createModel().loadArtifacts("unknown.dictionary");
+      fail();
+    }
+    catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+}
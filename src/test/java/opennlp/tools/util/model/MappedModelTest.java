@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import opennlp.maxent.GISModel;
+import opennlp.model.AbstractModel;
+import opennlp.model.Context;
+import opennlp.perceptron.PerceptronModel;
+import opennlp.tools.util.InvalidFormatException;
+
+/**
+ * Tests for the {@link MappedModel} class.
+ */
+public class MappedModelTest extends TestCase {
+
+  private static final String[] PREDICATES = {"w=the", "w=dog", "n=-12", "default", "\u00e9t\u00e9"};
+
+  private static final String[] OUTCOMES = {"a", "b", "c"};
+
+  private static Context[] createParams() {
+    return new Context[] {
+        new Context(new int[] {0, 1}, new double[] {0.5, -0.2}),
+        new Context(new int[] {1}, new double[] {1.3}),
+        new Context(new int[] {0, 2}, new double[] {-0.7, 0.4}),
+        new Context(new int[] {2}, new double[] {2.1}),
+        new Context(new int[] {0, 1, 2}, new double[] {-1.5, -2.5, -0.5})
+    };
+  }
+
+  private static MappedModel map(AbstractModel model) throws IOException,
+      InvalidFormatException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MappedModel.write(model, out);
+
+    // the model must not depend on the position of the buffer
+    byte[] bytes = out.toByteArray();
+    ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 3);
+    buffer.position(3);
+    buffer.put(bytes);
+    buffer.position(3);
+
+    return new MappedModel(buffer);
+  }
+
+  private static void assertEqualEval(AbstractModel expected, AbstractModel actual) {
+
+    String[][] contexts = {
+        {"default", "w=dog", "unknown", "n=-12", "w=dog"},
+        {"w=the", "\u00e9t\u00e9"},
+        {"\u00e9t\u00e9"},
+        {"unknown"},
+        {}
+    };
+
+    float[] values = {0.5f, 2f, 1f, 3f, 0.25f};
+
+    assertEquals(expected.getNumOutcomes(), actual.getNumOutcomes());
+
+    for (int i = 0; i < expected.getNumOutcomes(); i++) {
+      assertEquals(expected.getOutcome(i), actual.getOutcome(i));
+    }
+
+    for (int i = 0; i < contexts.length; i++) {
+      float[] contextValues = new float[contexts[i].length];
+      System.arraycopy(values, 0, contextValues, 0, contextValues.length);
+
+      assertTrue(Arrays.equals(expected.eval(contexts[i]), actual.eval(contexts[i])));
+      assertTrue(Arrays.equals(expected.eval(contexts[i], contextValues),
+          actual.eval(contexts[i], contextValues)));
+    }
+  }
+
+  public void testGISModel() throws Exception {
+    AbstractModel model = new GISModel(createParams(), PREDICATES, OUTCOMES, 1, 0);
+
+    assertEqualEval(model, map(model));
+  }
+
+  public void testGISModelWithCorrection() throws Exception {
+    AbstractModel model = new GISModel(createParams(), PREDICATES, OUTCOMES, 3, 0.25);
+
+    assertEqualEval(model, map(model));
+  }
+
+  public void testPerceptronModel() throws Exception {
+    AbstractModel model = new PerceptronModel(createParams(), PREDICATES, OUTCOMES);
+
+    MappedModel mappedModel = map(model);
+
+    assertEquals(AbstractModel.ModelType.Perceptron, mappedModel.getModelType());
+    assertEqualEval(model, mappedModel);
+  }
+
+  public void testToModel() throws Exception {
+    AbstractModel model = new GISModel(createParams(), PREDICATES, OUTCOMES, 3, 0.25);
+
+    AbstractModel heapModel = map(model).toModel();
+
+    assertTrue(heapModel instanceof GISModel);
+    assertEqualEval(model, heapModel);
+
+    // a mapped model is written by copying its layout
+    MappedModel mappedModel = map(model);
+    assertEqualEval(model, map(mappedModel));
+  }
+
+  public void testInvalidModel() {
+    try {
+      new MappedModel(ByteBuffer.wrap(new byte[100]));
+      fail();
+    }
+    catch (InvalidFormatException e) {
+      // expected
+    }
+  }
+}